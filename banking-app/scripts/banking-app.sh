@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+#
+# Launcher for the Bank Management System.
+# Uses the AppCDS archive produced by "mvn package -Pappcds" when it exists, so the
+# core, sqlite-jdbc and slf4j classes are mapped from the archive instead of being
+# loaded and verified from the jars on every start. Falls back to a plain start otherwise.
+#
+# Usage: banking-app.sh [JVM system properties, e.g. -Dbank.storage.engine=memory]
+#
+set -euo pipefail
+
+APP_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$APP_DIR/target/banking-app-1.0.0.jar"
+ARCHIVE="$APP_DIR/target/banking-app.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+CDS_OPTS=()
+if [[ -f "$ARCHIVE" ]]; then
+    CDS_OPTS=(-XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto)
+fi
+
+exec "$JAVA" "${CDS_OPTS[@]}" "$@" -jar "$JAR"
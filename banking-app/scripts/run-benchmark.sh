@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+#
+# Runs one of the benchmarks under src/test/java. Benchmarks are main classes, not unit tests:
+# surefire does not pick them up, so this script compiles the module's tests and runs the class
+# in its own JVM on the test classpath (exec:java would run the mainClass configured in the POM).
+# Arguments after the class name are passed to its main method; each benchmark's header lists its defaults.
+#
+# Usage: run-benchmark.sh <module> <main class> [benchmark args...]
+#   e.g. run-benchmark.sh banking.core com.bank.service.TimingWheelBenchmark 1000000 5
+#
+set -euo pipefail
+
+if [[ $# -lt 2 ]]; then
+    echo "Usage: $0 <module> <main class> [benchmark args...]" >&2
+    exit 1
+fi
+
+MODULE="$1"
+MAIN_CLASS="$2"
+shift 2
+ROOT_DIR="$(cd "$(dirname "$0")/../.." && pwd)"
+TARGET="$ROOT_DIR/$MODULE/target"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+cd "$ROOT_DIR"
+mvn -q -pl "$MODULE" test-compile dependency:build-classpath \
+    -Dmdep.includeScope=test -Dmdep.outputFile="$TARGET/benchmark.classpath"
+"$JAVA" -cp "$TARGET/test-classes:$TARGET/classes:$(cat "$TARGET/benchmark.classpath")" "$MAIN_CLASS" "$@"
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: cold start with and without the AppCDS archive.
+# Each run lists the customers (the first operation) and exits. Reported per mode (median of N runs):
+#   wall      - process start to exit after the first operation, measured by this script
+#   ready     - JVM uptime when the menu became ready (from the startup report)
+#
+# Build the archive first: mvn -pl banking-app -am package -Pappcds -DskipTests
+# Usage: startup-benchmark.sh [runs, default 10]
+#
+set -euo pipefail
+
+RUNS="${1:-10}"
+APP_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$APP_DIR/target/banking-app-1.0.0.jar"
+ARCHIVE="$APP_DIR/target/banking-app.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [[ ! -f "$ARCHIVE" ]]; then
+    echo "No archive at $ARCHIVE - run: mvn -pl banking-app -am package -Pappcds -DskipTests" >&2
+    exit 1
+fi
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+run_mode() {
+    local label="$1"; shift
+    local walls=() readies=()
+    for ((i = 0; i < RUNS; i++)); do
+        local start end output
+        start=$(date +%s%N)
+        output=$(printf '2\n13\n' | "$JAVA" "$@" -jar "$JAR")
+        end=$(date +%s%N)
+        walls+=($(( (end - start) / 1000000 )))
+        readies+=("$(grep -o 'JVM uptime [0-9]*' <<< "$output" | grep -o '[0-9]*$')")
+    done
+    printf '%-16s wall %5s ms   ready %5s ms\n' "$label" \
+        "$(printf '%s\n' "${walls[@]}" | median)" "$(printf '%s\n' "${readies[@]}" | median)"
+}
+
+echo "Median of $RUNS runs"
+run_mode "default CDS" -Xshare:auto
+run_mode "AppCDS archive" -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto
@@ -0,0 +1,19 @@
+#!/usr/bin/env bash
+#
+# Training run for the AppCDS archive (called by the "appcds" Maven profile).
+# Starts the application once, lists customers and accounts and exits, then writes every
+# application and library class loaded on the way into the archive.
+#
+# Usage: train-cds.sh <banking-app jar> <archive file>
+#
+set -euo pipefail
+
+JAR="$1"
+ARCHIVE="$2"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+rm -f "$ARCHIVE"
+# 2 = View All Customers, 8 = List Accounts, 13 = Exit
+printf '2\n8\n13\n' | "$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" > /dev/null
+
+echo "AppCDS archive written to $ARCHIVE ($(du -h "$ARCHIVE" | cut -f1))"
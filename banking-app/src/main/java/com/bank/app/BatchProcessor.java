@@ -0,0 +1,369 @@
+/**
+ * Non-interactive batch mode: reads a compact line protocol and pipelines the commands into BankService.
+ *
+ * Protocol (one command per line, whitespace separated, "double quotes" for values with spaces,
+ * blank lines and lines starting with '#' are ignored):
+ *
+ *   CREATE_CUSTOMER <id> <name> <email> <phone>
+ *   CREATE_ACCOUNT  <accountId> <customerId> <SAVINGS|CURRENT> [initialBalance]
+ *   DEPOSIT         <accountId> <amount>
+ *   WITHDRAW        <accountId> <amount>
+ *   TRANSFER        <fromAccountId> <toAccountId> <amount>
+ *   BALANCE         <accountId>
+ *
+ * Commands are spread over a fixed number of lanes by account ID; each lane is a single thread, so
+ * commands on the same account run in input order while different accounts run in parallel.
+ * Commands that span lanes (CREATE_* and transfers between lanes) act as barriers: they wait for
+ * everything submitted before them and run alone, so the outcome equals a serial run.
+ * Results are printed one line per command, in input order, as "<line> OK [value]" or
+ * "<line> ERROR <message>", and flushed once per batch.
+ * Implements FR-05, FR-06, FR-07 and FR-14 for batch input.
+ */
+package com.bank.app;
+
+import com.bank.service.BankService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchProcessor
+{
+	/* Default number of lanes and commands per batch */
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /* Service the commands are executed against */
+    private final BankService bankService;
+    /* Number of single-threaded lanes */
+    private final int parallelism;
+    /* Commands read, submitted and flushed together; also bounds the results kept in memory */
+    private final int batchSize;
+
+    /**
+     * Constructs a batch processor.
+     * @param bankService The service to execute commands against
+     * @param parallelism Number of lanes executing commands concurrently (at least 1)
+     * @param batchSize   Number of commands per batch (at least 1)
+     */
+    public BatchProcessor(BankService bankService, int parallelism, int batchSize)
+    {
+        if (parallelism < 1 || batchSize < 1)
+        {
+            throw new IllegalArgumentException("Parallelism and batch size must be at least 1.");
+        }
+        this.bankService = bankService;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs all commands from the input and prints one result line per command in input order.
+     * @param in  The command source
+     * @param out The destination for result lines
+     * @return Summary of the run
+     * @throws IOException if the input cannot be read
+     */
+    public BatchSummary run(BufferedReader in, PrintStream out) throws IOException
+    {
+        long start = System.nanoTime();
+        ExecutorService[] lanes = new ExecutorService[parallelism];
+        for (int i = 0; i < parallelism; i++)
+        {
+            lanes[i] = Executors.newSingleThreadExecutor();
+        }
+
+        /* Results not printed yet, oldest first */
+        Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        long[] counts = new long[2];			/* [0] = succeeded, [1] = failed */
+        try
+        {
+            List<Command> batch = new ArrayList<>(batchSize);
+            int lineNumber = 0;
+            String line;
+            while ((line = in.readLine()) != null)
+            {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#"))
+                {
+                    continue;
+                }
+                batch.add(new Command(lineNumber, trimmed));
+                if (batch.size() == batchSize)
+                {
+                    submit(batch, lanes, pending);
+                    batch.clear();
+                    /* Keep at most one batch in flight behind the one being printed */
+                    print(pending, batchSize, out, counts);
+                }
+            }
+            submit(batch, lanes, pending);
+            print(pending, 0, out, counts);
+        }
+        finally
+        {
+            for (ExecutorService lane : lanes)
+            {
+                lane.shutdown();
+            }
+        }
+        return new BatchSummary(counts[0], counts[1], System.nanoTime() - start);
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Submits one batch to the lanes. Barrier commands wait for everything submitted before them.
+     */
+    private void submit(List<Command> batch, ExecutorService[] lanes, Deque<CompletableFuture<String>> pending)
+    {
+        for (Command command : batch)
+        {
+            int lane = command.lane(parallelism);
+            if (lane < 0)
+            {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+                pending.add(CompletableFuture.completedFuture(execute(command)));
+            }
+            else
+            {
+                pending.add(CompletableFuture.supplyAsync(() -> execute(command), lanes[lane]));
+            }
+        }
+    }
+
+    /**
+     * Prints results in input order until at most "keep" results are left pending.
+     */
+    private static void print(Deque<CompletableFuture<String>> pending, int keep, PrintStream out, long[] counts)
+    {
+        while (pending.size() > keep)
+        {
+            String result;
+            try
+            {
+                result = pending.poll().get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Batch interrupted", e);
+            }
+            catch (ExecutionException e)
+            {
+                result = "? ERROR " + e.getCause().getMessage();
+            }
+            counts[result.contains(" ERROR ") ? 1 : 0]++;
+            out.println(result);
+        }
+        out.flush();
+    }
+
+    /**
+     * Executes one command and formats its result line. Never throws.
+     */
+    private String execute(Command command)
+    {
+        try
+        {
+            String[] args = command.arguments;
+            String value = null;
+            switch (command.operation)
+            {
+                case "CREATE_CUSTOMER":
+                    expectArguments(args, 5, 5);
+                    bankService.createCustomer(args[1], args[2], args[3], args[4]);
+                    break;
+                case "CREATE_ACCOUNT":
+                    expectArguments(args, 4, 5);
+                    bankService.createAccount(args[1], args[2], args[3], args.length == 5 ? parseAmount(args[4]) : 0.0);
+                    break;
+                case "DEPOSIT":
+                    expectArguments(args, 3, 3);
+                    bankService.deposit(args[1], parseAmount(args[2]));
+                    break;
+                case "WITHDRAW":
+                    expectArguments(args, 3, 3);
+                    bankService.withdraw(args[1], parseAmount(args[2]));
+                    break;
+                case "TRANSFER":
+                    expectArguments(args, 4, 4);
+                    bankService.transfer(args[1], args[2], parseAmount(args[3]));
+                    break;
+                case "BALANCE":
+                    expectArguments(args, 2, 2);
+                    value = String.format(Locale.ROOT, "%.2f", bankService.getAccountBalance(args[1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command.operation);
+            }
+            return command.lineNumber + " OK" + (value == null ? "" : " " + value);
+        }
+        catch (Exception e)
+        {
+            return command.lineNumber + " ERROR " + e.getMessage();
+        }
+    }
+
+    private static void expectArguments(String[] args, int min, int max)
+    {
+        if (args.length < min || args.length > max)
+        {
+            throw new IllegalArgumentException("Wrong number of arguments for " + args[0] + ".");
+        }
+    }
+
+    private static double parseAmount(String value)
+    {
+        try
+        {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    /**
+     * Splits a line on whitespace; double quotes group words that contain spaces.
+     */
+    static String[] tokenize(String line)
+    {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (c == '"')
+            {
+                quoted = !quoted;
+                inToken = true;
+            }
+            else if (Character.isWhitespace(c) && !quoted)
+            {
+                if (inToken)
+                {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            }
+            else
+            {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken)
+        {
+            tokens.add(current.toString());
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /*
+     * One parsed command line.
+     */
+    private static final class Command
+    {
+        private final int lineNumber;
+        private final String[] arguments;
+        private final String operation;
+
+        Command(int lineNumber, String line)
+        {
+            this.lineNumber = lineNumber;
+            this.arguments = tokenize(line);
+            this.operation = arguments[0].toUpperCase(Locale.ROOT);
+        }
+
+        /**
+         * Returns the lane for this command, or -1 if it must run as a barrier.
+         */
+        int lane(int laneCount)
+        {
+            switch (operation)
+            {
+                case "DEPOSIT":
+                case "WITHDRAW":
+                case "BALANCE":
+                    return arguments.length > 1 ? laneOf(arguments[1], laneCount) : 0;
+                case "TRANSFER":
+                    if (arguments.length > 2 && laneOf(arguments[1], laneCount) == laneOf(arguments[2], laneCount))
+                    {
+                        return laneOf(arguments[1], laneCount);
+                    }
+                    return -1;
+                default:
+                    return -1;
+            }
+        }
+
+        private static int laneOf(String accountId, int laneCount)
+        {
+            return Math.floorMod(accountId.hashCode(), laneCount);
+        }
+    }
+
+    /*
+     * Outcome of a batch run.
+     */
+    public static final class BatchSummary
+    {
+        private final long succeeded;
+        private final long failed;
+        private final long elapsedNanos;
+
+        BatchSummary(long succeeded, long failed, long elapsedNanos)
+        {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /* Getters APIs */
+        public long getSucceeded()
+        {
+            return succeeded;
+        }
+
+        public long getFailed()
+        {
+            return failed;
+        }
+
+        public long getElapsedNanos()
+        {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the overall throughput.
+         * @return Commands per second
+         */
+        public double getCommandsPerSecond()
+        {
+            return elapsedNanos == 0 ? 0 : (succeeded + failed) / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Processed %d commands (%d ok, %d failed) in %.1f ms: %.0f commands/s",
+                succeeded + failed, succeeded, failed, elapsedNanos / 1e6, getCommandsPerSecond());
+        }
+    }
+}
@@ -9,10 +9,54 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bank.repository.AccountRepository;
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.DatabaseSchema;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.InMemorySnapshotter;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.LedgerAccountRepository;
+import com.bank.repository.ShardedAccountRepository;
+import com.bank.repository.TransactionArchive;
+import com.bank.repository.TransactionLedger;
+import com.bank.service.BankService;
+import com.bank.service.JournaledBankService;
 
 public class DatabaseConfig 
 {
+	/* System property used to select the storage engine at startup (see StorageEngine) */
+    public static final String STORAGE_ENGINE_PROPERTY = "bank.storage.engine";
+    /* System property with the seconds between snapshots of the MEMORY and WAL engines (0 disables) */
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "bank.snapshot.interval";
+    /* System property with the number of pooled connections used by the JDBC-backed engines */
+    public static final String POOL_SIZE_PROPERTY = "bank.pool.size";
+    /* File name of the binary transaction ledger used by the LEDGER engine */
+    private static final String LEDGER_FILE = "transactions.ledger";
+    /* Folder of the archived transaction records of the JDBC engine (created on the first archival run) */
+    private static final String ARCHIVE_FOLDER = "transaction-archive";
+    /* File name of the snapshot used by the MEMORY engine */
+    private static final String SNAPSHOT_FILE = "bank-memory.snapshot";
+    /* System property that switches the MEMORY engine to lock-free (CAS, cent-precision) account balances */
+    public static final String LOCK_FREE_BALANCE_PROPERTY = "bank.memory.lockfree";
+    /* System property with the number of shard databases of the SHARDED engine */
+    public static final String SHARD_COUNT_PROPERTY = "bank.shards";
+    /* Folder, directory file and shard file names of the SHARDED engine */
+    private static final String SHARD_FOLDER = "bank-shards";
+    private static final String SHARD_DIRECTORY_FILE = "directory.db";
+    private static final String SHARD_FILE_PATTERN = "shard-%d.db";
+
+	/* Directory holding the database file and any engine-specific data files */
+    private static final Path DATA_DIR;
 	/* SQLite database URL - resolved dynamically to support both runtime and Maven test execution */
     private static final String DB_URL;
 
@@ -27,12 +71,24 @@ public class DatabaseConfig
         }
 
         /* Construct absolute path to the database file */
-        DB_URL = "jdbc:sqlite:" + Paths.get(userDir, "banking-app", "src", "main", "resources", "bank-system.db")
-                                       .toAbsolutePath().toString();
+        DATA_DIR = Paths.get(userDir, "banking-app", "src", "main", "resources").toAbsolutePath();
+        DB_URL = "jdbc:sqlite:" + DATA_DIR.resolve("bank-system.db").toString();
     }
 	
     /* Singleton database connection instance */
     private static Connection connection;
+    /* Connection pool shared by the JDBC repositories, null until openConnectionPool() is called */
+    private static volatile ConnectionPool connectionPool;
+    /* Transaction ledger opened by the LEDGER engine, null otherwise */
+    private static TransactionLedger ledger;
+    /* Repositories and snapshotter of the MEMORY engine, null otherwise */
+    private static InMemoryCustomerRepository memoryCustomers;
+    private static InMemoryAccountRepository memoryAccounts;
+    private static InMemorySnapshotter snapshotter;
+    /* Journaled service of the WAL engine, null otherwise */
+    private static JournaledBankService journaledService;
+    /* Account repository (and owner of all pools) of the SHARDED engine, null otherwise */
+    private static ShardedAccountRepository shardedAccounts;
 
     /**
      * Returns the singleton database connection instance.
@@ -51,7 +107,8 @@ public class DatabaseConfig
     
     /**
      * Initializes the database by creating required tables if they don't exist.
-     * Creates tables for customers, accounts, and transactions with proper relationships.
+     * Creates tables for customers, accounts, transactions, balance checkpoints, idempotency keys, job checkpoints and scheduled transfers
+     * with proper relationships.
      * Implements FR-12: Initialize Database and FR-13: Load Data.
      * @throws SQLException if a database access error occurs
      */
@@ -60,35 +117,73 @@ public class DatabaseConfig
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) 
         {
-            /* Create Customers table */
-            stmt.execute("CREATE TABLE IF NOT EXISTS customers (" +
-                    "id TEXT PRIMARY KEY, " +
-                    "name TEXT NOT NULL, " +
-                    "email TEXT NOT NULL, " +
-                    "phone TEXT NOT NULL)");
-
-            /* Create Accounts table */
-            stmt.execute("CREATE TABLE IF NOT EXISTS accounts (" +
-                    "id TEXT PRIMARY KEY, " +
-                    "customer_id TEXT NOT NULL, " +
-                    "type TEXT NOT NULL, " +
-                    "balance REAL NOT NULL, " +
-                    "FOREIGN KEY(customer_id) REFERENCES customers(id))");
-
-            /* Create Transactions table */
-            stmt.execute("CREATE TABLE IF NOT EXISTS transactions (" +
-                    "id TEXT PRIMARY KEY, " +
-                    "account_id TEXT NOT NULL, " +
-                    "type TEXT NOT NULL, " +
-                    "amount REAL NOT NULL, " +
-                    "timestamp TEXT NOT NULL, " +
-                    "description TEXT, " +
-                    "FOREIGN KEY(account_id) REFERENCES accounts(id))");
-
+            DatabaseSchema.createCustomerTables(stmt);
+            DatabaseSchema.createAccountTables(stmt);
             System.out.println("Database initialized successfully!");
         }
     }
 
+    /**
+     * Creates the database files of the SHARDED engine and opens a pool per file.
+     * The directory database holds customers, idempotency keys, the shard count and the intent log
+     * of cross-shard transactions; every shard database holds its accounts, their transactions and
+     * the markers of the cross-shard transactions it has applied; archived records go to a folder per shard
+     * below "transaction-archive". Logged cross-shard transactions
+     * that did not reach every shard (e.g. after a crash) are completed before the repository is returned.
+     * @param directory  Folder for the database files (created if missing)
+     * @param shardCount Number of shard databases
+     * @param poolSize   Number of pooled connections per database
+     * @return The sharded account repository; it owns the pools, close() releases them
+     * @throws SQLException if a database cannot be created or opened
+     * @throws IOException if the folder cannot be created
+     * @throws IllegalArgumentException if the shard count is not positive or differs from the one the files were created with
+     */
+    public static ShardedAccountRepository openShards(Path directory, int shardCount, int poolSize) throws SQLException, IOException 
+    {
+        if (shardCount < 1) 
+        {
+            throw new IllegalArgumentException("Shard count must be positive.");
+        }
+        Files.createDirectories(directory);
+        String directoryUrl = "jdbc:sqlite:" + directory.resolve(SHARD_DIRECTORY_FILE);
+        try (Connection conn = DriverManager.getConnection(directoryUrl);
+             Statement stmt = conn.createStatement()) 
+        {
+            /* Write-ahead logging (persistent per file): readers, e.g. scatter-gather queries, never block a shard's writer */
+            stmt.execute("PRAGMA journal_mode=WAL");
+            DatabaseSchema.createShardDirectoryTables(stmt);
+        }
+
+        List<ConnectionPool> shardPools = new ArrayList<>(shardCount);
+        try 
+        {
+            for (int i = 0; i < shardCount; i++) 
+            {
+                String shardUrl = "jdbc:sqlite:" + directory.resolve(String.format(SHARD_FILE_PATTERN, i));
+                try (Connection conn = DriverManager.getConnection(shardUrl);
+                     Statement stmt = conn.createStatement()) 
+                {
+                    stmt.execute("PRAGMA journal_mode=WAL");
+                    DatabaseSchema.createShardTables(stmt);
+                }
+                shardPools.add(new ConnectionPool(shardUrl, poolSize));
+            }
+            ShardedAccountRepository repository = new ShardedAccountRepository(new ConnectionPool(directoryUrl, poolSize), shardPools,
+                directory.resolve(ARCHIVE_FOLDER));
+            int recovered = repository.recover();
+            if (recovered > 0) 
+            {
+                System.out.println("Completed " + recovered + " logged cross-shard transactions");
+            }
+            return repository;
+        } 
+        catch (SQLException | RuntimeException e) 
+        {
+            shardPools.forEach(ConnectionPool::close);
+            throw e;
+        }
+    }
+
     /**
      * Closes the database connection if it's open.
      * Implements FR-15: Graceful Shutdown.
@@ -101,4 +196,183 @@ public class DatabaseConfig
             connection.close();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Opens the connection pool used by repositories created afterwards.
+     * The pool size comes from the "bank.pool.size" system property (default 4).
+     * @return The open connection pool
+     * @throws SQLException if a connection cannot be opened
+     */
+    public static synchronized ConnectionPool openConnectionPool() throws SQLException 
+    {
+        if (connectionPool == null) 
+        {
+            connectionPool = new ConnectionPool(DB_URL, Integer.getInteger(POOL_SIZE_PROPERTY, 4));
+        }
+        return connectionPool;
+    }
+
+    /**
+     * Returns the storage engine selected through the "bank.storage.engine" system property.
+     * @return The selected engine, JDBC when the property is not set
+     * @throws IllegalArgumentException if the property names an unknown engine
+     */
+    public static StorageEngine getStorageEngine() 
+    {
+        return StorageEngine.fromKey(System.getProperty(STORAGE_ENGINE_PROPERTY, StorageEngine.JDBC.getKey()));
+    }
+
+    /**
+     * Creates the BankService for the given storage engine.
+     * The WAL engine recovers its state from the latest checkpoint and the write-ahead log;
+     * every other engine gets a plain BankService over the engine's repositories.
+     * @param engine The selected storage engine
+     * @return The bank service
+     * @throws IOException if the engine's data files cannot be opened or recovered
+     */
+    public static BankService createBankService(StorageEngine engine) throws IOException 
+    {
+        if (engine == StorageEngine.WAL) 
+        {
+            long start = System.nanoTime();
+            journaledService = JournaledBankService.open(DATA_DIR);
+            System.out.printf("Recovered %d log entries in %d ms%n",
+                journaledService.getReplayedEntries(), (System.nanoTime() - start) / 1_000_000);
+            journaledService.startCheckpoints(Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, 60));
+            return journaledService;
+        }
+        return new BankService(createCustomerRepository(engine), createAccountRepository(engine));
+    }
+
+    /**
+     * Creates the customer repository for the given storage engine.
+     * @param engine The selected storage engine
+     * @return The customer repository
+     * @throws IOException if the engine's data files cannot be opened
+     */
+    public static CustomerRepository createCustomerRepository(StorageEngine engine) throws IOException 
+    {
+        switch (engine) 
+        {
+            case MEMORY:
+                openMemoryStore();
+                return memoryCustomers;
+            case SHARDED:
+                return new JdbcCustomerRepository(openShardedStore().getDirectoryPool());
+            case JDBC:
+            case LEDGER:
+            default:
+                return new JdbcCustomerRepository(connectionPool);
+        }
+    }
+
+    /**
+     * Creates the account repository for the given storage engine.
+     * The LEDGER engine opens the binary transaction ledger next to the database file;
+     * the SHARDED engine opens its directory and shard databases in a folder next to it;
+     * the JDBC engine archives old records into a folder next to the database file.
+     * @param engine The selected storage engine
+     * @return The account repository
+     * @throws IOException if the ledger files cannot be opened
+     */
+    public static AccountRepository createAccountRepository(StorageEngine engine) throws IOException 
+    {
+        switch (engine) 
+        {
+            case LEDGER:
+                ledger = new TransactionLedger(DATA_DIR.resolve(LEDGER_FILE));
+                return new LedgerAccountRepository(ledger, connectionPool);
+            case MEMORY:
+                openMemoryStore();
+                return memoryAccounts;
+            case SHARDED:
+                return openShardedStore();
+            case JDBC:
+            default:
+                return new JdbcAccountRepository(connectionPool, new TransactionArchive(DATA_DIR.resolve(ARCHIVE_FOLDER)));
+        }
+    }
+
+    /**
+     * Flushes and closes engine-specific storage (e.g. the transaction ledger) and the connection pool.
+     * Implements FR-15: Graceful Shutdown.
+     * @throws IOException if closing fails
+     */
+    public static void closeStorage() throws IOException 
+    {
+        if (ledger != null) 
+        {
+            ledger.close();
+            ledger = null;
+        }
+        if (snapshotter != null) 
+        {
+            snapshotter.close();
+            snapshotter = null;
+            memoryCustomers = null;
+            memoryAccounts = null;
+        }
+        if (journaledService != null) 
+        {
+            journaledService.close();
+            journaledService = null;
+        }
+        synchronized (DatabaseConfig.class) 
+        {
+            if (shardedAccounts != null) 
+            {
+                shardedAccounts.close();
+                shardedAccounts = null;
+            }
+        }
+        synchronized (DatabaseConfig.class) 
+        {
+            if (connectionPool != null) 
+            {
+                connectionPool.close();
+                connectionPool = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the MEMORY engine repositories once, restores the latest snapshot
+     * and starts periodic snapshotting. Both repositories share one snapshot file.
+     * @throws IOException if an existing snapshot cannot be read
+     */
+    private static synchronized void openMemoryStore() throws IOException 
+    {
+        if (snapshotter != null) 
+        {
+            return;
+        }
+        memoryCustomers = new InMemoryCustomerRepository();
+        memoryAccounts = new InMemoryAccountRepository(Boolean.getBoolean(LOCK_FREE_BALANCE_PROPERTY));
+        snapshotter = new InMemorySnapshotter(memoryCustomers, memoryAccounts, DATA_DIR.resolve(SNAPSHOT_FILE));
+        snapshotter.restore();
+        snapshotter.start(Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, 60));
+    }
+
+    /**
+     * Opens the SHARDED engine's databases once; the customer and account repositories share them.
+     * The shard count comes from the "bank.shards" system property (default 4).
+     * @return The sharded account repository
+     * @throws IOException if the databases cannot be created or opened
+     */
+    private static synchronized ShardedAccountRepository openShardedStore() throws IOException 
+    {
+        if (shardedAccounts == null) 
+        {
+            try 
+            {
+                shardedAccounts = openShards(DATA_DIR.resolve(SHARD_FOLDER), Integer.getInteger(SHARD_COUNT_PROPERTY, 4),
+                    Integer.getInteger(POOL_SIZE_PROPERTY, 4));
+            } 
+            catch (SQLException e) 
+            {
+                throw new IOException("Unable to open the shard databases: " + e.getMessage(), e);
+            }
+        }
+        return shardedAccounts;
+    }
+}
@@ -9,21 +9,33 @@ package com.bank.app;
 import com.bank.model.Customer;
 
 import com.bank.model.Account;
+import com.bank.model.Identifiable;
 import com.bank.app.DatabaseConfig;
 import com.bank.app.MenuChoice;
 import com.bank.app.ReportChoice;
 
 
-import com.bank.repository.CustomerRepository;
-import com.bank.repository.AccountRepository;
-import com.bank.repository.JdbcCustomerRepository;
-import com.bank.repository.JdbcAccountRepository;
+import com.bank.http.BankHttpServer;
 import com.bank.service.BankService;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
 import java.lang.Thread;
 import java.lang.InterruptedException;
 
@@ -35,6 +47,8 @@ public class Main
     private static BankService bankService;
     /* Create scanner and initilize it */
     private static Scanner scanner;
+    /* Number of customers or accounts printed per page by the console listings */
+    static final int LIST_PAGE_SIZE = 20;
 
     /*
      * Package-private setters used only by unit tests.
@@ -54,8 +68,10 @@ public class Main
     /**
      * Entry point of the application.
      * Initializes database, repositories, and services.
-     * Starts the main menu loop and handles graceful shutdown.
-     * @param args Command-line arguments (not used)
+     * Starts the main menu loop (or batch mode) and handles graceful shutdown.
+     * @param args Command-line arguments: "--batch [file|-]" runs the commands of a file (or stdin)
+     *             instead of the menu, tuned by "--parallelism N" and "--batch-size N";
+     *             "--http PORT [--max-body BYTES]" serves the HTTP API instead of the menu
      */
     public static void main(String[] args) 
     {
@@ -63,18 +79,32 @@ public class Main
     	/* ----------------  FR-12 & FR-13: Initialize Database and Load Data  ---------------- */
     	try 
         {
-    	    /* Load SQLite JDBC driver explicitly to ensure availability in exec-maven-plugin classloader */
-    	    Class.forName("org.sqlite.JDBC");
+            LaunchOptions options = LaunchOptions.parse(args);
 
-            /* Initialize database */
-            DatabaseConfig.initializeDatabase();
+            /* Run driver loading, schema checks, pool creation and warm-up concurrently */
+            StorageEngine engine = DatabaseConfig.getStorageEngine();
+            StartupSequencer startup = new StartupSequencer().start(engine, Boolean.getBoolean(StartupSequencer.WARMUP_PROPERTY));
 
-            /* Load repositories from database */
-            CustomerRepository customerRepository = new JdbcCustomerRepository();
-            AccountRepository accountRepository = new JdbcAccountRepository();
+            /* Initialize services on the repositories of the selected storage engine */
+            bankService = startup.awaitReady();
+            /* In batch mode stdout carries only result lines */
+            PrintStream info = options.batchSource == null ? System.out : System.err;
+            info.println("Storage engine: " + engine.getDescription());
+            info.println(startup.formatReport());
+
+            if (options.batchSource != null) 
+            {
+                runBatch(options);
+                DatabaseConfig.closeConnection();
+                DatabaseConfig.closeStorage();
+                return;
+            }
+            if (options.httpPort >= 0) 
+            {
+                runHttpServer(options);
+                return;
+            }
 
-            /* Initialize services */
-            bankService = new BankService(customerRepository, accountRepository);
             /* Initialize scanner */
             scanner = new Scanner(System.in);
 
@@ -90,6 +120,7 @@ public class Main
             scanner.close();
             /* ----------------  FR-15: Graceful Shutdown  ---------------- */
             DatabaseConfig.closeConnection();
+            DatabaseConfig.closeStorage();
             System.out.println("Thank you for using Bank Management System!");
 	    } 
     	catch (ClassNotFoundException e)
@@ -100,8 +131,126 @@ public class Main
 	    {
 	        System.err.println("Database error: " + e.getMessage());
 	    }
+    	catch (IOException e) 
+	    {
+	        System.err.println("Storage error: " + e.getMessage());
+	    }
+    	catch (IllegalArgumentException e) 
+	    {
+	        System.err.println("Invalid arguments: " + e.getMessage());
+	    }
     }
     
+    /* ----------------  Command-line modes  ---------------- */
+    /*
+     * Parsed command-line options. Without options the interactive menu runs.
+     */
+    static final class LaunchOptions 
+    {
+        /* Batch mode: command source ("-" for stdin), null when batch mode is off */
+        String batchSource;
+        int parallelism = BatchProcessor.DEFAULT_PARALLELISM;
+        int batchSize = BatchProcessor.DEFAULT_BATCH_SIZE;
+        /* HTTP API: port to listen on, -1 when the server is off */
+        int httpPort = -1;
+        int maxBodyBytes = BankHttpServer.DEFAULT_MAX_BODY_BYTES;
+
+        static LaunchOptions parse(String[] args) 
+        {
+            LaunchOptions options = new LaunchOptions();
+            for (int i = 0; args != null && i < args.length; i++) 
+            {
+                switch (args[i]) 
+                {
+                    case "--batch":
+                        options.batchSource = i + 1 < args.length && !args[i + 1].startsWith("--") ? args[++i] : "-";
+                        break;
+                    case "--parallelism":
+                        options.parallelism = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--batch-size":
+                        options.batchSize = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--http":
+                        options.httpPort = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--max-body":
+                        options.maxBodyBytes = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int index) 
+        {
+            if (index >= args.length) 
+            {
+                throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+            }
+            return args[index];
+        }
+    }
+
+    /**
+     * Runs the embedded HTTP API on localhost until the process is stopped (Ctrl+C).
+     * Storage is closed by a shutdown hook.
+     * @param options The launch options holding the port and body limit
+     * @throws IOException if the port cannot be bound
+     */
+    static void runHttpServer(LaunchOptions options) throws IOException 
+    {
+        BankHttpServer server = new BankHttpServer(bankService,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), options.httpPort), options.maxBodyBytes);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            /* ----------------  FR-15: Graceful Shutdown  ---------------- */
+            server.stop(1);
+            try 
+            {
+                DatabaseConfig.closeConnection();
+                DatabaseConfig.closeStorage();
+            } 
+            catch (SQLException | IOException e) 
+            {
+                System.err.println("Error during shutdown: " + e.getMessage());
+            }
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println("HTTP API listening on http://localhost:" + server.getPort() + " (Ctrl+C to stop)");
+        try 
+        {
+            stopped.await();
+        } 
+        catch (InterruptedException e) 
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs batch mode: executes the commands of a file ("-" for stdin), prints one result
+     * line per command to stdout and the throughput summary to stderr.
+     * @param options The batch options
+     * @throws IOException if the command file cannot be read
+     */
+    static void runBatch(LaunchOptions options) throws IOException 
+    {
+        BatchProcessor processor = new BatchProcessor(bankService, options.parallelism, options.batchSize);
+        /* try with resource to prevent resource leak it will automatically close the file */
+        try (BufferedReader in = "-".equals(options.batchSource)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(options.batchSource), StandardCharsets.UTF_8)) 
+        {
+            PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false, StandardCharsets.UTF_8);
+            BatchProcessor.BatchSummary summary = processor.run(in, out);
+            System.err.println(summary + String.format(" (parallelism %d, batch size %d)", options.parallelism, options.batchSize));
+        }
+    }
+
     /**
      * Displays the main menu options to the user.
      */
@@ -227,20 +376,13 @@ public class Main
     }
 
     /**
-     * Displays all customers in the system.
+     * Displays all customers in the system, one page at a time.
      * Implements FR-02: View All Customers.
      */
     private static void viewAllCustomers() 
     {
         System.out.println("\n--- All Customers ---");
-        List<Customer> customers = bankService.getAllCustomers();
-        if (customers.isEmpty()) 
-        {
-            System.out.println("No customers found.");
-        } else 
-        {
-            customers.forEach(System.out::println);
-        }
+        printPages(bankService::getCustomersPage, "No customers found.");
     }
 
     /**
@@ -373,19 +515,53 @@ public class Main
     }
     
     /**
-     * Lists all accounts in the system.
+     * Lists all accounts in the system, one page at a time.
      * Implements FR-09: List All Accounts.
      */
     private static void listAccounts() 
     {
         System.out.println("\n--- All Accounts ---");
-        List<Account> accounts = bankService.getAllAccounts();
-        if (accounts.isEmpty()) 
-        {
-            System.out.println("No accounts found.");
-        } else 
+        printPages(bankService::getAccountsPage, "No accounts found.");
+    }
+
+    /**
+     * Prints a listing page by page through a keyset-paginated query, so only one page is held in memory.
+     * After every full page the user presses Enter for the next page or Q to stop.
+     * @param pageLoader   Loads the page after an ID cursor (null for the first page)
+     * @param emptyMessage Message printed when there is nothing to list
+     */
+    private static <T extends Identifiable> void printPages(BiFunction<String, Integer, List<T>> pageLoader, String emptyMessage) 
+    {
+        String afterId = null;
+        boolean bufferCleared = false;
+        while (true) 
         {
-            accounts.forEach(System.out::println);
+            List<T> page = pageLoader.apply(afterId, LIST_PAGE_SIZE);
+            if (page.isEmpty() && afterId == null) 
+            {
+                System.out.println(emptyMessage);
+                return;
+            }
+            page.forEach(System.out::println);
+            if (page.size() < LIST_PAGE_SIZE) 
+            {
+                return;
+            }
+            if (!bufferCleared) 
+            {
+                if (!scanner.hasNextLine()) 
+                {
+                    return;
+                }
+                scanner.nextLine(); 								/* clear the buffer */
+                bufferCleared = true;
+            }
+            System.out.print("-- Press Enter for the next page, or Q to stop: ");
+            if (!scanner.hasNextLine() || scanner.nextLine().trim().equalsIgnoreCase("Q")) 
+            {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
         }
     }
 
@@ -588,17 +764,23 @@ public class Main
     }
     
     /**
-     * Generates a detailed statement for a specific account.
+     * Generates a detailed statement for a specific account, for all accounts of a customer,
+     * or for all accounts.
      * Implements FR-17: Account Statement Generation.
      */
     public static void generateAccountStatement()
     {
-    	System.out.print("Enter Account ID (or 'all' for all accounts): ");
+    	System.out.print("Enter Account ID, Customer ID (all of the customer's accounts) or 'all' for all accounts: ");
         String accId = scanner.nextLine().trim();
         if ("all".equalsIgnoreCase(accId)) 
         {
             bankService.generateAllAccountsStatement();
-        } else 
+        } 
+        else if (!bankService.accountExists(accId) && bankService.getCustomer(accId) != null) 
+        {
+            bankService.generateCustomerStatement(accId);
+        } 
+        else 
         {
             bankService.generateAccountStatement(accId);
         }
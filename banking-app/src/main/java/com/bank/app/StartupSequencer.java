@@ -0,0 +1,275 @@
+/**
+ * Runs the application startup phases concurrently and reports time-to-ready per phase.
+ *
+ *   driver   -> load the SQLite JDBC driver
+ *   schema   -> create missing tables            (after driver)
+ *   pool     -> open the pooled connections      (after driver, parallel to schema)
+ *   services -> build the BankService            (after schema and pool for the JDBC-backed engines;
+ *                                                 right away for MEMORY and WAL, whose state is in local files)
+ *   warm-up  -> optional: load customers and accounts once to warm the DB page cache and the JIT
+ *               (after services, in the background; the menu does not wait for it)
+ *
+ * The application is ready - and the menu is shown - as soon as the services phase completes.
+ * Implements FR-12: Initialize Database and FR-13: Load Data.
+ */
+package com.bank.app;
+
+import com.bank.service.BankService;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class StartupSequencer
+{
+	/* System property that enables the background warm-up phase */
+    public static final String WARMUP_PROPERTY = "bank.startup.warmup";
+
+    /* Phase names in report order */
+    private static final String[] PHASES = {"driver", "schema", "pool", "services", "warm-up"};
+
+    /* Time the sequencer was started, used as origin for all phase timings */
+    private final long origin = System.nanoTime();
+    /* Phase name -> {start offset, end offset} in nanoseconds since origin */
+    private final Map<String, long[]> timings = new ConcurrentHashMap<>();
+    /* Worker threads for the phases; daemon threads so a pending warm-up never blocks exit */
+    private final ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+        Thread thread = new Thread(runnable, "startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /* Work done by the phases */
+    private final Steps steps;
+    /* Completes when the BankService is ready */
+    private CompletableFuture<BankService> services;
+    /* Completes when warm-up is done (already completed if warm-up is disabled) */
+    private CompletableFuture<Void> warmUp;
+
+    /**
+     * Creates a sequencer whose phases set up the application's database through DatabaseConfig.
+     */
+    public StartupSequencer()
+    {
+        this(DATABASE_STEPS);
+    }
+
+    /**
+     * Creates a sequencer that runs the given phase work (package-private, used by unit tests).
+     * @param steps The work of each phase
+     */
+    StartupSequencer(Steps steps)
+    {
+        this.steps = steps;
+    }
+
+    /**
+     * Starts all startup phases for the given storage engine. Returns immediately.
+     * @param engine The selected storage engine
+     * @param warmUpEnabled Whether to run the background warm-up phase
+     * @return This sequencer
+     */
+    public StartupSequencer start(StorageEngine engine, boolean warmUpEnabled)
+    {
+        CompletableFuture<Void> driver = phase("driver", () -> {
+            steps.loadDriver();
+            return null;
+        });
+        CompletableFuture<Void> schema = driver.thenCompose(ignored -> phase("schema", () -> {
+            steps.initializeSchema();
+            return null;
+        }));
+        CompletableFuture<Void> pool = driver.thenCompose(ignored -> phase("pool", () -> {
+            steps.openPool();
+            return null;
+        }));
+
+        if (engine == StorageEngine.MEMORY || engine == StorageEngine.WAL)
+        {
+            /* State comes from local files, so the menu does not wait for the database phases */
+            services = phase("services", () -> steps.createServices(engine));
+        }
+        else
+        {
+            services = CompletableFuture.allOf(schema, pool)
+                .thenCompose(ignored -> phase("services", () -> steps.createServices(engine)));
+        }
+
+        if (warmUpEnabled)
+        {
+            warmUp = services.thenCompose(service -> phase("warm-up", () -> {
+                service.getAllCustomers();
+                service.getAllAccounts();
+                return null;
+            }));
+        }
+        else
+        {
+            warmUp = CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture.allOf(schema, pool, warmUp).whenComplete((ignored, error) -> executor.shutdown());
+        return this;
+    }
+
+    /**
+     * Blocks until the minimum state needed for the menu is ready.
+     * @return The ready BankService
+     * @throws ClassNotFoundException if the JDBC driver is missing
+     * @throws SQLException if the database cannot be initialized
+     * @throws IOException if engine storage cannot be opened
+     */
+    public BankService awaitReady() throws ClassNotFoundException, SQLException, IOException
+    {
+        try
+        {
+            return services.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Startup interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof ClassNotFoundException)
+            {
+                throw (ClassNotFoundException) cause;
+            }
+            if (cause instanceof SQLException)
+            {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Startup failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Returns the warm-up phase, so shutdown can wait for it if needed.
+     * @return A future that completes when warm-up has finished
+     */
+    public Future<Void> getWarmUp()
+    {
+        return warmUp;
+    }
+
+    /**
+     * Formats the time-to-ready, the JVM uptime (which includes JVM startup and class loading)
+     * and each finished phase as "name start+duration".
+     * Phases still running (e.g. warm-up) are reported as running.
+     * @return The one-line startup report
+     */
+    public String formatReport()
+    {
+        StringBuilder sb = new StringBuilder();
+        long[] ready = timings.get("services");
+        sb.append(String.format("Ready in %.1f ms, JVM uptime %d ms (", ready == null ? 0.0 : ready[1] / 1e6,
+            ManagementFactory.getRuntimeMXBean().getUptime()));
+        boolean first = true;
+        for (String name : PHASES)
+        {
+            long[] timing = timings.get(name);
+            if (timing == null)
+            {
+                continue;
+            }
+            sb.append(first ? "" : ", ").append(name).append(' ');
+            if (timing[1] == 0)
+            {
+                sb.append("running");
+            }
+            else
+            {
+                sb.append(String.format("%.1f+%.1f ms", timing[0] / 1e6, (timing[1] - timing[0]) / 1e6));
+            }
+            first = false;
+        }
+        return sb.append(')').toString();
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /*
+     * The work of the startup phases, separated from their ordering so tests can observe it.
+     */
+    interface Steps
+    {
+        void loadDriver() throws Exception;
+
+        void initializeSchema() throws Exception;
+
+        void openPool() throws Exception;
+
+        BankService createServices(StorageEngine engine) throws Exception;
+    }
+
+    /* Phase work of the application: the SQLite driver and the DatabaseConfig storage */
+    private static final Steps DATABASE_STEPS = new Steps()
+    {
+        @Override
+        public void loadDriver() throws ClassNotFoundException
+        {
+            /* Load SQLite JDBC driver explicitly to ensure availability in exec-maven-plugin classloader */
+            Class.forName("org.sqlite.JDBC");
+        }
+
+        @Override
+        public void initializeSchema() throws SQLException
+        {
+            DatabaseConfig.initializeDatabase();
+        }
+
+        @Override
+        public void openPool() throws SQLException
+        {
+            DatabaseConfig.openConnectionPool();
+        }
+
+        @Override
+        public BankService createServices(StorageEngine engine) throws IOException
+        {
+            return DatabaseConfig.createBankService(engine);
+        }
+    };
+
+    /* A phase body that may throw checked exceptions */
+    private interface PhaseBody<T>
+    {
+        T run() throws Exception;
+    }
+
+    /**
+     * Runs one phase on the startup executor and records its start and end offsets.
+     */
+    private <T> CompletableFuture<T> phase(String name, PhaseBody<T> body)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime() - origin;
+            timings.put(name, new long[] {start, 0});
+            try
+            {
+                return body.run();
+            }
+            catch (Exception e)
+            {
+                throw new CompletionException(e);
+            }
+            finally
+            {
+                timings.put(name, new long[] {start, System.nanoTime() - origin});
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Enumeration of the storage engines the application can run on.
+ * Selected at startup through the "bank.storage.engine" system property (see DatabaseConfig).
+ */
+package com.bank.app;
+
+public enum StorageEngine 
+{
+    JDBC("jdbc", "SQLite tables for accounts and transactions"),
+    LEDGER("ledger", "SQLite accounts with a binary transaction ledger"),
+    SHARDED("sharded", "Accounts hash-sharded across several SQLite files"),
+    MEMORY("memory", "In-memory concurrent maps with periodic snapshots"),
+    WAL("wal", "In-memory state with a write-ahead log and periodic checkpoints");
+
+    private final String key;
+    private final String description;
+
+    /**
+     * Constructs a StorageEngine enum constant.
+     * @param key         The value used in the system property
+     * @param description The human-readable description of the engine
+     */
+    StorageEngine(String key, String description) 
+    {
+        this.key = key;
+        this.description = description;
+    }
+
+    /**
+     * Returns the value used to select this engine in the system property.
+     * @return The property key
+     */
+    public String getKey() 
+    {
+        return key;
+    }
+
+    /**
+     * Returns the human-readable description of this engine.
+     * @return The description string
+     */
+    public String getDescription() 
+    {
+        return description;
+    }
+
+    /**
+     * Maps a property value to its StorageEngine constant (case-insensitive).
+     * @param key The property value to look up
+     * @return The matching StorageEngine
+     * @throws IllegalArgumentException if no engine matches
+     */
+    public static StorageEngine fromKey(String key) 
+    {
+        for (StorageEngine engine : StorageEngine.values()) 
+        {
+            if (engine.key.equalsIgnoreCase(key.trim())) 
+            {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unknown storage engine: " + key);
+    }
+}
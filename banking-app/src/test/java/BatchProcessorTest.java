@@ -0,0 +1,117 @@
+/*
+ * Unit tests for the batch command mode (BatchProcessor).
+ * Runs command scripts against a real BankService on in-memory repositories, so ordering
+ * and barrier semantics are checked on actual balances.
+ * Implements test coverage for FR-05, FR-06, FR-07 and FR-14 in batch mode.
+ */
+package com.bank.app;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.service.BankService;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchProcessorTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(BatchProcessorTest.class);
+
+    private BankService bankService;
+
+    @BeforeEach
+    void setUp()
+    {
+        bankService = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+    }
+
+    /* ---------------- Helper ---------------- */
+
+    private String[] run(String script, int parallelism, int batchSize) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        new BatchProcessor(bankService, parallelism, batchSize).run(new BufferedReader(new StringReader(script)), out);
+        return bytes.toString(StandardCharsets.UTF_8).split("\\R");
+    }
+
+    @Test
+    @DisplayName("Should print one result per command in input order and skip comments")
+    void testResultsInInputOrder() throws IOException
+    {
+        logger.info("Testing batch result order");
+
+        String[] results = run(
+            "# setup\n"
+          + "CREATE_CUSTOMER C00001 \"Hassan El-Hamrawy\" hassan@bank.com 01012345678\n"
+          + "CREATE_ACCOUNT ACC-C00001-1 C00001 SAVINGS 100.00\n"
+          + "\n"
+          + "DEPOSIT ACC-C00001-1 50.25\n"
+          + "WITHDRAW ACC-C00001-1 1000\n"
+          + "BALANCE ACC-C00001-1\n"
+          + "DEPOSIT ACC-MISSING 1\n"
+          + "FLY ACC-C00001-1\n", 3, 2);
+
+        assertArrayEquals(new String[] {
+            "2 OK",
+            "3 OK",
+            "5 OK",
+            "6 ERROR Insufficient balance.",
+            "7 OK 150.25",
+            "8 ERROR Account not found.",
+            "9 ERROR Unknown command: FLY"
+        }, results);
+    }
+
+    @Test
+    @DisplayName("Should give the same balances as a serial run when transfers cross lanes")
+    void testParallelRunMatchesSerialOutcome() throws IOException
+    {
+        logger.info("Testing barrier semantics of cross-lane transfers");
+
+        StringBuilder script = new StringBuilder("CREATE_CUSTOMER C00001 Hassan hassan@bank.com 01012345678\n");
+        for (int i = 1; i <= 8; i++)
+        {
+            script.append("CREATE_ACCOUNT ACC-C00001-").append(i).append(" C00001 CURRENT 10\n");
+        }
+        for (int round = 0; round < 50; round++)
+        {
+            for (int i = 1; i <= 8; i++)
+            {
+                /* Move the whole balance around the ring: only succeeds if order is preserved */
+                script.append("TRANSFER ACC-C00001-").append(i).append(" ACC-C00001-").append(i % 8 + 1)
+                      .append(" 10\n");
+                script.append("DEPOSIT ACC-C00001-").append(i).append(" 1\n");
+                script.append("WITHDRAW ACC-C00001-").append(i).append(" 1\n");
+            }
+        }
+
+        String[] results = run(script.toString(), 4, 16);
+
+        for (String result : results)
+        {
+            assertTrue(result.endsWith(" OK"), "Unexpected result: " + result);
+        }
+        assertEquals(80.0, bankService.getTotalBalance(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should parse quoted values containing spaces")
+    void testTokenizeQuotedValues()
+    {
+        logger.info("Testing batch line tokenizer");
+
+        assertArrayEquals(new String[] {"CREATE_CUSTOMER", "C00001", "Mona Ali", "mona@bank.com", "01012345679"},
+            BatchProcessor.tokenize("CREATE_CUSTOMER  C00001 \"Mona Ali\" mona@bank.com 01012345679"));
+    }
+}
@@ -156,6 +156,30 @@ public class DatabaseConfigTest {
         logger.info("TC-DB-07: PASSED — no exception on repeated initialization");
     }
 
+    /**
+     * initializeDatabase() creates the transaction query indexes and SQLite uses them.
+     */
+    @Test
+    @Order(8)
+    void testInitializeDatabase_createsTransactionIndexes() throws SQLException {
+        logger.info("TC-DB-10: Testing transaction query indexes");
+
+        DatabaseConfig.initializeDatabase();
+
+        for (String index : new String[] {"idx_transactions_account_time", "idx_transactions_time", "idx_transactions_type_time",
+                "idx_transactions_numeric_id"}) {
+            assertTrue(indexExists(index), index + " should exist");
+        }
+        String plan = queryPlan("SELECT * FROM transactions WHERE type IN ('Transfer', 'TRANSFER') "
+                + "AND timestamp >= '2026-03-01 00:00:00' AND timestamp < '2026-04-01 00:00:00' AND amount >= 10000 "
+                + "ORDER BY timestamp, id");
+        assertTrue(plan.contains("idx_transactions_type_time") || plan.contains("idx_transactions_time"), plan);
+        plan = queryPlan("SELECT MAX(CAST(id AS INTEGER)) FROM transactions WHERE id <> '' AND id NOT GLOB '*[^0-9]*'");
+        assertTrue(plan.contains("idx_transactions_numeric_id"), plan);
+
+        logger.info("TC-DB-10: PASSED — indexes exist and are used");
+    }
+
     /* ------------------------------------------------------------------ */
     /* FR-15 — closeConnection()                                           */
     /* ------------------------------------------------------------------ */
@@ -164,7 +188,7 @@ public class DatabaseConfigTest {
      * closeConnection() closes an open connection.
      */
     @Test
-    @Order(8)
+    @Order(9)
     void testCloseConnection_closesOpenConnection() throws SQLException {
         logger.info("TC-DB-08: Testing closeConnection() closes open connection");
 
@@ -182,7 +206,7 @@ public class DatabaseConfigTest {
      * closeConnection() does not throw when called with no active connection.
      */
     @Test
-    @Order(9)
+    @Order(10)
     void testCloseConnection_noExceptionWhenAlreadyClosed() {
         logger.info("TC-DB-09: Testing closeConnection() when already closed");
 
@@ -198,6 +222,33 @@ public class DatabaseConfigTest {
     /* Helper                                                               */
     /* ------------------------------------------------------------------ */
 
+    /**
+     * Checks whether an index with the given name exists in the database.
+     */
+    private boolean indexExists(String indexName) throws SQLException {
+        String query = "SELECT name FROM sqlite_master WHERE type='index' AND name='" + indexName + "'";
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Returns the query plan SQLite chooses for a statement, one detail per line.
+     */
+    private String queryPlan(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString("detail")).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
     /**
      * Checks whether a table with the given name exists in the database.
      */
@@ -20,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -102,14 +103,14 @@ public class MainTest
          * Each choice triggers a private method that reads from Scanner or calls BankService.
          * We inject minimal input to prevent NoSuchElementException.
          */
-        when(mockService.getAllCustomers()).thenReturn(List.of());
-        when(mockService.getAllAccounts()).thenReturn(List.of());
+        when(mockService.getCustomersPage(null, Main.LIST_PAGE_SIZE)).thenReturn(List.of());
+        when(mockService.getAccountsPage(null, Main.LIST_PAGE_SIZE)).thenReturn(List.of());
         when(mockService.getTotalAccounts()).thenReturn(0);
         when(mockService.getTotalBalance()).thenReturn(0.0);
         when(mockService.getHighestBalanceAccount()).thenReturn(null);
 
         /*
-         * Choices 2 and 8 are scanner-free (only call BankService and print).
+         * Choices 2 and 8 are scanner-free while the listing fits on one page.
          * Choice 9 (VIEW_REPORTS) opens a sub-menu that needs a BACK input (7)
          * to exit the loop without blocking — so we inject it separately.
          */
@@ -131,18 +132,19 @@ public class MainTest
     /* ---------------- handleMenuChoice: FR-02 View Customers ---------------- */
 
     @Test
-    @DisplayName("Should call getAllCustomers() when VIEW_CUSTOMERS (2) is selected")
+    @DisplayName("Should call getCustomersPage() when VIEW_CUSTOMERS (2) is selected")
     void testHandleMenuChoiceViewCustomersCallsService()
     {
-        logger.info("Testing VIEW_CUSTOMERS triggers getAllCustomers()");
+        logger.info("Testing VIEW_CUSTOMERS triggers getCustomersPage()");
 
         /* Stub to return empty list — avoids NullPointerException in forEach */
-        when(mockService.getAllCustomers()).thenReturn(List.of());
+        when(mockService.getCustomersPage(null, Main.LIST_PAGE_SIZE)).thenReturn(List.of());
 
         Main.handleMenuChoice(2);
 
-        /* Verify BankService was called exactly once */
-        verify(mockService, times(1)).getAllCustomers();
+        /* Verify BankService was called exactly once and never loads every customer */
+        verify(mockService, times(1)).getCustomersPage(null, Main.LIST_PAGE_SIZE);
+        verify(mockService, never()).getAllCustomers();
     }
 
     @Test
@@ -152,26 +154,52 @@ public class MainTest
         logger.info("Testing VIEW_CUSTOMERS with non-empty customer list");
 
         Customer customer = new Customer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
-        when(mockService.getAllCustomers()).thenReturn(List.of(customer));
+        when(mockService.getCustomersPage(null, Main.LIST_PAGE_SIZE)).thenReturn(List.of(customer));
 
         /* Should not throw even with real customer objects */
         assertDoesNotThrow(() -> Main.handleMenuChoice(2));
-        verify(mockService, times(1)).getAllCustomers();
+        verify(mockService, times(1)).getCustomersPage(null, Main.LIST_PAGE_SIZE);
     }
 
     /* ---------------- handleMenuChoice: FR-09 List Accounts ---------------- */
 
     @Test
-    @DisplayName("Should call getAllAccounts() when LIST_ACCOUNTS (8) is selected")
+    @DisplayName("Should call getAccountsPage() when LIST_ACCOUNTS (8) is selected")
     void testHandleMenuChoiceListAccountsCallsService()
     {
-        logger.info("Testing LIST_ACCOUNTS triggers getAllAccounts()");
+        logger.info("Testing LIST_ACCOUNTS triggers getAccountsPage()");
 
-        when(mockService.getAllAccounts()).thenReturn(List.of());
+        when(mockService.getAccountsPage(null, Main.LIST_PAGE_SIZE)).thenReturn(List.of());
 
         Main.handleMenuChoice(8);
 
-        verify(mockService, times(1)).getAllAccounts();
+        verify(mockService, times(1)).getAccountsPage(null, Main.LIST_PAGE_SIZE);
+        verify(mockService, never()).getAllAccounts();
+    }
+
+    @Test
+    @DisplayName("Should fetch the next page after Enter and stop on Q when LIST_ACCOUNTS (8) is selected")
+    void testHandleMenuChoiceListAccountsPages()
+    {
+        logger.info("Testing LIST_ACCOUNTS paging with Enter and Q");
+
+        List<Account> firstPage = new ArrayList<>();
+        List<Account> secondPage = new ArrayList<>();
+        for (int i = 0; i < Main.LIST_PAGE_SIZE; i++)
+        {
+            firstPage.add(new SavingsAccount(String.format("ACC-A%03d", i), "C00001", 1.0));
+            secondPage.add(new SavingsAccount(String.format("ACC-B%03d", i), "C00001", 1.0));
+        }
+        when(mockService.getAccountsPage(null, Main.LIST_PAGE_SIZE)).thenReturn(firstPage);
+        when(mockService.getAccountsPage("ACC-A019", Main.LIST_PAGE_SIZE)).thenReturn(secondPage);
+
+        /* Rest of the menu line, Enter for page two, then Q */
+        injectInput("\n\nq\n");
+        assertTrue(Main.handleMenuChoice(8));
+
+        verify(mockService, times(1)).getAccountsPage(null, Main.LIST_PAGE_SIZE);
+        verify(mockService, times(1)).getAccountsPage("ACC-A019", Main.LIST_PAGE_SIZE);
+        verify(mockService, never()).getAccountsPage("ACC-B019", Main.LIST_PAGE_SIZE);
     }
 
     /* ---------------- handleMenuChoice: FR-12 Generate Summary Report ---------------- */
@@ -0,0 +1,103 @@
+/*
+ * Benchmark for write throughput of the SHARDED storage engine.
+ * Opens the engine with 1, 2, 4 and 8 shard files and lets a fixed number of threads run a mix of
+ * deposits (one shard) and transfers (usually two shards, committed with the two-phase protocol)
+ * against random accounts for a fixed time, then reports operations per second per shard count.
+ * Run with: banking-app/scripts/run-benchmark.sh banking-app com.bank.app.ShardedStorageBenchmark 16 5
+ */
+package com.bank.app;
+
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.ShardedAccountRepository;
+import com.bank.service.BankService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+public class ShardedStorageBenchmark
+{
+    private static final int ACCOUNTS = 1_000;
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws Exception
+    {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        for (int shardCount : SHARD_COUNTS)
+        {
+            Path directory = Files.createTempDirectory("shard-benchmark");
+            try (ShardedAccountRepository accounts = DatabaseConfig.openShards(directory, shardCount, threads))
+            {
+                BankService service = new BankService(new JdbcCustomerRepository(accounts.getDirectoryPool()), accounts);
+                service.createCustomer("C00001", "Benchmark Customer", "bench@bank.com", "01012345678");
+                for (int i = 0; i < ACCOUNTS; i++)
+                {
+                    service.createAccount(accountId(i), "C00001", "CURRENT", 1_000_000.0);
+                }
+                run(service, shardCount, threads, seconds);
+            }
+            finally
+            {
+                try (Stream<Path> files = Files.walk(directory))
+                {
+                    files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+            }
+        }
+    }
+
+    private static void run(BankService service, int shardCount, int threads, int seconds) throws InterruptedException
+    {
+        AtomicLong deposits = new AtomicLong();
+        AtomicLong transfers = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++)
+        {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline)
+                {
+                    int from = random.nextInt(ACCOUNTS);
+                    try
+                    {
+                        if (random.nextInt(4) == 0)
+                        {
+                            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                            service.transfer(accountId(from), accountId(to), 1.0);
+                            transfers.incrementAndGet();
+                        }
+                        else
+                        {
+                            service.deposit(accountId(from), 1.0);
+                            deposits.incrementAndGet();
+                        }
+                    }
+                    catch (RuntimeException e)
+                    {
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+        long operations = deposits.get() + transfers.get();
+        System.out.printf("%d shard(s), %d threads: %,8.0f ops/s (%,d deposits, %,d transfers, %,d failed)%n",
+            shardCount, threads, operations / (double) seconds, deposits.get(), transfers.get(), failures.get());
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%d", index + 1);
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * Test class for the SHARDED storage engine (DatabaseConfig.openShards and ShardedAccountRepository).
+ * Covers FR-07: Transfer Funds across shards, FR-12: Save Account Data and FR-14: Concurrency.
+ */
+package com.bank.app;
+
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.ShardedAccountRepository;
+import com.bank.service.BankService;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedStorageTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedStorageTest.class);
+
+    private static final int SHARDS = 4;
+
+    @TempDir
+    Path folder;
+
+    private ShardedAccountRepository accounts;
+    private BankService bankService;
+
+    /* ------------------------------------------------------------------ */
+    /* Setup & Teardown                                                     */
+    /* ------------------------------------------------------------------ */
+
+    @BeforeEach
+    void setUp() throws Exception {
+        open();
+        bankService.createCustomer("C1", "Shard Tester", "shard@bank.com", "01012345678");
+    }
+
+    @AfterEach
+    void tearDown() {
+        accounts.close();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Routing                                                              */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Every account is stored in exactly the shard file its ID hashes to, and customers stay in the directory.
+     */
+    @Test
+    @DisplayName("Accounts are spread across the shard files by ID hash")
+    void testAccountsAreStoredInTheirShard() throws SQLException {
+        logger.info("TC-SH-01: Testing account placement across shard files");
+
+        for (int i = 0; i < 40; i++) {
+            bankService.createAccount("S" + i, "C1", "SAVINGS", 100.0);
+        }
+
+        int total = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            for (String id : accountIds(shard)) {
+                assertEquals(shard, accounts.shardOf(id), "Account " + id + " should live in shard " + accounts.shardOf(id));
+                total++;
+            }
+        }
+        assertEquals(40, total, "Every account should be stored exactly once");
+        assertTrue(accountIds(0).size() < 40, "Accounts should not all land in one shard");
+        assertEquals(40, bankService.getAllAccounts().size());
+        assertNotNull(bankService.getCustomer("C1"), "Customers stay in the directory database");
+
+        logger.info("TC-SH-01: PASSED — accounts are routed by hash");
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Cross-shard transfers                                                */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * A transfer between accounts of different shards commits both sides and clears the intent log.
+     */
+    @Test
+    @DisplayName("Cross-shard transfer commits both shards atomically")
+    void testCrossShardTransfer() throws SQLException {
+        logger.info("TC-SH-02: Testing a transfer between two shards");
+
+        String[] pair = crossShardPair();
+        bankService.transfer(pair[0], pair[1], 40.0);
+
+        assertEquals(60.0, bankService.getAccountBalance(pair[0]), 0.001);
+        assertEquals(140.0, bankService.getAccountBalance(pair[1]), 0.001);
+        assertEquals(2, bankService.getAccount(pair[0]).getTransactions().size(), "Deposit and transfer-out should be stored");
+        assertEquals(2, bankService.getAccount(pair[1]).getTransactions().size(), "Deposit and transfer-in should be stored");
+        assertEquals(0, pendingIntents(), "A completed transfer should leave no intent behind");
+
+        logger.info("TC-SH-02: PASSED — both shards committed");
+    }
+
+    /**
+     * A failed cross-shard transfer leaves both shards untouched.
+     */
+    @Test
+    @DisplayName("Failed cross-shard transfer rolls back both shards")
+    void testFailedCrossShardTransfer() throws SQLException {
+        logger.info("TC-SH-03: Testing a failed transfer between two shards");
+
+        String[] pair = crossShardPair();
+
+        assertThrows(RuntimeException.class, () -> bankService.transfer(pair[0], pair[1], 500.0));
+
+        assertEquals(100.0, bankService.getAccountBalance(pair[0]), 0.001);
+        assertEquals(100.0, bankService.getAccountBalance(pair[1]), 0.001);
+        assertEquals(1, bankService.getAccount(pair[1]).getTransactions().size());
+        assertEquals(0, pendingIntents());
+
+        logger.info("TC-SH-03: PASSED — nothing was applied");
+    }
+
+    /**
+     * A retried idempotent cross-shard transfer is applied once; its key commits with the transfer.
+     */
+    @Test
+    @DisplayName("Idempotent cross-shard transfer is applied once")
+    void testIdempotentCrossShardTransfer() {
+        logger.info("TC-SH-04: Testing an idempotent transfer between two shards");
+
+        String[] pair = crossShardPair();
+
+        double first = bankService.transfer(pair[0], pair[1], 25.0, "key-sharded-1");
+        double retry = bankService.transfer(pair[0], pair[1], 25.0, "key-sharded-1");
+
+        assertEquals(75.0, first, 0.001);
+        assertEquals(first, retry, 0.001, "The retry should return the original result");
+        assertEquals(125.0, bankService.getAccountBalance(pair[1]), 0.001);
+
+        logger.info("TC-SH-04: PASSED — applied exactly once");
+    }
+
+    /**
+     * Concurrent transfers in both directions between shards neither deadlock nor lose money.
+     */
+    @Test
+    @DisplayName("Concurrent cross-shard transfers keep the total balance")
+    void testConcurrentTransfersKeepTotal() throws Exception {
+        logger.info("TC-SH-05: Testing concurrent transfers in opposite directions");
+
+        for (int i = 0; i < 10; i++) {
+            bankService.createAccount("S" + i, "C1", "SAVINGS", 1000.0);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Random random = new Random(t);
+            results.add(pool.submit(() -> {
+                for (int n = 0; n < 50; n++) {
+                    int from = random.nextInt(10);
+                    int to = (from + 1 + random.nextInt(9)) % 10;
+                    bankService.transfer("S" + from, "S" + to, 1.0);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(10000.0, bankService.getTotalBalance(), 0.001, "Transfers should move money, not create or lose it");
+        assertEquals(0, pendingIntents());
+        assertEquals(0, appliedMarkers(), "Finished transfers must not leave markers behind");
+        assertNull(accounts.getRecoveryFailure());
+
+        logger.info("TC-SH-05: PASSED — total balance unchanged");
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Recovery                                                             */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * A logged transfer that committed on one shard only (a crash before the second shard commit)
+     * is completed when the storage is reopened, and reopening again does not apply it twice.
+     */
+    @Test
+    @DisplayName("Reopening completes a logged transfer exactly once")
+    void testRecoveryCompletesLoggedTransfer() throws Exception {
+        logger.info("TC-SH-06: Testing recovery of a half-committed transfer");
+
+        String[] pair = crossShardPair();
+        accounts.close();
+
+        /* The source shard committed (balance and marker), the target shard did not */
+        int fromShard = accounts.shardOf(pair[0]);
+        int toShard = accounts.shardOf(pair[1]);
+        try (Connection conn = DriverManager.getConnection(shardUrl(fromShard));
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("UPDATE accounts SET balance = balance - 30 WHERE id = '" + pair[0] + "'");
+            stmt.execute("INSERT INTO applied_intents (intent_id) VALUES ('intent-1')");
+        }
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + folder.resolve("directory.db"));
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO shard_intents (intent_id, seq, shard, account_id, "
+                     + "balance_delta, transaction_id, type, amount, timestamp, description) VALUES ('intent-1', ?, ?, ?, ?, ?, ?, 30, '2026-01-02 10:00:00', ?)")) {
+            ps.setInt(1, 0);
+            ps.setInt(2, fromShard);
+            ps.setString(3, pair[0]);
+            ps.setDouble(4, -30.0);
+            ps.setString(5, "901");
+            ps.setString(6, "TRANSFER");
+            ps.setString(7, "Transfer to " + pair[1]);
+            ps.executeUpdate();
+            ps.setInt(1, 1);
+            ps.setInt(2, toShard);
+            ps.setString(3, pair[1]);
+            ps.setDouble(4, 30.0);
+            ps.setString(5, "902");
+            ps.setString(6, "TRANSFER");
+            ps.setString(7, "Transfer from " + pair[0]);
+            ps.executeUpdate();
+        }
+
+        open();
+        open();
+
+        assertEquals(70.0, bankService.getAccountBalance(pair[0]), 0.001, "The committed shard must not be redone");
+        assertEquals(130.0, bankService.getAccountBalance(pair[1]), 0.001, "The missing shard should be redone once");
+        assertEquals(2, bankService.getAccount(pair[1]).getTransactions().size());
+        assertEquals(0, pendingIntents());
+
+        logger.info("TC-SH-06: PASSED — transfer completed exactly once");
+    }
+
+    /**
+     * Reopening the files with a different shard count is rejected instead of misrouting accounts.
+     */
+    @Test
+    @DisplayName("Reopening with another shard count is rejected")
+    void testShardCountMismatchRejected() {
+        logger.info("TC-SH-07: Testing a shard count mismatch");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.openShards(folder, SHARDS + 1, 2));
+
+        assertTrue(exception.getMessage().contains("4 shards"));
+
+        logger.info("TC-SH-07: PASSED — mismatch rejected");
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Helpers                                                              */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * (Re)opens the storage in the temporary folder, running recovery.
+     */
+    private void open() throws Exception {
+        if (accounts != null) {
+            accounts.close();
+        }
+        accounts = DatabaseConfig.openShards(folder, SHARDS, 2);
+        bankService = new BankService(new JdbcCustomerRepository(accounts.getDirectoryPool()), accounts);
+    }
+
+    /**
+     * Creates two savings accounts with a balance of 100 that live in different shards.
+     */
+    private String[] crossShardPair() {
+        bankService.createAccount("A0", "C1", "SAVINGS", 100.0);
+        int i = 1;
+        while (accounts.shardOf("A" + i) == accounts.shardOf("A0")) {
+            i++;
+        }
+        bankService.createAccount("A" + i, "C1", "SAVINGS", 100.0);
+        return new String[] {"A0", "A" + i};
+    }
+
+    private String shardUrl(int shard) {
+        return "jdbc:sqlite:" + folder.resolve("shard-" + shard + ".db");
+    }
+
+    private List<String> accountIds(int shard) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(shardUrl(shard));
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM accounts")) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        }
+        return ids;
+    }
+
+    private int appliedMarkers() throws SQLException {
+        int markers = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            try (Connection conn = DriverManager.getConnection(shardUrl(shard));
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM applied_intents")) {
+                markers += rs.getInt(1);
+            }
+        }
+        return markers;
+    }
+
+    private int pendingIntents() throws SQLException {
+        try (Connection conn = accounts.getDirectoryPool().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM shard_intents")) {
+            return rs.getInt(1);
+        }
+    }
+}
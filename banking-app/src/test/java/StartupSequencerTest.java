@@ -0,0 +1,158 @@
+/*
+ * Unit tests for StartupSequencer.
+ * The phases run recording stubs instead of opening the real database, so the tests check
+ * the order in which phases start and finish and how a failing phase surfaces in awaitReady().
+ * Implements test coverage for FR-12: Initialize Database and FR-13: Load Data at startup.
+ */
+package com.bank.app;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.service.BankService;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupSequencerTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(StartupSequencerTest.class);
+
+    /* ---------------- Helper ---------------- */
+
+    /*
+     * Phase stubs that log "<phase> start" and "<phase> end" and can be made to wait or fail.
+     */
+    private static class RecordingSteps implements StartupSequencer.Steps
+    {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        /* Released by the pool phase; the schema phase waits for it when set */
+        CountDownLatch schemaWaitsForPool;
+        /* Released once the services are built; the schema phase waits for it when set */
+        CountDownLatch schemaWaitsForServices;
+        /* Thrown by the schema phase when set */
+        SQLException schemaFailure;
+
+        @Override
+        public void loadDriver()
+        {
+            events.add("driver start");
+            events.add("driver end");
+        }
+
+        @Override
+        public void initializeSchema() throws Exception
+        {
+            events.add("schema start");
+            if (schemaWaitsForPool != null)
+            {
+                assertTrue(schemaWaitsForPool.await(5, TimeUnit.SECONDS), "Pool phase must run while schema runs");
+            }
+            if (schemaWaitsForServices != null)
+            {
+                assertTrue(schemaWaitsForServices.await(5, TimeUnit.SECONDS), "Services must not wait for schema");
+            }
+            if (schemaFailure != null)
+            {
+                throw schemaFailure;
+            }
+            events.add("schema end");
+        }
+
+        @Override
+        public void openPool()
+        {
+            events.add("pool start");
+            if (schemaWaitsForPool != null)
+            {
+                schemaWaitsForPool.countDown();
+            }
+            events.add("pool end");
+        }
+
+        @Override
+        public BankService createServices(StorageEngine engine)
+        {
+            events.add("services start");
+            BankService service = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+            events.add("services end");
+            if (schemaWaitsForServices != null)
+            {
+                schemaWaitsForServices.countDown();
+            }
+            return service;
+        }
+
+        int indexOf(String event)
+        {
+            int index = events.indexOf(event);
+            assertTrue(index >= 0, "Missing event: " + event + " in " + events);
+            return index;
+        }
+    }
+
+    /* ---------------- Tests ---------------- */
+
+    @Test
+    @DisplayName("Should run schema and pool in parallel after the driver and build JDBC services after both")
+    void testJdbcPhaseOrder() throws Exception
+    {
+        logger.info("Testing startup phase order for the JDBC engine");
+
+        RecordingSteps steps = new RecordingSteps();
+        steps.schemaWaitsForPool = new CountDownLatch(1);
+        StartupSequencer startup = new StartupSequencer(steps).start(StorageEngine.JDBC, true);
+
+        assertNotNull(startup.awaitReady());
+        startup.getWarmUp().get(5, TimeUnit.SECONDS);
+
+        assertTrue(steps.indexOf("driver end") < steps.indexOf("schema start"));
+        assertTrue(steps.indexOf("driver end") < steps.indexOf("pool start"));
+        assertTrue(steps.indexOf("schema end") < steps.indexOf("services start"));
+        assertTrue(steps.indexOf("pool end") < steps.indexOf("services start"));
+
+        String report = startup.formatReport();
+        assertTrue(report.startsWith("Ready in "), report);
+        assertTrue(report.contains("schema ") && report.contains("pool ") && report.contains("warm-up "), report);
+    }
+
+    @Test
+    @DisplayName("Should not make file-backed engines wait for the database phases")
+    void testMemoryServicesDoNotWaitForSchema() throws Exception
+    {
+        logger.info("Testing that the MEMORY engine is ready before the schema phase ends");
+
+        RecordingSteps steps = new RecordingSteps();
+        steps.schemaWaitsForServices = new CountDownLatch(1);
+        StartupSequencer startup = new StartupSequencer(steps).start(StorageEngine.MEMORY, false);
+
+        assertNotNull(startup.awaitReady());
+        assertTrue(startup.getWarmUp().isDone(), "Warm-up is complete right away when disabled");
+        assertFalse(startup.formatReport().contains("warm-up"));
+    }
+
+    @Test
+    @DisplayName("Should rethrow a failing phase from awaitReady and never build the services")
+    void testFailingPhaseIsRethrown()
+    {
+        logger.info("Testing the startup failure path");
+
+        RecordingSteps steps = new RecordingSteps();
+        steps.schemaFailure = new SQLException("disk I/O error");
+        StartupSequencer startup = new StartupSequencer(steps).start(StorageEngine.JDBC, true);
+
+        SQLException e = assertThrows(SQLException.class, startup::awaitReady);
+        assertSame(steps.schemaFailure, e, "The phase's own exception must reach the caller");
+        assertFalse(steps.events.contains("services start"));
+        assertTrue(startup.getWarmUp().isDone(), "Warm-up must not hang after a failed startup");
+    }
+}
@@ -0,0 +1,554 @@
+/*
+ * Optional embedded HTTP/JSON API over BankService, built on the JDK's com.sun.net.httpserver.
+ * Every exchange runs on its own virtual thread, so blocking repository calls do not tie up
+ * platform threads. Responses always carry a Content-Length and request bodies are read fully,
+ * which lets clients keep connections alive; bodies above the configured limit get 413.
+ *
+ *   GET  /customers                      list customers (paged)
+ *   POST /customers                      {"id","name","email","phone"}
+ *   GET  /customers/{id}/accounts        one customer's accounts with count and total balance
+ *   GET  /accounts                       list accounts (paged)
+ *   POST /accounts                       {"accountId","customerId","type","initialBalance"?}
+ *   GET  /accounts/{id}                  one account
+ *   GET  /accounts/{id}/transactions     transaction history (paged)
+ *   POST /accounts/{id}/deposit          {"amount"}
+ *   POST /accounts/{id}/withdraw         {"amount"}
+ *   POST /transfers                      {"from","to","amount"}
+ *   GET  /reports/summary                bank summary
+ *   GET  /metrics                        request latency per route
+ *
+ * Paged lists take "?limit=N&after=ID" (default 100, at most 1000) and return a JSON array of
+ * at most N entries after the cursor ID; when more may follow, the "Next-After" response header
+ * carries the cursor for the next page. Each request therefore holds at most one page in memory.
+ * Deposits, withdrawals and transfers accept an "Idempotency-Key" header: a retried request
+ * with the same key returns the original result instead of moving the money again.
+ * Implements FR-01, FR-02, FR-04 to FR-11 and FR-18 over HTTP.
+ */
+package com.bank.http;
+
+import com.bank.model.Account;
+import com.bank.model.AlreadyExistsException;
+import com.bank.model.Customer;
+import com.bank.model.Identifiable;
+import com.bank.model.NotFoundException;
+import com.bank.model.Transaction;
+import com.bank.service.BankService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BankHttpServer
+{
+	/* Default request body limit in bytes */
+    public static final int DEFAULT_MAX_BODY_BYTES = 64 * 1024;
+    /* Request header carrying the client's idempotency key for money movements */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    /* Response header carrying the cursor of the next page of a paged list */
+    public static final String NEXT_AFTER_HEADER = "Next-After";
+    /* Default and largest page size of the paged lists */
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    public static final int MAX_PAGE_LIMIT = 1000;
+
+    /* First path segments served by the API */
+    private static final Set<String> KNOWN_RESOURCES = Set.of("customers", "accounts", "transfers", "reports", "metrics");
+
+    /* Service the endpoints delegate to */
+    private final BankService bankService;
+    /* Largest accepted request body */
+    private final int maxBodyBytes;
+    /* Underlying JDK server */
+    private final HttpServer server;
+    /* One virtual thread per exchange */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    /* Per-route latency histograms */
+    private final LatencyMetrics metrics = new LatencyMetrics();
+
+    /**
+     * Creates (but does not start) the server.
+     * @param bankService  The service to expose
+     * @param address      The address to bind, e.g. localhost:8080 (port 0 picks a free port)
+     * @param maxBodyBytes The request body limit in bytes
+     * @throws IOException if the address cannot be bound
+     */
+    public BankHttpServer(BankService bankService, InetSocketAddress address, int maxBodyBytes) throws IOException
+    {
+        this.bankService = bankService;
+        this.maxBodyBytes = maxBodyBytes;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * Stops the server, giving in-flight exchanges up to the given delay to finish.
+     * Implements FR-15: Graceful Shutdown.
+     * @param delaySeconds Maximum seconds to wait for in-flight exchanges
+     */
+    public void stop(int delaySeconds)
+    {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the bound port (useful when the server was created with port 0).
+     * @return The local port
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the request latency metrics.
+     * @return The metrics
+     */
+    public LatencyMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /* ---------------- Request handling ---------------- */
+
+    /*
+     * Response of one endpoint.
+     */
+    private static final class Response
+    {
+        private final int status;
+        private final String body;
+
+        Response(int status, String body)
+        {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /* Thrown by readJson() when the request is larger than maxBodyBytes */
+    private static final class BodyTooLargeException extends RuntimeException
+    {
+        BodyTooLargeException(int limit)
+        {
+            super("Request body exceeds " + limit + " bytes.");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String[] path = segments(exchange.getRequestURI().getPath());
+        String route = method + " " + routeName(path);
+
+        Response response;
+        try
+        {
+            response = dispatch(exchange, method, path);
+        }
+        catch (BodyTooLargeException e)
+        {
+            response = error(413, e.getMessage());
+        }
+        catch (RuntimeException e)
+        {
+            response = toError(e);
+        }
+
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+        metrics.record(route, response.status, System.nanoTime() - start);
+    }
+
+    private Response dispatch(HttpExchange exchange, String method, String[] path) throws IOException
+    {
+        String resource = path.length > 0 ? path[0] : "";
+        switch (method + " " + resource + "/" + path.length)
+        {
+            case "GET customers/1":
+            {
+                Map<String, String> query = query(exchange);
+                int limit = pageLimit(query);
+                return ok(customers(nextPage(exchange, bankService.getCustomersPage(query.get("after"), limit), limit)));
+            }
+            case "POST customers/1":
+            {
+                Map<String, Object> body = readJson(exchange);
+                bankService.createCustomer(text(body, "id"), text(body, "name"), text(body, "email"), text(body, "phone"));
+                return new Response(201, "{\"id\":" + Json.string(new StringBuilder(), text(body, "id")) + "}");
+            }
+            case "GET customers/3":
+                if ("accounts".equals(path[2]))
+                {
+                    return ok(customerAccounts(path[1]));
+                }
+                break;
+            case "GET accounts/1":
+            {
+                Map<String, String> query = query(exchange);
+                int limit = pageLimit(query);
+                return ok(accounts(nextPage(exchange, bankService.getAccountsPage(query.get("after"), limit), limit)));
+            }
+            case "POST accounts/1":
+            {
+                Map<String, Object> body = readJson(exchange);
+                double initialBalance = body.get("initialBalance") == null ? 0.0 : number(body, "initialBalance");
+                bankService.createAccount(text(body, "accountId"), text(body, "customerId"), text(body, "type"), initialBalance);
+                return new Response(201, account(new StringBuilder(), bankService.getAccount(text(body, "accountId"))).toString());
+            }
+            case "GET accounts/2":
+                return ok(account(new StringBuilder(), requireAccount(path[1])).toString());
+            case "GET accounts/3":
+                if ("transactions".equals(path[2]))
+                {
+                    Map<String, String> query = query(exchange);
+                    int limit = pageLimit(query);
+                    return ok(transactions(nextPage(exchange, bankService.getTransactionsPage(path[1], query.get("after"), limit), limit)));
+                }
+                break;
+            case "POST accounts/3":
+                if ("deposit".equals(path[2]))
+                {
+                    double amount = number(readJson(exchange), "amount");
+                    String key = idempotencyKey(exchange);
+                    if (key != null)
+                    {
+                        return balance(path[1], bankService.deposit(path[1], amount, key));
+                    }
+                    bankService.deposit(path[1], amount);
+                    return balance(path[1], bankService.getAccountBalance(path[1]));
+                }
+                if ("withdraw".equals(path[2]))
+                {
+                    double amount = number(readJson(exchange), "amount");
+                    String key = idempotencyKey(exchange);
+                    if (key != null)
+                    {
+                        return balance(path[1], bankService.withdraw(path[1], amount, key));
+                    }
+                    bankService.withdraw(path[1], amount);
+                    return balance(path[1], bankService.getAccountBalance(path[1]));
+                }
+                break;
+            case "POST transfers/1":
+            {
+                Map<String, Object> body = readJson(exchange);
+                String key = idempotencyKey(exchange);
+                if (key != null)
+                {
+                    bankService.transfer(text(body, "from"), text(body, "to"), number(body, "amount"), key);
+                }
+                else
+                {
+                    bankService.transfer(text(body, "from"), text(body, "to"), number(body, "amount"));
+                }
+                return ok("{\"status\":\"completed\"}");
+            }
+            case "GET reports/2":
+                if ("summary".equals(path[1]))
+                {
+                    return ok(summary());
+                }
+                break;
+            case "GET metrics/1":
+                return ok(metrics.toJson());
+            default:
+                break;
+        }
+        return error(404, "No route for " + method + " /" + String.join("/", path));
+    }
+
+    /* ---------------- JSON rendering ---------------- */
+
+    private static String customers(List<Customer> customers)
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < customers.size(); i++)
+        {
+            Customer customer = customers.get(i);
+            sb.append(i == 0 ? "{" : ",{");
+            Json.string(sb.append("\"id\":"), customer.getId());
+            Json.string(sb.append(",\"name\":"), customer.getName());
+            Json.string(sb.append(",\"email\":"), customer.getEmail());
+            Json.string(sb.append(",\"phone\":"), customer.getphone());
+            sb.append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String accounts(List<Account> accounts)
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < accounts.size(); i++)
+        {
+            account(sb.append(i == 0 ? "" : ","), accounts.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private String customerAccounts(String customerId)
+    {
+        List<Account> accounts = bankService.getCustomerAccounts(customerId);
+        StringBuilder sb = Json.string(new StringBuilder("{\"customerId\":"), customerId);
+        sb.append(",\"accountCount\":").append(accounts.size());
+        Json.amount(sb.append(",\"totalBalance\":"), accounts.stream().mapToDouble(Account::getBalance).sum());
+        return sb.append(",\"accounts\":").append(accounts(accounts)).append('}').toString();
+    }
+
+    private static StringBuilder account(StringBuilder sb, Account account)
+    {
+        Json.string(sb.append("{\"id\":"), account.getId());
+        Json.string(sb.append(",\"customerId\":"), account.getCustomerId());
+        Json.string(sb.append(",\"type\":"), account.getClass().getSimpleName());
+        return Json.amount(sb.append(",\"balance\":"), account.getBalance()).append('}');
+    }
+
+    private static String transactions(List<Transaction> transactions)
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < transactions.size(); i++)
+        {
+            Transaction transaction = transactions.get(i);
+            sb.append(i == 0 ? "{" : ",{");
+            Json.string(sb.append("\"id\":"), transaction.getId());
+            Json.string(sb.append(",\"type\":"), transaction.getType().name());
+            Json.amount(sb.append(",\"amount\":"), transaction.getAmount());
+            Json.string(sb.append(",\"timestamp\":"), transaction.getTimestamp().toString());
+            Json.string(sb.append(",\"description\":"), transaction.getDescription());
+            sb.append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private String summary()
+    {
+        StringBuilder sb = new StringBuilder("{\"totalAccounts\":").append(bankService.getTotalAccounts());
+        Json.amount(sb.append(",\"totalBalance\":"), bankService.getTotalBalance());
+        Account highest = bankService.getHighestBalanceAccount();
+        sb.append(",\"highestBalanceAccount\":");
+        if (highest == null)
+        {
+            sb.append("null");
+        }
+        else
+        {
+            account(sb, highest);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static Response balance(String accountId, double balance)
+    {
+        StringBuilder sb = Json.string(new StringBuilder("{\"accountId\":"), accountId);
+        return ok(Json.amount(sb.append(",\"balance\":"), balance).append('}').toString());
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private Account requireAccount(String accountId)
+    {
+        Account account = bankService.getAccount(accountId);
+        if (account == null)
+        {
+            throw new NotFoundException("Account not found.");
+        }
+        return account;
+    }
+
+    /**
+     * Reads the request body, refusing bodies larger than maxBodyBytes.
+     */
+    private Map<String, Object> readJson(HttpExchange exchange) throws IOException
+    {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null && Long.parseLong(declared.trim()) > maxBodyBytes)
+        {
+            throw new BodyTooLargeException(maxBodyBytes);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody())
+        {
+            int read;
+            while ((read = in.read(buffer)) > 0)
+            {
+                if (body.size() + read > maxBodyBytes)
+                {
+                    throw new BodyTooLargeException(maxBodyBytes);
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return Json.parseObject(body.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the query string into decoded name/value pairs; the last occurrence of a name wins.
+     */
+    private static Map<String, String> query(HttpExchange exchange)
+    {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty())
+        {
+            return parameters;
+        }
+        for (String pair : raw.split("&"))
+        {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns the requested page size, DEFAULT_PAGE_LIMIT if none was given.
+     */
+    private static int pageLimit(Map<String, String> query)
+    {
+        String value = query.get("limit");
+        if (value == null)
+        {
+            return DEFAULT_PAGE_LIMIT;
+        }
+        try
+        {
+            int limit = Integer.parseInt(value.trim());
+            if (limit >= 1 && limit <= MAX_PAGE_LIMIT)
+            {
+                return limit;
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            /* reported below */
+        }
+        throw new IllegalArgumentException("Invalid page limit: expected 1 to " + MAX_PAGE_LIMIT + ".");
+    }
+
+    /**
+     * Sets the Next-After header when a page is full, so the client knows more entries may follow.
+     */
+    private static <T extends Identifiable> List<T> nextPage(HttpExchange exchange, List<T> page, int limit)
+    {
+        if (page.size() == limit)
+        {
+            exchange.getResponseHeaders().set(NEXT_AFTER_HEADER, page.get(page.size() - 1).getId());
+        }
+        return page;
+    }
+
+    /**
+     * Returns the Idempotency-Key request header, or null if the client did not send one.
+     */
+    private static String idempotencyKey(HttpExchange exchange)
+    {
+        String key = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+        return key == null || key.isBlank() ? null : key.trim();
+    }
+
+    private static String text(Map<String, Object> body, String field)
+    {
+        Object value = body.get(field);
+        if (!(value instanceof String))
+        {
+            throw new IllegalArgumentException("Missing or non-string field: " + field);
+        }
+        return (String) value;
+    }
+
+    private static double number(Map<String, Object> body, String field)
+    {
+        Object value = body.get(field);
+        if (!(value instanceof Double))
+        {
+            throw new IllegalArgumentException("Missing or non-numeric field: " + field);
+        }
+        return (Double) value;
+    }
+
+    private static Response ok(String body)
+    {
+        return new Response(200, body);
+    }
+
+    private static Response error(int status, String message)
+    {
+        return new Response(status, Json.string(new StringBuilder("{\"error\":"), message).append('}').toString());
+    }
+
+    /**
+     * Maps service exceptions to HTTP statuses by type; wrapped causes (e.g. from transfer) are unwrapped.
+     * A missing record is 404, a taken ID or idempotency key 409, other invalid input 400.
+     */
+    private static Response toError(RuntimeException e)
+    {
+        Throwable cause = e instanceof IllegalArgumentException || e.getCause() == null ? e : e.getCause();
+        String message = cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+        if (cause instanceof NotFoundException)
+        {
+            return error(404, message);
+        }
+        if (cause instanceof AlreadyExistsException)
+        {
+            return error(409, message);
+        }
+        if (cause instanceof IllegalArgumentException)
+        {
+            return error(400, message);
+        }
+        return error(500, message);
+    }
+
+    private static String[] segments(String path)
+    {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    /**
+     * Returns the route template used as metrics key, e.g. "/accounts/{id}/deposit".
+     * Paths outside the API share one key so arbitrary URLs cannot grow the metrics map.
+     */
+    private static String routeName(String[] path)
+    {
+        if (path.length > 3 || (path.length > 0 && !KNOWN_RESOURCES.contains(path[0])))
+        {
+            return "(unmatched)";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < path.length; i++)
+        {
+            sb.append('/').append(i == 1 && ("accounts".equals(path[0]) || "customers".equals(path[0])) ? "{id}" : path[i]);
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+}
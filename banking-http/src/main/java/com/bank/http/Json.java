@@ -0,0 +1,247 @@
+/*
+ * Minimal JSON support for the HTTP API, so the module needs nothing beyond the JDK.
+ * Parses flat request objects (string, number, boolean and null values) and writes
+ * responses through a small builder. Nested request objects and arrays are rejected.
+ */
+package com.bank.http;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+final class Json
+{
+    private Json()
+    {
+    }
+
+    /**
+     * Parses a flat JSON object.
+     * @param text The request body
+     * @return Field name -> String, Double, Boolean or null
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    static Map<String, Object> parseObject(String text)
+    {
+        Parser parser = new Parser(text);
+        Map<String, Object> result = parser.object();
+        parser.skipWhitespace();
+        if (parser.position != text.length())
+        {
+            throw new IllegalArgumentException("Unexpected content after JSON object.");
+        }
+        return result;
+    }
+
+    /**
+     * Appends a JSON string literal with the required escapes.
+     * @param sb    The destination
+     * @param value The string to write (null is written as null)
+     * @return The destination
+     */
+    static StringBuilder string(StringBuilder sb, String value)
+    {
+        if (value == null)
+        {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20)
+                    {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Appends a monetary amount with two decimals.
+     * @param sb     The destination
+     * @param amount The amount to write
+     * @return The destination
+     */
+    static StringBuilder amount(StringBuilder sb, double amount)
+    {
+        return sb.append(String.format(Locale.ROOT, "%.2f", amount));
+    }
+
+    /*
+     * Recursive-descent parser limited to one level of object nesting.
+     */
+    private static final class Parser
+    {
+        private final String text;
+        private int position;
+
+        Parser(String text)
+        {
+            this.text = text;
+        }
+
+        Map<String, Object> object()
+        {
+            Map<String, Object> result = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}')
+            {
+                position++;
+                return result;
+            }
+            while (true)
+            {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                result.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}')
+                {
+                    return result;
+                }
+                if (c != ',')
+                {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object value()
+        {
+            char c = peek();
+            if (c == '"')
+            {
+                return string();
+            }
+            if (text.startsWith("true", position))
+            {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", position))
+            {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", position))
+            {
+                position += 4;
+                return null;
+            }
+            if (c == '-' || (c >= '0' && c <= '9'))
+            {
+                int start = position;
+                while (position < text.length() && "+-.eE0123456789".indexOf(text.charAt(position)) >= 0)
+                {
+                    position++;
+                }
+                try
+                {
+                    return Double.parseDouble(text.substring(start, position));
+                }
+                catch (NumberFormatException e)
+                {
+                    throw error("Invalid number");
+                }
+            }
+            throw error("Unsupported value");
+        }
+
+        private String string()
+        {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true)
+            {
+                char c = next();
+                if (c == '"')
+                {
+                    return sb.toString();
+                }
+                if (c != '\\')
+                {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped)
+                {
+                    case '"':
+                    case '\\':
+                    case '/': sb.append(escaped); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > text.length())
+                        {
+                            throw error("Invalid escape");
+                        }
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        throw error("Invalid escape");
+                }
+            }
+        }
+
+        void skipWhitespace()
+        {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+            {
+                position++;
+            }
+        }
+
+        private char peek()
+        {
+            if (position >= text.length())
+            {
+                throw error("Unexpected end of JSON");
+            }
+            return text.charAt(position);
+        }
+
+        private char next()
+        {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void expect(char expected)
+        {
+            if (next() != expected)
+            {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException("Invalid JSON: " + message + " at position " + position + ".");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Request-level latency metrics per route.
+ * Each route keeps a histogram of power-of-two microsecond buckets in LongAdders, so recording
+ * a request is lock-free and constant-size regardless of traffic. Percentiles are reported as the
+ * upper bound of the bucket they fall into (at most 2x too high), which is enough to compare runs.
+ */
+package com.bank.http;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyMetrics
+{
+	/* Bucket i counts requests that took less than 2^i microseconds (bucket 0: under 1 us) */
+    private static final int BUCKETS = 40;
+
+    /* Route name -> histogram */
+    private final Map<String, Histogram> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Records one finished request.
+     * @param route        The route name, e.g. "POST /accounts/{id}/deposit"
+     * @param status       The HTTP status that was sent
+     * @param elapsedNanos The time spent handling the request
+     */
+    public void record(String route, int status, long elapsedNanos)
+    {
+        routes.computeIfAbsent(route, key -> new Histogram()).record(status, elapsedNanos);
+    }
+
+    /**
+     * Renders all routes as a JSON object:
+     * {"route": {"count": n, "errors": n, "p50Micros": n, "p99Micros": n, "maxMicros": n}, ...}
+     * @return The metrics as JSON
+     */
+    public String toJson()
+    {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(routes).entrySet())
+        {
+            Histogram histogram = entry.getValue();
+            Json.string(sb.append(first ? "" : ","), entry.getKey()).append(":{")
+              .append("\"count\":").append(histogram.count.sum())
+              .append(",\"errors\":").append(histogram.errors.sum())
+              .append(",\"p50Micros\":").append(histogram.percentile(0.50))
+              .append(",\"p99Micros\":").append(histogram.percentile(0.99))
+              .append(",\"maxMicros\":").append(histogram.maxMicros.get())
+              .append('}');
+            first = false;
+        }
+        return sb.append('}').toString();
+    }
+
+    /*
+     * Histogram of one route.
+     */
+    private static final class Histogram
+    {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        Histogram()
+        {
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(int status, long elapsedNanos)
+        {
+            long micros = elapsedNanos / 1_000;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets[bucket].increment();
+            count.increment();
+            if (status >= 400)
+            {
+                errors.increment();
+            }
+            maxMicros.accumulate(micros);
+        }
+
+        /**
+         * Returns the upper bound in microseconds of the bucket holding the given quantile.
+         */
+        long percentile(double quantile)
+        {
+            long total = count.sum();
+            if (total == 0)
+            {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                seen += buckets[i].sum();
+                if (seen >= rank)
+                {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+    }
+}
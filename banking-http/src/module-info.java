@@ -0,0 +1,6 @@
+module banking.http 
+{
+    requires banking.core;
+    requires jdk.httpserver;
+    exports com.bank.http;
+}
\ No newline at end of file
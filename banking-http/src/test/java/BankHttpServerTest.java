@@ -0,0 +1,165 @@
+/*
+ * Unit tests for the embedded HTTP API (BankHttpServer).
+ * Starts the server on an ephemeral localhost port over in-memory repositories and talks to it
+ * with java.net.http.HttpClient, so routing, status mapping and metrics are checked end to end.
+ * Implements test coverage for FR-01, FR-02, FR-05 and FR-06 over HTTP.
+ */
+package com.bank.http;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.service.BankService;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BankHttpServerTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(BankHttpServerTest.class);
+
+    private BankService bankService;
+    private BankHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        bankService = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+        server = new BankHttpServer(bankService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        server.stop(0);
+    }
+
+    /* ---------------- Helper ---------------- */
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException
+    {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Should create a customer and account, then deposit and withdraw over HTTP")
+    void testAccountLifecycle() throws IOException, InterruptedException
+    {
+        logger.info("Testing HTTP account lifecycle");
+
+        assertEquals(201, send("POST", "/customers",
+            "{\"id\":\"C00001\",\"name\":\"Hassan El-Hamrawy\",\"email\":\"hassan@bank.com\",\"phone\":\"01012345678\"}").statusCode());
+        HttpResponse<String> created = send("POST", "/accounts",
+            "{\"accountId\":\"ACC-C00001-1\",\"customerId\":\"C00001\",\"type\":\"SAVINGS\",\"initialBalance\":100}");
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().contains("\"balance\":100.00"), created.body());
+
+        HttpResponse<String> deposit = send("POST", "/accounts/ACC-C00001-1/deposit", "{\"amount\":50.25}");
+        assertEquals(200, deposit.statusCode());
+        assertEquals("{\"accountId\":\"ACC-C00001-1\",\"balance\":150.25}", deposit.body());
+
+        HttpResponse<String> withdraw = send("POST", "/accounts/ACC-C00001-1/withdraw", "{\"amount\":25}");
+        assertEquals("{\"accountId\":\"ACC-C00001-1\",\"balance\":125.25}", withdraw.body());
+        assertEquals(125.25, bankService.getAccountBalance("ACC-C00001-1"), 0.0001);
+
+        HttpResponse<String> history = send("GET", "/accounts/ACC-C00001-1/transactions", null);
+        assertEquals(200, history.statusCode());
+        assertTrue(history.body().contains("\"type\":\"WITHDRAW\""), history.body());
+
+        HttpResponse<String> owned = send("GET", "/customers/C00001/accounts", null);
+        assertEquals(200, owned.statusCode());
+        assertTrue(owned.body().startsWith("{\"customerId\":\"C00001\",\"accountCount\":1,\"totalBalance\":125.25"), owned.body());
+        assertEquals(404, send("GET", "/customers/C99999/accounts", null).statusCode());
+
+        /* Keyset pages: a full page carries the cursor of the next one */
+        HttpResponse<String> firstPage = send("GET", "/accounts/ACC-C00001-1/transactions?limit=2", null);
+        assertEquals(2, firstPage.body().split("\"type\":").length - 1, firstPage.body());
+        String after = firstPage.headers().firstValue(BankHttpServer.NEXT_AFTER_HEADER).orElseThrow();
+        HttpResponse<String> lastPage = send("GET", "/accounts/ACC-C00001-1/transactions?limit=2&after=" + after, null);
+        assertEquals(1, lastPage.body().split("\"type\":").length - 1, lastPage.body());
+        assertTrue(lastPage.headers().firstValue(BankHttpServer.NEXT_AFTER_HEADER).isEmpty());
+        assertEquals("[]", send("GET", "/accounts?after=ACC-C00001-1", null).body());
+        assertEquals(400, send("GET", "/customers?limit=0", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Should return the original result for a retried request with the same Idempotency-Key")
+    void testIdempotencyKeyHeader() throws IOException, InterruptedException
+    {
+        logger.info("Testing Idempotency-Key header");
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        bankService.createAccount("ACC-C00001-1", "C00001", "CURRENT", 100.0);
+
+        HttpRequest.Builder deposit = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/accounts/ACC-C00001-1/deposit"))
+            .header(BankHttpServer.IDEMPOTENCY_KEY_HEADER, "retry-1")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":40}"));
+        for (int attempt = 0; attempt < 3; attempt++)
+        {
+            HttpResponse<String> response = client.send(deposit.build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals("{\"accountId\":\"ACC-C00001-1\",\"balance\":140.00}", response.body());
+        }
+        assertEquals(140.0, bankService.getAccountBalance("ACC-C00001-1"), 0.0001);
+
+        HttpRequest reused = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/accounts/ACC-C00001-1/withdraw"))
+            .header(BankHttpServer.IDEMPOTENCY_KEY_HEADER, "retry-1")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":40}"))
+            .build();
+        assertEquals(409, client.send(reused, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    @DisplayName("Should map service errors and unknown routes to HTTP statuses")
+    void testErrorStatuses() throws IOException, InterruptedException
+    {
+        logger.info("Testing HTTP error mapping");
+
+        assertEquals(404, send("GET", "/accounts/ACC-MISSING", null).statusCode());
+        assertEquals(404, send("GET", "/nowhere", null).statusCode());
+        assertEquals(400, send("POST", "/customers", "{\"id\":").statusCode());
+        assertEquals(400, send("POST", "/transfers", "{\"from\":\"A\",\"to\":\"B\"}").statusCode());
+        assertEquals(404, send("POST", "/transfers", "{\"from\":\"A\",\"to\":\"B\",\"amount\":5}").statusCode(),
+            "A wrapped NotFoundException must keep its status");
+
+        String customer = "{\"id\":\"C00001\",\"name\":\"Hassan El-Hamrawy\",\"email\":\"hassan@bank.com\",\"phone\":\"01012345678\"}";
+        assertEquals(201, send("POST", "/customers", customer).statusCode());
+        assertEquals(409, send("POST", "/customers", customer).statusCode());
+        /* The status follows the exception type, not the wording of the message */
+        HttpResponse<String> badEmail = send("POST", "/customers",
+            "{\"id\":\"C00002\",\"name\":\"Not Found\",\"email\":\"not found\",\"phone\":\"01012345678\"}");
+        assertEquals(400, badEmail.statusCode(), badEmail.body());
+
+        HttpResponse<String> tooLarge = send("POST", "/customers", "{\"id\":\"" + "x".repeat(2048) + "\"}");
+        assertEquals(413, tooLarge.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should record request counts and errors per route")
+    void testMetrics() throws IOException, InterruptedException
+    {
+        logger.info("Testing HTTP latency metrics");
+
+        send("GET", "/accounts", null);
+        send("GET", "/accounts", null);
+        send("GET", "/accounts/ACC-MISSING", null);
+
+        String metrics = send("GET", "/metrics", null).body();
+        assertTrue(metrics.contains("\"GET /accounts\":{\"count\":2,\"errors\":0"), metrics);
+        assertTrue(metrics.contains("\"GET /accounts/{id}\":{\"count\":1,\"errors\":1"), metrics);
+    }
+}
@@ -2,7 +2,8 @@
  * Abstract class representing a Bank Account.
  * Contains common properties like id, customerId, balance, and transactions.
  * Provides base implementation for deposit and defines abstract withdraw method.
- * Thread-safe for concurrent access.
+ * Thread-safe for concurrent access: by default balance changes are synchronized on the account;
+ * after useLockFreeBalance() they are compare-and-set updates of an AtomicBalance instead.
  *
  * Implements FR-05: Deposit Money
  * Implements FR-14: Concurrent Transactions
@@ -32,6 +33,8 @@ public abstract class Account implements Identifiable
     
     /* Thread lock for concurrent access control */
     private final transient Lock lock = new ReentrantLock();
+    /* Lock-free balance and history, null while the account uses the synchronized fields above */
+    private volatile AtomicBalance atomicBalance;
     
     /**
      * Constructor to initialize account with ID and associated customer ID.
@@ -72,31 +75,153 @@ public abstract class Account implements Identifiable
      */
     public double getBalance() 
     {
-        return balance;
+        AtomicBalance atomic = atomicBalance;
+        return atomic != null ? atomic.get() : balance;
     }
     	
     /**
      * Adds funds to the account balance and records the transaction.
-     * Thread-safe due to synchronized keyword.
+     * Thread-safe: synchronized on the account, or a CAS update in lock-free mode.
      * Implements FR-05: Deposit Money
      * @param amount the amount to deposit (must be positive)
      * @throws IllegalArgumentException if amount is not positive
      */
-    public synchronized void deposit(double amount) 
+    public void deposit(double amount) 
     {
         if (amount <= 0) 
         {
             throw new IllegalArgumentException("Deposit amount must be positive.");
         }
-        this.balance += amount;
-        /* Add transaction record */
-        addTransaction(TransactionType.DEPOSIT, amount, "Deposit to account " + id);
+        AtomicBalance atomic = atomicBalance;
+        if (atomic != null) 
+        {
+            atomic.credit(minorUnits(amount));
+            addTransaction(TransactionType.DEPOSIT, amount, "Deposit to account " + id);
+            return;
+        }
+        synchronized (this) 
+        {
+            this.balance += amount;
+            /* Add transaction record */
+            addTransaction(TransactionType.DEPOSIT, amount, "Deposit to account " + id);
+        }
+    }
+    
+    /**
+     * Credits a deposit whose record was created elsewhere, e.g. a deposit buffered on a stripe of a
+     * hot account or an interest posting, and keeps that record (ID and timestamp) instead of creating a new one.
+     * Implements FR-05: Deposit Money
+     * @param deposit the deposit or interest record to apply
+     * @throws IllegalArgumentException if the record is not a deposit or interest credit of a positive amount
+     */
+    public void applyDeposit(Transaction deposit) 
+    {
+        TransactionType type = deposit.getType();
+        if ((type != TransactionType.DEPOSIT && type != TransactionType.INTEREST) || deposit.getAmount() <= 0) 
+        {
+            throw new IllegalArgumentException("Only deposits or interest credits of a positive amount can be applied.");
+        }
+        AtomicBalance atomic = atomicBalance;
+        if (atomic != null) 
+        {
+            atomic.credit(minorUnits(deposit.getAmount()));
+            addTransaction(deposit);
+            return;
+        }
+        synchronized (this) 
+        {
+            this.balance += deposit.getAmount();
+            addTransaction(deposit);
+        }
+    }
+    
+    /**
+     * Takes funds from the account balance if it covers them and records the transaction.
+     * The funds check and the subtraction are one atomic step (synchronized, or a CAS loop
+     * in lock-free mode), so concurrent withdrawals cannot overdraw the account.
+     * Implements FR-06: Withdraw Money
+     * @param amount      the amount to withdraw (must be positive)
+     * @param description the description of the transaction record
+     * @throws IllegalArgumentException if amount is not positive or insufficient funds
+     */
+    protected void debit(double amount, String description) 
+    {
+        if (amount <= 0) 
+        {
+            throw new IllegalArgumentException("Withdraw amount must be positive.");
+        }
+        debit(new Transaction(TransactionIdGenerator.nextId(), TransactionType.WITHDRAW, amount, description));
+    }
+    
+    /**
+     * Debits a withdrawal whose record was created elsewhere, e.g. one replayed from a write-ahead log,
+     * and keeps that record (ID and timestamp) instead of creating a new one.
+     * Implements FR-06: Withdraw Money
+     * @param withdrawal the withdrawal record to apply
+     * @throws IllegalArgumentException if the record is not a withdrawal of a positive amount or funds are insufficient
+     */
+    public void applyWithdrawal(Transaction withdrawal) 
+    {
+        if (withdrawal.getType() != TransactionType.WITHDRAW || withdrawal.getAmount() <= 0) 
+        {
+            throw new IllegalArgumentException("Only withdrawals of a positive amount can be applied.");
+        }
+        debit(withdrawal);
+    }
+    
+    private void debit(Transaction withdrawal) 
+    {
+        double amount = withdrawal.getAmount();
+        AtomicBalance atomic = atomicBalance;
+        if (atomic != null) 
+        {
+            if (!atomic.tryDebit(minorUnits(amount))) 
+            {
+                throw new IllegalArgumentException("Insufficient balance.");
+            }
+            addTransaction(withdrawal);
+            return;
+        }
+        synchronized (this) 
+        {
+            if (balance < amount) 
+            {
+                throw new IllegalArgumentException("Insufficient balance.");
+            }
+            balance -= amount;
+            addTransaction(withdrawal);
+        }
+    }
+    
+    /**
+     * Switches the account to lock-free mode: the balance (rounded to cents) and the history
+     * move into an AtomicBalance, and deposits and withdrawals no longer synchronize.
+     * Switching again has no effect. Call it before the account is shared between threads,
+     * e.g. when a repository first stores it.
+     */
+    public synchronized void useLockFreeBalance() 
+    {
+        if (atomicBalance == null) 
+        {
+            atomicBalance = new AtomicBalance(balance, transactions);
+            transactions.clear();
+        }
+    }
+    
+    /**
+     * Checks whether the account is in lock-free mode.
+     * Its balance updates are atomic on their own, so callers need not take getLock() for them.
+     * @return true after useLockFreeBalance()
+     */
+    public boolean isLockFree() 
+    {
+        return atomicBalance != null;
     }
     
     protected void addTransaction(TransactionType type, double amount, String description) 
     {
         Transaction newTx = new Transaction(
-            java.util.UUID.randomUUID().toString(),
+            TransactionIdGenerator.nextId(),
             type,
             amount,
             description
@@ -112,9 +237,18 @@ public abstract class Account implements Identifiable
      *
      * @param transaction the transaction object to be added to the account
      */
-    public synchronized void addTransaction(Transaction transaction) 
+    public void addTransaction(Transaction transaction) 
     {
-        transactions.add(transaction);
+        AtomicBalance atomic = atomicBalance;
+        if (atomic != null) 
+        {
+            atomic.append(transaction);
+            return;
+        }
+        synchronized (this) 
+        {
+            transactions.add(transaction);
+        }
     }
     
     /**
@@ -138,9 +272,37 @@ public abstract class Account implements Identifiable
      */
     public abstract void withdraw(double amount);
     
+    /**
+     * Returns a snapshot copy of the transaction history.
+     * Synchronized with addTransaction so the copy is never taken mid-append
+     * (in lock-free mode the copy is taken from the lock-free log).
+     * @return A new list holding the transactions, oldest first
+     */
     public List<Transaction> getTransactions() 
     {
-        return new ArrayList<>(transactions);
+        AtomicBalance atomic = atomicBalance;
+        if (atomic != null) 
+        {
+            return atomic.transactions();
+        }
+        synchronized (this) 
+        {
+            return new ArrayList<>(transactions);
+        }
+    }
+
+    /**
+     * Converts an amount to cents for the lock-free balance.
+     * @throws IllegalArgumentException if the amount is less than one cent
+     */
+    private static long minorUnits(double amount) 
+    {
+        long minorUnits = AtomicBalance.toMinorUnits(amount);
+        if (minorUnits <= 0) 
+        {
+            throw new IllegalArgumentException("Amount must be at least one cent.");
+        }
+        return minorUnits;
     }
 
     @Override
@@ -149,7 +311,7 @@ public abstract class Account implements Identifiable
         return "Account{" +
                 "id='" + id + '\'' +
                 ", customerId='" + customerId + '\'' +
-                ", balance=" + balance +
+                ", balance=" + getBalance() +
                 '}';
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * A transaction together with the ID of the account it belongs to.
+ * Transaction itself does not know its account; bank-wide queries and streams that mix the
+ * history of many accounts return this pair instead.
+ * Implements FR-11: Transaction History across accounts.
+ */
+package com.bank.model;
+
+public final class AccountTransaction
+{
+	/* ID of the account the transaction belongs to */
+    private final String accountId;
+    /* The transaction itself */
+    private final Transaction transaction;
+
+    /**
+     * Constructs an account/transaction pair.
+     * @param accountId   The ID of the account the transaction belongs to
+     * @param transaction The transaction
+     */
+    public AccountTransaction(String accountId, Transaction transaction)
+    {
+        this.accountId = accountId;
+        this.transaction = transaction;
+    }
+
+    public String getAccountId()
+    {
+        return accountId;
+    }
+
+    public Transaction getTransaction()
+    {
+        return transaction;
+    }
+
+    /**
+     * Returns a string representation with the account ID in front of the transaction.
+     * @return Formatted string
+     */
+    @Override
+    public String toString()
+    {
+        return accountId + " " + transaction;
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Thrown when an operation would create a customer, account or idempotency key whose ID is already taken.
+ * Extends IllegalArgumentException, so callers that treat every invalid request alike keep working,
+ * while front ends (e.g. the HTTP API) can report it as a conflict.
+ * Implements FR-01: Create Customer and FR-04: Create Account error reporting.
+ */
+package com.bank.model;
+
+public class AlreadyExistsException extends IllegalArgumentException
+{
+    /**
+     * Constructs the exception with a message for the user.
+     * @param message Describes what already exists
+     */
+    public AlreadyExistsException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Lock-free balance of an account: the amount is kept in minor units (cents) in an AtomicLong
+ * and changed with compare-and-set loops, and the transaction records go to a lock-free queue.
+ * A debit checks for sufficient funds inside its CAS loop, so concurrent withdrawals can never
+ * take the balance below zero and no update is lost.
+ *
+ * Records are appended after their balance change succeeded, so under contention the order of
+ * the log may differ slightly from the order in which the changes were applied; every applied
+ * change has exactly one record.
+ * Implements FR-05, FR-06 and FR-14 for accounts in lock-free mode (see Account.useLockFreeBalance()).
+ */
+package com.bank.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class AtomicBalance
+{
+	/* Minor units (cents) per unit of currency */
+    static final int MINOR_UNITS = 100;
+
+    /* Current balance in minor units */
+    private final AtomicLong minorUnits;
+    /* Transaction records, oldest first */
+    private final Queue<Transaction> log = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a balance with an opening amount and history.
+     * @param balance      Opening balance (rounded to minor units)
+     * @param transactions Existing transaction records, oldest first
+     */
+    AtomicBalance(double balance, List<Transaction> transactions)
+    {
+        this.minorUnits = new AtomicLong(toMinorUnits(balance));
+        this.log.addAll(transactions);
+    }
+
+    /**
+     * Converts an amount to minor units, rounding to the nearest one.
+     * @param amount The amount in units of currency
+     * @return The amount in minor units
+     */
+    static long toMinorUnits(double amount)
+    {
+        return Math.round(amount * MINOR_UNITS);
+    }
+
+    /**
+     * Returns the current balance.
+     * @return The balance in units of currency
+     */
+    double get()
+    {
+        return minorUnits.get() / (double) MINOR_UNITS;
+    }
+
+    /**
+     * Adds an amount to the balance.
+     * @param amount The amount in minor units (must be positive)
+     * @throws ArithmeticException if the balance would overflow
+     */
+    void credit(long amount)
+    {
+        long current;
+        do
+        {
+            current = minorUnits.get();
+        } while (!minorUnits.compareAndSet(current, Math.addExact(current, amount)));
+    }
+
+    /**
+     * Subtracts an amount if the balance covers it; the check and the subtraction are one atomic step.
+     * @param amount The amount in minor units (must be positive)
+     * @return true if the amount was subtracted, false if the balance was insufficient
+     */
+    boolean tryDebit(long amount)
+    {
+        long current;
+        do
+        {
+            current = minorUnits.get();
+            if (current < amount)
+            {
+                return false;
+            }
+        } while (!minorUnits.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    void append(Transaction transaction)
+    {
+        log.add(transaction);
+    }
+
+    /**
+     * Returns a snapshot of the transaction records.
+     * @return A new list holding the records, oldest first
+     */
+    List<Transaction> transactions()
+    {
+        return new ArrayList<>(log);
+    }
+}
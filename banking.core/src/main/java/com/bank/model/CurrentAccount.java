@@ -46,17 +46,6 @@ public class CurrentAccount extends Account
     @Override
     public void withdraw(double amount) 
     {
-        if (amount <= 0) 
-        {
-            throw new IllegalArgumentException("Withdraw amount must be positive.");
-        }
-
-        if (balance < amount) 
-        {
-            throw new IllegalArgumentException("Insufficient balance.");
-        }
-
-        balance -= amount;
-        addTransaction(TransactionType.WITHDRAW, amount, "Withdraw from Current Account " + id);
+        debit(amount, "Withdraw from Current Account " + id);
     }
 }
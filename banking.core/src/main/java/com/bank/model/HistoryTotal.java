@@ -0,0 +1,84 @@
+/*
+ * Roll-up of one account's transaction history: the number of records and their net amount
+ * (deposits and interest credits count positive, withdrawals negative).
+ * A balance that agrees with its history equals the net amount; bank-wide reconciliation
+ * compares the two without loading the records themselves.
+ * Implements FR-11: Transaction History in aggregate.
+ */
+package com.bank.model;
+
+import java.util.List;
+
+public final class HistoryTotal
+{
+	/* Number of transaction records */
+    private final long transactionCount;
+    /* Sum of the signed record amounts */
+    private final double netAmount;
+
+    /**
+     * Constructs a history roll-up.
+     * @param transactionCount Number of transaction records
+     * @param netAmount        Sum of the signed record amounts
+     */
+    public HistoryTotal(long transactionCount, double netAmount)
+    {
+        this.transactionCount = transactionCount;
+        this.netAmount = netAmount;
+    }
+
+    /**
+     * Rolls up a list of transactions.
+     * @param transactions The records of one account
+     * @return Their count and net amount
+     */
+    public static HistoryTotal of(List<Transaction> transactions)
+    {
+        double net = 0;
+        for (Transaction transaction : transactions)
+        {
+            net += signedAmount(transaction.getType(), transaction.getAmount());
+        }
+        return new HistoryTotal(transactions.size(), net);
+    }
+
+    /**
+     * Combines two roll-ups of the same account, e.g. its archived and its hot records.
+     * @param other The other roll-up
+     * @return The roll-up of both record sets
+     */
+    public HistoryTotal plus(HistoryTotal other)
+    {
+        return new HistoryTotal(transactionCount + other.transactionCount, netAmount + other.netAmount);
+    }
+
+    /**
+     * Returns the effect of a record on the balance: withdrawals take funds out, every other type
+     * (deposits, interest credits) puts them in. Transfers are recorded as a withdrawal on one side
+     * and a deposit on the other.
+     * @param type   The record type
+     * @param amount The record amount (positive)
+     * @return The amount, negated for withdrawals
+     */
+    public static double signedAmount(TransactionType type, double amount)
+    {
+        return type == TransactionType.WITHDRAW ? -amount : amount;
+    }
+
+    /* Getters APIs */
+    public long getTransactionCount()
+    {
+        return transactionCount;
+    }
+
+    public double getNetAmount()
+    {
+        return netAmount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("HistoryTotal{transactions=%d, net=%.2f}", transactionCount, netAmount);
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Thrown when an operation refers to a customer, account or other record that does not exist.
+ * Extends IllegalArgumentException, so callers that treat every invalid request alike keep working,
+ * while front ends (e.g. the HTTP API) can tell a missing record from other invalid input.
+ * Implements FR-08: View Account and FR-10: Account Queries error reporting.
+ */
+package com.bank.model;
+
+public class NotFoundException extends IllegalArgumentException
+{
+    /**
+     * Constructs the exception with a message for the user.
+     * @param message Describes what was not found
+     */
+    public NotFoundException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Represents a scheduled transfer: a one-off transfer at a given time or a standing order
+ * repeating at a fixed interval. Immutable; firing or cancelling a schedule returns its next state.
+ * Times are epoch milliseconds so the schedule table can be range-scanned on its due time.
+ * Implements FR-07: Transfer Funds for scheduled and recurring transfers.
+ */
+
+package com.bank.model;
+
+public class ScheduledTransfer implements Identifiable
+{
+	/* Unique schedule ID */
+    private final String id;
+    /* Source and destination accounts of every run */
+    private final String fromAccountId;
+    private final String toAccountId;
+    /* Amount moved by every run */
+    private final double amount;
+    /* Milliseconds between runs, or 0 for a one-off transfer */
+    private final long intervalMillis;
+    /* Due time of the next run in epoch milliseconds */
+    private final long nextRunAt;
+    /* False once a one-off transfer has run or the schedule was cancelled */
+    private final boolean active;
+
+    /**
+     * Constructs a schedule.
+     * @param id             Unique schedule ID
+     * @param fromAccountId  The source account ID
+     * @param toAccountId    The destination account ID
+     * @param amount         The amount of every run (must be positive)
+     * @param intervalMillis Milliseconds between runs, or 0 for a one-off transfer
+     * @param nextRunAt      Due time of the next run in epoch milliseconds
+     * @param active         Whether the schedule still has runs to make
+     * @throws IllegalArgumentException if an ID is empty, the accounts are equal, the amount is not positive
+     *                                  or the interval is negative
+     */
+    public ScheduledTransfer(String id, String fromAccountId, String toAccountId, double amount,
+                             long intervalMillis, long nextRunAt, boolean active)
+    {
+        if (id == null || id.isBlank() || fromAccountId == null || toAccountId == null)
+        {
+            throw new IllegalArgumentException("Schedule and account IDs must not be empty.");
+        }
+        if (fromAccountId.equals(toAccountId))
+        {
+            throw new IllegalArgumentException("Cannot schedule a transfer to the same account.");
+        }
+        if (!(amount > 0) || Double.isInfinite(amount))
+        {
+            throw new IllegalArgumentException("Amount must be positive.");
+        }
+        if (intervalMillis < 0)
+        {
+            throw new IllegalArgumentException("Interval must not be negative.");
+        }
+        this.id = id;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.intervalMillis = intervalMillis;
+        this.nextRunAt = nextRunAt;
+        this.active = active;
+    }
+
+    /* Getters APIs */
+    @Override
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getFromAccountId()
+    {
+        return fromAccountId;
+    }
+
+    public String getToAccountId()
+    {
+        return toAccountId;
+    }
+
+    public double getAmount()
+    {
+        return amount;
+    }
+
+    public long getIntervalMillis()
+    {
+        return intervalMillis;
+    }
+
+    public long getNextRunAt()
+    {
+        return nextRunAt;
+    }
+
+    public boolean isActive()
+    {
+        return active;
+    }
+
+    public boolean isRecurring()
+    {
+        return intervalMillis > 0;
+    }
+
+    /**
+     * Returns the key identifying the next run, used as the idempotency key of its transfer
+     * so a run repeated after a crash moves money only once.
+     * @return "schedule:" + ID + ":" + due time of the next run
+     */
+    public String getRunKey()
+    {
+        return "schedule:" + id + ":" + nextRunAt;
+    }
+
+    /**
+     * Returns the schedule after its next run: due one interval later, or inactive for a one-off transfer.
+     * Missed runs of a standing order stay due one after another, so each of them is made.
+     * @return The following state of the schedule
+     */
+    public ScheduledTransfer advance()
+    {
+        return isRecurring()
+            ? new ScheduledTransfer(id, fromAccountId, toAccountId, amount, intervalMillis, nextRunAt + intervalMillis, active)
+            : cancel();
+    }
+
+    /**
+     * Returns the schedule with no further runs.
+     * @return The inactive state of the schedule
+     */
+    public ScheduledTransfer cancel()
+    {
+        return new ScheduledTransfer(id, fromAccountId, toAccountId, amount, intervalMillis, nextRunAt, false);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ScheduledTransfer{id='" + id + "', from='" + fromAccountId + "', to='" + toAccountId + "', amount=" + amount
+            + ", intervalMillis=" + intervalMillis + ", nextRunAt=" + nextRunAt + ", active=" + active + "}";
+    }
+}
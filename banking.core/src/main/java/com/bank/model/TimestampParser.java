@@ -0,0 +1,114 @@
+/*
+ * Hand-written parser for the timestamp text stored with transactions.
+ * Accepts "yyyy-MM-dd HH:mm:ss" (the DB format) and "yyyy-MM-ddTHH:mm:ss" (ISO) by reading
+ * fixed character positions, so the separator is detected without trying one DateTimeFormatter
+ * after the other and catching DateTimeParseException. The result is the epoch-microsecond
+ * value Transaction stores, so no LocalDateTime is built while loading rows.
+ * Resolution matches the formatters it replaces: a day past the end of a short month is moved
+ * back to the month's last day, and 24:00:00 means midnight of the next day.
+ * Implements FR-11: Transaction History.
+ */
+package com.bank.model;
+
+public final class TimestampParser
+{
+	/* Returned by parseMicros() for text that is not a valid timestamp */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /* Length of "yyyy-MM-dd HH:mm:ss" */
+    private static final int LENGTH = 19;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    /* Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar */
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+
+    private TimestampParser()
+    {
+    }
+
+    /**
+     * Parses a timestamp without throwing.
+     * @param text "yyyy-MM-dd HH:mm:ss" or "yyyy-MM-ddTHH:mm:ss"
+     * @return Microseconds since 1970-01-01T00:00, or INVALID if the text does not match either format
+     */
+    public static long parseMicros(CharSequence text)
+    {
+        if (text == null || text.length() != LENGTH
+            || text.charAt(4) != '-' || text.charAt(7) != '-'
+            || (text.charAt(10) != ' ' && text.charAt(10) != 'T')
+            || text.charAt(13) != ':' || text.charAt(16) != ':')
+        {
+            return INVALID;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+            || hour < 0 || minute < 0 || minute > 59 || second < 0 || second > 59)
+        {
+            return INVALID;
+        }
+        if (hour > 23 && (hour != 24 || minute != 0 || second != 0))
+        {
+            return INVALID;
+        }
+        day = Math.min(day, lengthOfMonth(year, month));
+        long seconds = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3_600L + minute * 60L + second;
+        return seconds * MICROS_PER_SECOND;
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Reads a run of ASCII digits.
+     * @return The value, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence text, int start, int count)
+    {
+        int value = 0;
+        for (int i = start; i < start + count; i++)
+        {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+            {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month)
+    {
+        switch (month)
+        {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date (years counted from March,
+     * so the leap day is the last day of the shifted year).
+     */
+    private static long epochDay(int year, int month, int day)
+    {
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - DAYS_0000_TO_1970;
+    }
+}
@@ -1,34 +1,87 @@
 /*
  * Represents a single financial transaction (Deposit/Withdraw/Transfer) with a timestamp.
  * Used to track all movements of money in and out of accounts.
+ * Kept compact because an account holds its whole history in memory: generated IDs are stored
+ * as a primitive long (see TransactionIdGenerator) and the timestamp as epoch microseconds.
+ * Descriptions that are just a type label ("Deposit", "WITHDRAW", ...), as older data and imports
+ * hold them, share the label constant; other descriptions are kept as given.
  * Implements FR-11: Transaction History.
  */
 
 package com.bank.model;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+import java.util.HashMap;
+import java.util.Map;
 
-public class Transaction 
+public class Transaction implements Identifiable
 {
-	/* Unique identifier for the transaction */
-    private String id;
+	/* Numeric transaction ID; only meaningful when textId is null */
+    private final long numericId;
+    /* ID kept as text when it is not a plain non-negative number (e.g. UUIDs from older data) */
+    private final String textId;
     /* Type of transaction (DEPOSIT, WITHDRAW, TRANSFER) */
-    private TransactionType type;  
+    private final TransactionType type;  
     /* The monetary amount of the transaction */
-    private double amount;
-    /* The exact date and time the transaction occurred */
-    private LocalDateTime timestamp;
+    private final double amount;
+    /* The exact date and time the transaction occurred, as microseconds since 1970-01-01T00:00 (local time) */
+    private final long timestampMicros;
     /* A brief description of the transaction */
-    private String description;
+    private final String description;
     
-    /* Formatters to handle different timestamp formats from the DB */
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    /* Type labels (display and enum names) -> the shared constant for that label */
+    private static final Map<String, String> TYPE_LABELS = new HashMap<>();
+
+    static
+    {
+        for (TransactionType type : TransactionType.values())
+        {
+            TYPE_LABELS.put(type.name(), type.name());
+            TYPE_LABELS.put(type.getDisplayName(), type.getDisplayName());
+        }
+    }
+    /* Offset rules of the JVM's time zone, looked up once instead of per transaction */
+    private static final ZoneRules LOCAL_ZONE = ZoneId.systemDefault().getRules();
+    
+    /* Format of timestamps written to the DB (TimestampParser reads them back) */
     private static final DateTimeFormatter DB_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-    private static final DateTimeFormatter DB_FORMATTER_WITH_SPACE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     
+    /**
+     * Constructs a new transaction with a generated numeric ID and the current timestamp.
+     * Used by accounts when they record their own deposits and withdrawals.
+     * @param id          Numeric transaction ID (usually from TransactionIdGenerator)
+     * @param type        Type of transaction
+     * @param amount      Transaction amount
+     * @param description Brief description of the transaction
+     * @throws IllegalArgumentException if the ID is negative
+     */
+    public Transaction(long id, TransactionType type, double amount, String description) 
+    {
+        this(id, null, type, amount, nowMicros(), description);
+    }
+
+    /**
+     * Constructs a transaction from its compact form.
+     * Used by storage engines that keep IDs and timestamps in binary form.
+     * @param id              Numeric transaction ID
+     * @param type            Type of transaction
+     * @param amount          Transaction amount
+     * @param timestampMicros Microseconds since 1970-01-01T00:00 in local time
+     * @param description     Brief description of the transaction
+     * @throws IllegalArgumentException if the ID is negative
+     */
+    public Transaction(long id, TransactionType type, double amount, long timestampMicros, String description) 
+    {
+        this(id, null, type, amount, timestampMicros, description);
+    }
+
     /**
      * Constructs a new transaction with the current timestamp.
      * Used when creating a new transaction in the system.
@@ -39,11 +92,21 @@ public class Transaction
      */
     public Transaction(String id, TransactionType type, double amount, String description) 
     {
-        this.id = id;
-        this.type = type;
-        this.amount = amount;
-        this.timestamp = LocalDateTime.now();  /* Automatic to the DB */
-        this.description = description;
+        this(id, type, amount, LocalDateTime.now(), description);  /* Automatic to the DB */
+    }
+
+    /**
+     * Constructs a transaction with an already-decoded timestamp.
+     * Used by storage engines that keep timestamps in binary form instead of text.
+     * @param id          Unique transaction ID
+     * @param type        Type of transaction
+     * @param amount      Transaction amount
+     * @param timestamp   The date and time the transaction occurred
+     * @param description Brief description of the transaction
+     */
+    public Transaction(String id, TransactionType type, double amount, LocalDateTime timestamp, String description) 
+    {
+        this(parseNumericId(id), id, type, amount, toEpochMicros(timestamp), description);
     }
 
     /**
@@ -52,41 +115,45 @@ public class Transaction
      * @param id          Unique transaction ID
      * @param type        Type of transaction
      * @param amount      Transaction amount
-     * @param timestamp   Timestamp string in various formats
+     * @param timestamp   Timestamp string in DB ("yyyy-MM-dd HH:mm:ss") or ISO ("yyyy-MM-ddTHH:mm:ss") format
      * @param description Brief description of the transaction
      * @throws IllegalArgumentException if timestamp string cannot be parsed
      */
     public Transaction(String id, TransactionType type, double amount, String timestamp, String description) 
     {
-        this.id = id;
+        this(parseNumericId(id), id, type, amount, parseTimestamp(timestamp), description);
+    }
+
+    /*
+     * The text ID is dropped whenever the numeric ID reproduces it (numericId >= 0).
+     */
+    private Transaction(long numericId, String id, TransactionType type, double amount, long timestampMicros, String description)
+    {
+        if (numericId < 0 && id == null)
+        {
+            throw new IllegalArgumentException("Transaction ID must not be negative.");
+        }
+        this.numericId = numericId;
+        this.textId = numericId >= 0 ? null : id;
         this.type = type;
         this.amount = amount;
-        this.description = description;
-        
-        /*
-         * Try to read the timestamp with different format
-         * parse it (convert to string before saving to the DB ) 
-         */
-        try 
-        {
-            this.timestamp = LocalDateTime.parse(timestamp, DB_FORMATTER_WITH_SPACE);
-        } 
-        catch (DateTimeParseException e1) 
-        {
-            try 
-            {
-                this.timestamp = LocalDateTime.parse(timestamp, ISO_FORMATTER);
-            } 
-            catch (DateTimeParseException e2) 
-            {
-                throw new IllegalArgumentException("Unable to parse timestamp: " + timestamp, e2);
-            }
-        }    
+        this.timestampMicros = timestampMicros;
+        this.description = description == null ? null : TYPE_LABELS.getOrDefault(description, description);
     }
+
     /* Getters APIs */
     public String getId() 
     { 
-    	return id; 
+    	return textId != null ? textId : Long.toString(numericId); 
+    }
+
+    /**
+     * Gets the numeric form of the ID.
+     * @return The ID as a long, or -1 if the ID is not a plain non-negative number
+     */
+    public long getNumericId() 
+    { 
+    	return textId != null ? -1 : numericId; 
     }
     
     public TransactionType getType() 
@@ -101,7 +168,16 @@ public class Transaction
     
     public LocalDateTime getTimestamp() 
     { 
-    	return timestamp; 
+    	return fromEpochMicros(timestampMicros); 
+    }
+
+    /**
+     * Gets the timestamp without allocating a LocalDateTime.
+     * @return Microseconds since 1970-01-01T00:00 in local time
+     */
+    public long getTimestampMicros() 
+    { 
+    	return timestampMicros; 
     }
     
     public String getDescription() 
@@ -115,7 +191,30 @@ public class Transaction
      */
     public String getTimestampAsString() 
     {
-        return timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return getTimestamp().format(DB_FORMATTER);
+    }
+
+    /**
+     * Converts a local date-time to the epoch microseconds kept by transactions.
+     * Sub-microsecond precision is dropped.
+     * @param timestamp The date and time to convert
+     * @return Microseconds since 1970-01-01T00:00
+     */
+    public static long toEpochMicros(LocalDateTime timestamp)
+    {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + timestamp.getNano() / 1_000;
+    }
+
+    /**
+     * Converts epoch microseconds back to a local date-time.
+     * @param micros Microseconds since 1970-01-01T00:00
+     * @return The matching date and time
+     */
+    public static LocalDateTime fromEpochMicros(long micros)
+    {
+        long seconds = Math.floorDiv(micros, MICROS_PER_SECOND);
+        int nanos = (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
     }
 
     /**
@@ -128,4 +227,55 @@ public class Transaction
         return String.format("[%s] %s: %.2f - %s", 
             getTimestampAsString(), type.getDisplayName(), amount, description);
     }
-}
\ No newline at end of file
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Reads the local wall clock as epoch microseconds without building a LocalDateTime.
+     */
+    private static long nowMicros()
+    {
+        Instant now = Instant.now();
+        long localSeconds = now.getEpochSecond() + LOCAL_ZONE.getOffset(now).getTotalSeconds();
+        return localSeconds * MICROS_PER_SECOND + now.getNano() / 1_000;
+    }
+
+    /**
+     * Parses an ID that is the canonical decimal form of a non-negative long,
+     * so that getId() gives back exactly the same text.
+     * @return The numeric ID, or -1 if the ID must be kept as text
+     */
+    private static long parseNumericId(String id)
+    {
+        int length = id == null ? 0 : id.length();
+        if (length == 0 || length > 18 || (length > 1 && id.charAt(0) == '0'))
+        {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parses a DB or ISO timestamp with the fixed-position parser.
+     * @throws IllegalArgumentException if the text matches neither format
+     */
+    private static long parseTimestamp(String timestamp)
+    {
+        long micros = TimestampParser.parseMicros(timestamp);
+        if (micros == TimestampParser.INVALID)
+        {
+            throw new IllegalArgumentException("Unable to parse timestamp: " + timestamp);
+        }
+        return micros;
+    }
+}
@@ -5,16 +5,35 @@
  */
 package com.bank.model;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum TransactionType 
 {
 	/* Standard transaction types */
     DEPOSIT("Deposit"),
     WITHDRAW("Withdraw"),
-    TRANSFER("Transfer");
+    TRANSFER("Transfer"),
+    INTEREST("Interest");
 
 	/* Human-readable display name for the transaction type */
     private final String displayName;
 
+    /* Enum names and display names in the spellings stored by the engines, upper-cased ones as fallback */
+    private static final Map<String, TransactionType> LOOKUP = new HashMap<>();
+
+    static
+    {
+        for (TransactionType type : values())
+        {
+            LOOKUP.put(type.name(), type);
+            LOOKUP.put(type.displayName, type);
+            LOOKUP.put(type.name().toLowerCase(Locale.ROOT), type);
+            LOOKUP.put(type.displayName.toUpperCase(Locale.ROOT), type);
+        }
+    }
+
     /**
      * Constructs a TransactionType with a display name.
      * @param displayName The human-readable name
@@ -36,6 +55,7 @@ public enum TransactionType
     /**
      * Safely converts a string value to a TransactionType enum constant.
      * Handles case-insensitive matching for both enum name and display name.
+     * The usual spellings hit a precomputed map directly; any other casing costs one upper-casing.
      * @param value The string to convert (e.g., "DEPOSIT", "deposit", "Deposit")
      * @return The corresponding TransactionType
      * @throws IllegalArgumentException if no matching type is found
@@ -43,11 +63,14 @@ public enum TransactionType
     public static TransactionType fromString(String value) 
     {
         if (value == null) return null;
-        for (TransactionType type : TransactionType.values()) {
-            if (type.name().equalsIgnoreCase(value) || type.displayName.equalsIgnoreCase(value)) 
-            {
-                return type;
-            }
+        TransactionType type = LOOKUP.get(value);
+        if (type == null)
+        {
+            type = LOOKUP.get(value.toUpperCase(Locale.ROOT));
+        }
+        if (type != null)
+        {
+            return type;
         }
         throw new IllegalArgumentException("No enum constant for value: " + value);
     }
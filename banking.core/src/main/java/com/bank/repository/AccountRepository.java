@@ -1,19 +1,292 @@
 /*
  * Specific repository interface for Account entities.
- * Extends the generic Repository interface to provide a specialized contract for account data.
- * This interface can be used to add account-specific query methods in the future.
+ * Extends the generic Repository interface to provide a specialized contract for account data,
+ * including per-customer and per-type queries, keyset pages and backpressured streams.
  */
 package com.bank.repository;
 
 import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.CurrentAccount;
+import com.bank.model.HistoryTotal;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
 
 public interface AccountRepository extends Repository<Account> 
 {
-	 /* 
-	  * Placeholder for account-specific logic.
-	  * Future methods could include: findByCustomerId(String customerId) or findByType(String type).
-	  */
+	/**
+     * Checks whether an account exists without loading it or its history.
+     * The default implementation calls findById(); engines override it with a key lookup.
+     * @param id The account ID
+     * @return true if the account exists
+     */
+	default boolean existsById(String id) 
+	{
+		return findById(id) != null;
+	}
+	
+	/**
+     * Finds all accounts owned by one customer.
+     * The default implementation filters findAll(); engines override it with an index lookup
+     * (accounts.customer_id index in SQL, a customer multimap in memory).
+     * @param customerId The owning customer's ID
+     * @return The customer's accounts (empty if there are none)
+     */
+	default List<Account> findByCustomerId(String customerId) 
+	{
+		return findAll().stream().filter(account -> customerId.equals(account.getCustomerId())).toList();
+	}
+	
+	/**
+     * Finds all accounts of one type.
+     * @param type The account type: SAVINGS or CURRENT (case-insensitive)
+     * @return The accounts of that type
+     * @throws IllegalArgumentException if the type is invalid
+     */
+	default List<Account> findByType(String type) 
+	{
+		Class<? extends Account> accountClass = accountClass(type);
+		return findAll().stream().filter(accountClass::isInstance).toList();
+	}
+	
+	/**
+     * Counts the accounts owned by one customer without loading them.
+     * @param customerId The owning customer's ID
+     * @return Number of accounts the customer owns
+     */
+	default int countByCustomerId(String customerId) 
+	{
+		return findByCustomerId(customerId).size();
+	}
+	
+	/**
+     * Sums the balances of the accounts owned by one customer without loading their history.
+     * @param customerId The owning customer's ID
+     * @return Total balance of the customer's accounts (0 if there are none)
+     */
+	default double sumBalanceByCustomerId(String customerId) 
+	{
+		return findByCustomerId(customerId).stream().mapToDouble(Account::getBalance).sum();
+	}
+	
+	/**
+     * Sums the balances of every account without loading any history.
+     * The default implementation walks the balance pages; JDBC engines run one aggregate query.
+     * @return Total balance of all accounts (0 if there are none)
+     */
+	default double sumBalances() 
+	{
+		double total = 0;
+		String cursor = null;
+		Map<String, Double> page;
+		do 
+		{
+			page = findBalancePage(null, cursor, CursorPublisher.DEFAULT_PAGE_SIZE);
+			for (Map.Entry<String, Double> balance : page.entrySet()) 
+			{
+				total += balance.getValue();
+				cursor = balance.getKey();
+			}
+		} 
+		while (page.size() == CursorPublisher.DEFAULT_PAGE_SIZE);
+		return total;
+	}
+	
+	/**
+     * Retrieves one page of an account's transactions in history order, starting after a cursor.
+     * The default implementation walks the account's loaded history; engines override it with a
+     * range read that only touches the requested page.
+     * @param accountId           The account whose history is read
+     * @param afterTransactionId  The ID of the last transaction of the previous page, or null for the first page
+     * @param limit               Maximum number of transactions to return (at least 1)
+     * @return Up to limit transactions following the cursor (empty if the account or cursor is unknown)
+     */
+	default List<Transaction> findTransactionPage(String accountId, String afterTransactionId, int limit)
+	{
+		Account account = findById(accountId);
+		if (account == null)
+		{
+			return new ArrayList<>();
+		}
+		List<Transaction> history = account.getTransactions();
+		int start = 0;
+		if (afterTransactionId != null)
+		{
+			while (start < history.size() && !history.get(start).getId().equals(afterTransactionId))
+			{
+				start++;
+			}
+			start++;						/* first transaction after the cursor */
+		}
+		return new ArrayList<>(history.subList(Math.min(start, history.size()), Math.min(start + limit, history.size())));
+	}
+
+	/**
+     * Retrieves one page of accounts for listings that show only the account fields.
+     * The default implementation returns findPage(); engines that read history from storage
+     * override it and leave the history unloaded.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return
+     * @return Up to limit accounts with IDs greater than afterId, ordered by ID
+     */
+	default List<Account> findPageRows(String afterId, int limit)
+	{
+		return findPage(afterId, limit);
+	}
+
+	/**
+     * Streams every account in ID order with backpressure.
+     * The default implementation reads findPage() one page at a time as subscribers request;
+     * JDBC engines stream from a single cursor instead and leave the history unloaded
+     * (stream it with streamTransactions(accountId)).
+     * @return A publisher that opens a new cursor for every subscriber
+     */
+	default Flow.Publisher<Account> streamAll()
+	{
+		return new CursorPublisher<>(() -> CursorPublisher.pages(this::findPage, CursorPublisher.DEFAULT_PAGE_SIZE));
+	}
+
+	/**
+     * Streams one account's transactions in history order with backpressure.
+     * The default implementation reads findTransactionPage() one page at a time.
+     * @param accountId The account whose history is streamed
+     * @return A publisher that opens a new cursor for every subscriber (empty if the account is unknown)
+     */
+	default Flow.Publisher<Transaction> streamTransactions(String accountId)
+	{
+		return new CursorPublisher<>(() -> CursorPublisher.pages(
+			(afterId, limit) -> findTransactionPage(accountId, afterId, limit), CursorPublisher.DEFAULT_PAGE_SIZE));
+	}
+
+	/**
+     * Streams the transactions of all accounts whose timestamp lies in [from, to) with backpressure.
+     * @param from Start of the window (inclusive)
+     * @param to   End of the window (exclusive)
+     * @return A publisher that opens a new cursor for every subscriber
+     */
+	default Flow.Publisher<AccountTransaction> streamTransactions(LocalDateTime from, LocalDateTime to)
+	{
+		return streamTransactions(TransactionQuery.builder().between(from, to).build());
+	}
+
+	/**
+     * Streams the transactions matching a query (account, time window, type, minimum amount) with backpressure.
+     * The default implementation walks the account pages (or the one queried account) and filters each
+     * history page, so transactions are grouped by account; JDBC engines push the whole filter into one
+     * time-ordered query on the transactions indexes.
+     * @param query The filter to apply
+     * @return A publisher that opens a new cursor for every subscriber
+     */
+	default Flow.Publisher<AccountTransaction> streamTransactions(TransactionQuery query)
+	{
+		return scanTransactions(this, query);
+	}
+
+	/**
+     * Streams the transactions matching a query by walking a repository's account and history pages.
+     * Backs the default streamTransactions(query) and engines whose history is kept outside SQL.
+     * @param repository The repository to walk
+     * @param query      The filter to apply
+     * @return A publisher that opens a new cursor for every subscriber
+     */
+	static Flow.Publisher<AccountTransaction> scanTransactions(AccountRepository repository, TransactionQuery query)
+	{
+		return new CursorPublisher<>(() -> new CursorPublisher.Cursor<AccountTransaction>()
+		{
+			/* Pages of all accounts, or null when the query names one account */
+			private final CursorPublisher.Cursor<Account> accounts = query.getAccountId() == null
+				? CursorPublisher.pages(repository::findPage, CursorPublisher.DEFAULT_PAGE_SIZE) : null;
+			private boolean queriedAccountRead;
+			private String accountId;
+			private CursorPublisher.Cursor<Transaction> history;
+
+			@Override
+			public AccountTransaction next() throws Exception
+			{
+				while (true)
+				{
+					Transaction transaction = history == null ? null : history.next();
+					if (transaction == null)
+					{
+						String nextAccountId = nextAccountId();
+						if (nextAccountId == null)
+						{
+							return null;
+						}
+						accountId = nextAccountId;
+						history = CursorPublisher.pages(
+							(afterId, limit) -> repository.findTransactionPage(nextAccountId, afterId, limit),
+							CursorPublisher.DEFAULT_PAGE_SIZE);
+					}
+					else if (query.matches(transaction))
+					{
+						return new AccountTransaction(accountId, transaction);
+					}
+				}
+			}
+
+			private String nextAccountId() throws Exception
+			{
+				if (accounts == null)
+				{
+					String queried = queriedAccountRead ? null : query.getAccountId();
+					queriedAccountRead = true;
+					return queried;
+				}
+				Account account = accounts.next();
+				return account == null ? null : account.getId();
+			}
+
+			@Override
+			public void close() throws Exception
+			{
+				if (accounts != null)
+				{
+					accounts.close();
+				}
+			}
+		});
+	}
+
+	/**
+     * Maps an account type name to its model class.
+     * @param type SAVINGS or CURRENT (case-insensitive)
+     * @return The matching Account subclass
+     * @throws IllegalArgumentException if the type is invalid
+     */
+	static Class<? extends Account> accountClass(String type) 
+	{
+		switch (type == null ? "" : type.toUpperCase()) 
+		{
+			case "SAVINGS":
+				return SavingsAccount.class;
+			case "CURRENT":
+				return CurrentAccount.class;
+			default:
+				throw new IllegalArgumentException("Invalid account type.");
+		}
+	}
+	
+	/**
+     * Opens a connection for a caller-managed transaction spanning several account updates.
+     * Storage engines that are not backed by JDBC return null; their Connection-taking
+     * methods ignore the connection argument.
+     * @return A new connection owned by the caller, or null if the engine has none
+     * @throws SQLException if a database access error occurs
+     */
+	default Connection openConnection() throws SQLException 
+	{
+		return null;
+	}
 	
 	/* Will be used Inside JdbcAccountRepository.java  in transfer API */
 	/**
@@ -26,7 +299,28 @@ public interface AccountRepository extends Repository<Account>
      * @throws RuntimeException wrapping SQLException on DB error
      */
 	public Account findById(Connection conn, String id);
-	
+
+	/**
+     * Finds several accounts using the provided Connection, e.g. both sides of a transfer.
+     * Engines that lock storage per part (see ShardedAccountRepository) override it to take
+     * their locks in one global order, so transactions reading the same accounts in opposite
+     * order cannot deadlock.
+     *
+     * @param conn The JDBC connection to use (null for engines without JDBC)
+     * @param ids  The account ids to search for
+     * @return The accounts in the order of ids, with null for ids that were not found
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+	default List<Account> findByIds(Connection conn, List<String> ids)
+	{
+		List<Account> accounts = new ArrayList<>(ids.size());
+		for (String id : ids)
+		{
+			accounts.add(findById(conn, id));
+		}
+		return accounts;
+	}
+
 	/**
      * Update persistent fields of the given account using the provided Connection.
      * This update participates in the caller-managed transaction and must not commit/rollback the connection.
@@ -37,4 +331,321 @@ public interface AccountRepository extends Repository<Account>
      */
 	public void update(Connection conn, Account account); 
 	
-}
\ No newline at end of file
+	/**
+     * Persists one new transaction of an account using the provided Connection.
+     * Participates in the caller-managed transaction like update(Connection, Account).
+     * Engines that keep live account objects already hold the transaction and do nothing.
+     *
+     * @param conn        The JDBC connection to use (null for engines without JDBC)
+     * @param accountId   The account the transaction belongs to
+     * @param transaction The transaction to persist
+     * @throws RuntimeException if a database error occurs
+     */
+	default void appendTransaction(Connection conn, String accountId, Transaction transaction) 
+	{
+	}
+	
+	/**
+     * Persists several new transactions of one account using the provided Connection, oldest first.
+     * Participates in the caller-managed transaction like appendTransaction; JDBC engines insert the
+     * rows as one batch.
+     *
+     * @param conn         The JDBC connection to use (null for engines without JDBC)
+     * @param accountId    The account the transactions belong to
+     * @param transactions The transactions to persist, oldest first
+     * @throws RuntimeException if a database error occurs
+     */
+	default void appendTransactions(Connection conn, String accountId, List<Transaction> transactions) 
+	{
+		for (Transaction transaction : transactions) 
+		{
+			appendTransaction(conn, accountId, transaction);
+		}
+	}
+	
+	/**
+     * Reads one keyset page of the balances of one account type, without loading any history.
+     * Meant for bank-wide batch jobs such as interest accrual and reconciliation. The default
+     * implementation filters findPage(); JDBC engines read only the id and balance columns.
+     *
+     * @param type    The account type: SAVINGS or CURRENT (case-insensitive), or null for every type
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of balances to return
+     * @return Account ID -> balance for up to limit accounts with IDs greater than afterId, in ID order
+     * @throws IllegalArgumentException if the type is invalid
+     */
+	default Map<String, Double> findBalancePage(String type, String afterId, int limit) 
+	{
+		Class<? extends Account> accountClass = type == null ? Account.class : accountClass(type);
+		Map<String, Double> page = new LinkedHashMap<>();
+		String cursor = afterId;
+		while (page.size() < limit) 
+		{
+			List<Account> accounts = findPage(cursor, limit);
+			if (accounts.isEmpty()) 
+			{
+				break;
+			}
+			for (Account account : accounts) 
+			{
+				if (accountClass.isInstance(account) && page.size() < limit) 
+				{
+					page.put(account.getId(), account.getBalance());
+				}
+			}
+			cursor = accounts.get(accounts.size() - 1).getId();
+		}
+		return page;
+	}
+	
+	/**
+     * Rolls up the transaction history of every account whose ID lies in (afterId, toId], without
+     * loading the records. Together with findBalancePage(null, ...) it lets a reconciliation job
+     * merge-join balances and histories in account-ID order. The default implementation walks
+     * findPage() and sums each loaded history; JDBC engines run one grouped query on the
+     * account index, which also reports records whose account row is missing.
+     *
+     * @param afterId The ID after which the range starts, or null for the first account
+     * @param toId    The last ID of the range (inclusive), or null for no upper bound
+     * @return Account ID -> history roll-up for the accounts in the range that have records, in ID order
+     */
+	default Map<String, HistoryTotal> findHistoryTotals(String afterId, String toId) 
+	{
+		Map<String, HistoryTotal> totals = new LinkedHashMap<>();
+		String cursor = afterId;
+		while (true) 
+		{
+			List<Account> accounts = findPage(cursor, CursorPublisher.DEFAULT_PAGE_SIZE);
+			for (Account account : accounts) 
+			{
+				if (toId != null && account.getId().compareTo(toId) > 0) 
+				{
+					return totals;
+				}
+				List<Transaction> history = account.getTransactions();
+				if (!history.isEmpty()) 
+				{
+					totals.put(account.getId(), HistoryTotal.of(history));
+				}
+			}
+			if (accounts.size() < CursorPublisher.DEFAULT_PAGE_SIZE) 
+			{
+				return totals;
+			}
+			cursor = accounts.get(accounts.size() - 1).getId();
+		}
+	}
+	
+	/**
+     * Returns the balance an account had at a point in time: the net amount of its records
+     * timestamped before it (compared to the second, as stored). The default implementation replays
+     * the loaded history; JDBC engines start from the account's latest balance checkpoint at or
+     * before the time and add only the records after it, so the cost does not grow with the history.
+     *
+     * @param accountId The account ID
+     * @param at        The point in time
+     * @return The balance at that time, or null if the account does not exist
+     */
+	default Double findBalanceAsOf(String accountId, LocalDateTime at) 
+	{
+		return replayBalanceAsOf(this, accountId, at);
+	}
+	
+	/**
+     * Returns the balance of every account at a point in time, like findBalanceAsOf.
+     * The default implementation replays the history of every account page by page;
+     * JDBC engines answer with one set-based query over accounts, checkpoints and the tail records.
+     *
+     * @param at The point in time
+     * @return Account ID -> balance at that time, in ID order
+     */
+	default Map<String, Double> findBalancesAsOf(LocalDateTime at) 
+	{
+		return replayBalancesAsOf(this, at);
+	}
+	
+	/**
+     * Records a balance checkpoint at asOf for every account that has records in [from, asOf):
+     * its latest checkpoint before asOf plus the net amount of its records since that checkpoint.
+     * A checkpoint is thus right whenever the one before it is, and re-running a step replaces its
+     * checkpoints with the same values. Meant to run once per completed day; records must not be
+     * backdated before an existing checkpoint.
+     * Engines that replay history in memory keep no checkpoints and write nothing.
+     *
+     * @param from  Start of the window that selects the active accounts, or null for the beginning
+     * @param asOf  The checkpoint time (exclusive end of the window)
+     * @return Number of checkpoints written
+     */
+	default int checkpointBalances(LocalDateTime from, LocalDateTime asOf) 
+	{
+		return 0;
+	}
+	
+	/**
+     * Returns the highest numeric transaction ID in storage, so that new IDs can start above it.
+     * The default implementation walks the account pages and their loaded history; JDBC engines run
+     * one aggregate query answered from a partial index on the numeric IDs and the ledger engine keeps the maximum of its index.
+     * Archived records are not read: they are older than the hot ones.
+     * @return The highest numeric ID, or -1 if no record has one
+     */
+	default long findMaxTransactionId() 
+	{
+		long max = -1;
+		String cursor = null;
+		List<Account> page;
+		do 
+		{
+			page = findPage(cursor, CursorPublisher.DEFAULT_PAGE_SIZE);
+			for (Account account : page) 
+			{
+				for (Transaction transaction : account.getTransactions()) 
+				{
+					max = Math.max(max, transaction.getNumericId());
+				}
+			}
+			cursor = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+		} 
+		while (page.size() == CursorPublisher.DEFAULT_PAGE_SIZE);
+		return max;
+	}
+	
+	/**
+     * Moves every transaction record timestamped before a cutoff out of the hot transactions table
+     * into cold storage (compressed per-account archive files) and leaves a roll-up behind: the number
+     * and net amount of the archived records, which is the account's opening balance at the cutoff,
+     * also recorded as a balance checkpoint there. History pages, streams, roll-ups and balance-as-of
+     * queries merge archived and hot records, so callers see the same history as before; loading an
+     * account (findById) only reads its hot records. Records must not be backdated before the cutoff.
+     * Engines without a hot table, or without an archive configured, keep every record and move nothing.
+     *
+     * @param before The cutoff (exclusive), e.g. midnight of the oldest day to keep hot
+     * @return Number of records archived
+     * @throws RuntimeException if writing the archive or the database fails; committed accounts stay archived
+     */
+	default int archiveTransactions(LocalDateTime before) 
+	{
+		return 0;
+	}
+	
+	/**
+     * Returns the roll-up of an account's archived records (zero when nothing is archived).
+     * Added to HistoryTotal.of(findById(id).getTransactions()), it gives the roll-up of the full history.
+     *
+     * @param accountId The account ID
+     * @return Number and net amount of the archived records
+     */
+	default HistoryTotal findArchivedTotal(String accountId) 
+	{
+		return new HistoryTotal(0, 0);
+	}
+	
+	/**
+     * Computes an account's balance at a point in time by replaying its loaded history.
+     * Backs the default findBalanceAsOf and engines whose history is kept outside SQL.
+     * @param repository The repository to read
+     * @param accountId  The account ID
+     * @param at         The point in time
+     * @return The balance at that time, or null if the account does not exist
+     */
+	static Double replayBalanceAsOf(AccountRepository repository, String accountId, LocalDateTime at) 
+	{
+		Account account = repository.findById(accountId);
+		return account == null ? null : replayHistory(account.getTransactions(), at);
+	}
+	
+	/**
+     * Computes the balance of every account at a point in time by replaying the history of every page.
+     * Backs the default findBalancesAsOf and engines whose history is kept outside SQL.
+     * @param repository The repository to walk
+     * @param at         The point in time
+     * @return Account ID -> balance at that time, in ID order
+     */
+	static Map<String, Double> replayBalancesAsOf(AccountRepository repository, LocalDateTime at) 
+	{
+		Map<String, Double> balances = new LinkedHashMap<>();
+		String cursor = null;
+		List<Account> page;
+		do 
+		{
+			page = repository.findPage(cursor, CursorPublisher.DEFAULT_PAGE_SIZE);
+			for (Account account : page) 
+			{
+				balances.put(account.getId(), replayHistory(account.getTransactions(), at));
+				cursor = account.getId();
+			}
+		} 
+		while (page.size() == CursorPublisher.DEFAULT_PAGE_SIZE);
+		return balances;
+	}
+	
+	/**
+     * Sums the signed amounts of the records timestamped before a time, both taken to the second.
+     * Also used by engines that answer balance-as-of queries from archived records.
+     * @param history The records of one account
+     * @param at      The point in time
+     * @return The balance those records add up to at that time
+     */
+	static double replayHistory(List<Transaction> history, LocalDateTime at) 
+	{
+		LocalDateTime end = at.truncatedTo(ChronoUnit.SECONDS);
+		double balance = 0;
+		for (Transaction transaction : history) 
+		{
+			if (transaction.getTimestamp().truncatedTo(ChronoUnit.SECONDS).isBefore(end)) 
+			{
+				balance += HistoryTotal.signedAmount(transaction.getType(), transaction.getAmount());
+			}
+		}
+		return balance;
+	}
+	
+	/**
+     * Credits several accounts inside the caller-managed transaction, one amount and one record per
+     * account (e.g. a batch of interest postings). The balance of each account grows by the amount of
+     * its record. The default implementation updates the accounts one by one; JDBC engines run one
+     * batched relative balance update and one batched insert.
+     *
+     * @param conn    The JDBC connection to use (null for engines without JDBC)
+     * @param credits Account ID -> credit record (type DEPOSIT or INTEREST, positive amount)
+     * @throws RuntimeException if an account does not exist or a database error occurs
+     */
+	default void applyCredits(Connection conn, Map<String, Transaction> credits) 
+	{
+		for (Map.Entry<String, Transaction> credit : credits.entrySet()) 
+		{
+			Account account = findById(conn, credit.getKey());
+			if (account == null) 
+			{
+				throw new RuntimeException("Credit affected 0 rows for account id=" + credit.getKey());
+			}
+			account.applyDeposit(credit.getValue());
+			update(conn, account);
+			appendTransaction(conn, account.getId(), credit.getValue());
+		}
+	}
+	
+	/**
+     * Looks up the stored result of an idempotency key inside the caller-managed transaction.
+     *
+     * @param conn    The JDBC connection to use (null for engines without JDBC)
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request (operation, accounts and amount) the key must belong to
+     * @return The result recorded for the key, or null if the key is unknown
+     * @throws IllegalArgumentException if the key was recorded for a different request
+     * @throws RuntimeException if a database error occurs
+     */
+	Double findIdempotentResult(Connection conn, String key, String request);
+	
+	/**
+     * Records the result of an idempotency key inside the caller-managed transaction, so the key
+     * becomes visible exactly when the money movement it guards is committed.
+     *
+     * @param conn    The JDBC connection to use (null for engines without JDBC)
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request the key belongs to
+     * @param result  The result returned to the client (the resulting balance)
+     * @throws RuntimeException if a database error occurs
+     */
+	void saveIdempotencyKey(Connection conn, String key, String request, double result);
+	
+}
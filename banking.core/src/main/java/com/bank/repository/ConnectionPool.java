@@ -0,0 +1,196 @@
+/*
+ * Small fixed-size pool of JDBC connections to one database.
+ * Connections are opened up front (in parallel by the startup sequencer) so the first
+ * operations do not pay for opening the SQLite file. Borrowed connections are proxies whose
+ * close() hands the physical connection back to the pool; a connection returned with an
+ * open transaction is rolled back and switched back to auto-commit first.
+ * When the pool is empty, callers wait for a connection to be returned, up to a timeout, so the
+ * number of open connections never exceeds the pool size.
+ * Implements FR-12 and FR-14: Concurrency.
+ */
+package com.bank.repository;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPool implements Closeable
+{
+	/* Default time a caller waits for a connection when all of them are in use */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    /* Idle physical connections */
+    private final BlockingQueue<Connection> idle;
+    /* Maximum time getConnection() waits for an idle connection */
+    private final long timeoutMillis;
+    /* Set once close() has been called */
+    private volatile boolean closed;
+
+    /**
+     * Opens a pool with the given number of connections and the default wait timeout.
+     * @param url  The JDBC URL to connect to
+     * @param size The number of connections to keep open
+     * @throws SQLException if a connection cannot be opened
+     */
+    public ConnectionPool(String url, int size) throws SQLException
+    {
+        this(url, size, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Opens a pool with the given number of connections.
+     * @param url           The JDBC URL to connect to
+     * @param size          The number of connections to keep open
+     * @param timeoutMillis Maximum time getConnection() waits when all connections are in use
+     * @throws SQLException if a connection cannot be opened
+     */
+    public ConnectionPool(String url, int size, long timeoutMillis) throws SQLException
+    {
+        this.idle = new LinkedBlockingQueue<>(size);
+        this.timeoutMillis = timeoutMillis;
+        for (int i = 0; i < size; i++)
+        {
+            idle.add(DriverManager.getConnection(url));
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting for one to be returned if all are in use.
+     * Closing the returned connection returns it to the pool.
+     * @return A pooled connection
+     * @throws SQLException if the pool is closed, no connection was returned within the timeout,
+     *                      or the calling thread was interrupted while waiting
+     */
+    public Connection getConnection() throws SQLException
+    {
+        if (closed)
+        {
+            throw new SQLException("Connection pool is closed");
+        }
+        Connection physical;
+        try
+        {
+            physical = idle.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        if (physical == null)
+        {
+            throw new SQLException("No pooled connection available after " + timeoutMillis + " ms");
+        }
+        if (closed)
+        {
+            closeQuietly(physical);
+            throw new SQLException("Connection pool is closed");
+        }
+        return wrap(physical);
+    }
+
+    /**
+     * Returns the number of idle connections.
+     * @return The idle connection count
+     */
+    public int getIdleCount()
+    {
+        return idle.size();
+    }
+
+    /**
+     * Closes all idle connections; borrowed connections are closed when they are returned.
+     * Implements FR-15: Graceful Shutdown.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null)
+        {
+            closeQuietly(connection);
+        }
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Wraps a physical connection in a proxy whose close() and isClosed() are pool-aware.
+     */
+    private Connection wrap(Connection physical)
+    {
+        boolean[] returned = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName())
+                {
+                    case "close":
+                        if (!returned[0])
+                        {
+                            returned[0] = true;
+                            release(physical);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned[0] || physical.isClosed();
+                    default:
+                        if (returned[0])
+                        {
+                            throw new SQLException("Connection has been returned to the pool");
+                        }
+                        try
+                        {
+                            return method.invoke(physical, args);
+                        }
+                        catch (InvocationTargetException e)
+                        {
+                            throw e.getCause();
+                        }
+                }
+            });
+    }
+
+    private void release(Connection physical)
+    {
+        try
+        {
+            if (physical.isClosed())
+            {
+                return;
+            }
+            if (!physical.getAutoCommit())
+            {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        }
+        catch (SQLException e)
+        {
+            closeQuietly(physical);
+            return;
+        }
+        if (closed || !idle.offer(physical))
+        {
+            closeQuietly(physical);
+        }
+    }
+
+    private static void closeQuietly(Connection connection)
+    {
+        try
+        {
+            connection.close();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+}
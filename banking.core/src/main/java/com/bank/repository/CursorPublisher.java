@@ -0,0 +1,390 @@
+/*
+ * Flow.Publisher that streams the rows of a cursor (a JDBC ResultSet or a sequence of pages)
+ * with backpressure. Every subscription opens its own cursor on the first request and reads
+ * one element per unit of demand, so a slow subscriber keeps the cursor where it is instead of
+ * letting rows pile up in memory. The cursor (and with it the JDBC connection) is closed as soon
+ * as it is exhausted, fails, or the subscription is cancelled.
+ *
+ * Signals of one subscription are emitted by one drain loop at a time on the publisher's
+ * executor (virtual threads by default, since cursor reads block). request() and cancel() only
+ * record the new state and schedule the loop, so they are safe to call from any thread,
+ * including from inside onNext.
+ * Implements FR-11 and FR-13 for streaming consumers.
+ */
+package com.bank.repository;
+
+import com.bank.model.Identifiable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+public class CursorPublisher<T> implements Flow.Publisher<T>
+{
+	/* Page size used when a cursor is built from keyset-paginated queries */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /* Runs each drain loop on a new virtual thread */
+    private static final Executor VIRTUAL_THREADS = task -> Thread.ofVirtual().name("cursor-publisher").start(task);
+
+    /**
+     * Forward-only source of elements owned by one subscription.
+     */
+    public interface Cursor<T> extends AutoCloseable
+    {
+        /**
+         * Reads the next element.
+         * @return The next element, or null when the cursor is exhausted
+         * @throws Exception if reading fails; the subscriber receives it through onError
+         */
+        T next() throws Exception;
+    }
+
+    /**
+     * Opens a new cursor for a subscription.
+     */
+    @FunctionalInterface
+    public interface CursorOpener<T>
+    {
+        Cursor<T> open() throws Exception;
+    }
+
+    /* Opens the cursor of each subscription */
+    private final CursorOpener<T> opener;
+    /* Runs the drain loops */
+    private final Executor executor;
+
+    /**
+     * Constructs a publisher whose subscriptions drain on virtual threads.
+     * @param opener Opens the cursor of each subscription on its first request
+     */
+    public CursorPublisher(CursorOpener<T> opener)
+    {
+        this(opener, VIRTUAL_THREADS);
+    }
+
+    /**
+     * Constructs a publisher whose subscriptions drain on the given executor.
+     * @param opener   Opens the cursor of each subscription on its first request
+     * @param executor Runs the drain loops; must not run tasks on the calling thread
+     */
+    public CursorPublisher(CursorOpener<T> opener, Executor executor)
+    {
+        this.opener = Objects.requireNonNull(opener);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Subscribes a subscriber; the cursor is not opened until it requests elements.
+     * @param subscriber The subscriber to stream to
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber)
+    {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new CursorSubscription<>(subscriber, opener, executor));
+    }
+
+    /**
+     * Returns a cursor that walks a keyset-paginated query one page at a time,
+     * so at most one page is held in memory.
+     * @param pageLoader Loads the page after an ID cursor (null for the first page)
+     * @param pageSize   Number of elements per page
+     * @return A cursor over all pages
+     */
+    public static <T extends Identifiable> Cursor<T> pages(BiFunction<String, Integer, List<T>> pageLoader, int pageSize)
+    {
+        return new Cursor<T>()
+        {
+            private List<T> page = List.of();
+            private int position;
+            private boolean lastPage;
+
+            @Override
+            public T next()
+            {
+                if (position == page.size())
+                {
+                    if (lastPage)
+                    {
+                        return null;
+                    }
+                    String afterId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+                    page = pageLoader.apply(afterId, pageSize);
+                    position = 0;
+                    lastPage = page.size() < pageSize;
+                    if (page.isEmpty())
+                    {
+                        return null;
+                    }
+                }
+                return page.get(position++);
+            }
+
+            @Override
+            public void close()
+            {
+                page = List.of();
+                lastPage = true;
+            }
+        };
+    }
+
+    /**
+     * Returns a cursor over elements already in memory, e.g. records read from an archive
+     * that are merged with a query cursor.
+     * @param elements The elements, in cursor order
+     * @return A cursor over the list
+     */
+    public static <T> Cursor<T> of(List<T> elements)
+    {
+        return new Cursor<T>()
+        {
+            private int position;
+
+            @Override
+            public T next()
+            {
+                return position < elements.size() ? elements.get(position++) : null;
+            }
+
+            @Override
+            public void close()
+            {
+                position = elements.size();
+            }
+        };
+    }
+
+    /**
+     * Returns a cursor that merges cursors which are each sorted by the same order,
+     * e.g. the per-shard results of one query. One element per source is buffered.
+     * Closing the merged cursor closes every source.
+     * @param sources    The sorted cursors to merge (owned by the returned cursor)
+     * @param comparator The order the sources are sorted by
+     * @return A cursor over all elements in comparator order
+     */
+    public static <T> Cursor<T> merge(List<Cursor<T>> sources, Comparator<? super T> comparator)
+    {
+        return new Cursor<T>()
+        {
+            /* Head element of each source that still has elements, paired with its source index */
+            private PriorityQueue<Map.Entry<T, Integer>> heads;
+
+            @Override
+            public T next() throws Exception
+            {
+                if (heads == null)
+                {
+                    heads = new PriorityQueue<>(Math.max(1, sources.size()), Map.Entry.comparingByKey(comparator));
+                    for (int i = 0; i < sources.size(); i++)
+                    {
+                        advance(i);
+                    }
+                }
+                Map.Entry<T, Integer> head = heads.poll();
+                if (head == null)
+                {
+                    return null;
+                }
+                advance(head.getValue());
+                return head.getKey();
+            }
+
+            private void advance(int source) throws Exception
+            {
+                T element = sources.get(source).next();
+                if (element != null)
+                {
+                    heads.add(Map.entry(element, source));
+                }
+            }
+
+            @Override
+            public void close() throws Exception
+            {
+                Exception failure = null;
+                for (Cursor<T> source : sources)
+                {
+                    try
+                    {
+                        source.close();
+                    }
+                    catch (Exception e)
+                    {
+                        failure = failure == null ? e : failure;
+                    }
+                }
+                if (failure != null)
+                {
+                    throw failure;
+                }
+            }
+        };
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /*
+     * One subscription: demand and cancellation are published by any thread,
+     * the cursor is only touched by the drain loop.
+     */
+    private static final class CursorSubscription<T> implements Flow.Subscription, Runnable
+    {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final CursorOpener<T> opener;
+        private final Executor executor;
+
+        /* Requested but not yet delivered elements; Long.MAX_VALUE means unbounded */
+        private final AtomicLong demand = new AtomicLong();
+        /* Number of pending drain requests; the loop runs while it is non-zero */
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        /* Set by an illegal request(n), reported by the drain loop (rule 3.9) */
+        private volatile IllegalArgumentException badRequest;
+
+        /* Drain loop state */
+        private Cursor<T> cursor;
+        private boolean done;
+
+        CursorSubscription(Flow.Subscriber<? super T> subscriber, CursorOpener<T> opener, Executor executor)
+        {
+            this.subscriber = subscriber;
+            this.opener = opener;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                badRequest = new IllegalArgumentException("Requested element count must be positive, was " + n);
+            }
+            else
+            {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule()
+        {
+            if (pending.getAndIncrement() == 0)
+            {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            int missed = 1;
+            do
+            {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain()
+        {
+            if (done)
+            {
+                return;
+            }
+            if (cancelled)
+            {
+                finish();
+                return;
+            }
+            if (badRequest != null)
+            {
+                finish();
+                subscriber.onError(badRequest);
+                return;
+            }
+
+            long requested = demand.get();
+            long emitted = 0;
+            while (emitted < requested)
+            {
+                if (cancelled)
+                {
+                    finish();
+                    return;
+                }
+                T element;
+                try
+                {
+                    if (cursor == null)
+                    {
+                        cursor = opener.open();
+                    }
+                    element = cursor.next();
+                }
+                catch (Exception e)
+                {
+                    finish();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (element == null)
+                {
+                    finish();
+                    subscriber.onComplete();
+                    return;
+                }
+                try
+                {
+                    subscriber.onNext(element);
+                }
+                catch (RuntimeException e)
+                {
+                    /* A throwing subscriber is treated as cancelled (rule 2.13) */
+                    finish();
+                    return;
+                }
+                emitted++;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE)
+            {
+                demand.addAndGet(-emitted);
+            }
+        }
+
+        /**
+         * Marks the subscription done and closes the cursor, releasing its connection.
+         */
+        private void finish()
+        {
+            done = true;
+            if (cursor != null)
+            {
+                try
+                {
+                    cursor.close();
+                }
+                catch (Exception e)
+                {
+                    System.err.println("Error closing cursor: " + e.getMessage());
+                }
+                cursor = null;
+            }
+        }
+    }
+}
@@ -7,14 +7,29 @@
 package com.bank.repository;
 
 import com.bank.model.Customer;
-import java.util.List;
 
-import com.bank.model.Customer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 public interface CustomerRepository extends Repository<Customer> 
 {
-	   /* 
-	    * Placeholder for customer-specific logic.
-	    * Future methods could include: findByEmail(String email) or findByName(String name).
-	    */
+	/**
+     * Checks which of several customer IDs exist, e.g. the owners of one batch of imported accounts.
+     * The default implementation calls findById() per ID; engines override it with a key lookup.
+     * @param ids The customer IDs to check
+     * @return The IDs that exist
+     */
+	default Set<String> findExistingIds(Collection<String> ids) 
+	{
+		Set<String> existing = new HashSet<>();
+		for (String id : ids) 
+		{
+			if (findById(id) != null) 
+			{
+				existing.add(id);
+			}
+		}
+		return existing;
+	}
 }
@@ -0,0 +1,177 @@
+/*
+ * SQLite schema of the JDBC repositories: the tables and indexes they read and write.
+ * Every statement is CREATE ... IF NOT EXISTS, so creating the schema of an existing database is a no-op.
+ * The tables are split by where they live in the SHARDED engine: customer tables in the main database
+ * and the shard directory, account tables in the main database and in every shard.
+ * Implements FR-12: Initialize Database.
+ */
+package com.bank.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public final class DatabaseSchema
+{
+    private DatabaseSchema()
+    {
+    }
+
+    /**
+     * Creates the tables of a single-file database: customer and account tables with their indexes.
+     * @param conn Connection to the database
+     * @throws SQLException if a statement fails
+     */
+    public static void create(Connection conn) throws SQLException
+    {
+        try (Statement stmt = conn.createStatement())
+        {
+            createCustomerTables(stmt);
+            createAccountTables(stmt);
+        }
+    }
+
+    /**
+     * Creates the customers, idempotency keys, job checkpoints and scheduled transfers tables if they don't exist.
+     * Used for the main database and the directory database of the SHARDED engine.
+     * @param stmt Statement of the target database
+     * @throws SQLException if a statement fails
+     */
+    public static void createCustomerTables(Statement stmt) throws SQLException
+    {
+        /* Create Customers table */
+        stmt.execute("CREATE TABLE IF NOT EXISTS customers (" +
+                "id TEXT PRIMARY KEY, " +
+                "name TEXT NOT NULL, " +
+                "email TEXT NOT NULL, " +
+                "phone TEXT NOT NULL)");
+
+        /* Create Idempotency Keys table (written in the same transaction as the money movement) */
+        stmt.execute("CREATE TABLE IF NOT EXISTS idempotency_keys (" +
+                "idempotency_key TEXT PRIMARY KEY, " +
+                "request TEXT NOT NULL, " +
+                "result REAL NOT NULL, " +
+                "created_at TEXT NOT NULL)");
+
+        /* Create Job Checkpoints table (progress of resumable batch jobs, written with the work it covers) */
+        stmt.execute("CREATE TABLE IF NOT EXISTS job_checkpoints (" +
+                "job TEXT NOT NULL, " +
+                "checkpoint_key TEXT NOT NULL, " +
+                "value TEXT NOT NULL, " +
+                "updated_at TEXT NOT NULL, " +
+                "PRIMARY KEY (job, checkpoint_key))");
+
+        /* Create Scheduled Transfers table (one-off transfers and standing orders, next run in epoch ms) */
+        stmt.execute("CREATE TABLE IF NOT EXISTS scheduled_transfers (" +
+                "id TEXT PRIMARY KEY, " +
+                "from_account_id TEXT NOT NULL, " +
+                "to_account_id TEXT NOT NULL, " +
+                "amount REAL NOT NULL, " +
+                "interval_ms INTEGER NOT NULL, " +
+                "next_run_at INTEGER NOT NULL, " +
+                "active INTEGER NOT NULL)");
+
+        /* Partial index behind the scheduler's loads and restart catch-up: active schedules by due time */
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_scheduled_transfers_due ON scheduled_transfers(next_run_at, id) WHERE active = 1");
+    }
+
+    /**
+     * Creates the accounts, transactions, balance checkpoints and archive partitions tables and their indexes if they don't exist.
+     * Used for the main database and every shard database of the SHARDED engine.
+     * @param stmt Statement of the target database
+     * @throws SQLException if a statement fails
+     */
+    public static void createAccountTables(Statement stmt) throws SQLException
+    {
+        /* Create Accounts table */
+        stmt.execute("CREATE TABLE IF NOT EXISTS accounts (" +
+                "id TEXT PRIMARY KEY, " +
+                "customer_id TEXT NOT NULL, " +
+                "type TEXT NOT NULL, " +
+                "balance REAL NOT NULL, " +
+                "FOREIGN KEY(customer_id) REFERENCES customers(id))");
+
+        /* Create Transactions table */
+        stmt.execute("CREATE TABLE IF NOT EXISTS transactions (" +
+                "id TEXT PRIMARY KEY, " +
+                "account_id TEXT NOT NULL, " +
+                "type TEXT NOT NULL, " +
+                "amount REAL NOT NULL, " +
+                "timestamp TEXT NOT NULL, " +
+                "description TEXT, " +
+                "FOREIGN KEY(account_id) REFERENCES accounts(id))");
+
+        /* Index behind AccountRepository.findByCustomerId and the per-customer aggregates */
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_accounts_customer_id ON accounts(customer_id)");
+
+        /* Index behind the keyset-paginated transaction history: (timestamp, id) order per account */
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_account_time ON transactions(account_id, timestamp, id)");
+
+        /* Indexes behind the bank-wide transaction queries: by time window, and by type within a window */
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_time ON transactions(timestamp)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_type_time ON transactions(type, timestamp)");
+
+        /* Partial index over the numeric IDs behind AccountRepository.findMaxTransactionId (one seek at startup) */
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_numeric_id ON transactions(CAST(id AS INTEGER)) "
+                + "WHERE id <> '' AND id NOT GLOB '*[^0-9]*'");
+
+        /* Create Balance Checkpoints table (end-of-day balances of active accounts; the key is the seek index of balance-as-of queries) */
+        stmt.execute("CREATE TABLE IF NOT EXISTS balance_checkpoints (" +
+                "account_id TEXT NOT NULL, " +
+                "as_of TEXT NOT NULL, " +
+                "balance REAL NOT NULL, " +
+                "PRIMARY KEY (account_id, as_of))");
+
+        /* Create Archive Partitions table (per account: cutoff, roll-up and committed length of its archive file) */
+        stmt.execute("CREATE TABLE IF NOT EXISTS archive_partitions (" +
+                "account_id TEXT PRIMARY KEY, " +
+                "archived_before TEXT NOT NULL, " +
+                "record_count INTEGER NOT NULL, " +
+                "net_amount REAL NOT NULL, " +
+                "archive_length INTEGER NOT NULL)");
+    }
+
+    /**
+     * Creates the directory database of the SHARDED engine: the customer tables, the routing metadata
+     * and the intent log of cross-shard transactions.
+     * @param stmt Statement of the directory database
+     * @throws SQLException if a statement fails
+     */
+    public static void createShardDirectoryTables(Statement stmt) throws SQLException
+    {
+        createCustomerTables(stmt);
+
+        /* Routing metadata: the shard count the account files were created with */
+        stmt.execute("CREATE TABLE IF NOT EXISTS shard_config (" +
+                "name TEXT PRIMARY KEY, " +
+                "value TEXT NOT NULL)");
+
+        /* Redo rows of committed cross-shard transactions until every shard has applied them */
+        stmt.execute("CREATE TABLE IF NOT EXISTS shard_intents (" +
+                "intent_id TEXT NOT NULL, " +
+                "seq INTEGER NOT NULL, " +
+                "shard INTEGER NOT NULL, " +
+                "account_id TEXT NOT NULL, " +
+                "balance_delta REAL NOT NULL, " +
+                "transaction_id TEXT, " +
+                "type TEXT, " +
+                "amount REAL, " +
+                "timestamp TEXT, " +
+                "description TEXT, " +
+                "PRIMARY KEY (intent_id, seq))");
+    }
+
+    /**
+     * Creates one shard database of the SHARDED engine: the account tables and the markers of the
+     * cross-shard transactions the shard has applied.
+     * @param stmt Statement of the shard database
+     * @throws SQLException if a statement fails
+     */
+    public static void createShardTables(Statement stmt) throws SQLException
+    {
+        createAccountTables(stmt);
+
+        /* Cross-shard transactions this shard has committed, written in the same local transaction */
+        stmt.execute("CREATE TABLE IF NOT EXISTS applied_intents (intent_id TEXT PRIMARY KEY)");
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Location of the default SQLite database shared by the JDBC repositories.
+ * The URL is resolved on first use (initialization-on-demand holder) rather than when a
+ * repository class is loaded, so loading the repositories at startup costs no file system work.
+ * Implements FR-12: Initialize Database.
+ */
+package com.bank.repository;
+
+import java.nio.file.Paths;
+
+public final class DefaultDatabase
+{
+    private DefaultDatabase()
+    {
+    }
+
+    /**
+     * Returns the JDBC URL of the default database file.
+     * @return The SQLite URL, resolved once per JVM
+     */
+    public static String url()
+    {
+        return Holder.URL;
+    }
+
+    /* Resolved when url() is first called */
+    private static final class Holder
+    {
+        private static final String URL = resolve();
+    }
+
+    /**
+     * Resolves the database path dynamically to support both runtime and Maven test execution.
+     */
+    private static String resolve()
+    {
+        String userDir = System.getProperty("user.dir");
+
+        /* Handle case where working directory is the submodule folder during Maven tests */
+        if (userDir.endsWith("banking-app") || userDir.endsWith("banking.core"))
+        {
+            userDir = new java.io.File(userDir).getParent();
+        }
+
+        /* Construct absolute path to the database file */
+        return "jdbc:sqlite:" + Paths.get(userDir, "banking-app", "src", "main", "resources", "bank-system.db")
+                                     .toAbsolutePath()
+                                     .toString();
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * In-memory implementation of the Repository interface for Account entities.
+ * Accounts are kept in a concurrent sorted map as live objects (an identity map): every lookup
+ * of an ID returns the same instance, so the per-account locks taken by BankService
+ * really serialize concurrent operations on that account. A customer -> account IDs multimap
+ * is kept next to it, so per-customer queries never scan other customers' accounts.
+ * Durability is optional and provided by InMemorySnapshotter; job checkpoints and scheduled
+ * transfers are not part of its snapshots.
+ * Optionally the repository switches every account it stores to lock-free mode
+ * (Account.useLockFreeBalance()), so BankService updates balances with CAS loops instead of locks.
+ * Implements FR-12: Save Account Data and FR-13: Load Account Data.
+ */
+package com.bank.repository;
+
+import com.bank.model.Account;
+import com.bank.model.AlreadyExistsException;
+import com.bank.model.HistoryTotal;
+import com.bank.model.ScheduledTransfer;
+import com.bank.model.Transaction;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class InMemoryAccountRepository implements AccountRepository, JobCheckpointRepository, ScheduleRepository
+{
+	/* Accounts keyed by their ID, kept in ID order so pages are tail-map range reads */
+    private final NavigableMap<String, Account> accounts = new ConcurrentSkipListMap<>();
+    /* Customer ID -> IDs of the accounts the customer owns */
+    private final Map<String, Set<String>> accountIdsByCustomer = new ConcurrentHashMap<>();
+    /* Idempotency keys -> {request, result}; the in-memory counterpart of the idempotency_keys table */
+    private final Map<String, Object[]> idempotencyKeys = new ConcurrentHashMap<>();
+    /* Batch job name -> checkpoint key -> value; the in-memory counterpart of the job_checkpoints table */
+    private final Map<String, Map<String, String>> checkpoints = new ConcurrentHashMap<>();
+    /* Scheduled transfers keyed by ID, and the active ones in (next run, ID) order as their due-time index */
+    private final Map<String, ScheduledTransfer> schedules = new ConcurrentHashMap<>();
+    private final NavigableSet<ScheduledTransfer> dueSchedules = new ConcurrentSkipListSet<>(
+        Comparator.comparingLong(ScheduledTransfer::getNextRunAt).thenComparing(ScheduledTransfer::getId));
+    /* Whether stored accounts are switched to lock-free balances */
+    private final boolean lockFreeBalances;
+
+    /**
+     * Constructs a repository whose accounts keep their synchronized balances.
+     */
+    public InMemoryAccountRepository()
+    {
+        this(false);
+    }
+
+    /**
+     * Constructs a repository, optionally with lock-free account balances.
+     * @param lockFreeBalances true to switch every stored account to lock-free mode (balances rounded to cents)
+     */
+    public InMemoryAccountRepository(boolean lockFreeBalances)
+    {
+        this.lockFreeBalances = lockFreeBalances;
+    }
+
+    /**
+     * Saves an account and its transactions. If the account ID already exists, it will be replaced.
+     * @param account The account entity to save
+     */
+    @Override
+    public void save(Account account)
+    {
+        prepare(account);
+        Account previous = accounts.put(account.getId(), account);
+        if (previous != null && !previous.getCustomerId().equals(account.getCustomerId()))
+        {
+            unindex(previous);
+        }
+        index(account);
+    }
+
+    /**
+     * Finds an account by ID.
+     * @param id The unique identifier of the account
+     * @return The account if found, or null if not found
+     */
+    @Override
+    public Account findById(String id)
+    {
+        return accounts.get(id);
+    }
+
+    /**
+     * Checks an account ID with a map lookup.
+     * @param id The account ID
+     * @return true if the account exists
+     */
+    @Override
+    public boolean existsById(String id)
+    {
+        return accounts.containsKey(id);
+    }
+
+    /**
+     * Retrieves all accounts.
+     * @return A list of all accounts
+     */
+    @Override
+    public List<Account> findAll()
+    {
+        return new ArrayList<>(accounts.values());
+    }
+
+    /**
+     * Retrieves one page of accounts in ID order from the tail of the sorted map after the cursor.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return
+     * @return Up to limit accounts with IDs greater than afterId
+     */
+    @Override
+    public List<Account> findPage(String afterId, int limit)
+    {
+        NavigableMap<String, Account> tail = afterId == null ? accounts : accounts.tailMap(afterId, false);
+        List<Account> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Account account : tail.values())
+        {
+            if (page.size() == limit)
+            {
+                break;
+            }
+            page.add(account);
+        }
+        return page;
+    }
+
+    /**
+     * Deletes an account by ID.
+     * @param id The unique identifier of the account to delete
+     */
+    @Override
+    public void delete(String id)
+    {
+        Account removed = accounts.remove(id);
+        if (removed != null)
+        {
+            unindex(removed);
+        }
+    }
+
+    /**
+     * Finds a customer's accounts through the customer multimap, ordered by account ID.
+     * @param customerId The owning customer's ID
+     * @return The customer's accounts (empty if there are none)
+     */
+    @Override
+    public List<Account> findByCustomerId(String customerId)
+    {
+        Set<String> ids = accountIdsByCustomer.get(customerId);
+        if (ids == null)
+        {
+            return new ArrayList<>();
+        }
+        List<Account> result = new ArrayList<>(ids.size());
+        for (String id : ids)
+        {
+            Account account = accounts.get(id);
+            /* Skip entries of an account being deleted or re-owned concurrently */
+            if (account != null && customerId.equals(account.getCustomerId()))
+            {
+                result.add(account);
+            }
+        }
+        result.sort(Comparator.comparing(Account::getId));
+        return result;
+    }
+
+    /**
+     * Counts a customer's accounts through the customer multimap.
+     * @param customerId The owning customer's ID
+     * @return Number of accounts the customer owns
+     */
+    @Override
+    public int countByCustomerId(String customerId)
+    {
+        Set<String> ids = accountIdsByCustomer.get(customerId);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * Inserts a batch of accounts, leaving existing IDs untouched.
+     * @param batch The accounts to insert
+     * @return The IDs of the accounts that were skipped because they already exist
+     */
+    @Override
+    public List<String> insertAll(List<Account> batch)
+    {
+        List<String> skipped = new ArrayList<>();
+        for (Account account : batch)
+        {
+            prepare(account);
+            if (accounts.putIfAbsent(account.getId(), account) != null)
+            {
+                skipped.add(account.getId());
+            }
+            else
+            {
+                index(account);
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Finds an account by ID. The connection is ignored: this engine has no JDBC backing.
+     * @param conn Ignored (may be null)
+     * @param id   The account id to search for
+     * @return The Account instance if found, or null if not found
+     */
+    @Override
+    public Account findById(Connection conn, String id)
+    {
+        return accounts.get(id);
+    }
+
+    /**
+     * Stores the given account. The connection is ignored: this engine has no JDBC backing.
+     * @param conn    Ignored (may be null)
+     * @param account The account to persist (must already exist)
+     * @throws RuntimeException if the account does not exist
+     */
+    @Override
+    public void update(Connection conn, Account account)
+    {
+        Account previous = accounts.replace(account.getId(), account);
+        if (previous == null)
+        {
+            throw new RuntimeException("Update affected 0 rows for account id=" + account.getId());
+        }
+        if (!previous.getCustomerId().equals(account.getCustomerId()))
+        {
+            unindex(previous);
+            index(account);
+        }
+    }
+
+    /**
+     * Looks up an idempotency key. The connection is ignored: this engine has no JDBC backing.
+     * @param conn    Ignored (may be null)
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request the key must belong to
+     * @return The recorded result, or null if the key is unknown
+     * @throws IllegalArgumentException if the key was recorded for a different request
+     */
+    @Override
+    public Double findIdempotentResult(Connection conn, String key, String request)
+    {
+        Object[] stored = idempotencyKeys.get(key);
+        if (stored == null)
+        {
+            return null;
+        }
+        if (!request.equals(stored[0]))
+        {
+            throw new AlreadyExistsException("Idempotency key already exists for a different request.");
+        }
+        return (Double) stored[1];
+    }
+
+    /**
+     * Records an idempotency key. The connection is ignored: this engine has no JDBC backing.
+     * @param conn    Ignored (may be null)
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request the key belongs to
+     * @param result  The result returned to the client
+     */
+    @Override
+    public void saveIdempotencyKey(Connection conn, String key, String request, double result)
+    {
+        idempotencyKeys.putIfAbsent(key, new Object[] {request, result});
+    }
+
+    /**
+     * Returns the stored idempotency keys, e.g. for a snapshot.
+     * @return One {key, request, result} row per key, in no particular order
+     */
+    public List<String[]> getIdempotencyKeyRows()
+    {
+        List<String[]> rows = new ArrayList<>(idempotencyKeys.size());
+        idempotencyKeys.forEach((key, stored) -> rows.add(new String[] {key, (String) stored[0], Double.toString((Double) stored[1])}));
+        return rows;
+    }
+
+    /**
+     * Reads one page of balances of one account type from the tail of the sorted map after the cursor.
+     * @param type    The account type: SAVINGS or CURRENT (case-insensitive), or null for every type
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of balances to return
+     * @return Account ID -> balance in ID order
+     */
+    @Override
+    public Map<String, Double> findBalancePage(String type, String afterId, int limit)
+    {
+        Class<? extends Account> accountClass = type == null ? Account.class : AccountRepository.accountClass(type);
+        NavigableMap<String, Account> tail = afterId == null ? accounts : accounts.tailMap(afterId, false);
+        Map<String, Double> page = new LinkedHashMap<>();
+        for (Account account : tail.values())
+        {
+            if (page.size() == limit)
+            {
+                break;
+            }
+            if (accountClass.isInstance(account))
+            {
+                page.put(account.getId(), account.getBalance());
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Rolls up the live histories of the accounts in an ID range, read from a sub-map of the sorted map.
+     * @param afterId The ID after which the range starts, or null for the first account
+     * @param toId    The last ID of the range (inclusive), or null for no upper bound
+     * @return Account ID -> history roll-up in ID order
+     */
+    @Override
+    public Map<String, HistoryTotal> findHistoryTotals(String afterId, String toId)
+    {
+        NavigableMap<String, Account> range = afterId == null ? accounts : accounts.tailMap(afterId, false);
+        if (toId != null)
+        {
+            range = range.headMap(toId, true);
+        }
+        Map<String, HistoryTotal> totals = new LinkedHashMap<>();
+        for (Account account : range.values())
+        {
+            List<Transaction> history = account.getTransactions();
+            if (!history.isEmpty())
+            {
+                totals.put(account.getId(), HistoryTotal.of(history));
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public Map<String, String> findCheckpoints(String job)
+    {
+        Map<String, String> stored = checkpoints.get(job);
+        return stored == null ? new LinkedHashMap<>() : new LinkedHashMap<>(stored);
+    }
+
+    /**
+     * Records a checkpoint. The connection is ignored: this engine has no JDBC backing.
+     */
+    @Override
+    public void saveCheckpoint(Connection conn, String job, String key, String value)
+    {
+        checkpoints.computeIfAbsent(job, name -> new ConcurrentSkipListMap<>()).put(key, value);
+    }
+
+    /**
+     * Stores schedules and keeps the due-time index in step; writers are serialized on the index.
+     */
+    @Override
+    public void saveSchedules(List<ScheduledTransfer> batch)
+    {
+        synchronized (dueSchedules)
+        {
+            for (ScheduledTransfer schedule : batch)
+            {
+                ScheduledTransfer previous = schedules.put(schedule.getId(), schedule);
+                if (previous != null)
+                {
+                    dueSchedules.remove(previous);
+                }
+                if (schedule.isActive())
+                {
+                    dueSchedules.add(schedule);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ScheduledTransfer findSchedule(String id)
+    {
+        return schedules.get(id);
+    }
+
+    /**
+     * Reads a page of the due-time index, starting after the (afterRunAt, afterId) position.
+     */
+    @Override
+    public List<ScheduledTransfer> findDueSchedules(long afterRunAt, String afterId, long untilRunAt, int limit)
+    {
+        /* Position probe: the highest possible key at afterRunAt when afterId is null */
+        ScheduledTransfer after = new ScheduledTransfer(afterId == null ? "\uffff" : afterId, "probe-from", "probe-to", 1, 0, afterRunAt, false);
+        List<ScheduledTransfer> page = new ArrayList<>();
+        for (ScheduledTransfer schedule : dueSchedules.tailSet(after, false))
+        {
+            if (page.size() == limit || schedule.getNextRunAt() > untilRunAt)
+            {
+                break;
+            }
+            page.add(schedule);
+        }
+        return page;
+    }
+
+    /**
+     * Switches an account to lock-free mode before it is published, if the repository is configured for it.
+     */
+    private void prepare(Account account)
+    {
+        if (lockFreeBalances)
+        {
+            account.useLockFreeBalance();
+        }
+    }
+
+    /* ---------------- Customer multimap ---------------- */
+
+    private void index(Account account)
+    {
+        accountIdsByCustomer.compute(account.getCustomerId(), (key, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(account.getId());
+            return result;
+        });
+    }
+
+    private void unindex(Account account)
+    {
+        /* compute/computeIfPresent run under the map's lock for this customer, so an emptied set is dropped atomically */
+        accountIdsByCustomer.computeIfPresent(account.getCustomerId(), (key, ids) -> {
+            ids.remove(account.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * In-memory implementation of the Repository interface for Customer entities.
+ * Customers are kept in a concurrent sorted map, so reads and writes never touch the disk
+ * and are safe to call from several threads. Durability is optional and provided by
+ * InMemorySnapshotter.
+ * Implements FR-12: Save Customers Data and FR-13: Load Customers Data.
+ */
+package com.bank.repository;
+
+import com.bank.model.Customer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class InMemoryCustomerRepository implements CustomerRepository
+{
+	/* Customers keyed by their ID, kept in ID order so pages are tail-map range reads */
+    private final NavigableMap<String, Customer> customers = new ConcurrentSkipListMap<>();
+
+    /**
+     * Saves a customer. If the customer ID already exists, it will be replaced.
+     * @param customer The customer entity to save
+     */
+    @Override
+    public void save(Customer customer)
+    {
+        customers.put(customer.getId(), customer);
+    }
+
+    /**
+     * Finds a customer by ID.
+     * @param id The unique identifier of the customer
+     * @return The customer if found, or null if not found
+     */
+    @Override
+    public Customer findById(String id)
+    {
+        return customers.get(id);
+    }
+
+    /**
+     * Retrieves all customers.
+     * @return A list of all customers
+     */
+    @Override
+    public List<Customer> findAll()
+    {
+        return new ArrayList<>(customers.values());
+    }
+
+    /**
+     * Retrieves one page of customers in ID order from the tail of the sorted map after the cursor.
+     * @param afterId The ID of the last customer of the previous page, or null for the first page
+     * @param limit   Maximum number of customers to return
+     * @return Up to limit customers with IDs greater than afterId
+     */
+    @Override
+    public List<Customer> findPage(String afterId, int limit)
+    {
+        NavigableMap<String, Customer> tail = afterId == null ? customers : customers.tailMap(afterId, false);
+        List<Customer> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Customer customer : tail.values())
+        {
+            if (page.size() == limit)
+            {
+                break;
+            }
+            page.add(customer);
+        }
+        return page;
+    }
+
+    /**
+     * Deletes a customer by ID.
+     * @param id The unique identifier of the customer to delete
+     */
+    @Override
+    public void delete(String id)
+    {
+        customers.remove(id);
+    }
+
+    /**
+     * Inserts a batch of customers, leaving existing IDs untouched.
+     * @param batch The customers to insert
+     * @return The IDs of the customers that were skipped because they already exist
+     */
+    @Override
+    public List<String> insertAll(List<Customer> batch)
+    {
+        List<String> skipped = new ArrayList<>();
+        for (Customer customer : batch)
+        {
+            if (customers.putIfAbsent(customer.getId(), customer) != null)
+            {
+                skipped.add(customer.getId());
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Checks customer IDs with map lookups.
+     * @param ids The customer IDs to check
+     * @return The IDs that exist
+     */
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids)
+    {
+        Set<String> existing = new HashSet<>();
+        for (String id : ids)
+        {
+            if (customers.containsKey(id))
+            {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Optional durability for the in-memory storage engine.
+ * Periodically writes a snapshot of the in-memory customer and account repositories to disk
+ * (through FileManager) and restores them from the latest snapshot at startup.
+ * Changes made after the last snapshot are lost on a crash; a final snapshot is written on close.
+ */
+package com.bank.repository;
+
+import com.bank.util.FileManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class InMemorySnapshotter implements Closeable
+{
+	/* Repositories whose content is snapshotted */
+    private final InMemoryCustomerRepository customerRepository;
+    private final InMemoryAccountRepository accountRepository;
+    /* Snapshot file location */
+    private final Path snapshotFile;
+    /* Background scheduler, null until start() is called with a positive interval */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a snapshotter for the given repositories.
+     * @param customerRepository The in-memory customer repository
+     * @param accountRepository  The in-memory account repository
+     * @param snapshotFile       The file that holds the latest snapshot
+     */
+    public InMemorySnapshotter(InMemoryCustomerRepository customerRepository,
+                               InMemoryAccountRepository accountRepository, Path snapshotFile)
+    {
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Loads the latest snapshot into the repositories, if one exists.
+     * @return true if a snapshot was restored, false if there was none
+     * @throws IOException if the snapshot exists but cannot be read
+     */
+    public boolean restore() throws IOException
+    {
+        if (!Files.exists(snapshotFile))
+        {
+            return false;
+        }
+        FileManager.readSnapshot(snapshotFile, customerRepository::save, accountRepository::save,
+            key -> accountRepository.saveIdempotencyKey(null, key[0], key[1], Double.parseDouble(key[2])));
+        return true;
+    }
+
+    /**
+     * Starts periodic snapshotting on a background daemon thread.
+     * @param intervalSeconds Seconds between snapshots; 0 or less disables periodic snapshots
+     */
+    public synchronized void start(long intervalSeconds)
+    {
+        if (intervalSeconds <= 0 || scheduler != null)
+        {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "in-memory-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try
+            {
+                snapshot();
+            }
+            catch (IOException e)
+            {
+                System.err.println("Error writing snapshot: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes a snapshot of the current repository content.
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void snapshot() throws IOException
+    {
+        FileManager.writeSnapshot(snapshotFile, 0, customerRepository.findAll(), accountRepository.findAll(),
+            accountRepository.getIdempotencyKeyRows());
+    }
+
+    /**
+     * Stops periodic snapshotting and writes a final snapshot.
+     * Implements FR-15: Graceful Shutdown.
+     * @throws IOException if the final snapshot cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this)
+        {
+            if (scheduler != null)
+            {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        snapshot();
+    }
+}
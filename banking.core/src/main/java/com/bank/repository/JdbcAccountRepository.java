@@ -1,49 +1,94 @@
 /*
  * JDBC-based implementation of the Repository interface for Account entities.
  * Stores and retrieves account data (including transactions) from an SQLite database.
+ * With a TransactionArchive, old records can be moved to compressed cold storage; history reads
+ * then merge the archived records with the hot rows of the transactions table.
  * Implements FR-12: Save Account Data and FR-13: Load Account Data.
  */
 package com.bank.repository;
 
 import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.AlreadyExistsException;
 import com.bank.model.SavingsAccount;
 import com.bank.model.CurrentAccount;
+import com.bank.model.HistoryTotal;
+import com.bank.model.ScheduledTransfer;
 import com.bank.model.Transaction;
 import com.bank.model.TransactionType;
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Flow;
 
-public class JdbcAccountRepository implements AccountRepository 
+public class JdbcAccountRepository implements AccountRepository, JobCheckpointRepository, ScheduleRepository 
 {
-	/* Database connection URL - resolved dynamically to support runtime and Maven test execution */
-    private static final String DB_URL;
+	/* Optional connection pool; null means one new connection to the default database per call */
+    private final ConnectionPool pool;
+    /* Optional cold storage of archived records; null means every record stays in the transactions table */
+    private final TransactionArchive archive;
+    /* Format of the transactions.timestamp column, used for range bounds */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /* History order of the SQL queries, (timestamp, id), for merging archived records with hot rows */
+    private static final Comparator<Transaction> HISTORY_ORDER = Comparator
+        .comparingLong(Transaction::getTimestampMicros)
+        .thenComparing(Transaction::getId);
+    /* Number of accounts archived per database transaction */
+    private static final int ARCHIVE_BATCH_ACCOUNTS = 100;
 
-    static 
+    /**
+     * Constructs a repository that opens a new connection to the default database per call.
+     */
+    public JdbcAccountRepository() 
     {
-        String userDir = System.getProperty("user.dir");
+        this(null);
+    }
 
-        /* Handle case where working directory is the submodule folder during Maven tests */
-        if (userDir.endsWith("banking-app") || userDir.endsWith("banking.core")) 
-        {
-            userDir = new java.io.File(userDir).getParent();
-        }
+    /**
+     * Constructs a repository that borrows its connections from a pool.
+     * @param pool The connection pool to use, or null for unpooled connections
+     */
+    public JdbcAccountRepository(ConnectionPool pool) 
+    {
+        this(pool, null);
+    }
 
-        /* Construct absolute path to the database file */
-        DB_URL = "jdbc:sqlite:" + Paths.get(userDir, "banking-app", "src", "main", "resources", "bank-system.db")
-                                       .toAbsolutePath()
-                                       .toString();
+    /**
+     * Constructs a repository that can archive old records; the database needs the archive_partitions table.
+     * @param pool    The connection pool to use, or null for unpooled connections
+     * @param archive The cold storage for archived records, or null to keep every record in the table
+     */
+    public JdbcAccountRepository(ConnectionPool pool, TransactionArchive archive) 
+    {
+        this.pool = pool;
+        this.archive = archive;
     }
 
     /**
-     * Establishes a connection to the SQLite database.
-     * @return A new database connection
+     * Establishes a connection to the SQLite database (borrowed from the pool if there is one).
+     * @return A database connection; closing it returns pooled connections to the pool
      * @throws SQLException if a database access error occurs
      */
     protected Connection getConnection() throws SQLException 
     {
-        return DriverManager.getConnection(DB_URL);
+        return pool != null ? pool.getConnection() : DriverManager.getConnection(DefaultDatabase.url());
+    }
+    
+    /**
+     * Opens a connection for a caller-managed transaction (e.g. the transfer API).
+     * @return A new database connection owned by the caller
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Connection openConnection() throws SQLException 
+    {
+        return getConnection();
     }
     
     /* ---------------- FR 12 Create Customers ---------------- */
@@ -64,21 +109,112 @@ public class JdbcAccountRepository implements AccountRepository
             pstmt.setString(3, account.getClass().getSimpleName());
             pstmt.setDouble(4, account.getBalance());
             pstmt.executeUpdate();
-
-            /* Save transactions */
-            saveTransactions(account);
         } catch (SQLException e) 
         {
             System.err.println("Error saving account: " + e.getMessage());
+            return;
+        }
+        /* Save transactions once the account's connection is back in the pool */
+        saveTransactions(account);
+    }
+    
+    /**
+     * Inserts a batch of accounts and their transactions inside a single DB transaction.
+     * Accounts whose ID already exists are ignored (together with their transactions) rather than replaced.
+     * @param accounts The accounts to insert
+     * @return The IDs of the accounts that were skipped because they already exist
+     * @throws RuntimeException wrapping SQLException on DB error (the whole batch is rolled back)
+     */
+    @Override
+    public List<String> insertAll(List<Account> accounts) 
+    {
+        List<String> skipped = new ArrayList<>();
+        String accountSql = "INSERT OR IGNORE INTO accounts (id, customer_id, type, balance) VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement accountStmt = conn.prepareStatement(accountSql)) 
+        {
+            conn.setAutoCommit(false);
+            try 
+            {
+                for (Account account : accounts) 
+                {
+                    accountStmt.setString(1, account.getId());
+                    accountStmt.setString(2, account.getCustomerId());
+                    accountStmt.setString(3, account.getClass().getSimpleName());
+                    accountStmt.setDouble(4, account.getBalance());
+                    accountStmt.addBatch();
+                }
+                int[] counts = accountStmt.executeBatch();
+
+                /* Only accounts that were actually inserted get their transaction rows */
+                List<Account> inserted = new ArrayList<>(accounts.size());
+                for (int i = 0; i < counts.length; i++) 
+                {
+                    if (counts[i] == 0) 
+                    {
+                        skipped.add(accounts.get(i).getId());
+                    } 
+                    else 
+                    {
+                        inserted.add(accounts.get(i));
+                    }
+                }
+                insertTransactions(conn, inserted);
+                conn.commit();
+            } 
+            catch (SQLException e) 
+            {
+                conn.rollback();
+                throw e;
+            } 
+            finally 
+            {
+                conn.setAutoCommit(true);
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error inserting account batch: " + e.getMessage(), e);
+        }
+        return skipped;
+    }
+    
+    /**
+     * Batch-inserts the transactions of freshly inserted accounts inside the caller's DB transaction.
+     * Protected so that alternative storage engines can keep transaction history outside the DB.
+     * @param conn     The JDBC connection of the surrounding transaction
+     * @param accounts The accounts whose transactions are to be inserted
+     * @throws SQLException if a database access error occurs
+     */
+    protected void insertTransactions(Connection conn, List<Account> accounts) throws SQLException 
+    {
+        String sql = "INSERT OR IGNORE INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            for (Account account : accounts) 
+            {
+                for (Transaction transaction : account.getTransactions()) 
+                {
+                    pstmt.setString(1, transaction.getId());
+                    pstmt.setString(2, account.getId());
+                    pstmt.setString(3, transaction.getType().toString());
+                    pstmt.setDouble(4, transaction.getAmount());
+                    pstmt.setString(5, transaction.getTimestampAsString());
+                    pstmt.setString(6, transaction.getDescription());
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
         }
     }
     
     /* ---------------- FR 12 Save Account Data ---------------- */
     /**
      * Saves all transactions associated with an account.
+     * Protected so that alternative storage engines can keep transaction history outside the DB.
      * @param account The account whose transactions are to be saved
      */
-    private void saveTransactions(Account account) 
+    protected void saveTransactions(Account account) 
     {
         String sql = "INSERT OR REPLACE INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = getConnection();
@@ -111,6 +247,7 @@ public class JdbcAccountRepository implements AccountRepository
     public Account findById(String id) 
     {
         String sql = "SELECT * FROM accounts WHERE id = ?";
+        Account account = null;
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) 
         {
@@ -118,15 +255,18 @@ public class JdbcAccountRepository implements AccountRepository
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) 
             {
-                Account account = createAccount(rs);
-                loadTransactions(account);
-                return account;
+                account = createAccount(rs);
             }
         } catch (SQLException e) 
         {
             System.err.println("Error finding account: " + e.getMessage());
         }
-        return null;
+        /* History is read on its own connection, after the account row's connection is returned */
+        if (account != null) 
+        {
+            loadTransactions(account);
+        }
+        return account;
     }
     
     
@@ -145,165 +285,592 @@ public class JdbcAccountRepository implements AccountRepository
         {
             while (rs.next()) 
             {
-                Account account = createAccount(rs);
-                loadTransactions(account);
-                accounts.add(account);
+                accounts.add(createAccount(rs));
             }
         } catch (SQLException e) 
         {
             System.err.println("Error loading accounts: " + e.getMessage());
         }
+        accounts.forEach(this::loadTransactions);
         return accounts;
     }
     
     /**
-     * Helper method to instantiate the correct account type from a database row.
-     * @param rs The ResultSet containing account data
-     * @return A new Account instance (Savings or Current)
-     * @throws SQLException if a database access error occurs
+     * Finds a customer's accounts through the accounts.customer_id index and loads their transactions.
+     * @param customerId The owning customer's ID
+     * @return The customer's accounts ordered by ID (empty if there are none)
      */
-    private Account createAccount(ResultSet rs) throws SQLException 
+    @Override
+    public List<Account> findByCustomerId(String customerId) 
     {
-        String id = rs.getString("id");
-        String customerId = rs.getString("customer_id");
-        String type = rs.getString("type");
-        double balance = rs.getDouble("balance");
+        return findWhere("SELECT * FROM accounts WHERE customer_id = ? ORDER BY id", customerId);
+    }
 
-        if ("SavingsAccount".equals(type)) 
-        {
-            return new SavingsAccount(id, customerId, balance);
-        } else 
-        {
-            return new CurrentAccount(id, customerId, balance);
-        }
+    /**
+     * Finds all accounts of one type and loads their transactions.
+     * @param type The account type: SAVINGS or CURRENT (case-insensitive)
+     * @return The accounts of that type ordered by ID
+     * @throws IllegalArgumentException if the type is invalid
+     */
+    @Override
+    public List<Account> findByType(String type) 
+    {
+        return findWhere("SELECT * FROM accounts WHERE type = ? ORDER BY id", AccountRepository.accountClass(type).getSimpleName());
     }
 
     /**
-     * Loads all transactions associated with an account from the database.
-     * @param account The account to load transactions for
+     * Retrieves one page of accounts with a keyset query on the primary key index and loads their transactions.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return
+     * @return Up to limit accounts with IDs greater than afterId, ordered by ID
      */
-    private void loadTransactions(Account account) 
+    @Override
+    public List<Account> findPage(String afterId, int limit) 
     {
-        String sql = "SELECT * FROM transactions WHERE account_id = ?";
+        List<Account> accounts = findPageRows(afterId, limit);
+        accounts.forEach(this::loadTransactions);
+        return accounts;
+    }
+
+    /**
+     * Retrieves one page of account rows like findPage() but leaves their history unloaded.
+     * The sharded engine also uses it to merge pages and load the history of the kept rows only.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return
+     * @return Up to limit accounts with IDs greater than afterId, ordered by ID
+     */
+    @Override
+    public List<Account> findPageRows(String afterId, int limit) 
+    {
+        List<Account> accounts = new ArrayList<>();
+        String sql = "SELECT * FROM accounts WHERE id > ? ORDER BY id LIMIT ?";
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) 
         {
-            pstmt.setString(1, account.getId());
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) 
+            pstmt.setString(1, afterId == null ? "" : afterId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) 
             {
-                Transaction transaction = new Transaction(
-                    rs.getString("id"),
-                    TransactionType.fromString(rs.getString("type")),
-                    rs.getDouble("amount"),
-                    rs.getString("timestamp"),
-                    rs.getString("description")
-                );
-                account.addTransaction(transaction);
+                while (rs.next()) 
+                {
+                    accounts.add(createAccount(rs));
+                }
             }
         } catch (SQLException e) 
         {
-            System.err.println("Error loading transactions: " + e.getMessage());
+            System.err.println("Error loading accounts page: " + e.getMessage());
         }
+        return accounts;
     }
 
     /**
-     * Deletes an account from the database by ID.
-     * @param id The unique identifier of the account to delete
+     * Retrieves one page of an account's transactions ordered by (timestamp, id).
+     * The cursor row's (timestamp, id) is the lower bound of a range read on the
+     * idx_transactions_account_time index, so a page never scans the transactions before it.
+     * Archived records come first, since they are older than every hot row; a cursor on a hot row
+     * never touches the archive.
+     * @param accountId          The account whose history is read
+     * @param afterTransactionId The ID of the last transaction of the previous page, or null for the first page
+     * @param limit              Maximum number of transactions to return
+     * @return Up to limit transactions following the cursor (empty if the account or cursor is unknown)
      */
     @Override
-    public void delete(String id) 
+    public List<Transaction> findTransactionPage(String accountId, String afterTransactionId, int limit) 
     {
-        String sql = "DELETE FROM accounts WHERE id = ?";
+        if (archive == null) 
+        {
+            return findHotTransactionPage(accountId, afterTransactionId, limit);
+        }
+        if (afterTransactionId != null) 
+        {
+            List<Transaction> hot = findHotTransactionPage(accountId, afterTransactionId, limit);
+            /* An empty page after a hot cursor means it was the last hot row: the archive is older */
+            if (!hot.isEmpty() || aggregate("SELECT COUNT(*) FROM transactions WHERE id = ?", afterTransactionId) > 0) 
+            {
+                return hot;
+            }
+        }
+        long archiveLength = findArchiveLength(accountId);
+        List<Transaction> archived = archive.read(accountId, archiveLength);
+        int start = 0;
+        if (afterTransactionId != null) 
+        {
+            /* The cursor is archived or unknown; the cached partition finds it by ID */
+            int position = archive.positionOf(accountId, archiveLength, afterTransactionId);
+            if (position < 0) 
+            {
+                return new ArrayList<>();
+            }
+            start = position + 1;
+        }
+        List<Transaction> page = new ArrayList<>(archived.subList(start, Math.min(start + limit, archived.size())));
+        if (page.size() < limit) 
+        {
+            page.addAll(findHotTransactionPage(accountId, null, limit - page.size()));
+        }
+        return page;
+    }
+
+    /**
+     * Reads one page of the hot rows only (see findTransactionPage).
+     */
+    private List<Transaction> findHotTransactionPage(String accountId, String afterTransactionId, int limit) 
+    {
+        List<Transaction> transactions = new ArrayList<>();
+        String sql = afterTransactionId == null
+            ? "SELECT * FROM transactions WHERE account_id = ? ORDER BY timestamp, id LIMIT ?"
+            : "SELECT * FROM transactions WHERE account_id = ? "
+            + "AND (timestamp, id) > (SELECT timestamp, id FROM transactions WHERE id = ?) "
+            + "ORDER BY timestamp, id LIMIT ?";
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) 
         {
-            pstmt.setString(1, id);
-            pstmt.executeUpdate();
+            int index = 1;
+            pstmt.setString(index++, accountId);
+            if (afterTransactionId != null) 
+            {
+                pstmt.setString(index++, afterTransactionId);
+            }
+            pstmt.setInt(index, limit);
+            try (ResultSet rs = pstmt.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    transactions.add(createTransaction(rs));
+                }
+            }
         } catch (SQLException e) 
         {
-            System.err.println("Error deleting account: " + e.getMessage());
+            System.err.println("Error loading transactions page: " + e.getMessage());
         }
+        return transactions;
     }
-    
+
+    /* ---------------- Streaming queries ---------------- */
     /**
-     * Find account by id using the provided Connection.
-     * This method participates in the caller-managed transaction: it does NOT commit or rollback the connection.
-     *
-     * @param conn The JDBC connection to use (must not be null)
-     * @param id   The account id to search for
-     * @return The Account instance if found, or null if not found
-     * @throws RuntimeException wrapping SQLException on DB error
+     * Streams all account rows in ID order from one cursor; the history is not loaded.
+     * @return A publisher that opens a connection and cursor for every subscriber
      */
     @Override
-    public Account findById(Connection conn, String id) 
+    public Flow.Publisher<Account> streamAll() 
     {
-        final String sql = "SELECT id, customer_id, balance, type FROM accounts WHERE id = ?";
+        return new CursorPublisher<>(() -> openCursor("SELECT * FROM accounts ORDER BY id", this::createAccount));
+    }
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+    /**
+     * Streams one account's transactions ordered by (timestamp, id) from one cursor
+     * on the idx_transactions_account_time index, after its archived records.
+     * @param accountId The account whose history is streamed
+     * @return A publisher that opens a connection and cursor for every subscriber
+     */
+    @Override
+    public Flow.Publisher<Transaction> streamTransactions(String accountId) 
+    {
+        return new CursorPublisher<>(() -> {
+            /* The archive is read first, so the cursor's connection is the only one held while streaming */
+            List<Transaction> archived = archive == null ? List.of() : findArchivedTransactions(accountId);
+            CursorPublisher.Cursor<Transaction> hot = openCursor(
+                "SELECT * FROM transactions WHERE account_id = ? ORDER BY timestamp, id",
+                JdbcAccountRepository::createTransaction, accountId);
+            if (archived.isEmpty()) 
+            {
+                return hot;
+            }
+            return CursorPublisher.merge(List.of(CursorPublisher.of(archived), hot), HISTORY_ORDER);
+        });
+    }
+
+    /**
+     * Streams the transactions matching a query ordered by (timestamp, id) from one query.
+     * Every criterion becomes part of the WHERE clause, so SQLite can answer it from
+     * idx_transactions_account_time (per account), idx_transactions_type_time (per type)
+     * or idx_transactions_time (time window only) instead of scanning the table.
+     * @param query The filter to apply
+     * @return A publisher that opens a connection and cursor for every subscriber
+     */
+    @Override
+    public Flow.Publisher<AccountTransaction> streamTransactions(TransactionQuery query) 
+    {
+        return new CursorPublisher<>(() -> openTransactionCursor(query));
+    }
+
+    /**
+     * Runs a transaction query and returns a cursor over the matching rows ordered by (timestamp, id).
+     * Protected so that the sharded engine can merge the cursors of several databases.
+     * @param query The filter to apply
+     * @return An open cursor that owns its connection
+     * @throws SQLException if the query cannot be run
+     */
+    protected CursorPublisher.Cursor<AccountTransaction> openTransactionCursor(TransactionQuery query) throws SQLException 
+    {
+        StringBuilder sql = new StringBuilder("SELECT * FROM transactions WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (query.getAccountId() != null) 
         {
-            ps.setString(1, id);
+            sql.append(" AND account_id = ?");
+            parameters.add(query.getAccountId());
+        }
+        if (query.getType() != null) 
+        {
+            /* Rows hold the display name; older imports may hold the enum name */
+            sql.append(" AND type IN (?, ?)");
+            parameters.add(query.getType().toString());
+            parameters.add(query.getType().name());
+        }
+        if (query.getFrom() != null) 
+        {
+            sql.append(" AND timestamp >= ?");
+            parameters.add(query.getFrom().format(TIMESTAMP_FORMAT));
+        }
+        if (query.getTo() != null) 
+        {
+            sql.append(" AND timestamp < ?");
+            parameters.add(query.getTo().format(TIMESTAMP_FORMAT));
+        }
+        if (query.getMinAmount() != null) 
+        {
+            sql.append(" AND amount >= ?");
+            parameters.add(query.getMinAmount());
+        }
+        sql.append(" ORDER BY timestamp, id");
 
-            try (ResultSet rs = ps.executeQuery()) 
-            {
-                if (!rs.next()) {
-                    return null;
-                }
+        /* The archive is read first, so the cursor's connection is the only one held while streaming */
+        List<AccountTransaction> archived = archive == null ? List.of() : findArchivedMatches(query);
+        CursorPublisher.Cursor<AccountTransaction> hot = openCursor(sql.toString(),
+            rs -> new AccountTransaction(rs.getString("account_id"), createTransaction(rs)), parameters.toArray());
+        return archived.isEmpty() ? hot : CursorPublisher.merge(List.of(CursorPublisher.of(archived), hot),
+            Comparator.comparing(AccountTransaction::getTransaction, HISTORY_ORDER));
+    }
 
-                String accId = rs.getString("id");
-                String customerId = rs.getString("customer_id");
-                double balance = rs.getDouble("balance");
+    /**
+     * Reads one row of a cursor.
+     */
+    @FunctionalInterface
+    protected interface RowMapper<T> 
+    {
+        T map(ResultSet rs) throws SQLException;
+    }
 
-                String type = null;
-                try 
-                {
-                    type = rs.getString("type");
-                } 
-                catch (SQLException ignore) 
+    /**
+     * Runs a query and returns a cursor over its rows. The cursor owns the connection,
+     * statement and result set, and closing it releases all three.
+     * @param sql        The query
+     * @param mapper     Maps the current row to an element
+     * @param parameters The query parameters (strings and numbers)
+     * @return An open cursor positioned before the first row
+     * @throws SQLException if the query cannot be run
+     */
+    protected <T> CursorPublisher.Cursor<T> openCursor(String sql, RowMapper<T> mapper, Object... parameters) throws SQLException 
+    {
+        Connection conn = getConnection();
+        try 
+        {
+            PreparedStatement pstmt = conn.prepareStatement(sql);
+            for (int i = 0; i < parameters.length; i++) 
+            {
+                pstmt.setObject(i + 1, parameters[i]);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return new CursorPublisher.Cursor<T>() 
+            {
+                @Override
+                public T next() throws SQLException 
                 {
-                    /* If column not present, keep type null and fall back to default account type */
+                    return rs.next() ? mapper.map(rs) : null;
                 }
 
-                Account account;
-                if (type != null && "CURRENT".equalsIgnoreCase(type.trim())) {
-                    account = new CurrentAccount(accId, customerId, balance);
-                } 
-                else 
+                @Override
+                public void close() throws SQLException 
                 {
-                    /* Default to SavingsAccount when type is unknown or missing */
-                    account = new SavingsAccount(accId, customerId, balance);
+                    try (conn; pstmt; rs) 
+                    {
+                        /* closes the result set, the statement and the connection, in that order */
+                    }
                 }
+            };
+        } catch (SQLException | RuntimeException e) 
+        {
+            conn.close();
+            throw e;
+        }
+    }
 
-                return account;
-            }
+    /**
+     * Checks an account ID with a primary-key lookup; neither the row nor its transactions are loaded.
+     * @param id The account ID
+     * @return true if the account exists
+     */
+    @Override
+    public boolean existsById(String id) 
+    {
+        return aggregate("SELECT COUNT(*) FROM accounts WHERE id = ?", id) > 0;
+    }
+
+    /**
+     * Reads the highest numeric ID of the hot transactions table with one aggregate query.
+     * IDs are TEXT, so text IDs from older data are skipped and the rest compared as numbers.
+     * The predicate and expression match idx_transactions_numeric_id, a partial index on the
+     * numeric IDs, so SQLite answers MAX with one seek to the end of that index instead of a scan.
+     * @return The highest numeric ID, or -1 if no record has one
+     * @throws RuntimeException if the table cannot be read; seeding IDs from a guess could reuse them
+     */
+    @Override
+    public long findMaxTransactionId() 
+    {
+        String sql = "SELECT MAX(CAST(id AS INTEGER)) FROM transactions WHERE id <> '' AND id NOT GLOB '*[^0-9]*'";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) 
+        {
+            long max = rs.next() ? rs.getLong(1) : -1;
+            return rs.wasNull() ? -1 : max;
         } catch (SQLException e) 
         {
-            throw new RuntimeException("Error finding account by id: " + id, e);
+            throw new RuntimeException("Error reading the highest transaction ID: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Update persistent fields of the given account using the provided Connection.
-     * This update participates in the caller-managed transaction and must not commit/rollback the connection.
-     *
-     * @param conn    The JDBC connection to use (must not be null)
-     * @param account The account to persist (must not be null)
-     * @throws RuntimeException if a database error occurs or unexpected number of rows updated
+     * Counts a customer's accounts with one indexed aggregate query.
+     * @param customerId The owning customer's ID
+     * @return Number of accounts the customer owns
      */
     @Override
-    public void update(Connection conn, Account account) 
+    public int countByCustomerId(String customerId) 
     {
-        final String sql = "UPDATE accounts SET balance = ? WHERE id = ?";
+        return (int) aggregate("SELECT COUNT(*) FROM accounts WHERE customer_id = ?", customerId);
+    }
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) 
-        {
-            ps.setDouble(1, account.getBalance());
-            ps.setString(2, account.getId());
+    /**
+     * Sums a customer's balances with one indexed aggregate query; no transactions are loaded.
+     * @param customerId The owning customer's ID
+     * @return Total balance of the customer's accounts (0 if there are none)
+     */
+    @Override
+    public double sumBalanceByCustomerId(String customerId) 
+    {
+        return aggregate("SELECT COALESCE(SUM(balance), 0) FROM accounts WHERE customer_id = ?", customerId);
+    }
 
-            int rows = ps.executeUpdate();
-            if (rows != 1) 
+    /**
+     * Sums every balance with one aggregate query over the accounts table; no transactions are loaded.
+     * @return Total balance of all accounts (0 if there are none)
+     */
+    @Override
+    public double sumBalances() 
+    {
+        return aggregate("SELECT COALESCE(SUM(balance), 0) FROM accounts");
+    }
+
+    /**
+     * Runs an account query with one string parameter and loads the transactions of each row.
+     */
+    private List<Account> findWhere(String sql, String parameter) 
+    {
+        List<Account> accounts = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            pstmt.setString(1, parameter);
+            try (ResultSet rs = pstmt.executeQuery()) 
             {
-                throw new RuntimeException("Update affected " + rows + " rows for account id=" + account.getId());
+                while (rs.next()) 
+                {
+                    accounts.add(createAccount(rs));
+                }
+            }
+        } catch (SQLException e) 
+        {
+            System.err.println("Error querying accounts: " + e.getMessage());
+        }
+        /* Load history after the cursor is closed, so only one connection is held at a time */
+        accounts.forEach(this::loadTransactions);
+        return accounts;
+    }
+
+    /**
+     * Runs a single-value aggregate query with one string parameter.
+     */
+    private double aggregate(String sql, String... parameters) 
+    {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            for (int i = 0; i < parameters.length; i++) 
+            {
+                pstmt.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) 
+            {
+                return rs.next() ? rs.getDouble(1) : 0;
+            }
+        } catch (SQLException e) 
+        {
+            System.err.println("Error aggregating accounts: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Helper method to instantiate the correct account type from a database row.
+     * @param rs The ResultSet containing account data
+     * @return A new Account instance (Savings or Current)
+     * @throws SQLException if a database access error occurs
+     */
+    private Account createAccount(ResultSet rs) throws SQLException 
+    {
+        String id = rs.getString("id");
+        String customerId = rs.getString("customer_id");
+        String type = rs.getString("type");
+        double balance = rs.getDouble("balance");
+
+        if ("SavingsAccount".equals(type)) 
+        {
+            return new SavingsAccount(id, customerId, balance);
+        } else 
+        {
+            return new CurrentAccount(id, customerId, balance);
+        }
+    }
+
+    /**
+     * Helper method to build a transaction from a transactions table row.
+     * @param rs The ResultSet positioned on a transaction row
+     * @return A new Transaction instance
+     * @throws SQLException if a database access error occurs
+     */
+    private static Transaction createTransaction(ResultSet rs) throws SQLException 
+    {
+        return new Transaction(
+            rs.getString("id"),
+            TransactionType.fromString(rs.getString("type")),
+            rs.getDouble("amount"),
+            rs.getString("timestamp"),
+            rs.getString("description")
+        );
+    }
+
+    /**
+     * Loads all transactions associated with an account from the database.
+     * Protected so that alternative storage engines can keep transaction history outside the DB.
+     * @param account The account to load transactions for
+     */
+    protected void loadTransactions(Account account) 
+    {
+        String sql = "SELECT * FROM transactions WHERE account_id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            pstmt.setString(1, account.getId());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) 
+            {
+                account.addTransaction(createTransaction(rs));
+            }
+        } catch (SQLException e) 
+        {
+            System.err.println("Error loading transactions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes an account from the database by ID.
+     * @param id The unique identifier of the account to delete
+     */
+    @Override
+    public void delete(String id) 
+    {
+        String sql = "DELETE FROM accounts WHERE id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            pstmt.setString(1, id);
+            pstmt.executeUpdate();
+        } catch (SQLException e) 
+        {
+            System.err.println("Error deleting account: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Find account by id using the provided Connection.
+     * This method participates in the caller-managed transaction: it does NOT commit or rollback the connection.
+     *
+     * @param conn The JDBC connection to use (must not be null)
+     * @param id   The account id to search for
+     * @return The Account instance if found, or null if not found
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Account findById(Connection conn, String id) 
+    {
+        final String sql = "SELECT id, customer_id, balance, type FROM accounts WHERE id = ?";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, id);
+
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                if (!rs.next()) {
+                    return null;
+                }
+
+                String accId = rs.getString("id");
+                String customerId = rs.getString("customer_id");
+                double balance = rs.getDouble("balance");
+
+                String type = null;
+                try 
+                {
+                    type = rs.getString("type");
+                } 
+                catch (SQLException ignore) 
+                {
+                    /* If column not present, keep type null and fall back to default account type */
+                }
+
+                Account account;
+                if (type != null && ("CurrentAccount".equals(type.trim()) || "CURRENT".equalsIgnoreCase(type.trim()))) 
+                {
+                    account = new CurrentAccount(accId, customerId, balance);
+                } 
+                else 
+                {
+                    /* Default to SavingsAccount when type is unknown or missing */
+                    account = new SavingsAccount(accId, customerId, balance);
+                }
+
+                return account;
+            }
+        } catch (SQLException e) 
+        {
+            throw new RuntimeException("Error finding account by id: " + id, e);
+        }
+    }
+
+    /**
+     * Update persistent fields of the given account using the provided Connection.
+     * This update participates in the caller-managed transaction and must not commit/rollback the connection.
+     *
+     * @param conn    The JDBC connection to use (must not be null)
+     * @param account The account to persist (must not be null)
+     * @throws RuntimeException if a database error occurs or unexpected number of rows updated
+     */
+    @Override
+    public void update(Connection conn, Account account) 
+    {
+        final String sql = "UPDATE accounts SET balance = ? WHERE id = ?";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setDouble(1, account.getBalance());
+            ps.setString(2, account.getId());
+
+            int rows = ps.executeUpdate();
+            if (rows != 1) 
+            {
+                throw new RuntimeException("Update affected " + rows + " rows for account id=" + account.getId());
             }
         } 
         catch (SQLException e) 
@@ -311,4 +878,905 @@ public class JdbcAccountRepository implements AccountRepository
             throw new RuntimeException("Error updating account id: " + account.getId(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Inserts one transaction row using the provided Connection (caller-managed transaction).
+     * The ledger engine overrides this to store the record in its ledger instead.
+     *
+     * @param conn        The JDBC connection to use (must not be null)
+     * @param accountId   The account the transaction belongs to
+     * @param transaction The transaction to persist
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public void appendTransaction(Connection conn, String accountId, Transaction transaction) 
+    {
+        final String sql = "INSERT INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, transaction.getId());
+            ps.setString(2, accountId);
+            ps.setString(3, transaction.getType().toString());
+            ps.setDouble(4, transaction.getAmount());
+            ps.setString(5, transaction.getTimestampAsString());
+            ps.setString(6, transaction.getDescription());
+            ps.executeUpdate();
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error inserting transaction for account id: " + accountId, e);
+        }
+    }
+
+    /**
+     * Inserts several transaction rows of one account as one batch using the provided Connection
+     * (caller-managed transaction).
+     *
+     * @param conn         The JDBC connection to use (must not be null)
+     * @param accountId    The account the transactions belong to
+     * @param transactions The transactions to persist, oldest first
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public void appendTransactions(Connection conn, String accountId, List<Transaction> transactions) 
+    {
+        final String sql = "INSERT INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            for (Transaction transaction : transactions) 
+            {
+                ps.setString(1, transaction.getId());
+                ps.setString(2, accountId);
+                ps.setString(3, transaction.getType().toString());
+                ps.setDouble(4, transaction.getAmount());
+                ps.setString(5, transaction.getTimestampAsString());
+                ps.setString(6, transaction.getDescription());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error inserting transactions for account id: " + accountId, e);
+        }
+    }
+
+    /**
+     * Looks up an idempotency key in the idempotency_keys table using the provided Connection.
+     *
+     * @param conn    The JDBC connection to use (must not be null)
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request the key must belong to
+     * @return The recorded result, or null if the key is unknown
+     * @throws IllegalArgumentException if the key was recorded for a different request
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Double findIdempotentResult(Connection conn, String key, String request) 
+    {
+        final String sql = "SELECT request, result FROM idempotency_keys WHERE idempotency_key = ?";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                if (!rs.next()) 
+                {
+                    return null;
+                }
+                if (!request.equals(rs.getString("request"))) 
+                {
+                    throw new AlreadyExistsException("Idempotency key already exists for a different request.");
+                }
+                return rs.getDouble("result");
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error reading idempotency key: " + key, e);
+        }
+    }
+
+    /**
+     * Inserts an idempotency key into the idempotency_keys table using the provided Connection.
+     * A key committed concurrently by another process violates the primary key and fails the
+     * caller's transaction, so the movement is rolled back instead of applied twice.
+     *
+     * @param conn    The JDBC connection to use (must not be null)
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request the key belongs to
+     * @param result  The result returned to the client
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public void saveIdempotencyKey(Connection conn, String key, String request, double result) 
+    {
+        final String sql = "INSERT INTO idempotency_keys (idempotency_key, request, result, created_at) VALUES (?, ?, ?, datetime('now'))";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, key);
+            ps.setString(2, request);
+            ps.setDouble(3, result);
+            ps.executeUpdate();
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error saving idempotency key: " + key, e);
+        }
+    }
+
+    /* ---------------- Batch jobs ---------------- */
+    /**
+     * Reads one keyset page of the balances of one account type on the primary key index,
+     * without loading any history.
+     *
+     * @param type    The account type: SAVINGS or CURRENT (case-insensitive), or null for every type
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of balances to return
+     * @return Account ID -> balance in ID order
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Map<String, Double> findBalancePage(String type, String afterId, int limit) 
+    {
+        final String sql = type == null
+            ? "SELECT id, balance FROM accounts WHERE id > ? ORDER BY id LIMIT ?"
+            : "SELECT id, balance FROM accounts WHERE type = ? AND id > ? ORDER BY id LIMIT ?";
+        Map<String, Double> page = new LinkedHashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            int i = 1;
+            if (type != null) 
+            {
+                ps.setString(i++, AccountRepository.accountClass(type).getSimpleName());
+            }
+            ps.setString(i++, afterId == null ? "" : afterId);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    page.put(rs.getString("id"), rs.getDouble("balance"));
+                }
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error loading balance page: " + e.getMessage(), e);
+        }
+        return page;
+    }
+
+    /**
+     * Rolls up the transaction rows of an account-ID range with one grouped query on the
+     * idx_transactions_account_time index: rows are read in account order and aggregated as they
+     * stream, so no history is loaded. Rows whose account row is missing are rolled up as well.
+     * The query runs in autocommit mode and holds no lock between pages, so writers are not held up
+     * (in WAL mode a reader never blocks them at all).
+     * With an archive, the roll-ups of the archived records are added in the same query.
+     *
+     * @param afterId The ID after which the range starts, or null for the first account
+     * @param toId    The last ID of the range (inclusive), or null for no upper bound
+     * @return Account ID -> history roll-up in ID order
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Map<String, HistoryTotal> findHistoryTotals(String afterId, String toId) 
+    {
+        String range = "account_id > ?" + (toId == null ? "" : " AND account_id <= ?");
+        /* Rows hold the display name; older imports may hold the enum name */
+        String sql = "SELECT account_id, COUNT(*) AS records, "
+                   + "SUM(CASE WHEN type IN (?, ?) THEN -amount ELSE amount END) AS net "
+                   + "FROM transactions WHERE " + range + " GROUP BY account_id";
+        if (archive != null) 
+        {
+            sql = "SELECT account_id, SUM(records) AS records, SUM(net) AS net FROM (" + sql
+                + " UNION ALL SELECT account_id, record_count, net_amount FROM archive_partitions WHERE " + range
+                + ") GROUP BY account_id";
+        }
+        sql += " ORDER BY account_id";
+        Map<String, HistoryTotal> totals = new LinkedHashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            int i = 1;
+            ps.setString(i++, TransactionType.WITHDRAW.toString());
+            ps.setString(i++, TransactionType.WITHDRAW.name());
+            for (int part = 0; part < (archive == null ? 1 : 2); part++) 
+            {
+                ps.setString(i++, afterId == null ? "" : afterId);
+                if (toId != null) 
+                {
+                    ps.setString(i++, toId);
+                }
+            }
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    totals.put(rs.getString("account_id"), new HistoryTotal(rs.getLong("records"), rs.getDouble("net")));
+                }
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error rolling up transactions: " + e.getMessage(), e);
+        }
+        return totals;
+    }
+
+    /**
+     * Credits several accounts with one batched relative balance update (balance = balance + amount)
+     * and one batched insert of the records, using the provided Connection (caller-managed transaction).
+     *
+     * @param conn    The JDBC connection to use (must not be null)
+     * @param credits Account ID -> credit record
+     * @throws RuntimeException if an account does not exist or on DB error
+     */
+    @Override
+    public void applyCredits(Connection conn, Map<String, Transaction> credits) 
+    {
+        final String sql = "UPDATE accounts SET balance = balance + ? WHERE id = ?";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            for (Map.Entry<String, Transaction> credit : credits.entrySet()) 
+            {
+                ps.setDouble(1, credit.getValue().getAmount());
+                ps.setString(2, credit.getKey());
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+            int i = 0;
+            for (String accountId : credits.keySet()) 
+            {
+                if (counts[i++] == 0) 
+                {
+                    throw new RuntimeException("Credit affected 0 rows for account id=" + accountId);
+                }
+            }
+            insertTransactionRows(conn, credits);
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error applying credits: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserts one transaction row per account as one batch (caller-managed transaction).
+     * The ledger engine overrides this to store the records in its ledger instead.
+     * @param conn         The JDBC connection to use (must not be null)
+     * @param transactions Account ID -> transaction
+     */
+    protected void insertTransactionRows(Connection conn, Map<String, Transaction> transactions) throws SQLException 
+    {
+        final String sql = "INSERT INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            for (Map.Entry<String, Transaction> entry : transactions.entrySet()) 
+            {
+                Transaction transaction = entry.getValue();
+                ps.setString(1, transaction.getId());
+                ps.setString(2, entry.getKey());
+                ps.setString(3, transaction.getType().toString());
+                ps.setDouble(4, transaction.getAmount());
+                ps.setString(5, transaction.getTimestampAsString());
+                ps.setString(6, transaction.getDescription());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Reads the checkpoints of a batch job from the job_checkpoints table.
+     * @param job The job name
+     * @return Checkpoint key -> value, ordered by key
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Map<String, String> findCheckpoints(String job) 
+    {
+        final String sql = "SELECT checkpoint_key, value FROM job_checkpoints WHERE job = ? ORDER BY checkpoint_key";
+        Map<String, String> checkpoints = new LinkedHashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, job);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    checkpoints.put(rs.getString("checkpoint_key"), rs.getString("value"));
+                }
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error reading checkpoints of job: " + job, e);
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Inserts or replaces a checkpoint in the job_checkpoints table using the provided Connection.
+     * @param conn  The JDBC connection to use (must not be null)
+     * @param job   The job name
+     * @param key   The checkpoint key within the job
+     * @param value The checkpoint value
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public void saveCheckpoint(Connection conn, String job, String key, String value) 
+    {
+        final String sql = "INSERT OR REPLACE INTO job_checkpoints (job, checkpoint_key, value, updated_at) VALUES (?, ?, ?, datetime('now'))";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, job);
+            ps.setString(2, key);
+            ps.setString(3, value);
+            ps.executeUpdate();
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error saving checkpoint of job: " + job, e);
+        }
+    }
+
+    /* ---------------- Balance checkpoints ---------------- */
+
+    /*
+     * Balance of each selected account at a time: its latest checkpoint at or before the time plus the
+     * records after the checkpoint, read on the checkpoint primary key and idx_transactions_account_time.
+     * Parameters: the two withdrawal spellings, then the time twice.
+     */
+    private static final String BALANCE_AS_OF_SQL =
+        "SELECT a.id, COALESCE(c.balance, 0) + COALESCE((SELECT SUM(CASE WHEN t.type IN (?, ?) THEN -t.amount ELSE t.amount END) "
+      + "FROM transactions t WHERE t.account_id = a.id AND t.timestamp >= COALESCE(c.as_of, '') AND t.timestamp < ?), 0) AS balance "
+      + "FROM accounts a LEFT JOIN balance_checkpoints c ON c.account_id = a.id "
+      + "AND c.as_of = (SELECT MAX(as_of) FROM balance_checkpoints WHERE account_id = a.id AND as_of <= ?)";
+
+    /**
+     * Reads an account's balance at a point in time with one query: the latest balance checkpoint
+     * at or before the time plus the records between the two. Times before the account's archive
+     * cutoff are answered by replaying its archived records instead.
+     *
+     * @param accountId The account ID
+     * @param at        The point in time
+     * @return The balance at that time, or null if the account does not exist
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Double findBalanceAsOf(String accountId, LocalDateTime at) 
+    {
+        Map<String, Double> balances = queryBalancesAsOf(BALANCE_AS_OF_SQL + " WHERE a.id = ?", at, accountId);
+        return balances.get(accountId);
+    }
+
+    /**
+     * Reads the balance of every account at a point in time with one set-based query.
+     *
+     * @param at The point in time
+     * @return Account ID -> balance at that time, in ID order
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Map<String, Double> findBalancesAsOf(LocalDateTime at) 
+    {
+        return queryBalancesAsOf(BALANCE_AS_OF_SQL + " ORDER BY a.id", at, null);
+    }
+
+    private Map<String, Double> queryBalancesAsOf(String sql, LocalDateTime at, String accountId) 
+    {
+        String time = at.format(TIMESTAMP_FORMAT);
+        Map<String, Double> balances = new LinkedHashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, TransactionType.WITHDRAW.toString());
+            ps.setString(2, TransactionType.WITHDRAW.name());
+            ps.setString(3, time);
+            ps.setString(4, time);
+            if (accountId != null) 
+            {
+                ps.setString(5, accountId);
+            }
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    balances.put(rs.getString("id"), rs.getDouble("balance"));
+                }
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error reading balances as of " + time + ": " + e.getMessage(), e);
+        }
+        if (archive != null) 
+        {
+            replayArchivedBalances(balances, at, accountId);
+        }
+        return balances;
+    }
+
+    /**
+     * Records the balance checkpoints of one step with a single INSERT ... SELECT: the accounts with
+     * records in [from, asOf) are found on idx_transactions_time, and each gets its previous checkpoint
+     * plus the records since it. The statement is atomic on its own.
+     *
+     * @param from The start of the window, or null for the beginning
+     * @param asOf The checkpoint time
+     * @return Number of checkpoints written
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public int checkpointBalances(LocalDateTime from, LocalDateTime asOf) 
+    {
+        final String sql = "INSERT OR REPLACE INTO balance_checkpoints (account_id, as_of, balance) "
+                         + "SELECT a.account_id, ?, COALESCE(c.balance, 0) + (SELECT SUM(CASE WHEN t.type IN (?, ?) THEN -t.amount ELSE t.amount END) "
+                         + "FROM transactions t WHERE t.account_id = a.account_id AND t.timestamp >= COALESCE(c.as_of, '') AND t.timestamp < ?) "
+                         + "FROM (SELECT DISTINCT account_id FROM transactions WHERE timestamp >= ? AND timestamp < ?) a "
+                         + "LEFT JOIN balance_checkpoints c ON c.account_id = a.account_id "
+                         + "AND c.as_of = (SELECT MAX(as_of) FROM balance_checkpoints WHERE account_id = a.account_id AND as_of < ?)";
+        String end = asOf.format(TIMESTAMP_FORMAT);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, end);
+            ps.setString(2, TransactionType.WITHDRAW.toString());
+            ps.setString(3, TransactionType.WITHDRAW.name());
+            ps.setString(4, end);
+            ps.setString(5, from == null ? "" : from.format(TIMESTAMP_FORMAT));
+            ps.setString(6, end);
+            ps.setString(7, end);
+            return ps.executeUpdate();
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error recording balance checkpoints at " + end + ": " + e.getMessage(), e);
+        }
+    }
+
+    /* ---------------- Archive ---------------- */
+    /**
+     * Archives the records before a cutoff, ARCHIVE_BATCH_ACCOUNTS accounts at a time. The records of
+     * a batch are appended to the accounts' archive partitions and forced to disk first; then one
+     * database transaction deletes exactly those rows, stores each partition's new committed length
+     * and roll-up in archive_partitions, and replaces the account's balance checkpoints before the
+     * cutoff by one at the cutoff that holds its opening balance. A batch that fails before its commit
+     * leaves its rows hot, and the next append to its partitions drops the uncommitted bytes.
+     * Runs one at a time; readers keep seeing either the hot rows or the committed archive.
+     * Concurrent money movements only append their new rows (see BankService.deposit), so a writer that
+     * loaded an account before a batch cannot write its archived rows back; save() rewrites every
+     * loaded record and must not run on an account while it is being archived.
+     *
+     * @param before The cutoff (exclusive)
+     * @return Number of records archived (0 without an archive)
+     * @throws RuntimeException if writing the archive or the database fails; committed batches stay archived
+     */
+    @Override
+    public synchronized int archiveTransactions(LocalDateTime before) 
+    {
+        if (archive == null) 
+        {
+            return 0;
+        }
+        String cutoff = before.format(TIMESTAMP_FORMAT);
+        int archived = 0;
+        String afterId = "";
+        List<String> accountIds;
+        try 
+        {
+            do 
+            {
+                accountIds = findAccountsWithRecordsBefore(cutoff, afterId);
+                if (!accountIds.isEmpty()) 
+                {
+                    archived += archiveBatch(accountIds, cutoff);
+                    afterId = accountIds.get(accountIds.size() - 1);
+                }
+            } while (accountIds.size() == ARCHIVE_BATCH_ACCOUNTS);
+        } 
+        catch (SQLException | IOException e) 
+        {
+            throw new RuntimeException("Error archiving transactions before " + cutoff + ": " + e.getMessage(), e);
+        }
+        return archived;
+    }
+
+    /**
+     * Reads the roll-up of an account's archived records from archive_partitions.
+     *
+     * @param accountId The account ID
+     * @return Number and net amount of the archived records (zero when nothing is archived)
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public HistoryTotal findArchivedTotal(String accountId) 
+    {
+        if (archive == null) 
+        {
+            return new HistoryTotal(0, 0);
+        }
+        final String sql = "SELECT record_count, net_amount FROM archive_partitions WHERE account_id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                return rs.next() ? new HistoryTotal(rs.getLong("record_count"), rs.getDouble("net_amount")) : new HistoryTotal(0, 0);
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error reading archive roll-up of " + accountId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the next page of account IDs that have records before the cutoff.
+     */
+    private List<String> findAccountsWithRecordsBefore(String cutoff, String afterId) throws SQLException 
+    {
+        final String sql = "SELECT DISTINCT account_id FROM transactions WHERE account_id > ? AND timestamp < ? "
+                         + "ORDER BY account_id LIMIT ?";
+        List<String> accountIds = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, afterId);
+            ps.setString(2, cutoff);
+            ps.setInt(3, ARCHIVE_BATCH_ACCOUNTS);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    accountIds.add(rs.getString("account_id"));
+                }
+            }
+        }
+        return accountIds;
+    }
+
+    /**
+     * Archives the records before the cutoff of one batch of accounts (see archiveTransactions).
+     */
+    private int archiveBatch(List<String> accountIds, String cutoff) throws SQLException, IOException 
+    {
+        final String recordsSql = "SELECT * FROM transactions WHERE account_id = ? AND timestamp < ? ORDER BY timestamp, id";
+        final String partitionSql = "SELECT archived_before, record_count, net_amount, archive_length FROM archive_partitions WHERE account_id = ?";
+        List<List<Transaction>> records = new ArrayList<>(accountIds.size());
+        List<ArchivePartition> partitions = new ArrayList<>(accountIds.size());
+        int archived = 0;
+        try (Connection conn = getConnection()) 
+        {
+            try (PreparedStatement recordsPs = conn.prepareStatement(recordsSql);
+                 PreparedStatement partitionPs = conn.prepareStatement(partitionSql)) 
+            {
+                for (String accountId : accountIds) 
+                {
+                    List<Transaction> rows = new ArrayList<>();
+                    recordsPs.setString(1, accountId);
+                    recordsPs.setString(2, cutoff);
+                    try (ResultSet rs = recordsPs.executeQuery()) 
+                    {
+                        while (rs.next()) 
+                        {
+                            rows.add(createTransaction(rs));
+                        }
+                    }
+                    ArchivePartition partition = new ArchivePartition(cutoff, new HistoryTotal(0, 0), 0);
+                    partitionPs.setString(1, accountId);
+                    try (ResultSet rs = partitionPs.executeQuery()) 
+                    {
+                        if (rs.next()) 
+                        {
+                            partition = new ArchivePartition(rs.getString("archived_before"),
+                                new HistoryTotal(rs.getLong("record_count"), rs.getDouble("net_amount")), rs.getLong("archive_length"));
+                        }
+                    }
+                    /* Durable before the rows are deleted; only the commit below makes the bytes count */
+                    long length = archive.append(accountId, partition.length, rows);
+                    String archivedBefore = partition.archivedBefore.compareTo(cutoff) > 0 ? partition.archivedBefore : cutoff;
+                    records.add(rows);
+                    partitions.add(new ArchivePartition(archivedBefore, partition.total.plus(HistoryTotal.of(rows)), length));
+                    archived += rows.size();
+                }
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement deletePs = conn.prepareStatement("DELETE FROM transactions WHERE id = ?");
+                 PreparedStatement partitionPs = conn.prepareStatement("INSERT OR REPLACE INTO archive_partitions "
+                     + "(account_id, archived_before, record_count, net_amount, archive_length) VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement prunePs = conn.prepareStatement("DELETE FROM balance_checkpoints WHERE account_id = ? AND as_of < ?");
+                 PreparedStatement openingPs = conn.prepareStatement("INSERT OR REPLACE INTO balance_checkpoints (account_id, as_of, balance) VALUES (?, ?, ?)")) 
+            {
+                for (int i = 0; i < accountIds.size(); i++) 
+                {
+                    String accountId = accountIds.get(i);
+                    ArchivePartition partition = partitions.get(i);
+                    for (Transaction row : records.get(i)) 
+                    {
+                        deletePs.setString(1, row.getId());
+                        deletePs.addBatch();
+                    }
+                    partitionPs.setString(1, accountId);
+                    partitionPs.setString(2, partition.archivedBefore);
+                    partitionPs.setLong(3, partition.total.getTransactionCount());
+                    partitionPs.setDouble(4, partition.total.getNetAmount());
+                    partitionPs.setLong(5, partition.length);
+                    partitionPs.addBatch();
+                    /* Older checkpoints are served by the archive now; the opening balance replaces them */
+                    prunePs.setString(1, accountId);
+                    prunePs.setString(2, partition.archivedBefore);
+                    prunePs.addBatch();
+                    openingPs.setString(1, accountId);
+                    openingPs.setString(2, partition.archivedBefore);
+                    openingPs.setDouble(3, partition.total.getNetAmount());
+                    openingPs.addBatch();
+                }
+                deletePs.executeBatch();
+                partitionPs.executeBatch();
+                prunePs.executeBatch();
+                openingPs.executeBatch();
+                conn.commit();
+            } 
+            catch (SQLException | RuntimeException e) 
+            {
+                conn.rollback();
+                throw e;
+            } 
+            finally 
+            {
+                conn.setAutoCommit(true);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Reads an account's committed archive partition.
+     * @throws RuntimeException wrapping SQLException on DB error, or if the partition cannot be read
+     */
+    private List<Transaction> findArchivedTransactions(String accountId) 
+    {
+        return archive.read(accountId, findArchiveLength(accountId));
+    }
+
+    /**
+     * Reads the committed length of an account's archive partition (0 when nothing is archived).
+     */
+    private long findArchiveLength(String accountId) 
+    {
+        final String sql = "SELECT archive_length FROM archive_partitions WHERE account_id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                return rs.next() ? rs.getLong("archive_length") : 0;
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error reading archived transactions of " + accountId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Collects the archived records that match a query, in (timestamp, id) order. Only partitions
+     * whose cutoff lies after the start of the query window are read.
+     */
+    private List<AccountTransaction> findArchivedMatches(TransactionQuery query) throws SQLException 
+    {
+        StringBuilder sql = new StringBuilder("SELECT account_id, archive_length FROM archive_partitions WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (query.getAccountId() != null) 
+        {
+            sql.append(" AND account_id = ?");
+            parameters.add(query.getAccountId());
+        }
+        if (query.getFrom() != null) 
+        {
+            sql.append(" AND archived_before > ?");
+            parameters.add(query.getFrom().format(TIMESTAMP_FORMAT));
+        }
+        sql.append(" ORDER BY account_id");
+
+        List<AccountTransaction> matches = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) 
+        {
+            for (int i = 0; i < parameters.size(); i++) 
+            {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    String accountId = rs.getString("account_id");
+                    for (Transaction record : archive.read(accountId, rs.getLong("archive_length"))) 
+                    {
+                        if (query.matches(record)) 
+                        {
+                            matches.add(new AccountTransaction(accountId, record));
+                        }
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparing(AccountTransaction::getTransaction, HISTORY_ORDER));
+        return matches;
+    }
+
+    /**
+     * Replaces the balances of the accounts whose archive cutoff lies after the time by a replay of
+     * their archived records, which hold every record before that cutoff.
+     */
+    private void replayArchivedBalances(Map<String, Double> balances, LocalDateTime at, String accountId) 
+    {
+        String sql = "SELECT account_id, archive_length FROM archive_partitions WHERE archived_before > ?"
+                   + (accountId == null ? "" : " AND account_id = ?");
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, at.format(TIMESTAMP_FORMAT));
+            if (accountId != null) 
+            {
+                ps.setString(2, accountId);
+            }
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    String id = rs.getString("account_id");
+                    if (balances.containsKey(id)) 
+                    {
+                        balances.put(id, AccountRepository.replayHistory(archive.read(id, rs.getLong("archive_length")), at));
+                    }
+                }
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error reading archived balances as of " + at + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A row of archive_partitions: the cutoff, the roll-up and the committed length of one account's partition.
+     */
+    private static final class ArchivePartition 
+    {
+        private final String archivedBefore;
+        private final HistoryTotal total;
+        private final long length;
+
+        private ArchivePartition(String archivedBefore, HistoryTotal total, long length) 
+        {
+            this.archivedBefore = archivedBefore;
+            this.total = total;
+            this.length = length;
+        }
+    }
+
+    /* ---------------- Scheduled transfers ---------------- */
+    /**
+     * Inserts or replaces scheduled transfers in the scheduled_transfers table as one batch.
+     * @param schedules The schedules to store
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public void saveSchedules(List<ScheduledTransfer> schedules) 
+    {
+        final String sql = "INSERT OR REPLACE INTO scheduled_transfers (id, from_account_id, to_account_id, amount, interval_ms, next_run_at, active) "
+                         + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            for (ScheduledTransfer schedule : schedules) 
+            {
+                ps.setString(1, schedule.getId());
+                ps.setString(2, schedule.getFromAccountId());
+                ps.setString(3, schedule.getToAccountId());
+                ps.setDouble(4, schedule.getAmount());
+                ps.setLong(5, schedule.getIntervalMillis());
+                ps.setLong(6, schedule.getNextRunAt());
+                ps.setInt(7, schedule.isActive() ? 1 : 0);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error saving scheduled transfers: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves a scheduled transfer by its ID.
+     * @param id The schedule ID
+     * @return The schedule, or null if not found
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public ScheduledTransfer findSchedule(String id) 
+    {
+        final String sql = "SELECT * FROM scheduled_transfers WHERE id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                return rs.next() ? mapSchedule(rs) : null;
+            }
+        }
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error finding scheduled transfer: " + id, e);
+        }
+    }
+
+    /**
+     * Reads one keyset page of active schedules due up to a given time, on the partial
+     * (next_run_at, id) index of active schedules.
+     * @param afterRunAt Due time of the last schedule of the previous page (exclusive lower bound)
+     * @param afterId    ID of the last schedule of the previous page, or null to start strictly after afterRunAt
+     * @param untilRunAt Latest due time to include (epoch milliseconds)
+     * @param limit      Maximum number of schedules to return
+     * @return The schedules in (next run, ID) order
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public List<ScheduledTransfer> findDueSchedules(long afterRunAt, String afterId, long untilRunAt, int limit) 
+    {
+        final String sql = "SELECT * FROM scheduled_transfers WHERE active = 1 AND next_run_at <= ? "
+                         + (afterId == null ? "AND next_run_at > ? " : "AND (next_run_at > ? OR (next_run_at = ? AND id > ?)) ")
+                         + "ORDER BY next_run_at, id LIMIT ?";
+        List<ScheduledTransfer> page = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) 
+        {
+            int i = 1;
+            ps.setLong(i++, untilRunAt);
+            ps.setLong(i++, afterRunAt);
+            if (afterId != null) 
+            {
+                ps.setLong(i++, afterRunAt);
+                ps.setString(i++, afterId);
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) 
+            {
+                while (rs.next())
+                {
+                    page.add(mapSchedule(rs));
+                }
+            }
+        }
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error loading due scheduled transfers: " + e.getMessage(), e);
+        }
+        return page;
+    }
+
+    private static ScheduledTransfer mapSchedule(ResultSet rs) throws SQLException
+    {
+        return new ScheduledTransfer(rs.getString("id"), rs.getString("from_account_id"), rs.getString("to_account_id"),
+            rs.getDouble("amount"), rs.getLong("interval_ms"), rs.getLong("next_run_at"), rs.getInt("active") == 1);
+    }
+}
@@ -6,40 +6,45 @@
 package com.bank.repository;
 
 import com.bank.model.Customer;
-import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class JdbcCustomerRepository implements CustomerRepository
 {
-	/* Database connection URL for SQLite - resolved dynamically to support runtime and Maven tests */
-    private static final String DB_URL;
+	/* Optional connection pool; null means one new connection to the default database per call */
+    private final ConnectionPool pool;
+    /* Customer IDs checked per query by findExistingIds() */
+    private static final int EXISTS_CHUNK = 500;
 
-    static 
+    /**
+     * Constructs a repository that opens a new connection to the default database per call.
+     */
+    public JdbcCustomerRepository() 
     {
-        String userDir = System.getProperty("user.dir");
-
-        /* Handle case where working directory is the submodule folder during Maven tests */
-        if (userDir.endsWith("banking-app") || userDir.endsWith("banking.core")) 
-        {
-            userDir = new java.io.File(userDir).getParent();
-        }
+        this(null);
+    }
 
-        /* Construct absolute path to the database file */
-        DB_URL = "jdbc:sqlite:" + Paths.get(userDir, "banking-app", "src", "main", "resources", "bank-system.db")
-                                       .toAbsolutePath()
-                                       .toString();
+    /**
+     * Constructs a repository that borrows its connections from a pool.
+     * @param pool The connection pool to use, or null for unpooled connections
+     */
+    public JdbcCustomerRepository(ConnectionPool pool) 
+    {
+        this.pool = pool;
     }
 
     /**
-     * Establishes a connection to the SQLite database.
-     * @return A new database connection
+     * Establishes a connection to the SQLite database (borrowed from the pool if there is one).
+     * @return A database connection; closing it returns pooled connections to the pool
      * @throws SQLException if a database access error occurs
      */
     protected Connection getConnection() throws SQLException 
     {
-        return DriverManager.getConnection(DB_URL);
+        return pool != null ? pool.getConnection() : DriverManager.getConnection(DefaultDatabase.url());
     }
     /* ---------------- FR 12 Save Customers Data ---------------- */
     /**
@@ -64,6 +69,60 @@ public class JdbcCustomerRepository implements CustomerRepository
         }
     }
 
+    /**
+     * Inserts a batch of customers through one prepared statement inside a single DB transaction.
+     * Rows whose ID already exists are ignored rather than replaced.
+     * @param customers The customers to insert
+     * @return The IDs of the customers that were skipped because they already exist
+     * @throws RuntimeException wrapping SQLException on DB error (the whole batch is rolled back)
+     */
+    @Override
+    public List<String> insertAll(List<Customer> customers) 
+    {
+        List<String> skipped = new ArrayList<>();
+        String sql = "INSERT OR IGNORE INTO customers (id, name, email, phone) VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            conn.setAutoCommit(false);
+            try 
+            {
+                for (Customer customer : customers) 
+                {
+                    pstmt.setString(1, customer.getId());
+                    pstmt.setString(2, customer.getName());
+                    pstmt.setString(3, customer.getEmail());
+                    pstmt.setString(4, customer.getphone());
+                    pstmt.addBatch();
+                }
+                int[] counts = pstmt.executeBatch();
+                conn.commit();
+
+                for (int i = 0; i < counts.length; i++) 
+                {
+                    if (counts[i] == 0) 
+                    {
+                        skipped.add(customers.get(i).getId());
+                    }
+                }
+            } 
+            catch (SQLException e) 
+            {
+                conn.rollback();
+                throw e;
+            } 
+            finally 
+            {
+                conn.setAutoCommit(true);
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error inserting customer batch: " + e.getMessage(), e);
+        }
+        return skipped;
+    }
+
     /* ---------------- FR 13 Load Customers Data ---------------- */
     /**
      * Finds a customer by ID from the database.
@@ -125,6 +184,42 @@ public class JdbcCustomerRepository implements CustomerRepository
         return customers;
     }
 
+    /**
+     * Retrieves one page of customers with a keyset query on the primary key index.
+     * The cursor is a primary-key seek, so deep pages cost the same as the first one.
+     * @param afterId The ID of the last customer of the previous page, or null for the first page
+     * @param limit   Maximum number of customers to return
+     * @return Up to limit customers with IDs greater than afterId, ordered by ID
+     */
+    @Override
+    public List<Customer> findPage(String afterId, int limit) 
+    {
+        List<Customer> customers = new ArrayList<>();
+        String sql = "SELECT * FROM customers WHERE id > ? ORDER BY id LIMIT ?";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) 
+        {
+            pstmt.setString(1, afterId == null ? "" : afterId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) 
+            {
+                while (rs.next()) 
+                {
+                    customers.add(new Customer(
+                        rs.getString("id"),
+                        rs.getString("name"),
+                        rs.getString("email"),
+                        rs.getString("phone")
+                    ));
+                }
+            }
+        } catch (SQLException e) 
+        {
+            System.err.println("Error loading customers page: " + e.getMessage());
+        }
+        return customers;
+    }
+
     /**
      * Deletes a customer from the database by ID.
      * @param id The unique identifier of the customer to delete
@@ -143,4 +238,45 @@ public class JdbcCustomerRepository implements CustomerRepository
             System.err.println("Error deleting customer: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks customer IDs with primary-key lookups, EXISTS_CHUNK IDs per IN (...) query
+     * (SQLite limits the number of bound parameters of one statement).
+     * @param ids The customer IDs to check
+     * @return The IDs that exist
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) 
+    {
+        Set<String> existing = new HashSet<>();
+        List<String> all = new ArrayList<>(ids);
+        try (Connection conn = getConnection()) 
+        {
+            for (int from = 0; from < all.size(); from += EXISTS_CHUNK) 
+            {
+                List<String> chunk = all.subList(from, Math.min(from + EXISTS_CHUNK, all.size()));
+                String sql = "SELECT id FROM customers WHERE id IN (" + "?,".repeat(chunk.size() - 1) + "?)";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) 
+                {
+                    for (int i = 0; i < chunk.size(); i++) 
+                    {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) 
+                    {
+                        while (rs.next()) 
+                        {
+                            existing.add(rs.getString("id"));
+                        }
+                    }
+                }
+            }
+        } 
+        catch (SQLException e) 
+        {
+            throw new RuntimeException("Error checking customer IDs: " + e.getMessage(), e);
+        }
+        return existing;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Repository interface for the checkpoints of resumable batch jobs (interest accrual, balance checkpoints).
+ * Checkpoints are written inside the caller's transaction on a connection of the account storage engine,
+ * so every account engine stores them next to its accounts and implements this interface as well.
+ */
+package com.bank.repository;
+
+import java.sql.Connection;
+import java.util.Map;
+
+public interface JobCheckpointRepository 
+{
+	/**
+     * Returns the checkpoints a resumable batch job has recorded so far.
+     *
+     * @param job The job name (e.g. "interest:2026-10")
+     * @return Checkpoint key -> value (empty if the job has not recorded any)
+     * @throws RuntimeException if a database error occurs
+     */
+	Map<String, String> findCheckpoints(String job);
+	
+	/**
+     * Records (or replaces) a checkpoint of a resumable batch job inside the caller-managed transaction,
+     * so the checkpoint becomes visible exactly when the work it describes is committed.
+     *
+     * @param conn  The JDBC connection to use (null for engines without JDBC)
+     * @param job   The job name
+     * @param key   The checkpoint key within the job
+     * @param value The checkpoint value
+     * @throws RuntimeException if a database error occurs
+     */
+	void saveCheckpoint(Connection conn, String job, String key, String value);
+}
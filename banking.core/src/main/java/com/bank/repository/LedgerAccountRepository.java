@@ -0,0 +1,287 @@
+/*
+ * Account repository storage engine that keeps account rows in SQLite but writes
+ * transaction history to an append-only binary TransactionLedger instead of the
+ * transactions table. Statements and audits then read one account's history through
+ * the ledger's offset index and memory mapping instead of scanning TEXT rows.
+ * The ledger is written only after the account rows are committed: save() and insertAll() append
+ * once their statements are done, and connections from openConnection() hold records back until
+ * the caller commits (see LedgerTransaction).
+ * Implements FR-12: Save Account Data and FR-13: Load Account Data.
+ */
+package com.bank.repository;
+
+import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.HistoryTotal;
+import com.bank.model.Transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+public class LedgerAccountRepository extends JdbcAccountRepository
+{
+	/* Binary ledger holding the transaction history of every account */
+    private final TransactionLedger ledger;
+
+    /**
+     * Constructs a ledger-backed account repository.
+     * @param ledger The open ledger that stores transaction history
+     */
+    public LedgerAccountRepository(TransactionLedger ledger)
+    {
+        this(ledger, null);
+    }
+
+    /**
+     * Constructs a ledger-backed account repository whose account rows use pooled connections.
+     * @param ledger The open ledger that stores transaction history
+     * @param pool   The connection pool for the accounts table, or null for unpooled connections
+     */
+    public LedgerAccountRepository(TransactionLedger ledger, ConnectionPool pool)
+    {
+        super(pool);
+        this.ledger = ledger;
+    }
+
+    /**
+     * Opens a connection for a caller-managed transaction whose ledger records are written when it commits.
+     * @return A connection proxy owned by the caller
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public Connection openConnection() throws SQLException
+    {
+        return LedgerTransaction.open(super.openConnection(), ledger);
+    }
+
+    /**
+     * Saves the account row and then its new transactions; an amount the ledger cannot hold
+     * (see TransactionLedger.toCents()) is rejected before the row is written.
+     * @param account The account to save
+     * @throws IllegalArgumentException if an amount is not a whole number of cents
+     */
+    @Override
+    public void save(Account account)
+    {
+        TransactionLedger.requireWholeCents(account.getTransactions());
+        super.save(account);
+    }
+
+    /**
+     * Appends the transactions whose ids the ledger does not hold yet for this account.
+     * Runs after the account row is written.
+     * @param account The account whose transactions are to be saved
+     */
+    @Override
+    protected void saveTransactions(Account account)
+    {
+        ledger.appendHistory(account.getId(), account.getTransactions());
+    }
+
+    /**
+     * Loads the account's transactions from the ledger.
+     * @param account The account to load transactions for
+     */
+    @Override
+    protected void loadTransactions(Account account)
+    {
+        ledger.read(account.getId()).forEach(account::addTransaction);
+    }
+
+    /**
+     * Returns the highest id of the ledger, tracked by its index without reading any record.
+     * @return The highest numeric ID, or -1 if the ledger holds none
+     */
+    @Override
+    public long findMaxTransactionId()
+    {
+        return ledger.maxId();
+    }
+
+    /**
+     * Reads one page of the account's transactions from the ledger's offset index.
+     * @param accountId          The account whose history is read
+     * @param afterTransactionId The ID of the last transaction of the previous page, or null for the first page
+     * @param limit              Maximum number of transactions to return
+     * @return Up to limit transactions in append order following the cursor
+     */
+    @Override
+    public List<Transaction> findTransactionPage(String accountId, String afterTransactionId, int limit)
+    {
+        return ledger.read(accountId, afterTransactionId, limit);
+    }
+
+    /**
+     * Streams the account's transactions from the ledger one page at a time.
+     * @param accountId The account whose history is streamed
+     * @return A publisher that reads the ledger as subscribers request
+     */
+    @Override
+    public Flow.Publisher<Transaction> streamTransactions(String accountId)
+    {
+        return new CursorPublisher<>(() -> CursorPublisher.pages(
+            (afterId, limit) -> ledger.read(accountId, afterId, limit), CursorPublisher.DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Streams the transactions matching a query by walking the accounts and their ledger pages,
+     * since the ledger has no time, type or amount index; transactions are grouped by account.
+     * @param query The filter to apply
+     * @return A publisher that reads as subscribers request
+     */
+    @Override
+    public Flow.Publisher<AccountTransaction> streamTransactions(TransactionQuery query)
+    {
+        return AccountRepository.scanTransactions(this, query);
+    }
+
+    /**
+     * Rolls up the ledger history of every account in an ID range. The account IDs come from keyset
+     * pages of the accounts table and each history is decoded through the ledger's offset index;
+     * records of accounts without an account row are not reachable this way.
+     * @param afterId The ID after which the range starts, or null for the first account
+     * @param toId    The last ID of the range (inclusive), or null for no upper bound
+     * @return Account ID -> history roll-up in ID order
+     */
+    @Override
+    public Map<String, HistoryTotal> findHistoryTotals(String afterId, String toId)
+    {
+        Map<String, HistoryTotal> totals = new LinkedHashMap<>();
+        String cursor = afterId;
+        while (true)
+        {
+            Map<String, Double> page = findBalancePage(null, cursor, CursorPublisher.DEFAULT_PAGE_SIZE);
+            for (String accountId : page.keySet())
+            {
+                if (toId != null && accountId.compareTo(toId) > 0)
+                {
+                    return totals;
+                }
+                List<Transaction> history = ledger.read(accountId);
+                if (!history.isEmpty())
+                {
+                    totals.put(accountId, HistoryTotal.of(history));
+                }
+                cursor = accountId;
+            }
+            if (page.size() < CursorPublisher.DEFAULT_PAGE_SIZE)
+            {
+                return totals;
+            }
+        }
+    }
+
+    /**
+     * Replays the account's ledger history up to a point in time; the ledger keeps no balance checkpoints.
+     * @param accountId The account ID
+     * @param at        The point in time
+     * @return The balance at that time, or null if the account does not exist
+     */
+    @Override
+    public Double findBalanceAsOf(String accountId, LocalDateTime at)
+    {
+        return AccountRepository.replayBalanceAsOf(this, accountId, at);
+    }
+
+    /**
+     * Replays the ledger history of every account up to a point in time.
+     * @param at The point in time
+     * @return Account ID -> balance at that time, in ID order
+     */
+    @Override
+    public Map<String, Double> findBalancesAsOf(LocalDateTime at)
+    {
+        return AccountRepository.replayBalancesAsOf(this, at);
+    }
+
+    /**
+     * Writes no checkpoints: the transactions table the JDBC statement rolls up stays empty here.
+     * @return 0
+     */
+    @Override
+    public int checkpointBalances(LocalDateTime from, LocalDateTime asOf)
+    {
+        return 0;
+    }
+
+    /**
+     * Inserts a batch of accounts and, once their rows are committed, appends the history of the
+     * accounts that were actually inserted to the ledger.
+     * @param accounts The accounts to insert
+     * @return The IDs of the accounts that were skipped because they already exist
+     * @throws IllegalArgumentException if an amount is not a whole number of cents (nothing is inserted)
+     * @throws RuntimeException wrapping SQLException on DB error (nothing is written to the ledger)
+     */
+    @Override
+    public List<String> insertAll(List<Account> accounts)
+    {
+        for (Account account : accounts)
+        {
+            TransactionLedger.requireWholeCents(account.getTransactions());
+        }
+        List<String> skipped = super.insertAll(accounts);
+        Set<String> skippedIds = new HashSet<>(skipped);
+        for (Account account : accounts)
+        {
+            if (!skippedIds.contains(account.getId()))
+            {
+                ledger.appendHistory(account.getId(), account.getTransactions());
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Writes nothing inside the DB transaction; insertAll() appends the history after its commit.
+     * @param conn     The JDBC connection of the surrounding transaction (unused)
+     * @param accounts The accounts whose transactions are to be stored (unused)
+     */
+    @Override
+    protected void insertTransactions(Connection conn, List<Account> accounts)
+    {
+    }
+
+    /**
+     * Appends one new transaction to the ledger once the caller's transaction commits.
+     * @param conn        The caller's connection from openConnection()
+     * @param accountId   The account the transaction belongs to
+     * @param transaction The transaction to store
+     */
+    @Override
+    public void appendTransaction(Connection conn, String accountId, Transaction transaction)
+    {
+        LedgerTransaction.append(conn, ledger, accountId, List.of(transaction));
+    }
+
+    /**
+     * Appends several new transactions of one account to the ledger in one write once the caller's
+     * transaction commits.
+     * @param conn         The caller's connection from openConnection()
+     * @param accountId    The account the transactions belong to
+     * @param transactions The transactions to store, oldest first
+     */
+    @Override
+    public void appendTransactions(Connection conn, String accountId, List<Transaction> transactions)
+    {
+        LedgerTransaction.append(conn, ledger, accountId, transactions);
+    }
+
+    /**
+     * Appends one record per account to the ledger, e.g. a batch of interest postings, once the
+     * caller's transaction commits; a rolled-back batch leaves no records behind.
+     * @param conn         The caller's connection from openConnection()
+     * @param transactions Account ID -> transaction
+     */
+    @Override
+    protected void insertTransactionRows(Connection conn, Map<String, Transaction> transactions)
+    {
+        transactions.forEach((accountId, transaction) -> LedgerTransaction.append(conn, ledger, accountId, List.of(transaction)));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * One caller-managed transaction of LedgerAccountRepository, handed out as a java.sql.Connection
+ * proxy around the connection of the accounts database. The ledger is not part of the database
+ * transaction, so records appended through the proxy are held back until the database commit
+ * succeeds and then written to the ledger; a rollback (or closing the connection without a commit)
+ * drops them, so a failed or retried transaction leaves no orphan records behind.
+ * A crash between the commit and the ledger write leaves balances ahead of the ledger, which
+ * ReconciliationService reports as a discrepancy.
+ * Implements FR-12: Save Account Data and FR-14: Concurrency.
+ */
+package com.bank.repository;
+
+import com.bank.model.Transaction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class LedgerTransaction implements InvocationHandler
+{
+    private final Connection target;
+    private final TransactionLedger ledger;
+    /* Records of the current transaction by account, in execution order */
+    private final Map<String, List<Transaction>> pending = new LinkedHashMap<>();
+
+    private LedgerTransaction(Connection target, TransactionLedger ledger)
+    {
+        this.target = target;
+        this.ledger = ledger;
+    }
+
+    /**
+     * Wraps a database connection.
+     * @param target The connection of the accounts database (owned by the proxy)
+     * @param ledger The ledger that receives the committed records
+     * @return The proxy the caller uses as its connection
+     */
+    static Connection open(Connection target, TransactionLedger ledger)
+    {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            new LedgerTransaction(target, ledger));
+    }
+
+    /**
+     * Appends records for an account: in a transaction of a proxy from open() they are held back until
+     * its commit, in auto-commit mode (or on any other connection) they are written right away.
+     * @param conn         The caller's connection
+     * @param ledger       The ledger to write to
+     * @param accountId    The account the transactions belong to
+     * @param transactions The transactions to append, oldest first
+     * @throws IllegalArgumentException if an amount is not a whole number of cents (checked before the
+     *                                  caller commits, so its transaction rolls back)
+     * @throws RuntimeException wrapping SQLException if the connection's mode cannot be read
+     */
+    static void append(Connection conn, TransactionLedger ledger, String accountId, List<Transaction> transactions)
+    {
+        TransactionLedger.requireWholeCents(transactions);
+        if (conn != null && Proxy.isProxyClass(conn.getClass())
+            && Proxy.getInvocationHandler(conn) instanceof LedgerTransaction)
+        {
+            LedgerTransaction transaction = (LedgerTransaction) Proxy.getInvocationHandler(conn);
+            try
+            {
+                if (!transaction.target.getAutoCommit())
+                {
+                    transaction.pending.computeIfAbsent(accountId, key -> new ArrayList<>()).addAll(transactions);
+                    return;
+                }
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException("Error reading transaction mode: " + e.getMessage(), e);
+            }
+        }
+        ledger.append(accountId, transactions);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        switch (method.getName())
+        {
+            case "commit":
+                target.commit();
+                flush();
+                return null;
+            case "setAutoCommit":
+                /* Like commit(), leaving a transaction makes its records durable */
+                boolean committing = (Boolean) args[0] && !target.getAutoCommit();
+                target.setAutoCommit((Boolean) args[0]);
+                if (committing)
+                {
+                    flush();
+                }
+                return null;
+            case "rollback":
+                if (args == null)
+                {
+                    pending.clear();
+                }
+                break;
+            case "close":
+                pending.clear();
+                break;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "LedgerTransaction@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                break;
+        }
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the records of the committed transaction to the ledger.
+     */
+    private void flush()
+    {
+        try
+        {
+            pending.forEach(ledger::append);
+        }
+        finally
+        {
+            pending.clear();
+        }
+    }
+}
@@ -6,9 +6,13 @@
 
 package com.bank.repository;
 
+import com.bank.model.Identifiable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
-public interface Repository<T> 
+public interface Repository<T extends Identifiable> 
 {
 	/**
      * Saves or updates an entity in the data store.
@@ -29,9 +33,51 @@ public interface Repository<T>
      */
     List<T> findAll();
     
+    /**
+     * Retrieves one page of entities ordered by ID, starting after a cursor (keyset pagination).
+     * The default implementation sorts findAll(); engines override it with an ordered range read
+     * (id > ? ORDER BY id LIMIT ? in SQL, a tail map in memory), so memory is bounded by the
+     * page size and the cost of a page does not grow with its position.
+     * @param afterId The ID of the last entity of the previous page, or null for the first page
+     * @param limit   Maximum number of entities to return (at least 1)
+     * @return Up to limit entities with IDs greater than afterId, ordered by ID
+     */
+    default List<T> findPage(String afterId, int limit) 
+    {
+        return findAll().stream()
+            .filter(entity -> afterId == null || entity.getId().compareTo(afterId) > 0)
+            .sorted(Comparator.comparing(Identifiable::getId))
+            .limit(limit)
+            .toList();
+    }
+    
     /**
      * Deletes an entity by its unique identifier.
      * @param id The ID of the entity to delete
      */
     void delete(String id);
-}
+    
+    /**
+     * Inserts a batch of new entities, leaving any entity whose ID already exists untouched.
+     * The default implementation falls back to one findById/save pair per entity;
+     * JDBC implementations override it with a batched statement in a single transaction.
+     * @param entities The entities to insert
+     * @return The IDs of the entities that were skipped because they already exist
+     */
+    default List<String> insertAll(List<T> entities) 
+    {
+        List<String> skipped = new ArrayList<>();
+        for (T entity : entities) 
+        {
+            if (findById(entity.getId()) != null) 
+            {
+                skipped.add(entity.getId());
+            } 
+            else 
+            {
+                save(entity);
+            }
+        }
+        return skipped;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*
+ * Repository interface for scheduled transfers and standing orders, read by due time.
+ * Every account engine stores schedules next to its accounts and implements this interface as well.
+ */
+package com.bank.repository;
+
+import com.bank.model.ScheduledTransfer;
+
+import java.util.List;
+
+public interface ScheduleRepository 
+{
+	/**
+     * Inserts or replaces scheduled transfers (new schedules, and schedules advanced or cancelled after a run).
+     *
+     * @param schedules The schedules to store
+     * @throws RuntimeException if a database error occurs
+     */
+	void saveSchedules(List<ScheduledTransfer> schedules);
+
+	/**
+     * Finds a scheduled transfer by its ID, active or not.
+     *
+     * @param id The schedule ID
+     * @return The schedule, or null if not found
+     * @throws RuntimeException if a database error occurs
+     */
+	ScheduledTransfer findSchedule(String id);
+
+	/**
+     * Reads one keyset page of the active schedules due up to a given time, ordered by (next run, ID).
+     * Runs on the due-time index, so loading the next few minutes of schedules or catching up on the
+     * runs missed while the application was down never scans the whole schedule table.
+     *
+     * @param afterRunAt Due time of the last schedule of the previous page (exclusive lower bound)
+     * @param afterId    ID of the last schedule of the previous page, or null to start strictly after afterRunAt
+     * @param untilRunAt Latest due time to include (epoch milliseconds)
+     * @param limit      Maximum number of schedules to return
+     * @return The schedules in (next run, ID) order
+     * @throws RuntimeException if a database error occurs
+     */
+	List<ScheduledTransfer> findDueSchedules(long afterRunAt, String afterId, long untilRunAt, int limit);
+}
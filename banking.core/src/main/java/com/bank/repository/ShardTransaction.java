@@ -0,0 +1,429 @@
+/*
+ * One caller-managed transaction of ShardedAccountRepository, handed out as a java.sql.Connection
+ * proxy so that BankService drives it exactly like the connection of a single database:
+ * setAutoCommit(false), repository calls, commit() or rollback(), close().
+ *
+ * Every shard (and the directory) is enlisted on first use with its own pooled connection.
+ * In a transaction, enlisting a shard also takes the shard's writer lock until the transaction
+ * ends. findByIds() enlists the shards of a transfer in ascending order; a shard needed out of
+ * that order is only waited for a bounded time, so two transactions locking shards in opposite
+ * order fail instead of waiting for each other forever.
+ * Statements prepared directly on the proxy run on the directory database.
+ * Implements FR-07: Transfer Funds and FR-14: Concurrency.
+ */
+package com.bank.repository;
+
+import com.bank.model.TransactionIdGenerator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class ShardTransaction implements InvocationHandler
+{
+	/* Seconds to wait for a shard that is needed out of shard order before the transaction fails */
+    static final long OUT_OF_ORDER_LOCK_TIMEOUT_SECONDS = 5;
+
+    private final ShardedAccountRepository repository;
+    /* Enlisted shard connections by shard index, null for shards not used yet */
+    private final Connection[] shards;
+    /* Shards whose writer lock this transaction holds */
+    private final boolean[] locked;
+    /* Enlisted directory connection, null until used */
+    private Connection directory;
+    /* Whether the directory has uncommitted writes (idempotency keys) */
+    private boolean directoryWritten;
+    /* Redo log of the shard writes of the current transaction, in execution order */
+    private final List<ShardedAccountRepository.ShardWrite> writes = new ArrayList<>();
+    private boolean autoCommit = true;
+    private boolean closed;
+
+    private ShardTransaction(ShardedAccountRepository repository)
+    {
+        this.repository = repository;
+        this.shards = new Connection[repository.getShardCount()];
+        this.locked = new boolean[repository.getShardCount()];
+    }
+
+    /**
+     * Opens a new transaction connection.
+     * @param repository The repository whose shards the transaction may touch
+     * @return The proxy the caller uses as its connection
+     */
+    static Connection open(ShardedAccountRepository repository)
+    {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            new ShardTransaction(repository));
+    }
+
+    /**
+     * Returns the transaction behind a connection from ShardedAccountRepository.openConnection().
+     * @throws IllegalArgumentException if the connection was opened by another repository
+     */
+    static ShardTransaction of(Connection conn)
+    {
+        if (conn != null && Proxy.isProxyClass(conn.getClass())
+            && Proxy.getInvocationHandler(conn) instanceof ShardTransaction)
+        {
+            return (ShardTransaction) Proxy.getInvocationHandler(conn);
+        }
+        throw new IllegalArgumentException("Connection was not opened by the sharded repository.");
+    }
+
+    /**
+     * Returns the connection of a shard, enlisting the shard on first use.
+     * @throws SQLException if the transaction is closed, the shard lock times out or no connection can be opened
+     */
+    Connection shard(int index) throws SQLException
+    {
+        ensureOpen();
+        if (shards[index] == null)
+        {
+            if (!autoCommit)
+            {
+                lock(index);
+            }
+            try
+            {
+                Connection conn = repository.shardPool(index).getConnection();
+                conn.setAutoCommit(autoCommit);
+                shards[index] = conn;
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                unlock(index);
+                throw e;
+            }
+        }
+        return shards[index];
+    }
+
+    /**
+     * Returns the directory connection, enlisting it on first use.
+     * @param write Whether the caller is going to write through it
+     */
+    Connection directory(boolean write) throws SQLException
+    {
+        ensureOpen();
+        if (directory == null)
+        {
+            Connection conn = repository.getDirectoryPool().getConnection();
+            conn.setAutoCommit(autoCommit);
+            directory = conn;
+        }
+        directoryWritten |= write && !autoCommit;
+        return directory;
+    }
+
+    /**
+     * Checks whether the directory is enlisted in the current transaction.
+     */
+    boolean hasDirectory()
+    {
+        return directory != null;
+    }
+
+    /**
+     * Adds a shard write to the redo log of the current transaction (ignored in auto-commit mode).
+     */
+    void record(ShardedAccountRepository.ShardWrite write)
+    {
+        if (!autoCommit)
+        {
+            writes.add(write);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        switch (method.getName())
+        {
+            case "setAutoCommit":
+                setAutoCommit((Boolean) args[0]);
+                return null;
+            case "getAutoCommit":
+                ensureOpen();
+                return autoCommit;
+            case "commit":
+                commit();
+                return null;
+            case "rollback":
+                if (args == null)
+                {
+                    rollback();
+                    return null;
+                }
+                break;
+            case "close":
+                if (!closed)
+                {
+                    release(true);
+                    closed = true;
+                }
+                return null;
+            case "isClosed":
+                return closed;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "ShardTransaction@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                break;
+        }
+        Connection target = directory(!autoCommit);
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    private void ensureOpen() throws SQLException
+    {
+        if (closed)
+        {
+            throw new SQLException("Connection is closed");
+        }
+    }
+
+    /**
+     * Switches the mode; like JDBC, leaving a transaction commits it.
+     * Connections enlisted under the old mode are returned, so shards re-enlist (and lock) as needed.
+     */
+    private void setAutoCommit(boolean value) throws SQLException
+    {
+        ensureOpen();
+        if (value == autoCommit)
+        {
+            return;
+        }
+        if (value)
+        {
+            commit();
+        }
+        else
+        {
+            release(false);
+        }
+        autoCommit = value;
+    }
+
+    /**
+     * Commits every enlisted database. When more than one of them was written, the
+     * two-phase protocol of ShardedAccountRepository makes the commit atomic.
+     */
+    private void commit() throws SQLException
+    {
+        ensureOpen();
+        if (autoCommit)
+        {
+            throw new SQLException("Cannot commit when auto-commit is enabled");
+        }
+        boolean committed = false;
+        String intentId = null;
+        boolean complete = true;
+        TreeSet<Integer> written = new TreeSet<>();
+        try
+        {
+            writes.forEach(write -> written.add(write.shard));
+            if (written.size() + (directoryWritten ? 1 : 0) <= 1)
+            {
+                commitSingle(written);
+            }
+            else
+            {
+                intentId = Long.toString(TransactionIdGenerator.nextId());
+                complete = commitTwoPhase(intentId, written);
+            }
+            committed = true;
+        }
+        finally
+        {
+            release(!committed);
+        }
+        /* After release: completing the intent borrows connections from the same pools and takes the shard locks */
+        if (intentId != null)
+        {
+            repository.finishIntent(intentId, written, complete);
+        }
+    }
+
+    /**
+     * At most one database was written: commit the read-only ones first and the written one last,
+     * so a failure before the last commit leaves nothing half-applied.
+     */
+    private void commitSingle(TreeSet<Integer> written) throws SQLException
+    {
+        for (int i = 0; i < shards.length; i++)
+        {
+            if (shards[i] != null && !written.contains(i))
+            {
+                shards[i].commit();
+            }
+        }
+        if (directory != null)
+        {
+            directory.commit();
+        }
+        if (!written.isEmpty())
+        {
+            shards[written.first()].commit();
+        }
+    }
+
+    /**
+     * Runs the prepare, decide and shard commit steps of the two-phase protocol.
+     * A shard that fails to commit after the decision is rolled back and redone by finishIntent().
+     * @return false if a shard failed to commit after the decision, so the intent must be completed
+     */
+    private boolean commitTwoPhase(String intentId, TreeSet<Integer> written) throws SQLException
+    {
+        /* Prepare: each written shard records the intent inside its own transaction */
+        for (int index : written)
+        {
+            repository.markApplied(shards[index], intentId);
+        }
+
+        /* Decide: the intent log (and any idempotency key) commits in the directory */
+        Connection decision = directory(true);
+        repository.logIntent(decision, intentId, writes);
+        decision.commit();
+
+        /* Complete: the decision is durable, so a failing shard is redone instead of rolled back */
+        boolean complete = true;
+        for (int i = 0; i < shards.length; i++)
+        {
+            if (shards[i] == null)
+            {
+                continue;
+            }
+            try
+            {
+                shards[i].commit();
+            }
+            catch (SQLException e)
+            {
+                complete = false;
+                rollbackQuietly(shards[i]);
+            }
+        }
+        return complete;
+    }
+
+    private void rollback() throws SQLException
+    {
+        ensureOpen();
+        release(true);
+    }
+
+    /**
+     * Ends the current transaction: rolls back what was not committed (if asked), returns every
+     * enlisted connection to its pool, unlocks the shards and clears the redo log.
+     */
+    private void release(boolean rollback)
+    {
+        for (int i = 0; i < shards.length; i++)
+        {
+            if (shards[i] != null)
+            {
+                finish(shards[i], rollback);
+                shards[i] = null;
+            }
+            unlock(i);
+        }
+        if (directory != null)
+        {
+            finish(directory, rollback);
+            directory = null;
+        }
+        directoryWritten = false;
+        writes.clear();
+    }
+
+    private void finish(Connection conn, boolean rollback)
+    {
+        if (rollback && !autoCommit)
+        {
+            rollbackQuietly(conn);
+        }
+        try
+        {
+            conn.close();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Error closing shard connection: " + e.getMessage());
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn)
+    {
+        try
+        {
+            conn.rollback();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Error rolling back shard connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes a shard's writer lock: waits freely when no higher shard is held, and only for a bounded
+     * time otherwise, since that is the only case in which two transactions can wait for each other.
+     */
+    private void lock(int index) throws SQLException
+    {
+        ReentrantLock lock = repository.shardLock(index);
+        boolean inOrder = true;
+        for (int i = index + 1; i < locked.length; i++)
+        {
+            inOrder &= !locked[i];
+        }
+        if (inOrder)
+        {
+            lock.lock();
+        }
+        else
+        {
+            try
+            {
+                if (!lock.tryLock(OUT_OF_ORDER_LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                {
+                    throw new SQLException("Timed out waiting for shard " + index);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for shard " + index, e);
+            }
+        }
+        locked[index] = true;
+    }
+
+    private void unlock(int index)
+    {
+        if (locked[index])
+        {
+            locked[index] = false;
+            repository.shardLock(index).unlock();
+        }
+    }
+}
@@ -0,0 +1,1084 @@
+/*
+ * Account repository that spreads accounts, their transactions and balance checkpoints across several SQLite files
+ * (and, with an archive directory, their archived records across one archive per shard).
+ * An account lives in shard floorMod(id.hashCode(), shardCount); every shard is a plain
+ * JdbcAccountRepository with its own connection pool, so writers of different shards never wait
+ * for the same database lock. Customers, idempotency keys, scheduled transfers and the routing metadata
+ * (the shard count the files were created with) stay in a separate directory database.
+ *
+ * Caller-managed transactions (transfers, idempotent operations) get a connection from
+ * openConnection() that enlists every shard it touches (see ShardTransaction). A commit that
+ * writes to more than one database uses a local two-phase commit:
+ *
+ *   prepare  -> every written shard inserts the intent ID into its applied_intents table
+ *   decide   -> the directory commits the intent's redo rows to shard_intents (together with
+ *               any idempotency key); from here on the transaction is committed
+ *   complete -> the shards commit, then the intent is deleted from the log and its markers
+ *               from the shards
+ *
+ * recover() finishes every intent still in the log: shards without the intent's marker get its
+ * balance deltas and transaction rows re-applied, in one local transaction with the marker, so
+ * redoing an intent twice has no effect. A committed transaction whose shards cannot be completed
+ * right away is still reported as committed (its decision is durable); it stays in the log and a
+ * background retry of recover() finishes it (see getRecoveryFailure()).
+ * Implements FR-07: Transfer Funds, FR-12: Save Account Data and FR-14: Concurrency.
+ */
+package com.bank.repository;
+
+import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.HistoryTotal;
+import com.bank.model.ScheduledTransfer;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ShardedAccountRepository implements AccountRepository, JobCheckpointRepository, ScheduleRepository, Closeable
+{
+	/* Order of bank-wide transaction queries: (timestamp, id), as in the per-shard SQL */
+    private static final Comparator<AccountTransaction> TIME_ORDER = Comparator
+        .comparingLong((AccountTransaction pair) -> pair.getTransaction().getTimestampMicros())
+        .thenComparing(pair -> pair.getTransaction().getId());
+
+    /* Pool of the directory database (customers, idempotency keys, routing metadata, intent log) */
+    private final ConnectionPool directoryPool;
+    /* Runs the idempotency key queries against the directory database */
+    private final JdbcAccountRepository directory;
+    /* Pool and repository of each shard, by shard index */
+    private final List<ConnectionPool> shardPools;
+    private final List<JdbcAccountRepository> shards;
+    /* Writer lock of each shard: held by caller-managed transactions until they end, and by plain writes */
+    private final ReentrantLock[] shardLocks;
+    /* Seconds between background retries of recover() after an intent could not be finished */
+    static final long RECOVERY_RETRY_SECONDS = 5;
+    /* Serializes finishing intents, so recover() never redoes a shard whose marker was just dropped */
+    private final Object intentLock = new Object();
+    /* Runs the background recovery retries; created on the first failure */
+    private ScheduledExecutorService recoveryRetry;
+    /* Failure that left an intent in the log, null while every committed intent is finished */
+    private volatile RuntimeException recoveryFailure;
+
+    /**
+     * Constructs a sharded repository over an open directory database and shard databases.
+     * The first use of a directory records the shard count; reopening it with another count
+     * would route accounts to the wrong files and is rejected.
+     * @param directoryPool Pool of the directory database
+     * @param shardPools    Pools of the shard databases, in shard order
+     * @throws IllegalArgumentException if there are no shards or the directory was created for another shard count
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    public ShardedAccountRepository(ConnectionPool directoryPool, List<ConnectionPool> shardPools)
+    {
+        this(directoryPool, shardPools, null);
+    }
+
+    /**
+     * Constructs a sharded repository whose shards can archive old records, each shard into its own
+     * folder "shard-<index>" below the archive directory.
+     * @param directoryPool    Pool of the directory database
+     * @param shardPools       Pools of the shard databases, in shard order
+     * @param archiveDirectory Folder for the shards' archives, or null to keep every record in the shards
+     * @throws IllegalArgumentException if there are no shards or the directory was created for another shard count
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    public ShardedAccountRepository(ConnectionPool directoryPool, List<ConnectionPool> shardPools, Path archiveDirectory)
+    {
+        if (shardPools.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        this.directoryPool = directoryPool;
+        this.directory = new JdbcAccountRepository(directoryPool);
+        this.shardPools = List.copyOf(shardPools);
+        this.shards = new ArrayList<>(shardPools.size());
+        this.shardLocks = new ReentrantLock[shardPools.size()];
+        for (int i = 0; i < shardPools.size(); i++)
+        {
+            TransactionArchive archive = archiveDirectory == null ? null : new TransactionArchive(archiveDirectory.resolve("shard-" + i));
+            shards.add(new JdbcAccountRepository(shardPools.get(i), archive));
+            shardLocks[i] = new ReentrantLock();
+        }
+        checkShardCount();
+    }
+
+    /**
+     * Returns the shard an account is stored in.
+     * @param accountId The account ID
+     * @return The shard index, in [0, shard count)
+     */
+    public int shardOf(String accountId)
+    {
+        return Math.floorMod(accountId.hashCode(), shards.size());
+    }
+
+    public int getShardCount()
+    {
+        return shards.size();
+    }
+
+    /**
+     * Returns the pool of the directory database, which also backs the customer repository.
+     * @return The directory pool
+     */
+    public ConnectionPool getDirectoryPool()
+    {
+        return directoryPool;
+    }
+
+    /* ---------------- Routed single-account operations ---------------- */
+
+    /**
+     * Saves an account in its shard. Plain writes take the shard's writer lock like transactions do,
+     * so writers of one shard queue in this process instead of failing on SQLite's busy lock.
+     */
+    @Override
+    public void save(Account account)
+    {
+        int index = shardOf(account.getId());
+        withShardLock(index, () -> shards.get(index).save(account));
+    }
+
+    @Override
+    public Account findById(String id)
+    {
+        return shard(id).findById(id);
+    }
+
+    @Override
+    public boolean existsById(String id)
+    {
+        return shard(id).existsById(id);
+    }
+
+    @Override
+    public long findMaxTransactionId()
+    {
+        return shards.stream().mapToLong(JdbcAccountRepository::findMaxTransactionId).max().orElse(-1);
+    }
+
+    @Override
+    public void delete(String id)
+    {
+        int index = shardOf(id);
+        withShardLock(index, () -> shards.get(index).delete(id));
+    }
+
+    @Override
+    public List<Transaction> findTransactionPage(String accountId, String afterTransactionId, int limit)
+    {
+        return shard(accountId).findTransactionPage(accountId, afterTransactionId, limit);
+    }
+
+    @Override
+    public Flow.Publisher<Transaction> streamTransactions(String accountId)
+    {
+        return shard(accountId).streamTransactions(accountId);
+    }
+
+    /* ---------------- Scatter-gather queries ---------------- */
+
+    /**
+     * Retrieves all accounts of all shards, shard by shard.
+     * @return A list of all accounts
+     */
+    @Override
+    public List<Account> findAll()
+    {
+        List<Account> accounts = new ArrayList<>();
+        shards.forEach(shard -> accounts.addAll(shard.findAll()));
+        return accounts;
+    }
+
+    /**
+     * Inserts a batch of accounts, split into one batch per shard.
+     * Each shard's batch is atomic; a failing shard does not roll back the batches already inserted
+     * into other shards.
+     * @param accounts The accounts to insert
+     * @return The IDs of the accounts that were skipped because they already exist
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    @Override
+    public List<String> insertAll(List<Account> accounts)
+    {
+        Map<Integer, List<Account>> batches = new TreeMap<>();
+        for (Account account : accounts)
+        {
+            batches.computeIfAbsent(shardOf(account.getId()), index -> new ArrayList<>()).add(account);
+        }
+        List<String> skipped = new ArrayList<>();
+        batches.forEach((index, batch) -> withShardLock(index, () -> skipped.addAll(shards.get(index).insertAll(batch))));
+        return skipped;
+    }
+
+    @Override
+    public List<Account> findByCustomerId(String customerId)
+    {
+        return sortedById(shard -> shard.findByCustomerId(customerId));
+    }
+
+    @Override
+    public List<Account> findByType(String type)
+    {
+        return sortedById(shard -> shard.findByType(type));
+    }
+
+    @Override
+    public int countByCustomerId(String customerId)
+    {
+        return shards.stream().mapToInt(shard -> shard.countByCustomerId(customerId)).sum();
+    }
+
+    @Override
+    public double sumBalanceByCustomerId(String customerId)
+    {
+        return shards.stream().mapToDouble(shard -> shard.sumBalanceByCustomerId(customerId)).sum();
+    }
+
+    @Override
+    public double sumBalances()
+    {
+        return shards.stream().mapToDouble(JdbcAccountRepository::sumBalances).sum();
+    }
+
+    /**
+     * Retrieves one page of accounts by merging the same keyset page of every shard.
+     * Only the history of the accounts that make it into the page is loaded.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return
+     * @return Up to limit accounts with IDs greater than afterId, ordered by ID
+     */
+    @Override
+    public List<Account> findPage(String afterId, int limit)
+    {
+        List<Account> page = findPageRows(afterId, limit);
+        page.forEach(account -> shard(account.getId()).loadTransactions(account));
+        return page;
+    }
+
+    /**
+     * Retrieves one page of account rows by merging the same keyset page of every shard; no history is loaded.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return
+     * @return Up to limit accounts with IDs greater than afterId, ordered by ID
+     */
+    @Override
+    public List<Account> findPageRows(String afterId, int limit)
+    {
+        List<Account> rows = new ArrayList<>();
+        shards.forEach(shard -> rows.addAll(shard.findPageRows(afterId, limit)));
+        rows.sort(Comparator.comparing(Account::getId));
+        return new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+    }
+
+    /**
+     * Retrieves one page of balances of one account type by merging the same keyset page of every shard.
+     */
+    @Override
+    public Map<String, Double> findBalancePage(String type, String afterId, int limit)
+    {
+        TreeMap<String, Double> rows = new TreeMap<>();
+        shards.forEach(shard -> rows.putAll(shard.findBalancePage(type, afterId, limit)));
+        Map<String, Double> page = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> row : rows.entrySet())
+        {
+            if (page.size() == limit)
+            {
+                break;
+            }
+            page.put(row.getKey(), row.getValue());
+        }
+        return page;
+    }
+
+    /**
+     * Rolls up the histories of an ID range by merging the roll-ups of every shard in ID order.
+     */
+    @Override
+    public Map<String, HistoryTotal> findHistoryTotals(String afterId, String toId)
+    {
+        TreeMap<String, HistoryTotal> totals = new TreeMap<>();
+        shards.forEach(shard -> totals.putAll(shard.findHistoryTotals(afterId, toId)));
+        return new LinkedHashMap<>(totals);
+    }
+
+    /**
+     * Reads an account's balance at a point in time from its shard's checkpoints and records.
+     */
+    @Override
+    public Double findBalanceAsOf(String accountId, LocalDateTime at)
+    {
+        return shard(accountId).findBalanceAsOf(accountId, at);
+    }
+
+    /**
+     * Reads the balances of every account at a point in time, one set-based query per shard, merged in ID order.
+     */
+    @Override
+    public Map<String, Double> findBalancesAsOf(LocalDateTime at)
+    {
+        TreeMap<String, Double> balances = new TreeMap<>();
+        shards.forEach(shard -> balances.putAll(shard.findBalancesAsOf(at)));
+        return new LinkedHashMap<>(balances);
+    }
+
+    /**
+     * Records the checkpoints of one step on every shard. Each shard's statement is atomic on its own
+     * and a step can be repeated, so no cross-shard transaction is needed.
+     */
+    @Override
+    public int checkpointBalances(LocalDateTime from, LocalDateTime asOf)
+    {
+        int written = 0;
+        for (JdbcAccountRepository shard : shards)
+        {
+            written += shard.checkpointBalances(from, asOf);
+        }
+        return written;
+    }
+
+    /**
+     * Archives the records before the cutoff on every shard, each into its own archive. A shard's
+     * batches commit on their own and archiving can be repeated, so no cross-shard transaction is needed.
+     */
+    @Override
+    public int archiveTransactions(LocalDateTime before)
+    {
+        int archived = 0;
+        for (JdbcAccountRepository shard : shards)
+        {
+            archived += shard.archiveTransactions(before);
+        }
+        return archived;
+    }
+
+    @Override
+    public HistoryTotal findArchivedTotal(String accountId)
+    {
+        return shard(accountId).findArchivedTotal(accountId);
+    }
+
+    /**
+     * Streams the transactions matching a query. A query for one account is answered by its shard;
+     * any other query runs on every shard and the time-ordered cursors are merged, so the result is
+     * ordered by (timestamp, id) as with a single database. Holds one connection per shard while streaming.
+     * @param query The filter to apply
+     * @return A publisher that opens the shard cursors for every subscriber
+     */
+    @Override
+    public Flow.Publisher<AccountTransaction> streamTransactions(TransactionQuery query)
+    {
+        if (query.getAccountId() != null)
+        {
+            return shard(query.getAccountId()).streamTransactions(query);
+        }
+        return new CursorPublisher<>(() -> {
+            List<CursorPublisher.Cursor<AccountTransaction>> cursors = new ArrayList<>(shards.size());
+            try
+            {
+                for (JdbcAccountRepository shard : shards)
+                {
+                    cursors.add(shard.openTransactionCursor(query));
+                }
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                for (CursorPublisher.Cursor<AccountTransaction> cursor : cursors)
+                {
+                    cursor.close();
+                }
+                throw e;
+            }
+            return CursorPublisher.merge(cursors, TIME_ORDER);
+        });
+    }
+
+    /* ---------------- Caller-managed transactions ---------------- */
+
+    /**
+     * Opens a connection for a caller-managed transaction spanning any number of shards.
+     * Shards and the directory are enlisted when first used; commit() applies the two-phase
+     * protocol when more than one database was written.
+     * @return A new transaction connection owned by the caller
+     */
+    @Override
+    public Connection openConnection()
+    {
+        return ShardTransaction.open(this);
+    }
+
+    @Override
+    public Account findById(Connection conn, String id)
+    {
+        int index = shardOf(id);
+        return shards.get(index).findById(enlist(conn, index), id);
+    }
+
+    /**
+     * Finds several accounts inside the caller's transaction. Their shards are enlisted (and locked)
+     * in ascending order before any of them is read, which is what keeps concurrent transfers
+     * between the same shards from deadlocking.
+     */
+    @Override
+    public List<Account> findByIds(Connection conn, List<String> ids)
+    {
+        ids.stream().map(this::shardOf).sorted().distinct().forEach(index -> enlist(conn, index));
+        List<Account> accounts = new ArrayList<>(ids.size());
+        for (String id : ids)
+        {
+            accounts.add(findById(conn, id));
+        }
+        return accounts;
+    }
+
+    /**
+     * Updates the balance of an account inside the caller's transaction and records the change
+     * as a balance delta in the transaction's redo log.
+     * @throws RuntimeException if a database error occurs or the account does not exist
+     */
+    @Override
+    public void update(Connection conn, Account account)
+    {
+        int index = shardOf(account.getId());
+        Connection shard = enlist(conn, index);
+        double before = balanceOf(shard, account.getId());
+        shards.get(index).update(shard, account);
+        ShardTransaction.of(conn).record(new ShardWrite(index, account.getId(), account.getBalance() - before, null));
+    }
+
+    @Override
+    public void appendTransaction(Connection conn, String accountId, Transaction transaction)
+    {
+        int index = shardOf(accountId);
+        shards.get(index).appendTransaction(enlist(conn, index), accountId, transaction);
+        ShardTransaction.of(conn).record(new ShardWrite(index, accountId, 0.0, transaction));
+    }
+
+    @Override
+    public void appendTransactions(Connection conn, String accountId, List<Transaction> transactions)
+    {
+        int index = shardOf(accountId);
+        shards.get(index).appendTransactions(enlist(conn, index), accountId, transactions);
+        for (Transaction transaction : transactions)
+        {
+            ShardTransaction.of(conn).record(new ShardWrite(index, accountId, 0.0, transaction));
+        }
+    }
+
+    /**
+     * Credits accounts of any number of shards, one batch per shard in ascending shard order.
+     * Every credit is recorded as a balance delta plus its row in the transaction's redo log.
+     */
+    @Override
+    public void applyCredits(Connection conn, Map<String, Transaction> credits)
+    {
+        Map<Integer, Map<String, Transaction>> byShard = new TreeMap<>();
+        credits.forEach((accountId, credit) -> byShard.computeIfAbsent(shardOf(accountId), index -> new LinkedHashMap<>()).put(accountId, credit));
+        for (Map.Entry<Integer, Map<String, Transaction>> batch : byShard.entrySet())
+        {
+            int index = batch.getKey();
+            shards.get(index).applyCredits(enlist(conn, index), batch.getValue());
+            batch.getValue().forEach((accountId, credit) ->
+                ShardTransaction.of(conn).record(new ShardWrite(index, accountId, credit.getAmount(), credit)));
+        }
+    }
+
+    /**
+     * Looks up an idempotency key. Until the transaction has written to the directory the lookup runs
+     * on a separate auto-commit connection, so the directory's write lock is only held from the first
+     * key write to the commit; a key committed concurrently still fails the commit on its primary key.
+     */
+    @Override
+    public Double findIdempotentResult(Connection conn, String key, String request)
+    {
+        ShardTransaction transaction = ShardTransaction.of(conn);
+        if (transaction.hasDirectory())
+        {
+            return directory.findIdempotentResult(enlistDirectory(conn, false), key, request);
+        }
+        try (Connection read = directoryPool.getConnection())
+        {
+            return directory.findIdempotentResult(read, key, request);
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error reading idempotency key: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void saveIdempotencyKey(Connection conn, String key, String request, double result)
+    {
+        directory.saveIdempotencyKey(enlistDirectory(conn, true), key, request, result);
+    }
+
+    /**
+     * Reads the checkpoints of a batch job from the directory database.
+     */
+    @Override
+    public Map<String, String> findCheckpoints(String job)
+    {
+        return directory.findCheckpoints(job);
+    }
+
+    /**
+     * Records a checkpoint in the directory database inside the caller's transaction; with credits on
+     * the shards this makes the commit a two-phase one, so the checkpoint and the work commit together.
+     */
+    @Override
+    public void saveCheckpoint(Connection conn, String job, String key, String value)
+    {
+        directory.saveCheckpoint(enlistDirectory(conn, true), job, key, value);
+    }
+
+    /**
+     * Stores schedules in the directory database; a schedule names two accounts that may live on
+     * different shards, so it is routing-independent metadata like the idempotency keys.
+     */
+    @Override
+    public void saveSchedules(List<ScheduledTransfer> schedules)
+    {
+        directory.saveSchedules(schedules);
+    }
+
+    @Override
+    public ScheduledTransfer findSchedule(String id)
+    {
+        return directory.findSchedule(id);
+    }
+
+    @Override
+    public List<ScheduledTransfer> findDueSchedules(long afterRunAt, String afterId, long untilRunAt, int limit)
+    {
+        return directory.findDueSchedules(afterRunAt, afterId, untilRunAt, limit);
+    }
+
+    /* ---------------- Intent log and recovery ---------------- */
+
+    /**
+     * Completes every cross-shard transaction whose decision was logged but which may not have
+     * reached all its shards (e.g. after a crash between the directory commit and a shard commit),
+     * then drops the applied markers that are no longer needed.
+     * Called once when the storage is opened; safe to call at any time.
+     * @return Number of logged transactions that were completed
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    public int recover()
+    {
+        synchronized (intentLock)
+        {
+            List<String> pending = pendingIntents();
+            for (String intentId : pending)
+            {
+                forgetIntent(intentId, completeIntent(intentId));
+            }
+            for (int index = 0; index < shards.size(); index++)
+            {
+                pruneMarkers(index);
+            }
+            recoveryFailure = null;
+            return pending.size();
+        }
+    }
+
+    /**
+     * Returns why a committed cross-shard transaction is not finished on every shard yet.
+     * While this is set, a background retry of recover() runs every RECOVERY_RETRY_SECONDS.
+     * @return The last completion or recovery failure, or null if every committed transaction is finished
+     */
+    public RuntimeException getRecoveryFailure()
+    {
+        return recoveryFailure;
+    }
+
+    /**
+     * Closes the directory and shard pools and stops the background recovery retries.
+     * Implements FR-15: Graceful Shutdown.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (recoveryRetry != null)
+            {
+                recoveryRetry.shutdownNow();
+            }
+        }
+        shardPools.forEach(ConnectionPool::close);
+        directoryPool.close();
+    }
+
+    /*
+     * One redo entry of a caller-managed transaction: a balance delta and/or a new transaction row
+     * for an account of one shard.
+     */
+    static final class ShardWrite
+    {
+        final int shard;
+        final String accountId;
+        final double balanceDelta;
+        final Transaction transaction;
+
+        ShardWrite(int shard, String accountId, double balanceDelta, Transaction transaction)
+        {
+            this.shard = shard;
+            this.accountId = accountId;
+            this.balanceDelta = balanceDelta;
+            this.transaction = transaction;
+        }
+    }
+
+    ConnectionPool shardPool(int index)
+    {
+        return shardPools.get(index);
+    }
+
+    ReentrantLock shardLock(int index)
+    {
+        return shardLocks[index];
+    }
+
+    /**
+     * Prepares a shard for the two-phase commit: the intent's marker becomes visible exactly
+     * when the shard's own transaction commits.
+     */
+    void markApplied(Connection shard, String intentId) throws SQLException
+    {
+        try (PreparedStatement ps = shard.prepareStatement("INSERT INTO applied_intents (intent_id) VALUES (?)"))
+        {
+            ps.setString(1, intentId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Writes the redo rows of an intent on the directory connection; committing it is the commit decision.
+     */
+    void logIntent(Connection directoryConn, String intentId, List<ShardWrite> writes) throws SQLException
+    {
+        String sql = "INSERT INTO shard_intents (intent_id, seq, shard, account_id, balance_delta, "
+                   + "transaction_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = directoryConn.prepareStatement(sql))
+        {
+            for (int seq = 0; seq < writes.size(); seq++)
+            {
+                ShardWrite write = writes.get(seq);
+                Transaction transaction = write.transaction;
+                ps.setString(1, intentId);
+                ps.setInt(2, seq);
+                ps.setInt(3, write.shard);
+                ps.setString(4, write.accountId);
+                ps.setDouble(5, write.balanceDelta);
+                ps.setString(6, transaction == null ? null : transaction.getId());
+                ps.setString(7, transaction == null ? null : transaction.getType().toString());
+                ps.setObject(8, transaction == null ? null : transaction.getAmount());
+                ps.setString(9, transaction == null ? null : transaction.getTimestampAsString());
+                ps.setString(10, transaction == null ? null : transaction.getDescription());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Finishes a cross-shard transaction after its commit decision: redoes the shards it did not
+     * reach, deletes it from the log and drops its markers. A failure leaves the intent in the log,
+     * is reported through getRecoveryFailure() and schedules a background recover().
+     * @param intentId The intent of the committed transaction
+     * @param shards   The shards the transaction wrote
+     * @param complete Whether every shard committed
+     */
+    void finishIntent(String intentId, Collection<Integer> shards, boolean complete)
+    {
+        synchronized (intentLock)
+        {
+            try
+            {
+                forgetIntent(intentId, complete ? shards : completeIntent(intentId));
+            }
+            catch (RuntimeException e)
+            {
+                scheduleRecovery(e);
+            }
+        }
+    }
+
+    /**
+     * Re-applies a logged intent to every shard that has not committed it yet.
+     * Each shard is redone under its writer lock, in one local transaction with its marker.
+     * @return The shards the intent writes
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    private Collection<Integer> completeIntent(String intentId)
+    {
+        Map<Integer, List<ShardWrite>> byShard = new TreeMap<>();
+        for (ShardWrite write : loadIntent(intentId))
+        {
+            byShard.computeIfAbsent(write.shard, index -> new ArrayList<>()).add(write);
+        }
+        for (Map.Entry<Integer, List<ShardWrite>> entry : byShard.entrySet())
+        {
+            ReentrantLock lock = shardLocks[entry.getKey()];
+            lock.lock();
+            try (Connection conn = shardPools.get(entry.getKey()).getConnection())
+            {
+                conn.setAutoCommit(false);
+                try
+                {
+                    if (!isApplied(conn, intentId))
+                    {
+                        redo(conn, entry.getValue());
+                        markApplied(conn, intentId);
+                    }
+                    conn.commit();
+                }
+                catch (SQLException e)
+                {
+                    conn.rollback();
+                    throw e;
+                }
+                finally
+                {
+                    conn.setAutoCommit(true);
+                }
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException("Error completing intent " + intentId + " on shard " + entry.getKey(), e);
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+        return byShard.keySet();
+    }
+
+    /**
+     * Deletes a completed intent from the log, then its markers from the shards it wrote.
+     * The log entry goes first: a crash in between leaves only markers, which recover() prunes,
+     * while a marker dropped before the entry would make recovery redo the shard.
+     * @throws RuntimeException wrapping SQLException on DB error
+     */
+    private void forgetIntent(String intentId, Collection<Integer> shardIndexes)
+    {
+        try (Connection conn = directoryPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM shard_intents WHERE intent_id = ?"))
+        {
+            ps.setString(1, intentId);
+            ps.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error deleting intent " + intentId, e);
+        }
+        for (int index : shardIndexes)
+        {
+            ReentrantLock lock = shardLocks[index];
+            lock.lock();
+            try (Connection conn = shardPools.get(index).getConnection();
+                 PreparedStatement ps = conn.prepareStatement("DELETE FROM applied_intents WHERE intent_id = ?"))
+            {
+                ps.setString(1, intentId);
+                ps.executeUpdate();
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException("Error deleting the marker of intent " + intentId + " on shard " + index, e);
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Records why an intent is still in the log and retries recover() in the background until it succeeds.
+     */
+    private synchronized void scheduleRecovery(RuntimeException failure)
+    {
+        boolean scheduled = recoveryFailure != null;
+        recoveryFailure = failure;
+        if (scheduled)
+        {
+            return;
+        }
+        if (recoveryRetry == null)
+        {
+            recoveryRetry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "shard-recovery");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (!recoveryRetry.isShutdown())
+        {
+            recoveryRetry.schedule(this::retryRecovery, RECOVERY_RETRY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void retryRecovery()
+    {
+        try
+        {
+            recover();
+        }
+        catch (RuntimeException e)
+        {
+            synchronized (this)
+            {
+                recoveryFailure = null;
+                scheduleRecovery(e);
+            }
+        }
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    private JdbcAccountRepository shard(String accountId)
+    {
+        return shards.get(shardOf(accountId));
+    }
+
+    private void withShardLock(int index, Runnable write)
+    {
+        shardLocks[index].lock();
+        try
+        {
+            write.run();
+        }
+        finally
+        {
+            shardLocks[index].unlock();
+        }
+    }
+
+    private interface ShardQuery
+    {
+        List<Account> run(JdbcAccountRepository shard);
+    }
+
+    private List<Account> sortedById(ShardQuery query)
+    {
+        List<Account> accounts = new ArrayList<>();
+        shards.forEach(shard -> accounts.addAll(query.run(shard)));
+        accounts.sort(Comparator.comparing(Account::getId));
+        return accounts;
+    }
+
+    private static Connection enlist(Connection conn, int index)
+    {
+        try
+        {
+            return ShardTransaction.of(conn).shard(index);
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error enlisting shard " + index + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Connection enlistDirectory(Connection conn, boolean write)
+    {
+        try
+        {
+            return ShardTransaction.of(conn).directory(write);
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error enlisting directory: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the committed-or-pending balance of an account inside the caller's transaction.
+     */
+    private static double balanceOf(Connection shard, String accountId)
+    {
+        try (PreparedStatement ps = shard.prepareStatement("SELECT balance FROM accounts WHERE id = ?"))
+        {
+            ps.setString(1, accountId);
+            try (ResultSet rs = ps.executeQuery())
+            {
+                return rs.next() ? rs.getDouble(1) : 0.0;
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error reading balance of account id: " + accountId, e);
+        }
+    }
+
+    /**
+     * Records the shard count in the directory on first use and checks it afterwards.
+     */
+    private void checkShardCount()
+    {
+        String stored;
+        try (Connection conn = directoryPool.getConnection())
+        {
+            try (PreparedStatement ps = conn.prepareStatement("INSERT OR IGNORE INTO shard_config (name, value) VALUES ('shard_count', ?)"))
+            {
+                ps.setString(1, Integer.toString(shards.size()));
+                ps.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT value FROM shard_config WHERE name = 'shard_count'"))
+            {
+                stored = rs.next() ? rs.getString(1) : null;
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error reading shard configuration: " + e.getMessage(), e);
+        }
+        if (!Integer.toString(shards.size()).equals(stored))
+        {
+            throw new IllegalArgumentException("The directory was created for " + stored + " shards, not " + shards.size() + ".");
+        }
+    }
+
+    private List<String> pendingIntents()
+    {
+        List<String> intents = new ArrayList<>();
+        try (Connection conn = directoryPool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT intent_id FROM shard_intents"))
+        {
+            while (rs.next())
+            {
+                intents.add(rs.getString(1));
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error reading the intent log: " + e.getMessage(), e);
+        }
+        return intents;
+    }
+
+    private List<ShardWrite> loadIntent(String intentId)
+    {
+        List<ShardWrite> writes = new ArrayList<>();
+        try (Connection conn = directoryPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT * FROM shard_intents WHERE intent_id = ? ORDER BY seq"))
+        {
+            ps.setString(1, intentId);
+            try (ResultSet rs = ps.executeQuery())
+            {
+                while (rs.next())
+                {
+                    String transactionId = rs.getString("transaction_id");
+                    Transaction transaction = transactionId == null ? null : new Transaction(
+                        transactionId,
+                        TransactionType.fromString(rs.getString("type")),
+                        rs.getDouble("amount"),
+                        rs.getString("timestamp"),
+                        rs.getString("description"));
+                    writes.add(new ShardWrite(rs.getInt("shard"), rs.getString("account_id"), rs.getDouble("balance_delta"), transaction));
+                }
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error reading intent " + intentId, e);
+        }
+        return writes;
+    }
+
+    private static boolean isApplied(Connection shard, String intentId) throws SQLException
+    {
+        try (PreparedStatement ps = shard.prepareStatement("SELECT 1 FROM applied_intents WHERE intent_id = ?"))
+        {
+            ps.setString(1, intentId);
+            try (ResultSet rs = ps.executeQuery())
+            {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void redo(Connection shard, List<ShardWrite> writes) throws SQLException
+    {
+        try (PreparedStatement balance = shard.prepareStatement("UPDATE accounts SET balance = balance + ? WHERE id = ?");
+             PreparedStatement insert = shard.prepareStatement(
+                 "INSERT OR IGNORE INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)"))
+        {
+            for (ShardWrite write : writes)
+            {
+                if (write.balanceDelta != 0.0)
+                {
+                    balance.setDouble(1, write.balanceDelta);
+                    balance.setString(2, write.accountId);
+                    balance.executeUpdate();
+                }
+                if (write.transaction != null)
+                {
+                    insert.setString(1, write.transaction.getId());
+                    insert.setString(2, write.accountId);
+                    insert.setString(3, write.transaction.getType().toString());
+                    insert.setDouble(4, write.transaction.getAmount());
+                    insert.setString(5, write.transaction.getTimestampAsString());
+                    insert.setString(6, write.transaction.getDescription());
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops a shard's markers of intents that are no longer logged. Runs under the shard's writer
+     * lock, so no transaction of this process is between its shard commit and forgetting its intent.
+     */
+    private void pruneMarkers(int index)
+    {
+        ReentrantLock lock = shardLocks[index];
+        lock.lock();
+        try (Connection conn = shardPools.get(index).getConnection())
+        {
+            List<String> pending = pendingIntents();
+            StringBuilder sql = new StringBuilder("DELETE FROM applied_intents");
+            if (!pending.isEmpty())
+            {
+                sql.append(" WHERE intent_id NOT IN (").append("?, ".repeat(pending.size() - 1)).append("?)");
+            }
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString()))
+            {
+                for (int i = 0; i < pending.size(); i++)
+                {
+                    ps.setString(i + 1, pending.get(i));
+                }
+                ps.executeUpdate();
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Error pruning markers of shard " + index, e);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Cold storage for transaction records moved out of the transactions table.
+ * Every account has its own partition file "<account id>.gz" in the archive directory. Each archival
+ * run appends one gzip member holding that run's records of the account:
+ *
+ *   int     record count
+ *   record  UTF id, UTF type (display name), double amount, UTF timestamp ("yyyy-MM-dd HH:mm:ss"),
+ *           boolean has description, [UTF description]
+ *
+ * Records are written in (timestamp, id) order and a run only archives records older than every
+ * record left in the table, so a partition read from start to end is in history order.
+ *
+ * The archive does not know which bytes are committed: the owning repository stores the committed
+ * length of each partition in the same database transaction that deletes the archived rows. Reads
+ * stop at that length, and an append first truncates the file to it, which drops a member left behind
+ * by a run that failed before its commit. Recently read partitions are kept decoded in a small cache
+ * keyed by their committed length, so paging through an archived history decodes it once; a cached
+ * partition also indexes its record IDs, so a page cursor is found without scanning the records.
+ * Implements FR-11: Transaction History for archived records.
+ */
+package com.bank.repository;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class TransactionArchive
+{
+	/* Number of decoded partitions kept in memory */
+    private static final int CACHED_PARTITIONS = 16;
+    /* Account IDs that can be used as file names as they are */
+    private static final Pattern PARTITION_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /* Directory holding the partition files (created on the first append) */
+    private final Path directory;
+    /* Decoded partitions by "<account id>:<committed length>", least recently read first */
+    private final Map<String, Partition> cache = new LinkedHashMap<>(CACHED_PARTITIONS, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Partition> eldest)
+        {
+            return size() > CACHED_PARTITIONS;
+        }
+    };
+
+    /**
+     * Constructs an archive over a directory; nothing is created until records are archived.
+     * @param directory Directory for the partition files
+     */
+    public TransactionArchive(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Appends records to an account's partition and forces them to disk.
+     * The new length only becomes the committed length once the caller has stored it.
+     * @param accountId       The account ID
+     * @param committedLength The partition's committed length (0 for a new partition)
+     * @param records         The records to append, in (timestamp, id) order
+     * @return The partition length after the append
+     * @throws IOException if the partition cannot be written
+     * @throws IllegalArgumentException if the account ID cannot be used as a file name
+     */
+    public long append(String accountId, long committedLength, List<Transaction> records) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes)))
+        {
+            out.writeInt(records.size());
+            for (Transaction record : records)
+            {
+                out.writeUTF(record.getId());
+                out.writeUTF(record.getType().toString());
+                out.writeDouble(record.getAmount());
+                out.writeUTF(record.getTimestampAsString());
+                out.writeBoolean(record.getDescription() != null);
+                if (record.getDescription() != null)
+                {
+                    out.writeUTF(record.getDescription());
+                }
+            }
+        }
+
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(partition(accountId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+        {
+            /* Drops whatever an uncommitted run appended after the committed length */
+            channel.truncate(committedLength);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            long position = committedLength;
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+            channel.force(true);
+            return position;
+        }
+    }
+
+    /**
+     * Reads the committed records of an account's partition.
+     * @param accountId       The account ID
+     * @param committedLength The partition's committed length (0 means nothing is archived)
+     * @return The archived records in (timestamp, id) order (unmodifiable)
+     * @throws RuntimeException if the partition is missing, shorter than committed or corrupt
+     */
+    public List<Transaction> read(String accountId, long committedLength)
+    {
+        return committedLength == 0 ? Collections.emptyList() : load(accountId, committedLength).records;
+    }
+
+    /**
+     * Finds the position of a record in an account's partition, e.g. the cursor of a history page.
+     * @param accountId       The account ID
+     * @param committedLength The partition's committed length (0 means nothing is archived)
+     * @param transactionId   The ID of the record
+     * @return The record's index in read(accountId, committedLength), or -1 if it is not archived
+     * @throws RuntimeException if the partition is missing, shorter than committed or corrupt
+     */
+    public int positionOf(String accountId, long committedLength, String transactionId)
+    {
+        if (committedLength == 0)
+        {
+            return -1;
+        }
+        Integer position = load(accountId, committedLength).positions().get(transactionId);
+        return position == null ? -1 : position;
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /*
+     * One decoded partition: its records and, built on the first cursor lookup, their positions by ID.
+     */
+    private static final class Partition
+    {
+        private final List<Transaction> records;
+        private Map<String, Integer> positions;
+
+        Partition(List<Transaction> records)
+        {
+            this.records = Collections.unmodifiableList(records);
+        }
+
+        synchronized Map<String, Integer> positions()
+        {
+            if (positions == null)
+            {
+                positions = new HashMap<>(records.size() * 4 / 3 + 1);
+                for (int i = 0; i < records.size(); i++)
+                {
+                    positions.put(records.get(i).getId(), i);
+                }
+            }
+            return positions;
+        }
+    }
+
+    /**
+     * Returns a decoded partition from the cache, decoding and caching it on a miss.
+     */
+    private Partition load(String accountId, long committedLength)
+    {
+        String key = accountId + ":" + committedLength;
+        synchronized (cache)
+        {
+            Partition cached = cache.get(key);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+        Partition partition = new Partition(decode(accountId, committedLength));
+        synchronized (cache)
+        {
+            cache.put(key, partition);
+        }
+        return partition;
+    }
+
+    private Path partition(String accountId)
+    {
+        if (accountId == null || !PARTITION_NAME.matcher(accountId).matches())
+        {
+            throw new IllegalArgumentException("Account ID cannot name an archive partition: " + accountId);
+        }
+        return directory.resolve(accountId + ".gz");
+    }
+
+    /**
+     * Reads the committed bytes of a partition and decodes every member in them.
+     */
+    private List<Transaction> decode(String accountId, long committedLength)
+    {
+        byte[] bytes = new byte[Math.toIntExact(committedLength)];
+        try (FileChannel channel = FileChannel.open(partition(accountId), StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer, buffer.position()) < 0)
+                {
+                    throw new EOFException("partition is shorter than its committed length " + committedLength);
+                }
+            }
+
+            List<Transaction> records = new ArrayList<>();
+            /* GZIPInputStream reads concatenated members as one stream */
+            try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes))))
+            {
+                int count;
+                while ((count = readCount(in)) >= 0)
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        String id = in.readUTF();
+                        TransactionType type = TransactionType.fromString(in.readUTF());
+                        double amount = in.readDouble();
+                        String timestamp = in.readUTF();
+                        String description = in.readBoolean() ? in.readUTF() : null;
+                        records.add(new Transaction(id, type, amount, timestamp, description));
+                    }
+                }
+            }
+            return records;
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Error reading archived transactions of " + accountId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the record count that starts a member, or returns -1 at the end of the stream.
+     */
+    private static int readCount(DataInputStream in) throws IOException
+    {
+        int first = in.read();
+        if (first < 0)
+        {
+            return -1;
+        }
+        return (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedShort());
+    }
+}
@@ -0,0 +1,555 @@
+/*
+ * Append-only binary ledger file for Transaction records.
+ * Every record has the same fixed width, so a record is located by a simple offset:
+ *
+ *   offset  size  field
+ *   0       8     transaction id (numeric ids; 0 when the id is text)
+ *   8       8     timestamp as epoch microseconds (wall clock, UTC offset)
+ *   16      8     amount in minor units (cents)
+ *   24      4     account id       -> string table reference
+ *   28      4     transaction type -> string table reference
+ *   32      4     description      -> string table reference
+ *   36      4     text id          -> string table reference + 1 (0 for numeric ids)
+ *
+ * Amounts must be whole cents (see toCents()); a finer amount is rejected instead of being rounded,
+ * so the stored history always adds up to the balance of the accounts table.
+ * Repeated strings (account ids, type names, descriptions, text ids) are interned into a side
+ * file "<ledger>.strings" holding length-prefixed UTF-8 entries. Generated ids are numeric, so
+ * text ids (older data) are the only strings that are not repeated.
+ * Records keep the id of the transaction they store, and an account's history is appended by id:
+ * records whose id is already stored for the account are skipped.
+ * Reads go through a read-only MappedByteBuffer and a per-account offset index that is
+ * rebuilt with one sequential pass when the ledger is opened, so one account's history
+ * is read without scanning the whole file.
+ * A single mapping is used, which limits one ledger file to 2 GB (about 53 million records).
+ */
+package com.bank.repository;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TransactionLedger implements Closeable
+{
+	/* Size in bytes of one fixed-width transaction record */
+    public static final int RECORD_SIZE = 40;
+
+    /* Channel of the record file (appends) and the string table file */
+    private final FileChannel records;
+    private final FileChannel strings;
+
+    /* Interned string table: reference -> value and value -> reference */
+    private final List<String> stringValues = new ArrayList<>();
+    private final Map<String, Integer> stringRefs = new HashMap<>();
+
+    /* Per-account offset index: account string reference -> record offsets in append order */
+    private final Map<Integer, OffsetList> accountIndex = new HashMap<>();
+
+    /* Number of records in the file */
+    private long recordCount;
+    /* Highest numeric transaction id stored, -1 while there is none */
+    private long maxId = -1;
+    /* Read-only mapping of the record file, remapped when the file grows past it */
+    private volatile MappedByteBuffer mapped;
+
+    /**
+     * Opens (or creates) a ledger and rebuilds its in-memory string table and account index.
+     * A torn record or string entry at the end of a file (e.g. after a crash) is truncated.
+     * @param ledgerFile Path of the record file; the string table lives next to it
+     * @throws IOException if the files cannot be opened or read
+     */
+    public TransactionLedger(Path ledgerFile) throws IOException
+    {
+        this.records = FileChannel.open(ledgerFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.strings = FileChannel.open(ledgerFile.resolveSibling(ledgerFile.getFileName() + ".strings"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        loadStringTable();
+
+        long validSize = records.size() - records.size() % RECORD_SIZE;
+        if (validSize != records.size())
+        {
+            records.truncate(validSize);
+        }
+        recordCount = validSize / RECORD_SIZE;
+        mapped = records.map(FileChannel.MapMode.READ_ONLY, 0, validSize);
+
+        /* One sequential pass over the mapping to rebuild the per-account index */
+        for (long i = 0; i < recordCount; i++)
+        {
+            int offset = (int) (i * RECORD_SIZE);
+            indexRecord(mapped.getInt(offset + 24), offset, mapped.getInt(offset + 36) == 0 ? mapped.getLong(offset) : -1);
+        }
+    }
+
+    /**
+     * Appends the transactions of an account's history that are not stored yet.
+     * A history that extends the stored records (the usual case: the account was loaded, changed and
+     * saved) is recognised by its record at the stored count; any other history, e.g. a copy of the
+     * account that was loaded before another copy was saved, is compared id by id.
+     * @param accountId The account the transactions belong to
+     * @param history   The account's full transaction history, oldest first
+     * @return Number of records appended
+     */
+    public synchronized int appendHistory(String accountId, List<Transaction> history)
+    {
+        Integer accountRef = stringRefs.get(accountId);
+        OffsetList list = accountRef == null ? null : accountIndex.get(accountRef);
+        int stored = list == null ? 0 : list.size;
+        List<Transaction> pending;
+        if (stored == 0)
+        {
+            pending = history;
+        }
+        else if (history.size() >= stored && idAt(list.offsets[stored - 1]).equals(history.get(stored - 1).getId()))
+        {
+            pending = history.subList(stored, history.size());
+        }
+        else
+        {
+            Set<String> storedIds = new HashSet<>(stored * 2);
+            for (int i = 0; i < stored; i++)
+            {
+                storedIds.add(idAt(list.offsets[i]));
+            }
+            pending = new ArrayList<>();
+            for (Transaction transaction : history)
+            {
+                if (!storedIds.contains(transaction.getId()))
+                {
+                    pending.add(transaction);
+                }
+            }
+        }
+        return pending.isEmpty() ? 0 : write(accountId, pending);
+    }
+
+    /**
+     * Appends one transaction to an account's history, e.g. a single deposit that was applied
+     * to an account loaded without its history.
+     * @param accountId   The account the transaction belongs to
+     * @param transaction The transaction to append
+     */
+    public synchronized void append(String accountId, Transaction transaction)
+    {
+        write(accountId, List.of(transaction));
+    }
+
+    /**
+     * Appends several transactions to an account's history in one write, e.g. a batch of
+     * coalesced deposits.
+     * @param accountId    The account the transactions belong to
+     * @param transactions The transactions to append, oldest first
+     */
+    public synchronized void append(String accountId, List<Transaction> transactions)
+    {
+        if (!transactions.isEmpty())
+        {
+            write(accountId, transactions);
+        }
+    }
+
+    /**
+     * Converts an amount to the cents stored in a record. Amounts computed in floating point may be a
+     * few ulps off the cent; anything further off is a fraction of a cent that the ledger cannot hold.
+     * @param amount The amount in units of currency
+     * @return The amount in cents
+     * @throws IllegalArgumentException if the amount is not a whole number of cents
+     */
+    static long toCents(double amount)
+    {
+        long cents = Math.round(amount * 100);
+        if (Math.abs(amount - cents / 100.0) > 8 * Math.ulp(amount))
+        {
+            throw new IllegalArgumentException("Amount must be a whole number of cents: " + amount);
+        }
+        return cents;
+    }
+
+    /**
+     * Checks that every amount can be stored (see toCents()), e.g. before a transaction commits.
+     * @param transactions The transactions to check
+     * @throws IllegalArgumentException if an amount is not a whole number of cents
+     */
+    static void requireWholeCents(List<Transaction> transactions)
+    {
+        for (Transaction transaction : transactions)
+        {
+            toCents(transaction.getAmount());
+        }
+    }
+
+    /**
+     * Writes records for the given transactions at the end of the file and indexes them.
+     * Every amount is checked before anything is written.
+     */
+    private int write(String accountId, List<Transaction> pending)
+    {
+        requireWholeCents(pending);
+        ByteBuffer buffer = ByteBuffer.allocate(pending.size() * RECORD_SIZE);
+        int accountRef = intern(accountId);
+
+        for (Transaction transaction : pending)
+        {
+            long numericId = transaction.getNumericId();
+            buffer.putLong(Math.max(numericId, 0));
+            buffer.putLong(transaction.getTimestampMicros());
+            buffer.putLong(toCents(transaction.getAmount()));
+            buffer.putInt(accountRef);
+            buffer.putInt(intern(transaction.getType().name()));
+            buffer.putInt(intern(transaction.getDescription() == null ? "" : transaction.getDescription()));
+            buffer.putInt(numericId >= 0 ? 0 : intern(transaction.getId()) + 1);
+        }
+        buffer.flip();
+
+        try
+        {
+            long position = recordCount * RECORD_SIZE;
+            while (buffer.hasRemaining())
+            {
+                position += records.write(buffer, position);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Error appending to transaction ledger: " + e.getMessage(), e);
+        }
+
+        for (Transaction transaction : pending)
+        {
+            indexRecord(accountRef, recordCount * RECORD_SIZE, transaction.getNumericId());
+            recordCount++;
+        }
+        return pending.size();
+    }
+
+    /**
+     * Reads one account's transactions in append order using the offset index.
+     * @param accountId The account to read
+     * @return The account's transactions, or an empty list if it has none
+     */
+    public List<Transaction> read(String accountId)
+    {
+        return read(accountId, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads one page of an account's transactions in append order.
+     * While an account's ids are numeric and grow with every append (generated ids do), the cursor
+     * is located by a binary search over the account's offset index; otherwise the index is scanned
+     * for it. Only the records of the page are decoded.
+     * @param accountId The account to read
+     * @param afterId   The id of the last transaction of the previous page, or null for the first page
+     * @param limit     Maximum number of transactions to return
+     * @return Up to limit transactions appended after the cursor (empty if the cursor is not stored for the account)
+     */
+    public List<Transaction> read(String accountId, String afterId, int limit)
+    {
+        long[] offsets;
+        int size;
+        boolean ascending;
+        MappedByteBuffer buffer;
+        synchronized (this)
+        {
+            Integer accountRef = stringRefs.get(accountId);
+            OffsetList list = accountRef == null ? null : accountIndex.get(accountRef);
+            if (list == null)
+            {
+                return new ArrayList<>();
+            }
+            offsets = list.offsets;
+            size = list.size;
+            ascending = list.ascending;
+            buffer = mappingFor(recordCount * RECORD_SIZE);
+        }
+
+        /* Absolute reads on the mapping are safe without holding the lock */
+        int start = 0;
+        if (afterId != null)
+        {
+            start = ascending ? searchAscending(buffer, offsets, size, afterId) : scan(buffer, offsets, size, afterId);
+            if (start < 0)
+            {
+                return new ArrayList<>();
+            }
+        }
+
+        int end = (int) Math.min(size, (long) start + limit);
+        List<Transaction> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+        {
+            int offset = (int) offsets[i];
+            TransactionType type = TransactionType.valueOf(string(buffer.getInt(offset + 28)));
+            double amount = buffer.getLong(offset + 16) / 100.0;
+            long micros = buffer.getLong(offset + 8);
+            String description = string(buffer.getInt(offset + 32));
+            int textId = buffer.getInt(offset + 36);
+            result.add(textId == 0
+                ? new Transaction(buffer.getLong(offset), type, amount, micros, description)
+                : new Transaction(string(textId - 1), type, amount, Transaction.fromEpochMicros(micros), description));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index position after the cursor in an account whose ids are ascending numbers,
+     * or -1 if the cursor is not one of its ids.
+     */
+    private static int searchAscending(MappedByteBuffer buffer, long[] offsets, int size, String afterId)
+    {
+        long after;
+        try
+        {
+            after = Long.parseLong(afterId);
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high)				/* first record whose id is greater than the cursor */
+        {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong((int) offsets[middle]) <= after)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        boolean found = low > 0 && buffer.getLong((int) offsets[low - 1]) == after && Long.toString(after).equals(afterId);
+        return found ? low : -1;
+    }
+
+    /**
+     * Returns the index position after the cursor by comparing every id, or -1 if it is not stored.
+     */
+    private int scan(MappedByteBuffer buffer, long[] offsets, int size, String afterId)
+    {
+        for (int i = size - 1; i >= 0; i--)
+        {
+            if (idAt(buffer, offsets[i]).equals(afterId))
+            {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of records stored for an account.
+     * @param accountId The account to look up
+     * @return Number of stored transactions
+     */
+    public synchronized int count(String accountId)
+    {
+        Integer accountRef = stringRefs.get(accountId);
+        OffsetList list = accountRef == null ? null : accountIndex.get(accountRef);
+        return list == null ? 0 : list.size;
+    }
+
+    /**
+     * Returns the highest numeric transaction id stored in the ledger.
+     * @return The highest id, or -1 if the ledger holds no numeric id
+     */
+    public synchronized long maxId()
+    {
+        return maxId;
+    }
+
+    /**
+     * Returns the total number of records in the ledger.
+     * @return The record count
+     */
+    public synchronized long size()
+    {
+        return recordCount;
+    }
+
+    /**
+     * Forces all appended records and strings to the storage device.
+     */
+    public void flush()
+    {
+        try
+        {
+            strings.force(false);
+            records.force(false);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Error flushing transaction ledger: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Flushes and closes the ledger files.
+     * @throws IOException if closing fails
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        flush();
+        strings.close();
+        records.close();
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Returns a mapping that covers at least the requested number of bytes, remapping if needed.
+     * Must be called while holding the ledger lock.
+     */
+    private MappedByteBuffer mappingFor(long requiredSize)
+    {
+        if (mapped.capacity() < requiredSize)
+        {
+            try
+            {
+                mapped = records.map(FileChannel.MapMode.READ_ONLY, 0, requiredSize);
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Error mapping transaction ledger: " + e.getMessage(), e);
+            }
+        }
+        return mapped;
+    }
+
+    /**
+     * Adds a record to its account's offset index.
+     * @param numericId The record's numeric id, or -1 for a text id
+     */
+    private void indexRecord(int accountRef, long offset, long numericId)
+    {
+        accountIndex.computeIfAbsent(accountRef, key -> new OffsetList()).add(offset, numericId);
+        maxId = Math.max(maxId, numericId);
+    }
+
+    /**
+     * Returns the id of the record at an offset. Must be called while holding the ledger lock.
+     */
+    private String idAt(long offset)
+    {
+        return idAt(mappingFor(recordCount * RECORD_SIZE), offset);
+    }
+
+    private String idAt(MappedByteBuffer buffer, long offset)
+    {
+        int textId = buffer.getInt((int) offset + 36);
+        return textId == 0 ? Long.toString(buffer.getLong((int) offset)) : string(textId - 1);
+    }
+
+    private synchronized String string(int ref)
+    {
+        return stringValues.get(ref);
+    }
+
+    /**
+     * Returns the reference of a string, appending it to the string table on first use.
+     * The entry is written before any record that refers to it.
+     */
+    private int intern(String value)
+    {
+        Integer ref = stringRefs.get(value);
+        if (ref != null)
+        {
+            return ref;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes);
+        entry.flip();
+        try
+        {
+            long position = strings.size();
+            while (entry.hasRemaining())
+            {
+                position += strings.write(entry, position);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Error writing ledger string table: " + e.getMessage(), e);
+        }
+
+        int newRef = stringValues.size();
+        stringValues.add(value);
+        stringRefs.put(value, newRef);
+        return newRef;
+    }
+
+    private void loadStringTable() throws IOException
+    {
+        long size = strings.size();
+        ByteBuffer content = ByteBuffer.allocate((int) size);
+        while (content.hasRemaining() && strings.read(content, content.position()) > 0)
+        {
+            /* keep reading until the whole table is in memory */
+        }
+        content.flip();
+
+        long validSize = 0;
+        while (content.remaining() >= 4)
+        {
+            int length = content.getInt(content.position());
+            if (length < 0 || content.remaining() < 4 + length)
+            {
+                break;					/* torn entry at the end of the file */
+            }
+            content.getInt();
+            byte[] bytes = new byte[length];
+            content.get(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            stringRefs.put(value, stringValues.size());
+            stringValues.add(value);
+            validSize = content.position();
+        }
+
+        if (validSize != size)
+        {
+            strings.truncate(validSize);
+        }
+    }
+
+    /*
+     * Growable array of record offsets; avoids boxing one Long per transaction in the index.
+     * Also tracks whether the account's ids are numeric and ascending, which allows binary searches.
+     */
+    private static final class OffsetList
+    {
+        private long[] offsets = new long[8];
+        private int size;
+        private boolean ascending = true;
+        private long lastId = -1;
+
+        void add(long offset, long numericId)
+        {
+            if (size == offsets.length)
+            {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+            ascending &= numericId > lastId;
+            lastId = numericId;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Filter for transaction queries: an optional account, time window, type and minimum amount.
+ * Every criterion left unset matches all transactions, so an empty query streams the whole bank.
+ * JDBC engines turn the query into one indexed WHERE clause; other engines apply matches()
+ * while walking their history pages. The window is compared to the second on both paths,
+ * the precision of the transactions.timestamp column, so every engine returns the same records.
+ * Built with TransactionQuery.builder(); instances are immutable and thread-safe.
+ * Implements FR-11: Transaction History queries for audits.
+ */
+package com.bank.repository;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+public final class TransactionQuery
+{
+	/* Account the transactions belong to, or null for all accounts */
+    private final String accountId;
+    /* Start of the time window (inclusive), or null for no lower bound */
+    private final LocalDateTime from;
+    /* End of the time window (exclusive), or null for no upper bound */
+    private final LocalDateTime to;
+    /* Transaction type, or null for all types */
+    private final TransactionType type;
+    /* Minimum amount (inclusive), or null for no threshold */
+    private final Double minAmount;
+    /* Window bounds as epoch seconds, so matches() does not decode every timestamp */
+    private final long fromSeconds;
+    private final long toSeconds;
+
+    private TransactionQuery(Builder builder)
+    {
+        this.accountId = builder.accountId;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.fromSeconds = from == null ? Long.MIN_VALUE : toEpochSeconds(Transaction.toEpochMicros(from));
+        this.toSeconds = to == null ? Long.MAX_VALUE : toEpochSeconds(Transaction.toEpochMicros(to));
+        this.type = builder.type;
+        this.minAmount = builder.minAmount;
+    }
+
+    /**
+     * Starts a query that matches every transaction until criteria are added.
+     * @return A new builder
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public String getAccountId()
+    {
+        return accountId;
+    }
+
+    public LocalDateTime getFrom()
+    {
+        return from;
+    }
+
+    public LocalDateTime getTo()
+    {
+        return to;
+    }
+
+    public TransactionType getType()
+    {
+        return type;
+    }
+
+    public Double getMinAmount()
+    {
+        return minAmount;
+    }
+
+    /**
+     * Checks whether a transaction satisfies the time, type and amount criteria.
+     * The account criterion is left to the caller, since Transaction does not know its account.
+     * Timestamps and window bounds are both taken to the second, like the SQL WHERE clause.
+     * @param transaction The transaction to check
+     * @return true if the transaction matches
+     */
+    public boolean matches(Transaction transaction)
+    {
+        long timestamp = toEpochSeconds(transaction.getTimestampMicros());
+        return timestamp >= fromSeconds
+            && timestamp < toSeconds
+            && (type == null || transaction.getType() == type)
+            && (minAmount == null || transaction.getAmount() >= minAmount);
+    }
+
+    /*
+     * Drops the fraction of a second, rounding down for times before 1970 as well.
+     */
+    private static long toEpochSeconds(long micros)
+    {
+        return Math.floorDiv(micros, 1_000_000L);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TransactionQuery{" +
+                "accountId='" + accountId + '\'' +
+                ", from=" + from +
+                ", to=" + to +
+                ", type=" + type +
+                ", minAmount=" + minAmount +
+                '}';
+    }
+
+    /*
+     * Collects the criteria of a query.
+     */
+    public static final class Builder
+    {
+        private String accountId;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private TransactionType type;
+        private Double minAmount;
+
+        private Builder()
+        {
+        }
+
+        public Builder accountId(String accountId)
+        {
+            this.accountId = accountId;
+            return this;
+        }
+
+        /**
+         * Restricts the query to the time window [from, to); either bound may be null.
+         */
+        public Builder between(LocalDateTime from, LocalDateTime to)
+        {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        public Builder type(TransactionType type)
+        {
+            this.type = type;
+            return this;
+        }
+
+        /**
+         * Restricts the query to transactions of at least this amount.
+         */
+        public Builder minAmount(double minAmount)
+        {
+            this.minAmount = minAmount;
+            return this;
+        }
+
+        /**
+         * Builds the query.
+         * @return The immutable query
+         * @throws IllegalArgumentException if the window ends before it starts or the threshold is negative
+         */
+        public TransactionQuery build()
+        {
+            if (from != null && to != null && to.isBefore(from))
+            {
+                throw new IllegalArgumentException("Invalid time window.");
+            }
+            if (minAmount != null && (minAmount < 0 || minAmount.isNaN()))
+            {
+                throw new IllegalArgumentException("Invalid amount threshold.");
+            }
+            return new TransactionQuery(this);
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package com.bank.service;
 
 import com.bank.model.Account;
+import com.bank.model.NotFoundException;
 import com.bank.repository.Repository;
 
 public class AccountService 
@@ -31,7 +32,7 @@ public class AccountService
     public void deposit(String accountId, double amount) 
     {
         Account account = accountRepository.findById(accountId);
-        if (account == null) throw new IllegalArgumentException("Account not found");
+        if (account == null) throw new NotFoundException("Account not found");
         account.deposit(amount);   /* transaction will be done automatically in withdraw */
     }
      
@@ -46,7 +47,7 @@ public class AccountService
     {
         Account account = accountRepository.findById(accountId);
         if (account == null) 
-        	throw new IllegalArgumentException("Account not found");
+        	throw new NotFoundException("Account not found");
         account.withdraw(amount);   /* add transaction will be done automatically in withdraw */
     }
     
@@ -0,0 +1,88 @@
+/*
+ * Summary of an interest accrual run produced by InterestAccrualService.
+ * Holds account counters, the interest posted and the elapsed time so callers can report throughput.
+ */
+package com.bank.service;
+
+public class AccrualResult
+{
+	/* Number of savings accounts read in this run (including ones already credited before a restart) */
+    private final long accountsScanned;
+    /* Number of accounts credited in this run */
+    private final long accountsCredited;
+    /* Number of accounts skipped because an earlier attempt of the run already credited them */
+    private final long accountsResumed;
+    /* Number of batches committed in this run */
+    private final long batches;
+    /* Total interest posted in this run */
+    private final double interestPosted;
+    /* Wall-clock duration of the run in nanoseconds */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs an accrual summary.
+     * @param accountsScanned  Savings accounts read
+     * @param accountsCredited Accounts credited in this run
+     * @param accountsResumed  Accounts skipped because an earlier attempt credited them
+     * @param batches          Batches committed in this run
+     * @param interestPosted   Total interest posted in this run
+     * @param elapsedNanos     Wall-clock duration of the run in nanoseconds
+     */
+    public AccrualResult(long accountsScanned, long accountsCredited, long accountsResumed, long batches,
+                         double interestPosted, long elapsedNanos)
+    {
+        this.accountsScanned = accountsScanned;
+        this.accountsCredited = accountsCredited;
+        this.accountsResumed = accountsResumed;
+        this.batches = batches;
+        this.interestPosted = interestPosted;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /* Getters APIs */
+    public long getAccountsScanned()
+    {
+        return accountsScanned;
+    }
+
+    public long getAccountsCredited()
+    {
+        return accountsCredited;
+    }
+
+    public long getAccountsResumed()
+    {
+        return accountsResumed;
+    }
+
+    public long getBatches()
+    {
+        return batches;
+    }
+
+    public double getInterestPosted()
+    {
+        return interestPosted;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * Calculates the overall throughput of the run.
+     * @return Savings accounts processed per second, or 0 if no time has elapsed
+     */
+    public double getAccountsPerSecond()
+    {
+        return elapsedNanos == 0 ? 0 : accountsScanned * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("AccrualResult{scanned=%d, credited=%d, resumed=%d, batches=%d, interest=%.2f, elapsed=%d ms, %.0f accounts/s}",
+            accountsScanned, accountsCredited, accountsResumed, batches, interestPosted, getElapsedMillis(), getAccountsPerSecond());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Batch job that keeps the balance checkpoints behind BankService.getBalanceAsOf up to date.
+ * Every completed day is one step: each account with records that day gets a checkpoint at the
+ * following midnight (its previous checkpoint plus the records since), see
+ * AccountRepository.checkpointBalances. Accounts without records that day get none; their latest
+ * checkpoint stays valid. The last day done is kept as a job checkpoint, so each run (e.g. nightly
+ * with yesterday's date) only processes the days since the previous one, and a run that stopped
+ * half-way resumes with the day it was on (a repeated step writes the same values again).
+ *
+ * The first run starts backfillDays before the requested day; its first step also rolls up every
+ * older record, so balances before that start are replayed from the beginning of the history.
+ * Engines that replay history in memory keep no checkpoints; for them the job only records its progress.
+ * Implements FR-10: Check Balance at a past date.
+ */
+package com.bank.service;
+
+import com.bank.repository.AccountRepository;
+import com.bank.repository.JobCheckpointRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class BalanceCheckpointService
+{
+	/* Default number of days the first run checkpoints */
+    public static final int DEFAULT_BACKFILL_DAYS = 366;
+    /* Job name and key of the last day done in the job checkpoints */
+    static final String JOB = "balance-checkpoints";
+    static final String THROUGH_KEY = "through";
+
+    /* Repository for account data access */
+    private final AccountRepository accountRepository;
+    /* Repository for the job's progress, written on the account repository's connections */
+    private final JobCheckpointRepository checkpointRepository;
+    /* Number of days the first run checkpoints */
+    private final int backfillDays;
+
+    /**
+     * Constructs the job with the default backfill of the first run.
+     * @param accountRepository    Repository for account data operations
+     * @param checkpointRepository Repository for the job's progress (the same storage engine)
+     */
+    public BalanceCheckpointService(AccountRepository accountRepository, JobCheckpointRepository checkpointRepository)
+    {
+        this(accountRepository, checkpointRepository, DEFAULT_BACKFILL_DAYS);
+    }
+
+    /**
+     * Constructs the job.
+     * @param accountRepository    Repository for account data operations
+     * @param checkpointRepository Repository for the job's progress (the same storage engine, as the
+     *                             progress commits in the transaction of the day it records)
+     * @param backfillDays         Number of days the first run checkpoints (must be positive)
+     * @throws IllegalArgumentException if backfillDays is not positive
+     */
+    public BalanceCheckpointService(AccountRepository accountRepository, JobCheckpointRepository checkpointRepository,
+                                    int backfillDays)
+    {
+        if (backfillDays <= 0)
+        {
+            throw new IllegalArgumentException("Backfill days must be positive.");
+        }
+        this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.checkpointRepository = Objects.requireNonNull(checkpointRepository);
+        this.backfillDays = backfillDays;
+    }
+
+    /**
+     * Checkpoints every day after the last one done, through the given day.
+     * Call it only for days that are over, since records are not expected before a checkpoint.
+     * @param lastDay The last day to checkpoint (e.g. yesterday)
+     * @return Number of checkpoints written
+     * @throws RuntimeException if a step fails; finished days stay done and the next run resumes
+     */
+    public int checkpointThrough(LocalDate lastDay)
+    {
+        String through = checkpointRepository.findCheckpoints(JOB).get(THROUGH_KEY);
+        LocalDate day = through != null ? LocalDate.parse(through).plusDays(1) : lastDay.minusDays(backfillDays - 1);
+        /* The very first step has no lower bound, so older records end up in its checkpoints */
+        LocalDateTime from = through != null ? day.atStartOfDay() : null;
+        int written = 0;
+        int days = 0;
+        for (; !day.isAfter(lastDay); day = day.plusDays(1))
+        {
+            LocalDateTime asOf = day.plusDays(1).atStartOfDay();
+            written += accountRepository.checkpointBalances(from, asOf);
+            recordProgress(day);
+            from = asOf;
+            days++;
+        }
+        if (days > 0)
+        {
+            System.out.println("[✓] Balance checkpoints through " + lastDay + ": " + written + " written over " + days + " days");
+        }
+        return written;
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Records a day as done (without a transaction for engines that have no JDBC backing).
+     */
+    private void recordProgress(LocalDate day)
+    {
+        Connection conn = null;
+        try
+        {
+            conn = accountRepository.openConnection();
+            if (conn != null)
+            {
+                conn.setAutoCommit(false);
+            }
+            checkpointRepository.saveCheckpoint(conn, JOB, THROUGH_KEY, day.toString());
+            if (conn != null)
+            {
+                conn.commit();
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException("Balance checkpoints of " + day + " were written but not recorded as done: " + e.getMessage(), e);
+        }
+        finally
+        {
+            if (conn != null)
+            {
+                try
+                {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+                catch (SQLException e)
+                {
+                    System.err.println("Error closing connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
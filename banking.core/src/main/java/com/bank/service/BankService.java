@@ -8,27 +8,40 @@ package com.bank.service;
 import com.bank.model.Customer;
 
 import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.AlreadyExistsException;
 import com.bank.repository.CustomerRepository;
 import com.bank.repository.AccountRepository;
 import com.bank.model.SavingsAccount;
 import com.bank.model.CurrentAccount;
+import com.bank.model.NotFoundException;
 import com.bank.repository.Repository;
+import com.bank.repository.TransactionQuery;
 import com.bank.model.Transaction;
+import com.bank.model.TransactionIdGenerator;
+import com.bank.model.TransactionType;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.Comparator;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.DriverManager;
 
 public class BankService 
 {
@@ -36,25 +49,43 @@ public class BankService
     private CustomerRepository customerRepository;
     /* Repository for account data access */
     private final AccountRepository accountRepository;
-    /* Service for account-specific operations */
-    private AccountService accountService;
+    /* Recent idempotency keys in front of the persisted key table */
+    private final IdempotencyCache idempotencyCache;
+    /* Shared by transfers on live in-memory accounts, exclusive for getTotalBalance(), so the total
+       never sees money that has left one account but not yet reached the other */
+    private final ReadWriteLock transferGate = new ReentrantReadWriteLock();
 
     /* Regex pattern for email validation */
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
     /* Regex pattern for phone number validation */
     private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[0-9]{8,15}$");
+    /* Page size used when printing whole tables and histories */
+    private static final int PRINT_PAGE_SIZE = 500;
 
     /**
      * Constructs a BankService with the specified customer and account repositories.
-     * Initializes the AccountService dependency.
+     * Uses an idempotency cache with the default capacity and time-to-live.
      * @param customerRepository Repository for customer data operations
      * @param accountRepository Repository for account data operations
      */
     public BankService(CustomerRepository customerRepository, AccountRepository accountRepository) 
+    {
+        this(customerRepository, accountRepository, new IdempotencyCache());
+    }
+
+    /**
+     * Constructs a BankService with the specified repositories and idempotency cache.
+     * New transaction IDs start above the highest one already stored, so they never replace a stored record.
+     * @param customerRepository Repository for customer data operations
+     * @param accountRepository  Repository for account data operations
+     * @param idempotencyCache   Cache of recent idempotency keys used by the keyed money movements
+     */
+    public BankService(CustomerRepository customerRepository, AccountRepository accountRepository, IdempotencyCache idempotencyCache) 
     {
         this.customerRepository = customerRepository;
         this.accountRepository = accountRepository;
-        this.accountService = new AccountService(accountRepository);
+        this.idempotencyCache = idempotencyCache;
+        TransactionIdGenerator.advancePast(accountRepository.findMaxTransactionId());
     }
 
     /**
@@ -71,7 +102,7 @@ public class BankService
         /* check duplicate id */
         if (customerRepository.findById(id) != null) 
         {
-            throw new IllegalArgumentException("Customer with id " + id + " already exists.");
+            throw new AlreadyExistsException("Customer with id " + id + " already exists.");
         }
         /*----------------  FR-03: Validate Customer Data ---------------- */
         validateEmail(email);
@@ -118,42 +149,54 @@ public class BankService
         /* Check account already exists */
         if (accountRepository.findById(accountId) != null) 
         {
-            throw new IllegalArgumentException("Account already exists.");
+            throw new AlreadyExistsException("Account already exists.");
         }
         
         /* Check customer exists */
         if (customerRepository.findById(customerId) == null) 
         {
-            throw new IllegalArgumentException("Customer does not exist.");
+            throw new NotFoundException("Customer does not exist.");
         }
         
-        Account account;
+        Account account = newAccount(accountId, customerId, type);
+        
+        /* Add initial balance if provided */
+        if (initialBalance > 0) 
+        {
+            account.deposit(initialBalance);
+        }
         
+        accountRepository.save(account);
+    }
+    
+    /**
+     * Instantiates an empty account of the requested type.
+     * Package-private so that BulkImportService builds accounts exactly like createAccount.
+     * @param accountId  The unique identifier for the new account
+     * @param customerId The ID of the customer who owns the account
+     * @param type       The type of account (SAVINGS or CURRENT)
+     * @return A new account with zero balance
+     * @throws IllegalArgumentException if the type is invalid
+     */
+    static Account newAccount(String accountId, String customerId, String type) 
+    {
         switch (type.toUpperCase()) 
         {
             case "SAVINGS":
-                account = new SavingsAccount(accountId, customerId);
-                break;
+                return new SavingsAccount(accountId, customerId);
                 
             case "CURRENT":
-                account = new CurrentAccount(accountId, customerId);
-                break;
+                return new CurrentAccount(accountId, customerId);
                 
             default:
                 throw new IllegalArgumentException("Invalid account type.");
         }
-        
-        /* Add initial balance if provided */
-        if (initialBalance > 0) 
-        {
-            account.deposit(initialBalance);
-        }
-        
-        accountRepository.save(account);
     }
     
     /**
      * Deposits money into an account in a thread-safe manner.
+     * Only the new record is appended: the stored history is never written back, so records moved
+     * to the archive meanwhile (see JdbcAccountRepository.archiveTransactions) stay archived.
      * Implements FR-05: Deposit Money and FR-14: Concurrency.
      * @param accountId The ID of the account to deposit into
      * @param amount    The positive amount to be deposited
@@ -161,33 +204,16 @@ public class BankService
      */
     public void deposit(String accountId, double amount) 
     {
-        /* Check account exists */
-        Account account = accountRepository.findById(accountId);
-        if (account == null) 
-        {
-            throw new IllegalArgumentException("Account not found.");
-        }
-        
-        /* Validate amount */
-        if (amount <= 0) 
-        {
-            throw new IllegalArgumentException("Amount must be positive.");
-        }
-        
-        account.getLock().lock(); 
-        try 
-        {
-        	accountService.deposit(accountId, amount);
-            accountRepository.save(account);
-        } 
-        finally 
-        {
-            account.getLock().unlock(); 
-        }
+        inTransaction(conn -> applyToAccount(conn, accountId, account -> {
+            requirePositive(amount);
+            account.deposit(amount);
+        }));
     }
     
     /**
      * Withdraws money from an account in a thread-safe manner.
+     * Only the new record is appended: the stored history is never written back, so records moved
+     * to the archive meanwhile (see JdbcAccountRepository.archiveTransactions) stay archived.
      * Implements FR-06: Withdraw Money and FR-14: Concurrency.
      * @param accountId The ID of the account to withdraw from
      * @param amount    The positive amount to be withdrawn
@@ -195,33 +221,12 @@ public class BankService
      */
     public void withdraw(String accountId, double amount) 
     {
-        /* Check account exists */
-        Account account = accountRepository.findById(accountId);
-        if (account == null) 
-        {
-            throw new IllegalArgumentException("Account not found.");
-        }
-        
-        /* Validate amount */
-        if (amount <= 0) 
-        {
-            throw new IllegalArgumentException("Amount must be positive.");
-        }
-        
-        
-        account.getLock().lock();
-        try 
-        {
-        	accountService.withdraw(accountId, amount);
-            accountRepository.save(account); 
-        } finally 
-        {
-            account.getLock().unlock();
-        }
-        
+        inTransaction(conn -> applyToAccount(conn, accountId, account -> {
+            requirePositive(amount);
+            account.withdraw(amount);
+        }));
     }
     
-    
     /**
      * Transfers money between two accounts atomically using DB Transactions.
      * Implements FR-07: Transfer Funds and FR-14: Concurrency.
@@ -243,51 +248,23 @@ public class BankService
         Connection conn = null;
         try 
         {
-            /* Get connection from your database utility */
-            conn = DriverManager.getConnection("jdbc:sqlite:bank-system.db");
+            /* Get connection from the account storage engine (null for engines without JDBC) */
+            conn = accountRepository.openConnection();
             
             /* START TRANSACTION: Disable auto-commit to manage atomicity manually */
-            conn.setAutoCommit(false); 
-
-            /* 3. Fetch accounts using the transaction-bound connection */
-            /* Note: Repository methods must be updated to accept a Connection object */
-            Account fromAccount = accountRepository.findById(conn, fromAccountId);
-            Account toAccount = accountRepository.findById(conn, toAccountId);
-
-            if (fromAccount == null || toAccount == null) 
+            if (conn != null) 
             {
-                throw new IllegalArgumentException("One or both accounts not found.");
+                conn.setAutoCommit(false); 
             }
 
-            /* 4. Deadlock Prevention: Determine lock order based on ID comparison */
-            Account first = fromAccount.getId().compareTo(toAccount.getId()) < 0 ? fromAccount : toAccount;
-            Account second = first == fromAccount ? toAccount : fromAccount;
+            /* 3-7. Fetch, lock, move and persist using the transaction-bound connection */
+            moveFunds(conn, fromAccountId, toAccountId, amount);
 
-            /* 5. Acquire locks in the determined order to ensure thread safety */
-            first.getLock().lock();
-            second.getLock().lock();
-            try 
+            /* 8. COMMIT: If all operations succeed, finalize the transaction */
+            if (conn != null) 
             {
-                /* 6. Perform business logic on account objects */
-            	/*----------------  FR-14: Concurrent Transaction ---------------- */
-                fromAccount.withdraw(amount); 
-                toAccount.deposit(amount);  
-                
-                /* 7. Persist changes to the database using the SAME connection */
-                accountRepository.update(conn, fromAccount);
-                accountRepository.update(conn, toAccount);
-
-                /* 8. COMMIT: If all operations succeed, finalize the transaction */
                 conn.commit(); 
-                
-            } 
-            finally 
-            {
-                /* Always release locks in reverse order in the finally block */
-                second.getLock().unlock();
-                first.getLock().unlock();
             }
-
         } 
         catch (Exception e) 
         {
@@ -325,6 +302,401 @@ public class BankService
     }
     
     
+    /**
+     * Fetches, locks, debits/credits and persists both accounts of a transfer on the caller's connection.
+     * Does not commit: the caller owns the transaction.
+     * Without a connection the accounts are the live stored instances (lock-free ones take no account
+     * lock at all), so the transfer also holds the shared side of the transfer gate: getTotalBalance()
+     * then never runs between the withdrawal and the deposit (or their compensation).
+     * @return The balance of the source account after the transfer
+     */
+    private double moveFunds(Connection conn, String fromAccountId, String toAccountId, double amount) 
+    {
+        if (conn != null) 
+        {
+            return moveFundsLocked(conn, fromAccountId, toAccountId, amount);
+        }
+        Lock gate = transferGate.readLock();
+        gate.lock();
+        try 
+        {
+            return moveFundsLocked(null, fromAccountId, toAccountId, amount);
+        } 
+        finally 
+        {
+            gate.unlock();
+        }
+    }
+
+    private double moveFundsLocked(Connection conn, String fromAccountId, String toAccountId, double amount) 
+    {
+        /* 3. Fetch accounts using the transaction-bound connection */
+        List<Account> accounts = accountRepository.findByIds(conn, List.of(fromAccountId, toAccountId));
+        Account fromAccount = accounts.get(0);
+        Account toAccount = accounts.get(1);
+
+        if (fromAccount == null || toAccount == null) 
+        {
+            throw new NotFoundException("One or both accounts not found.");
+        }
+
+        /* 4. Deadlock Prevention: Determine lock order based on ID comparison */
+        Account first = fromAccount.getId().compareTo(toAccount.getId()) < 0 ? fromAccount : toAccount;
+        Account second = first == fromAccount ? toAccount : fromAccount;
+
+        /* 5. Acquire locks in the determined order to ensure thread safety */
+        lock(first);
+        lock(second);
+        boolean withdrawn = false;
+        boolean deposited = false;
+        try 
+        {
+            /* 6. Perform business logic on account objects */
+        	/*----------------  FR-14: Concurrent Transaction ---------------- */
+            fromAccount.withdraw(amount); 
+            withdrawn = true;
+            toAccount.deposit(amount);  
+            deposited = true;
+            
+            /* 7. Persist changes (balances and the new history entries) using the SAME connection */
+            accountRepository.update(conn, fromAccount);
+            accountRepository.update(conn, toAccount);
+            appendLatestTransaction(conn, fromAccount);
+            appendLatestTransaction(conn, toAccount);
+            return fromAccount.getBalance();
+        } 
+        catch (RuntimeException e) 
+        {
+            if (conn == null && withdrawn) 
+            {
+                compensate(fromAccount, toAccount, amount, deposited, e);
+            }
+            throw e;
+        } 
+        finally 
+        {
+            /* Always release locks in reverse order in the finally block */
+            unlock(second);
+            unlock(first);
+        }
+    }
+    
+    /**
+     * Undoes a half-applied transfer on an engine without DB transactions, whose accounts are the live
+     * stored instances: a deposit that went through is withdrawn again and the withdrawal is credited
+     * back with a reversal record, so both balances and histories add up again. Runs under the
+     * transfer's locks; a failing reversal is attached to the transfer's exception.
+     */
+    private static void compensate(Account fromAccount, Account toAccount, double amount, boolean deposited, RuntimeException failure) 
+    {
+        try 
+        {
+            if (deposited) 
+            {
+                toAccount.withdraw(amount);
+            }
+            fromAccount.applyDeposit(new Transaction(TransactionIdGenerator.nextId(), TransactionType.DEPOSIT, amount,
+                "Reversal of failed transfer to account " + toAccount.getId()));
+        } 
+        catch (RuntimeException e) 
+        {
+            failure.addSuppressed(e);
+        }
+    }
+    
+    /* ---------------- Idempotent money movements ---------------- */
+    /**
+     * Deposits money at most once per idempotency key.
+     * A retry with the same key returns the original result without depositing again.
+     * Implements FR-05: Deposit Money and FR-14: Concurrency.
+     * @param accountId      The ID of the account to deposit into
+     * @param amount         The positive amount to be deposited
+     * @param idempotencyKey Client-chosen key identifying this request across retries
+     * @return The account balance right after the original deposit
+     * @throws IllegalArgumentException if the account is not found, the amount is not positive,
+     *                                  or the key was already used for a different request
+     */
+    public double deposit(String accountId, double amount, String idempotencyKey) 
+    {
+        return idempotent(idempotencyKey, "DEPOSIT " + accountId + " " + amount, amount,
+            conn -> applyToAccount(conn, accountId, account -> account.deposit(amount)));
+    }
+
+    /**
+     * Withdraws money at most once per idempotency key.
+     * A retry with the same key returns the original result without withdrawing again.
+     * Implements FR-06: Withdraw Money and FR-14: Concurrency.
+     * @param accountId      The ID of the account to withdraw from
+     * @param amount         The positive amount to be withdrawn
+     * @param idempotencyKey Client-chosen key identifying this request across retries
+     * @return The account balance right after the original withdrawal
+     * @throws IllegalArgumentException if the account is not found, the amount is not positive,
+     *                                  the balance is insufficient, or the key was already used
+     *                                  for a different request
+     */
+    public double withdraw(String accountId, double amount, String idempotencyKey) 
+    {
+        return idempotent(idempotencyKey, "WITHDRAW " + accountId + " " + amount, amount,
+            conn -> applyToAccount(conn, accountId, account -> account.withdraw(amount)));
+    }
+
+    /**
+     * Transfers money at most once per idempotency key.
+     * A retry with the same key returns the original result without transferring again.
+     * Implements FR-07: Transfer Funds and FR-14: Concurrency.
+     * @param fromAccountId  The source account ID
+     * @param toAccountId    The destination account ID
+     * @param amount         The amount to transfer
+     * @param idempotencyKey Client-chosen key identifying this request across retries
+     * @return The source account balance right after the original transfer
+     * @throws IllegalArgumentException if accounts are not found, the amount is not positive,
+     *                                  the balance is insufficient, or the key was already used
+     *                                  for a different request
+     */
+    public double transfer(String fromAccountId, String toAccountId, double amount, String idempotencyKey) 
+    {
+        return idempotent(idempotencyKey, "TRANSFER " + fromAccountId + " " + toAccountId + " " + amount, amount,
+            conn -> moveFunds(conn, fromAccountId, toAccountId, amount));
+    }
+
+    /*
+     * A money movement executed inside a caller-managed DB transaction.
+     */
+    @FunctionalInterface
+    private interface Movement 
+    {
+        double apply(Connection conn);
+    }
+
+    /*
+     * A change applied to one locked account.
+     */
+    @FunctionalInterface
+    private interface AccountChange 
+    {
+        void apply(Account account);
+    }
+
+    /**
+     * Runs a money movement at most once per key.
+     * The in-memory cache answers retries of recent keys and makes concurrent retries wait for the
+     * original request. Otherwise the key table is checked, the movement applied and the key recorded
+     * in one DB transaction, so a key is stored exactly when its movement commits.
+     */
+    private double idempotent(String key, String request, double amount, Movement movement) 
+    {
+        if (key == null || key.isBlank()) 
+        {
+            throw new IllegalArgumentException("Idempotency key must not be empty.");
+        }
+        if (amount <= 0) 
+        {
+            throw new IllegalArgumentException("Amount must be positive.");
+        }
+
+        CompletableFuture<Double> original = idempotencyCache.claim(key, request);
+        if (original != null) 
+        {
+            try 
+            {
+                return original.join();
+            } 
+            catch (CompletionException e) 
+            {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try 
+        {
+            double result = inTransaction(conn -> {
+                Double stored = accountRepository.findIdempotentResult(conn, key, request);
+                if (stored != null) 
+                {
+                    return stored;
+                }
+                double applied = movement.apply(conn);
+                accountRepository.saveIdempotencyKey(conn, key, request, applied);
+                return applied;
+            });
+            idempotencyCache.complete(key, result);
+            return result;
+        } 
+        catch (RuntimeException e) 
+        {
+            idempotencyCache.release(key, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a movement in one DB transaction on a connection of the account storage engine
+     * (without a transaction for engines that have no JDBC backing).
+     * Validation errors are rethrown as they are; database errors are wrapped.
+     */
+    private double inTransaction(Movement movement) 
+    {
+        Connection conn = null;
+        try 
+        {
+            conn = accountRepository.openConnection();
+            if (conn != null) 
+            {
+                conn.setAutoCommit(false);
+            }
+            double result = movement.apply(conn);
+            if (conn != null) 
+            {
+                conn.commit();
+            }
+            return result;
+        } 
+        catch (SQLException e) 
+        {
+            rollback(conn);
+            throw new RuntimeException("Operation failed, transaction rolled back: " + e.getMessage(), e);
+        } 
+        catch (RuntimeException e) 
+        {
+            rollback(conn);
+            throw e;
+        } 
+        finally 
+        {
+            if (conn != null) 
+            {
+                try 
+                {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } 
+                catch (SQLException e) 
+                {
+                    /* Log connection close failure if necessary */
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes an account's lock, except for lock-free accounts whose balance updates are atomic on their own.
+     */
+    private static void lock(Account account) 
+    {
+        if (!account.isLockFree()) 
+        {
+            account.getLock().lock();
+        }
+    }
+
+    private static void unlock(Account account) 
+    {
+        if (!account.isLockFree()) 
+        {
+            account.getLock().unlock();
+        }
+    }
+
+    private static void rollback(Connection conn) 
+    {
+        if (conn != null) 
+        {
+            try 
+            {
+                conn.rollback();
+            } 
+            catch (SQLException ex) 
+            {
+                /* Log rollback failure if necessary */
+            }
+        }
+    }
+
+    /**
+     * Persists deposits that were accepted elsewhere (see HotAccountStripes and DepositBatcher) in one
+     * DB transaction: the balance grows by their sum and their records are inserted as one batch.
+     * Package-private for the hot-account folding job and the deposit batcher.
+     * @param accountId The account the deposits belong to
+     * @param deposits  The deposit records, oldest first
+     * @return The account balance after the deposits
+     * @throws IllegalArgumentException if the account does not exist
+     * @throws RuntimeException if a database error occurs (nothing is applied)
+     */
+    double applyDeposits(String accountId, List<Transaction> deposits) 
+    {
+        return inTransaction(conn -> {
+            Account account = accountRepository.findById(conn, accountId);
+            if (account == null) 
+            {
+                throw new NotFoundException("Account not found.");
+            }
+            lock(account);
+            try 
+            {
+                for (Transaction deposit : deposits) 
+                {
+                    account.applyDeposit(deposit);
+                }
+                accountRepository.update(conn, account);
+                accountRepository.appendTransactions(conn, accountId, deposits);
+                return account.getBalance();
+            } 
+            finally 
+            {
+                unlock(account);
+            }
+        });
+    }
+
+    /**
+     * Applies a change to one locked account and persists it on the caller's connection.
+     * @return The account balance after the change
+     */
+    private double applyToAccount(Connection conn, String accountId, AccountChange change) 
+    {
+        Account account = accountRepository.findById(conn, accountId);
+        if (account == null) 
+        {
+            throw new NotFoundException("Account not found.");
+        }
+        lock(account);
+        try 
+        {
+            change.apply(account);
+            accountRepository.update(conn, account);
+            appendLatestTransaction(conn, account);
+            return account.getBalance();
+        } 
+        finally 
+        {
+            unlock(account);
+        }
+    }
+
+    /**
+     * Rejects amounts that are not positive.
+     * @throws IllegalArgumentException if the amount is zero or negative
+     */
+    private static void requirePositive(double amount) 
+    {
+        if (amount <= 0) 
+        {
+            throw new IllegalArgumentException("Amount must be positive.");
+        }
+    }
+
+    /**
+     * Persists the transaction that the last operation added to the account.
+     */
+    private void appendLatestTransaction(Connection conn, Account account) 
+    {
+        List<Transaction> history = account.getTransactions();
+        if (!history.isEmpty()) 
+        {
+            accountRepository.appendTransaction(conn, account.getId(), history.get(history.size() - 1));
+        }
+    }
+    
     /**
      * Retrieves account details by ID.
      * Implements FR-08: View Account.
@@ -336,6 +708,17 @@ public class BankService
         return accountRepository.findById(accountId);
     }
     
+    /**
+     * Checks whether an account exists without loading its transaction history.
+     * Implements FR-10: Account Queries.
+     * @param accountId The ID of the account to look up
+     * @return true if the account exists
+     */
+    public boolean accountExists(String accountId) 
+    {
+        return accountRepository.existsById(accountId);
+    }
+    
     /**
      * Retrieves a list of all accounts in the system.
      * Implements FR-09: List Accounts.
@@ -347,14 +730,205 @@ public class BankService
     }
     
     
+    /**
+     * Retrieves customer details by ID.
+     * @param customerId The ID of the customer to retrieve
+     * @return The customer, or null if not found
+     */
+    public Customer getCustomer(String customerId) 
+    {
+        return customerRepository.findById(customerId);
+    }
+    
+    /* ---------------- Per-customer and per-type queries ---------------- */
+    /**
+     * Retrieves the accounts owned by one customer through the repository's customer index.
+     * Implements FR-09: List Accounts for one customer.
+     * @param customerId The owning customer's ID
+     * @return The customer's accounts ordered by ID
+     * @throws IllegalArgumentException if the customer does not exist
+     */
+    public List<Account> getCustomerAccounts(String customerId) 
+    {
+        requireCustomer(customerId);
+        return accountRepository.findByCustomerId(customerId);
+    }
+    
+    /**
+     * Retrieves all accounts of one type.
+     * Implements FR-10: Account Queries.
+     * @param type The account type (SAVINGS or CURRENT)
+     * @return The accounts of that type
+     * @throws IllegalArgumentException if the type is invalid
+     */
+    public List<Account> getAccountsByType(String type) 
+    {
+        return accountRepository.findByType(type);
+    }
+    
+    /**
+     * Calculates the total balance of one customer's accounts.
+     * Implements FR-10: Account Queries for one customer.
+     * @param customerId The owning customer's ID
+     * @return The total balance (0 if the customer has no accounts)
+     * @throws IllegalArgumentException if the customer does not exist
+     */
+    public double getCustomerTotalBalance(String customerId) 
+    {
+        requireCustomer(customerId);
+        Lock gate = transferGate.writeLock();
+        gate.lock();
+        try 
+        {
+            return accountRepository.sumBalanceByCustomerId(customerId);
+        } 
+        finally 
+        {
+            gate.unlock();
+        }
+    }
+    
+    /**
+     * Counts one customer's accounts.
+     * Implements FR-10: Account Queries for one customer.
+     * @param customerId The owning customer's ID
+     * @return Number of accounts the customer owns
+     * @throws IllegalArgumentException if the customer does not exist
+     */
+    public int getCustomerAccountCount(String customerId) 
+    {
+        requireCustomer(customerId);
+        return accountRepository.countByCustomerId(customerId);
+    }
+    
+    /* ---------------- Keyset pagination ---------------- */
+    /**
+     * Retrieves one page of customers ordered by ID.
+     * Implements FR-02: View Customers page by page.
+     * @param afterId The ID of the last customer of the previous page, or null for the first page
+     * @param limit   Maximum number of customers to return (at least 1)
+     * @return Up to limit customers; fewer than limit means this is the last page
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    public List<Customer> getCustomersPage(String afterId, int limit) 
+    {
+        requirePageLimit(limit);
+        return customerRepository.findPage(afterId, limit);
+    }
+    
+    /**
+     * Retrieves one page of accounts ordered by ID. The accounts' history is not loaded;
+     * read it with getTransactionsPage().
+     * Implements FR-09: List Accounts page by page.
+     * @param afterId The ID of the last account of the previous page, or null for the first page
+     * @param limit   Maximum number of accounts to return (at least 1)
+     * @return Up to limit accounts; fewer than limit means this is the last page
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    public List<Account> getAccountsPage(String afterId, int limit) 
+    {
+        requirePageLimit(limit);
+        return accountRepository.findPageRows(afterId, limit);
+    }
+    
+    /**
+     * Retrieves one page of an account's transaction history.
+     * Implements FR-11: Transaction History page by page.
+     * @param accountId          The ID of the account
+     * @param afterTransactionId The ID of the last transaction of the previous page, or null for the first page
+     * @param limit              Maximum number of transactions to return (at least 1)
+     * @return Up to limit transactions; fewer than limit means this is the last page
+     * @throws IllegalArgumentException if the account does not exist or the limit is not positive
+     */
+    public List<Transaction> getTransactionsPage(String accountId, String afterTransactionId, int limit) 
+    {
+        requirePageLimit(limit);
+        List<Transaction> page = accountRepository.findTransactionPage(accountId, afterTransactionId, limit);
+        /* Only an empty page needs the existence check; it is skipped on the common path */
+        if (page.isEmpty() && !accountRepository.existsById(accountId)) 
+        {
+            throw new NotFoundException("Account not found.");
+        }
+        return page;
+    }
+    
+    /* ---------------- Streaming queries ---------------- */
+    /**
+     * Streams every account with backpressure for bulk consumers such as analytics exports.
+     * Implements FR-09: List Accounts as a stream.
+     * @return A publisher that reads accounts only as fast as each subscriber requests them
+     */
+    public Flow.Publisher<Account> streamAccounts() 
+    {
+        return accountRepository.streamAll();
+    }
+    
+    /**
+     * Streams one account's transaction history with backpressure.
+     * Implements FR-11: Transaction History as a stream.
+     * @param accountId The ID of the account
+     * @return A publisher of the account's transactions (empty if the account does not exist)
+     */
+    public Flow.Publisher<Transaction> streamTransactions(String accountId) 
+    {
+        return accountRepository.streamTransactions(accountId);
+    }
+    
+    /**
+     * Streams the transactions of all accounts in a time window with backpressure.
+     * Implements FR-11: Transaction History across accounts as a stream.
+     * @param from Start of the window (inclusive)
+     * @param to   End of the window (exclusive)
+     * @return A publisher of the matching transactions with their account IDs
+     * @throws IllegalArgumentException if a bound is missing or from is after to
+     */
+    public Flow.Publisher<AccountTransaction> streamTransactions(LocalDateTime from, LocalDateTime to) 
+    {
+        if (from == null || to == null || from.isAfter(to)) 
+        {
+            throw new IllegalArgumentException("Invalid time window.");
+        }
+        return accountRepository.streamTransactions(from, to);
+    }
+    
+    /**
+     * Streams the transactions matching an audit query, e.g. all transfers of at least 10,000 in March.
+     * Implements FR-11: Transaction History queries by account, time window, type and amount.
+     * @param query The filter, built with TransactionQuery.builder()
+     * @return A publisher of the matching transactions with their account IDs
+     */
+    public Flow.Publisher<AccountTransaction> queryTransactions(TransactionQuery query) 
+    {
+        return accountRepository.streamTransactions(query);
+    }
+    
+    private static void requirePageLimit(int limit) 
+    {
+        if (limit < 1) 
+        {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+    }
+    
+    private Customer requireCustomer(String customerId) 
+    {
+        Customer customer = customerRepository.findById(customerId);
+        if (customer == null) 
+        {
+            throw new NotFoundException("Customer not found.");
+        }
+        return customer;
+    }
+    
     /* ----------------  FR-03: Validate Customer data ---------------- */
     /**
      * Validate customer email format.
+     * Package-private so that BulkImportService applies exactly the same rules.
      * Implements FR-03: Validate Customer data.
      * @param email The email address to validate
      * @throws IllegalArgumentException if email format is invalid
      */
-    private void validateEmail(String email) 
+    static void validateEmail(String email) 
     {
         if (email == null || !EMAIL_PATTERN.matcher(email).matches()) 
         {
@@ -368,7 +942,7 @@ public class BankService
      * @param phone The phone number to validate
      * @throws IllegalArgumentException if phone format is invalid
      */
-    private void validatePhone(String phone) 
+    static void validatePhone(String phone) 
     {
         if (phone == null || !PHONE_PATTERN.matcher(phone).matches()) 
         {
@@ -417,12 +991,24 @@ public class BankService
 
     /**
      * Calculates the total balance across all accounts.
+     * Only balances are read (AccountRepository.sumBalances), so transfers are held back for
+     * the length of one aggregate, not of loading every account with its history.
      * Implements FR-10: Account Queries.
      * @return The total balance of all accounts
      */
     public double getTotalBalance() 
     {
-        return accountRepository.findAll().stream().mapToDouble(Account::getBalance).sum();
+        /* Waits for in-flight in-memory transfers and holds new ones back while summing */
+        Lock gate = transferGate.writeLock();
+        gate.lock();
+        try 
+        {
+            return accountRepository.sumBalances();
+        } 
+        finally 
+        {
+            gate.unlock();
+        }
     }
     
     /**
@@ -458,24 +1044,64 @@ public class BankService
         Account account = accountRepository.findById(accountId);
         if (account == null) 
         {
-            throw new IllegalArgumentException("Account not found.");
+            throw new NotFoundException("Account not found.");
         }
         return account.getBalance();
     }
+    
+    /**
+     * Gets the balance an account had at a point in time: the net amount of its transactions
+     * timestamped before it (to the second). Storage engines with balance checkpoints (see
+     * BalanceCheckpointService) start from the latest checkpoint and replay only the records after it.
+     * Implements FR-10: Account Queries at a past date.
+     * @param accountId The ID of the account
+     * @param at        The point in time
+     * @return The balance at that time
+     * @throws IllegalArgumentException if account not found
+     */
+    public double getBalanceAsOf(String accountId, LocalDateTime at) 
+    {
+        Double balance = accountRepository.findBalanceAsOf(accountId, at);
+        if (balance == null) 
+        {
+            throw new NotFoundException("Account not found.");
+        }
+        return balance;
+    }
+    
+    /**
+     * Gets the balance of every account at a point in time, like getBalanceAsOf.
+     * JDBC storage engines answer with one set-based query.
+     * Implements FR-10: Account Queries at a past date.
+     * @param at The point in time
+     * @return Account ID -> balance at that time, in ID order
+     */
+    public Map<String, Double> getBalancesAsOf(LocalDateTime at) 
+    {
+        return accountRepository.findBalancesAsOf(at);
+    }
    
     
 
     /* ---------------- FR-11: Transaction History ---------------- */
     /**
      * Prints transaction history for all accounts.
-     * Implements FR-11: Transaction History.
+     * Implements FR-11: Transaction History. Accounts and histories are read one page at a time.
      */
     public void printAllTransactions() 
     {
-        accountRepository.findAll().forEach(account -> {
-            System.out.println("\n--- Account: " + account.getId() + " ---");
-            account.getTransactions().forEach(System.out::println);
-        });
+        String afterAccountId = null;
+        List<Account> page;
+        do 
+        {
+            page = accountRepository.findPageRows(afterAccountId, PRINT_PAGE_SIZE);
+            for (Account account : page) 
+            {
+                System.out.println("\n--- Account: " + account.getId() + " ---");
+                printHistoryPages(account.getId());
+            }
+            afterAccountId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == PRINT_PAGE_SIZE);
     }
     
     /**
@@ -486,13 +1112,27 @@ public class BankService
      */
     public void printTransactionHistory(String accountId) 
     {
-        Account account = accountRepository.findById(accountId);
-        if (account == null) 
+        if (!accountRepository.existsById(accountId)) 
         {
-            throw new IllegalArgumentException("Account not found.");
+            throw new NotFoundException("Account not found.");
         }
         System.out.println("Transaction History for Account: " + accountId);
-        account.getTransactions().forEach(System.out::println);
+        printHistoryPages(accountId);
+    }
+    
+    /**
+     * Prints an account's history one page at a time, so at most one page is held in memory.
+     */
+    private void printHistoryPages(String accountId) 
+    {
+        String afterTransactionId = null;
+        List<Transaction> page;
+        do 
+        {
+            page = accountRepository.findTransactionPage(accountId, afterTransactionId, PRINT_PAGE_SIZE);
+            page.forEach(System.out::println);
+            afterTransactionId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == PRINT_PAGE_SIZE);
     }
     
     /* ---------------- FR-17: Account Statement Generation ---------------- */
@@ -568,6 +1208,59 @@ public class BankService
         }
     }
 
+    /**
+     * Generates the statements of all accounts of one customer and saves them to one file.
+     * Only the customer's own accounts are read (through the customer index).
+     * Implements FR-17: Account Statement Generation for one customer.
+     * @param customerId The ID of the customer to generate the statement for
+     */
+    public void generateCustomerStatement(String customerId) 
+    {
+        try 
+        {
+            String statement = generateCustomerStatementString(customerId);
+            String filename = "customer_statement_" + customerId + ".txt";
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) 
+            {
+                writer.write(statement);
+            }
+            System.out.println("[✓] Customer statement for " + customerId + " saved to " + filename);
+        } 
+        catch (IllegalArgumentException e) 
+        {
+            System.err.println("[✗] " + e.getMessage());
+        } 
+        catch (IOException e) 
+        {
+            System.err.println("[✗] Error saving customer statement to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the statement of one customer: a header, one account statement per account and the total.
+     * Package-private so that tests can check the content without writing a file.
+     * @param customerId The ID of the customer to generate the statement for
+     * @return Formatted customer statement as a String
+     * @throws IllegalArgumentException if the customer does not exist
+     */
+    String generateCustomerStatementString(String customerId) 
+    {
+        Customer customer = requireCustomer(customerId);
+        List<Account> accounts = accountRepository.findByCustomerId(customerId);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("========== Customer Statement for ").append(customer.getId())
+          .append(" (").append(customer.getName()).append(") ==========\n\n");
+        double total = 0;
+        for (Account account : accounts) 
+        {
+            sb.append(generateAccountStatementString(account)).append('\n');
+            total += account.getBalance();
+        }
+        sb.append(String.format("Accounts: %d, Total Balance: %.2f%n", accounts.size(), total));
+        return sb.toString();
+    }
+
     /**
      * Helper method to generate account statement for one account as a String.
      * @param accountId The ID of the account to generate the statement for
@@ -579,23 +1272,40 @@ public class BankService
         Account account = accountRepository.findById(accountId);
         if (account == null) 
         {
-            throw new IllegalArgumentException("Account not found: " + accountId);
+            throw new NotFoundException("Account not found: " + accountId);
         }
+        return generateAccountStatementString(account);
+    }
 
+    /**
+     * Formats the statement of an already loaded account. The history is read page by page from the
+     * repository rather than from the loaded account, so archived records are included.
+     * @param account The account to generate the statement for
+     * @return Formatted account statement as a String
+     */
+    private String generateAccountStatementString(Account account) 
+    {
         StringBuilder sb = new StringBuilder();
-        sb.append("========== Account Statement for ").append(accountId).append(" ==========\n");
+        sb.append("========== Account Statement for ").append(account.getId()).append(" ==========\n");
         sb.append(String.format("%-20s %-15s %-12s %-30s%n", "Date", "Type", "Amount", "Description"));
         sb.append("------------------------------------------------------------\n");
 
-        for (Transaction tran : account.getTransactions()) 
+        String afterTransactionId = null;
+        List<Transaction> page;
+        do 
         {
-            sb.append(String.format("%-20s %-15s %-12.2f %-30s%n",
-                tran.getTimestampAsString(),
-                tran.getType().getDisplayName(),
-                tran.getAmount(),
-                tran.getDescription()
-            ));
-        }
+            page = accountRepository.findTransactionPage(account.getId(), afterTransactionId, PRINT_PAGE_SIZE);
+            for (Transaction tran : page) 
+            {
+                sb.append(String.format("%-20s %-15s %-12.2f %-30s%n",
+                    tran.getTimestampAsString(),
+                    tran.getType().getDisplayName(),
+                    tran.getAmount(),
+                    tran.getDescription()
+                ));
+            }
+            afterTransactionId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == PRINT_PAGE_SIZE);
         sb.append("------------------------------------------------------------\n");
         sb.append(String.format("Current Balance: %.2f%n", account.getBalance()));
 
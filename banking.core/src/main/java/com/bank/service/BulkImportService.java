@@ -0,0 +1,410 @@
+/*
+ * Service class that streams customers and accounts from CSV files into the data store.
+ * Rows are validated with the same rules as BankService, de-duplicated in memory and
+ * inserted in large batches so onboarding hundreds of thousands of rows stays fast.
+ * Rejected rows are written to an error file together with the reason.
+ * Implements FR-01: Create Customer, FR-03: Validate Customer Data and FR-04: Create Account in bulk.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.model.Identifiable;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.Repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BulkImportService
+{
+	/* Default number of rows inserted per batch (and per DB transaction) */
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+
+    /* Lines starting with this prefix are comments and are skipped */
+    private static final String COMMENT_PREFIX = "#";
+
+    /* Repository for customer data access */
+    private final CustomerRepository customerRepository;
+    /* Repository for account data access */
+    private final AccountRepository accountRepository;
+    /* Number of rows inserted per batch */
+    private final int batchSize;
+
+    /**
+     * Constructs a BulkImportService using the default batch size.
+     * @param customerRepository Repository for customer data operations
+     * @param accountRepository  Repository for account data operations
+     */
+    public BulkImportService(CustomerRepository customerRepository, AccountRepository accountRepository)
+    {
+        this(customerRepository, accountRepository, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a BulkImportService with a custom batch size.
+     * @param customerRepository Repository for customer data operations
+     * @param accountRepository  Repository for account data operations
+     * @param batchSize          Number of rows inserted per batch (must be positive)
+     * @throws IllegalArgumentException if batchSize is not positive
+     */
+    public BulkImportService(CustomerRepository customerRepository, AccountRepository accountRepository, int batchSize)
+    {
+        if (batchSize <= 0)
+        {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports customers from a CSV file with the columns id,name,email,phone.
+     * A header row starting with "id" is skipped, as are blank lines and lines starting with '#'.
+     * @param csvFile   The CSV file to read
+     * @param errorFile The file that receives rejected rows
+     * @return Summary of the import
+     * @throws IOException if the input cannot be read or the error file cannot be written
+     */
+    public ImportResult importCustomers(Path csvFile, Path errorFile) throws IOException
+    {
+        return runImport("customers", csvFile, errorFile, customerRepository, fields -> {
+            requireFieldCount(fields, 4);
+            String id = requireNotBlank(fields[0], "Customer ID");
+            String name = requireNotBlank(fields[1], "Name");
+            BankService.validateEmail(fields[2]);
+            BankService.validatePhone(fields[3]);
+            return new Customer(id, name, fields[2], fields[3]);
+        }, batch -> Map.of());
+    }
+
+    /**
+     * Imports accounts from a CSV file with the columns id,customerId,type[,initialBalance].
+     * The owning customer must already exist; an initial balance is recorded as a deposit.
+     * Header, blank and comment lines are skipped as for customers.
+     * @param csvFile   The CSV file to read
+     * @param errorFile The file that receives rejected rows
+     * @return Summary of the import
+     * @throws IOException if the input cannot be read or the error file cannot be written
+     */
+    public ImportResult importAccounts(Path csvFile, Path errorFile) throws IOException
+    {
+        return runImport("accounts", csvFile, errorFile, accountRepository, fields -> {
+            if (fields.length != 3 && fields.length != 4)
+            {
+                throw new IllegalArgumentException("Expected 3 or 4 columns but found " + fields.length + ".");
+            }
+            String id = requireNotBlank(fields[0], "Account ID");
+            String customerId = requireNotBlank(fields[1], "Customer ID");
+
+            Account account = BankService.newAccount(id, customerId, fields[2]);
+            double initialBalance = fields.length == 4 && !fields[3].isEmpty() ? parseAmount(fields[3]) : 0.0;
+            if (initialBalance > 0)
+            {
+                account.deposit(initialBalance);
+            }
+            return account;
+        }, this::rejectMissingOwners);
+    }
+
+    /**
+     * Looks up the owners of one batch of accounts with one existence query, so memory does not grow
+     * with the customer table.
+     * @return Reason by account ID for the accounts whose customer does not exist
+     */
+    private Map<String, String> rejectMissingOwners(List<Account> batch)
+    {
+        Set<String> owners = new HashSet<>();
+        for (Account account : batch)
+        {
+            owners.add(account.getCustomerId());
+        }
+        Set<String> existing = customerRepository.findExistingIds(owners);
+        Map<String, String> rejected = new HashMap<>();
+        for (Account account : batch)
+        {
+            if (!existing.contains(account.getCustomerId()))
+            {
+                rejected.put(account.getId(), "Customer does not exist.");
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Parses one CSV row into an entity, throwing IllegalArgumentException when the row is invalid.
+     */
+    @FunctionalInterface
+    private interface RowParser<T>
+    {
+        T parse(String[] fields);
+    }
+
+    /**
+     * Checks a whole batch against the store before it is inserted.
+     */
+    @FunctionalInterface
+    private interface BatchCheck<T>
+    {
+        /* Reason by entity ID for the entities that must not be inserted */
+        Map<String, String> reject(List<T> batch);
+    }
+
+    /**
+     * Shared streaming loop: parse, validate, de-duplicate, batch insert and report progress.
+     */
+    private <T extends Identifiable> ImportResult runImport(String label, Path csvFile, Path errorFile,
+                                                           Repository<T> repository, RowParser<T> parser, BatchCheck<T> check) throws IOException
+    {
+        long start = System.nanoTime();
+        long rowsRead = 0;
+        long imported = 0;
+        long rejected = 0;
+        long lineNumber = 0;
+        boolean headerChecked = false;
+
+        Set<String> seenIds = new HashSet<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        List<String> batchRows = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        /* try with resource to prevent resource leak it will automatically close both files */
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             BufferedWriter errors = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8))
+        {
+            errors.write("line,reason,row\n");
+
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                if (line.isBlank() || line.stripLeading().startsWith(COMMENT_PREFIX))
+                {
+                    continue;
+                }
+
+                String[] fields = parseCsvLine(line);
+                if (!headerChecked)
+                {
+                    /* The header, if any, is the first line with content */
+                    headerChecked = true;
+                    if ("id".equalsIgnoreCase(fields[0]))
+                    {
+                        continue;				/* header row */
+                    }
+                }
+                rowsRead++;
+
+                T entity;
+                try
+                {
+                    entity = parser.parse(fields);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    writeError(errors, lineNumber, e.getMessage(), line);
+                    rejected++;
+                    continue;
+                }
+
+                /* De-duplicate inside the file; duplicates against the store are reported by insertAll */
+                if (!seenIds.add(entity.getId()))
+                {
+                    writeError(errors, lineNumber, "Duplicate id in file.", line);
+                    rejected++;
+                    continue;
+                }
+
+                batch.add(entity);
+                batchRows.add(line);
+                batchLines.add(lineNumber);
+
+                if (batch.size() >= batchSize)
+                {
+                    long inserted = flush(repository, check, batch, batchRows, batchLines, errors);
+                    imported += inserted;
+                    rejected += batch.size() - inserted;
+                    clear(batch, batchRows, batchLines);
+                    reportProgress(label, rowsRead, imported, start);
+                }
+            }
+
+            if (!batch.isEmpty())
+            {
+                long inserted = flush(repository, check, batch, batchRows, batchLines, errors);
+                imported += inserted;
+                rejected += batch.size() - inserted;
+                clear(batch, batchRows, batchLines);
+            }
+        }
+
+        ImportResult result = new ImportResult(rowsRead, imported, rejected, System.nanoTime() - start);
+        System.out.println("[✓] Import of " + label + " finished: " + result);
+        return result;
+    }
+
+    /**
+     * Checks and inserts one batch and writes rows rejected by the check or skipped by the store to the error file.
+     * If the whole batch fails it is rolled back by the repository and every row is rejected.
+     * @return Number of rows actually inserted
+     */
+    private <T extends Identifiable> long flush(Repository<T> repository, BatchCheck<T> check, List<T> batch,
+                                                List<String> rows, List<Long> lines, BufferedWriter errors) throws IOException
+    {
+        try
+        {
+            Map<String, String> rejected = check.reject(batch);
+            List<T> accepted = batch;
+            if (!rejected.isEmpty())
+            {
+                accepted = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++)
+                {
+                    String reason = rejected.get(batch.get(i).getId());
+                    if (reason == null)
+                    {
+                        accepted.add(batch.get(i));
+                    }
+                    else
+                    {
+                        writeError(errors, lines.get(i), reason, rows.get(i));
+                    }
+                }
+            }
+            Set<String> skipped = accepted.isEmpty() ? Set.of() : new HashSet<>(repository.insertAll(accepted));
+            for (int i = 0; i < batch.size(); i++)
+            {
+                if (skipped.contains(batch.get(i).getId()) && !rejected.containsKey(batch.get(i).getId()))
+                {
+                    writeError(errors, lines.get(i), "Id already exists.", rows.get(i));
+                }
+            }
+            return accepted.size() - skipped.size();
+        }
+        catch (RuntimeException e)
+        {
+            for (int i = 0; i < batch.size(); i++)
+            {
+                writeError(errors, lines.get(i), "Batch insert failed: " + e.getMessage(), rows.get(i));
+            }
+            return 0;
+        }
+    }
+
+    private static void clear(List<?>... lists)
+    {
+        for (List<?> list : lists)
+        {
+            list.clear();
+        }
+    }
+
+    /**
+     * Prints the number of processed rows and the running throughput.
+     */
+    private static void reportProgress(String label, long rowsRead, long imported, long start)
+    {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double rate = seconds == 0 ? 0 : rowsRead / seconds;
+        System.out.printf("[i] Import of %s: %d rows read, %d imported (%.0f rows/s)%n", label, rowsRead, imported, rate);
+    }
+
+    private static void writeError(BufferedWriter errors, long lineNumber, String reason, String row) throws IOException
+    {
+        errors.write(lineNumber + ",\"" + reason.replace("\"", "\"\"") + "\"," + row + "\n");
+    }
+
+    private static void requireFieldCount(String[] fields, int expected)
+    {
+        if (fields.length != expected)
+        {
+            throw new IllegalArgumentException("Expected " + expected + " columns but found " + fields.length + ".");
+        }
+    }
+
+    private static String requireNotBlank(String value, String field)
+    {
+        if (value.isBlank())
+        {
+            throw new IllegalArgumentException(field + " must not be empty.");
+        }
+        return value;
+    }
+
+    private static double parseAmount(String value)
+    {
+        try
+        {
+            double amount = Double.parseDouble(value);
+            if (amount < 0)
+            {
+                throw new IllegalArgumentException("Initial balance must not be negative.");
+            }
+            return amount;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid initial balance: " + value);
+        }
+    }
+
+    /**
+     * Splits a CSV line into trimmed fields, honouring double-quoted fields with embedded commas.
+     * @param line The raw CSV line
+     * @return The parsed fields
+     */
+    static String[] parseCsvLine(String line)
+    {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    current.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    current.append(c);
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            }
+            else
+            {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+}
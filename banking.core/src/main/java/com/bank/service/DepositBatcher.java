@@ -0,0 +1,251 @@
+/*
+ * Micro-batching stage in front of BankService.deposit for accounts that receive bursts of deposits.
+ * Deposits are collected per account and applied together: one account lookup, one balance update
+ * and one batched insert of the individual transaction rows, in one DB transaction
+ * (BankService.applyDeposits), instead of a findById, save and full saveTransactions per deposit.
+ *
+ * A batch is flushed when it reaches the maximum size or when the window since its first deposit has
+ * passed, whichever comes first. A longer window or larger size gives fewer, bigger DB transactions
+ * (throughput); a shorter window bounds how long a caller waits (latency).
+ *
+ * Every caller gets its own future, completed with the balance right after its deposit. Deposits of
+ * one account are applied in the order deposit() was called, and batches are flushed one at a time
+ * by a single flusher thread, so batches of an account never overtake each other (the SQLite
+ * engines serialize writers anyway). If a batch fails, every future of that batch fails with the cause.
+ * Implements FR-05: Deposit Money and FR-14: Concurrency.
+ */
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionIdGenerator;
+import com.bank.model.TransactionType;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DepositBatcher implements Closeable
+{
+	/* Defaults: flush window and maximum deposits per batch */
+    public static final long DEFAULT_WINDOW_MICROS = 2_000;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final BankService service;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    /* Open batch of each account; guarded by itself */
+    private final Map<String, List<PendingDeposit>> batches = new HashMap<>();
+    /* Runs every flush, so batches are applied one at a time in hand-off order */
+    private final ScheduledThreadPoolExecutor flusher;
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong flushedDeposits = new AtomicLong();
+    private boolean closed;
+
+    /**
+     * Constructs a batcher with the default window and batch size.
+     * @param service The service that owns the accounts
+     */
+    public DepositBatcher(BankService service)
+    {
+        this(service, DEFAULT_WINDOW_MICROS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a batcher.
+     * @param service      The service that owns the accounts
+     * @param windowMicros Longest time a deposit waits for more deposits of its account (0 flushes on the next tick)
+     * @param maxBatchSize Deposits that flush a batch immediately
+     * @throws IllegalArgumentException if the window is negative or the batch size is not positive
+     */
+    public DepositBatcher(BankService service, long windowMicros, int maxBatchSize)
+    {
+        if (windowMicros < 0 || maxBatchSize < 1)
+        {
+            throw new IllegalArgumentException("Window must not be negative and batch size must be positive.");
+        }
+        this.service = Objects.requireNonNull(service);
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "deposit-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Queues a deposit for the next batch of its account.
+     * @param accountId The ID of the account to deposit into
+     * @param amount    The positive amount to be deposited
+     * @return A future completed with the balance right after this deposit, or failed with
+     *         IllegalArgumentException if the amount is not positive or the account is not found,
+     *         or with RuntimeException if a database error occurs
+     * @throws IllegalStateException if the batcher is closed
+     */
+    public CompletableFuture<Double> deposit(String accountId, double amount)
+    {
+        CompletableFuture<Double> result = new CompletableFuture<>();
+        if (!(amount > 0))
+        {
+            result.completeExceptionally(new IllegalArgumentException("Amount must be positive."));
+            return result;
+        }
+        PendingDeposit pending = new PendingDeposit(new Transaction(TransactionIdGenerator.nextId(),
+            TransactionType.DEPOSIT, amount, "Deposit to account " + accountId), result);
+
+        synchronized (batches)
+        {
+            if (closed)
+            {
+                throw new IllegalStateException("Deposit batcher is closed.");
+            }
+            List<PendingDeposit> batch = batches.computeIfAbsent(accountId, id -> new ArrayList<>());
+            batch.add(pending);
+            if (batch.size() >= maxBatchSize)
+            {
+                batches.remove(accountId);
+                flusher.execute(() -> apply(accountId, batch));
+            }
+            else if (batch.size() == 1)
+            {
+                flusher.schedule(() -> flushIfOpen(accountId, batch), windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of batches applied so far (successful or not).
+     */
+    public long getFlushedBatches()
+    {
+        return flushedBatches.get();
+    }
+
+    /**
+     * Returns the number of deposits in the batches applied so far.
+     */
+    public long getFlushedDeposits()
+    {
+        return flushedDeposits.get();
+    }
+
+    /**
+     * Flushes the open batches, waits until every queued deposit is applied and stops the flusher.
+     * Deposits after close() are rejected.
+     * Implements FR-15: Graceful Shutdown.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (batches)
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+            for (Map.Entry<String, List<PendingDeposit>> entry : batches.entrySet())
+            {
+                String accountId = entry.getKey();
+                List<PendingDeposit> batch = entry.getValue();
+                flusher.execute(() -> apply(accountId, batch));
+            }
+            batches.clear();
+        }
+        flusher.shutdown();
+        try
+        {
+            flusher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    private static final class PendingDeposit
+    {
+        private final Transaction transaction;
+        private final CompletableFuture<Double> result;
+
+        PendingDeposit(Transaction transaction, CompletableFuture<Double> result)
+        {
+            this.transaction = transaction;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Window expiry of a batch: applies it unless it was already handed off because it filled up.
+     */
+    private void flushIfOpen(String accountId, List<PendingDeposit> batch)
+    {
+        synchronized (batches)
+        {
+            if (batches.get(accountId) != batch)
+            {
+                return;
+            }
+            batches.remove(accountId);
+        }
+        apply(accountId, batch);
+    }
+
+    /**
+     * Applies one batch in one DB transaction and completes its futures. Runs on the flusher thread.
+     * Any failure, Errors included, fails every future of the batch, so no caller waits forever;
+     * an Error is then rethrown (the flusher's task future absorbs it and the thread keeps flushing).
+     */
+    private void apply(String accountId, List<PendingDeposit> batch)
+    {
+        List<Transaction> deposits = new ArrayList<>(batch.size());
+        for (PendingDeposit pending : batch)
+        {
+            deposits.add(pending.transaction);
+        }
+        flushedBatches.incrementAndGet();
+        flushedDeposits.addAndGet(batch.size());
+
+        double balance;
+        try
+        {
+            balance = service.applyDeposits(accountId, deposits);
+        }
+        catch (Throwable e)
+        {
+            for (PendingDeposit pending : batch)
+            {
+                pending.result.completeExceptionally(e);
+            }
+            if (e instanceof Error)
+            {
+                throw (Error) e;
+            }
+            return;
+        }
+
+        /* Walk back from the final balance in cents so every caller sees the balance right after its own deposit */
+        long cents = Math.round(balance * 100);
+        double[] balances = new double[batch.size()];
+        for (int i = batch.size() - 1; i >= 0; i--)
+        {
+            balances[i] = cents / 100.0;
+            cents -= Math.round(batch.get(i).transaction.getAmount() * 100);
+        }
+        for (int i = 0; i < batch.size(); i++)
+        {
+            batch.get(i).result.complete(balances[i]);
+        }
+    }
+}
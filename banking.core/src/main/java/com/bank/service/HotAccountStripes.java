@@ -0,0 +1,496 @@
+/*
+ * Opt-in contention relief for hot accounts (payroll, merchant settlement) that take many
+ * concurrent deposits. Sits in front of BankService.deposit/withdraw/getAccountBalance.
+ *
+ * Every account starts cold: its operations go straight to BankService, while a contention
+ * metric counts deposits that arrive while another deposit of the same account is still running.
+ * When an account collects at least the threshold of contended deposits within one fold interval
+ * it is flagged hot (or it can be flagged by hand with markHot). A hot account that takes fewer
+ * deposits than the threshold in COOL_AFTER_QUIET_INTERVALS intervals in a row is folded one last
+ * time and goes cold again.
+ *
+ * A hot account's balance is split into K stripes. A deposit picks the stripe of its thread and
+ * adds its amount and record there without touching the account, so concurrent deposits do not
+ * serialize. A fold job moves the stripes into the account periodically, one DB transaction per
+ * account, so the accounts table stays the source of truth. Withdrawals and balance reads of a
+ * hot account take the account's short coordination lock: a withdrawal folds the stripes first
+ * and then runs the normal withdrawal on the exact balance; a read adds the stripes to the stored
+ * balance.
+ *
+ * Deposits accepted on a stripe are held in memory until the next fold (and are folded on close);
+ * the fold interval bounds how long they are only in memory.
+ * Implements FR-05: Deposit Money, FR-06: Withdraw Money, FR-10: Check Balance and FR-14: Concurrency.
+ */
+package com.bank.service;
+
+import com.bank.model.NotFoundException;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionIdGenerator;
+import com.bank.model.TransactionType;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class HotAccountStripes implements Closeable
+{
+	/* Defaults: stripes per hot account, contended deposits per interval that flag an account, fold interval */
+    public static final int DEFAULT_STRIPES = 8;
+    public static final int DEFAULT_CONTENTION_THRESHOLD = 32;
+    public static final long DEFAULT_FOLD_INTERVAL_MILLIS = 200;
+    /* Consecutive quiet fold intervals (fewer deposits than the threshold) after which a hot account cools */
+    public static final int COOL_AFTER_QUIET_INTERVALS = 25;
+
+    private final BankService service;
+    private final int stripeCount;
+    private final int contentionThreshold;
+    /* Striped state of each hot account */
+    private final Map<String, HotAccount> hotAccounts = new ConcurrentHashMap<>();
+    /* Contention metric of the cold accounts that received deposits in the current interval */
+    private final Map<String, Contention> contention = new ConcurrentHashMap<>();
+    /* Runs fold() every interval */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs the hot-account layer with the default stripe count, threshold and fold interval.
+     * @param service The service that owns the accounts
+     */
+    public HotAccountStripes(BankService service)
+    {
+        this(service, DEFAULT_STRIPES, DEFAULT_CONTENTION_THRESHOLD, DEFAULT_FOLD_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructs the hot-account layer and starts its fold job.
+     * @param service             The service that owns the accounts
+     * @param stripes             Number of stripes of each hot account
+     * @param contentionThreshold Contended deposits within one interval that flag an account hot
+     * @param foldIntervalMillis  Interval of the fold job, which also closes a contention window
+     * @throws IllegalArgumentException if a count or the interval is not positive
+     */
+    public HotAccountStripes(BankService service, int stripes, int contentionThreshold, long foldIntervalMillis)
+    {
+        if (stripes < 1 || contentionThreshold < 1 || foldIntervalMillis < 1)
+        {
+            throw new IllegalArgumentException("Stripes, threshold and fold interval must be positive.");
+        }
+        this.service = Objects.requireNonNull(service);
+        this.stripeCount = stripes;
+        this.contentionThreshold = contentionThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hot-account-fold");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::foldQuietly, foldIntervalMillis, foldIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /* ---------------- Money movements ---------------- */
+
+    /**
+     * Deposits money. A hot account takes the deposit on a stripe; a cold one is deposited into
+     * directly while its contention is measured.
+     * @param accountId The ID of the account to deposit into
+     * @param amount    The positive amount to be deposited (at least one cent for hot accounts)
+     * @throws IllegalArgumentException if the account is not found or the amount is invalid
+     */
+    public void deposit(String accountId, double amount)
+    {
+        HotAccount hot = hotAccounts.get(accountId);
+        if (hot != null && depositOnStripe(hot, amount))
+        {
+            return;
+        }
+
+        Contention metric = contention.computeIfAbsent(accountId, id -> new Contention());
+        if (metric.inFlight.incrementAndGet() > 1)
+        {
+            metric.contended.increment();
+        }
+        try
+        {
+            service.deposit(accountId, amount);
+        }
+        finally
+        {
+            metric.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Withdraws money. For a hot account the stripes are folded into the account first, under its
+     * coordination lock, so the funds check sees every accepted deposit.
+     * @throws IllegalArgumentException if the account is not found, the amount is invalid or funds are insufficient
+     */
+    public void withdraw(String accountId, double amount)
+    {
+        HotAccount hot = hotAccounts.get(accountId);
+        if (hot == null)
+        {
+            service.withdraw(accountId, amount);
+            return;
+        }
+        hot.coordination.lock();
+        try
+        {
+            fold(hot);
+            service.withdraw(accountId, amount);
+        }
+        finally
+        {
+            hot.coordination.unlock();
+        }
+    }
+
+    /**
+     * Returns the balance of an account, including deposits still held on its stripes.
+     * @throws IllegalArgumentException if the account is not found
+     */
+    public double getBalance(String accountId)
+    {
+        HotAccount hot = hotAccounts.get(accountId);
+        if (hot == null)
+        {
+            return service.getAccountBalance(accountId);
+        }
+        hot.coordination.lock();
+        try
+        {
+            return service.getAccountBalance(accountId) + hot.pendingCents() / 100.0;
+        }
+        finally
+        {
+            hot.coordination.unlock();
+        }
+    }
+
+    /* ---------------- Hot-account management ---------------- */
+
+    /**
+     * Flags an account hot, so its deposits go to stripes from now on.
+     * @param accountId The account to flag
+     * @throws IllegalArgumentException if the account does not exist
+     */
+    public void markHot(String accountId)
+    {
+        if (!service.accountExists(accountId))
+        {
+            throw new NotFoundException("Account not found.");
+        }
+        if (hotAccounts.putIfAbsent(accountId, new HotAccount(accountId, stripeCount)) == null)
+        {
+            contention.remove(accountId);
+        }
+    }
+
+    public boolean isHot(String accountId)
+    {
+        return hotAccounts.containsKey(accountId);
+    }
+
+    /**
+     * Returns the IDs of the hot accounts.
+     * @return The hot account IDs in ID order
+     */
+    public Set<String> getHotAccounts()
+    {
+        return new TreeSet<>(hotAccounts.keySet());
+    }
+
+    /**
+     * Returns the number of deposits of an account held on its stripes, waiting for the next fold.
+     * @return Pending deposits (0 for cold accounts)
+     */
+    public int getPendingDeposits(String accountId)
+    {
+        HotAccount hot = hotAccounts.get(accountId);
+        if (hot == null)
+        {
+            return 0;
+        }
+        int pending = 0;
+        for (Stripe stripe : hot.stripes)
+        {
+            pending += stripe.deposits.size();
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the contended deposits counted for a cold account in the current interval.
+     * @return Deposits that arrived while another deposit of the account was running
+     */
+    public long getContention(String accountId)
+    {
+        Contention metric = contention.get(accountId);
+        return metric == null ? 0 : metric.contended.sum();
+    }
+
+    /* ---------------- Folding ---------------- */
+
+    /**
+     * Folds the stripes of every hot account into the account, cools the hot accounts that stayed quiet
+     * for COOL_AFTER_QUIET_INTERVALS intervals, then closes the contention window: cold accounts at or
+     * above the threshold become hot, and the metric starts over.
+     * Runs on the fold job; callable at any time (e.g. before a report).
+     * @throws RuntimeException if folding an account fails; its deposits stay on the stripes for the next fold
+     */
+    public void fold()
+    {
+        RuntimeException failure = null;
+        for (HotAccount hot : hotAccounts.values())
+        {
+            hot.coordination.lock();
+            try
+            {
+                fold(hot);
+                if (hot.recentDeposits.sumThenReset() >= contentionThreshold)
+                {
+                    hot.quietIntervals = 0;
+                }
+                else if (++hot.quietIntervals >= COOL_AFTER_QUIET_INTERVALS)
+                {
+                    cool(hot);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                failure = failure == null ? e : failure;
+            }
+            finally
+            {
+                hot.coordination.unlock();
+            }
+        }
+
+        for (Map.Entry<String, Contention> entry : contention.entrySet())
+        {
+            long contended = entry.getValue().contended.sumThenReset();
+            if (contended >= contentionThreshold)
+            {
+                markHot(entry.getKey());
+            }
+            else if (contended == 0 && entry.getValue().inFlight.get() == 0)
+            {
+                contention.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Stops the fold job and folds the remaining stripes.
+     * Implements FR-15: Graceful Shutdown.
+     */
+    @Override
+    public void close()
+    {
+        scheduler.shutdown();
+        try
+        {
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        fold();
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /*
+     * One stripe: deposit records and their sum in cents. A deposit adds its amount before its record,
+     * so a fold only subtracts amounts already added and the amount never goes negative; a balance
+     * read may include a deposit whose record is still being added.
+     */
+    private static final class Stripe
+    {
+        private final Queue<Transaction> deposits = new ConcurrentLinkedQueue<>();
+        private final AtomicLong cents = new AtomicLong();
+    }
+
+    private static final class HotAccount
+    {
+        private final String accountId;
+        private final Stripe[] stripes;
+        /* Serializes folds, withdrawals and balance reads of the account; deposits never take it */
+        private final ReentrantLock coordination = new ReentrantLock();
+        /* Deposits taken on the stripes in the current interval */
+        private final LongAdder recentDeposits = new LongAdder();
+        /* Deposits currently adding to a stripe; cool() waits for them to finish */
+        private final AtomicInteger depositsInFlight = new AtomicInteger();
+        /* Set by cool(): new deposits go to the account directly */
+        private volatile boolean cooled;
+        /* Consecutive quiet intervals; guarded by the coordination lock */
+        private int quietIntervals;
+
+        HotAccount(String accountId, int stripeCount)
+        {
+            this.accountId = accountId;
+            this.stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++)
+            {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        long pendingCents()
+        {
+            long sum = 0;
+            for (Stripe stripe : stripes)
+            {
+                sum += stripe.cents.get();
+            }
+            return sum;
+        }
+    }
+
+    private static final class Contention
+    {
+        /* Deposits of the account currently running */
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /* Deposits in this interval that found another one running */
+        private final LongAdder contended = new LongAdder();
+    }
+
+    /**
+     * Takes a deposit on the stripe of the calling thread.
+     * @return false if the account was cooled meanwhile, so the caller deposits into it directly
+     */
+    private boolean depositOnStripe(HotAccount hot, double amount)
+    {
+        long cents = cents(amount);
+        hot.depositsInFlight.incrementAndGet();
+        try
+        {
+            if (hot.cooled)
+            {
+                return false;
+            }
+            Transaction deposit = new Transaction(TransactionIdGenerator.nextId(), TransactionType.DEPOSIT, amount,
+                "Deposit to account " + hot.accountId);
+            Stripe stripe = hot.stripes[(int) Math.floorMod(Thread.currentThread().threadId(), (long) stripeCount)];
+            stripe.cents.addAndGet(cents);
+            stripe.deposits.add(deposit);
+            hot.recentDeposits.increment();
+            return true;
+        }
+        finally
+        {
+            hot.depositsInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Turns a hot account cold again: new deposits go to the account directly, and the deposits still
+     * being added to a stripe are waited for and folded. If that fold fails the account stays hot.
+     * Caller holds the account's coordination lock.
+     */
+    private void cool(HotAccount hot)
+    {
+        hot.cooled = true;
+        while (hot.depositsInFlight.get() > 0)
+        {
+            Thread.onSpinWait();
+        }
+        try
+        {
+            fold(hot);
+        }
+        catch (RuntimeException e)
+        {
+            hot.cooled = false;
+            throw e;
+        }
+        hotAccounts.remove(hot.accountId, hot);
+    }
+
+    /**
+     * Moves the deposits on an account's stripes into the account in one DB transaction.
+     * Caller holds the account's coordination lock. On failure the deposits go back to their stripes.
+     */
+    private void fold(HotAccount hot)
+    {
+        List<Transaction> drained = new ArrayList<>();
+        long[] drainedCents = new long[hot.stripes.length];
+        for (int i = 0; i < hot.stripes.length; i++)
+        {
+            Transaction deposit;
+            while ((deposit = hot.stripes[i].deposits.poll()) != null)
+            {
+                drained.add(deposit);
+                drainedCents[i] += cents(deposit.getAmount());
+            }
+        }
+        if (drained.isEmpty())
+        {
+            return;
+        }
+        drained.sort((a, b) -> Long.compare(a.getTimestampMicros(), b.getTimestampMicros()));
+        try
+        {
+            service.applyDeposits(hot.accountId, drained);
+        }
+        catch (RuntimeException e)
+        {
+            System.err.println("Folding " + drained.size() + " deposits of hot account " + hot.accountId + " failed: " + e.getMessage());
+            hot.stripes[0].deposits.addAll(drained);
+            long total = 0;
+            for (int i = 1; i < hot.stripes.length; i++)
+            {
+                total += drainedCents[i];
+                hot.stripes[i].cents.addAndGet(-drainedCents[i]);
+            }
+            hot.stripes[0].cents.addAndGet(total);
+            throw e;
+        }
+        for (int i = 0; i < hot.stripes.length; i++)
+        {
+            hot.stripes[i].cents.addAndGet(-drainedCents[i]);
+        }
+    }
+
+    private void foldQuietly()
+    {
+        try
+        {
+            fold();
+        }
+        catch (RuntimeException e)
+        {
+            System.err.println("Hot-account fold failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts an amount to cents.
+     * @throws IllegalArgumentException if the amount is less than one cent
+     */
+    private static long cents(double amount)
+    {
+        long cents = Math.round(amount * 100);
+        if (cents <= 0)
+        {
+            throw new IllegalArgumentException("Amount must be at least one cent.");
+        }
+        return cents;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Bounded, time-expiring in-memory cache of idempotency keys and their results.
+ * It sits in front of the persisted key table: a client retry that hits the cache returns the
+ * original result without touching the database, and a retry that arrives while the original
+ * request is still running waits for that request instead of executing a second time.
+ *
+ * Keys are spread over independently locked segments. Each segment keeps its running keys in a
+ * plain map and its finished keys in an insertion-ordered LinkedHashMap. Every finished entry lives
+ * for the same time-to-live, so insertion order is also expiry order: expired entries are dropped
+ * from the head of a segment on each claim, and a full segment evicts its oldest entry. Running
+ * keys are never evicted. All operations are O(1) and contend only within one segment.
+ * Keys dropped from the cache are still found in the persisted key table.
+ */
+package com.bank.service;
+
+import com.bank.model.AlreadyExistsException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class IdempotencyCache
+{
+	/* Default bound on cached keys and default time-to-live */
+    public static final int DEFAULT_CAPACITY = 100_000;
+    public static final long DEFAULT_TTL_SECONDS = TimeUnit.HOURS.toSeconds(24);
+
+    /* Maximum number of independently locked segments (power of two) */
+    private static final int SEGMENTS = 16;
+
+    /* Power-of-two number of segments, never more than the capacity */
+    private final Segment[] segments;
+    /* Time-to-live of an entry in nanoseconds */
+    private final long ttlNanos;
+    /* Monotonic clock in nanoseconds, replaceable by tests */
+    private final LongSupplier clock;
+
+    /**
+     * Constructs a cache with the default capacity and time-to-live.
+     */
+    public IdempotencyCache()
+    {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * Constructs a cache.
+     * @param capacity   Maximum number of cached keys (at least 1)
+     * @param ttlSeconds Seconds a key stays cached after its result was recorded (at least 1)
+     */
+    public IdempotencyCache(int capacity, long ttlSeconds)
+    {
+        this(capacity, TimeUnit.SECONDS.toNanos(ttlSeconds), System::nanoTime);
+    }
+
+    /*
+     * Package-private constructor used by unit tests to control time.
+     */
+    IdempotencyCache(int capacity, long ttlNanos, LongSupplier clock)
+    {
+        if (capacity < 1 || ttlNanos < 1)
+        {
+            throw new IllegalArgumentException("Capacity and time-to-live must be positive.");
+        }
+        /* Segment capacities add up to exactly the capacity; the remainder goes to the first segments */
+        segments = new Segment[Math.min(SEGMENTS, Integer.highestOneBit(capacity))];
+        for (int i = 0; i < segments.length; i++)
+        {
+            segments[i] = new Segment(capacity / segments.length + (i < capacity % segments.length ? 1 : 0));
+        }
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims a key for a request that is about to run.
+     * @param key     The idempotency key sent by the client
+     * @param request Description of the request (operation, accounts and amount)
+     * @return null if the caller now owns the key and must run the request and then call
+     *         complete() or release(); otherwise the (possibly still running) original result
+     * @throws IllegalArgumentException if the key is cached for a different request
+     */
+    public CompletableFuture<Double> claim(String key, String request)
+    {
+        long now = clock.getAsLong();
+        Segment segment = segmentFor(key);
+        synchronized (segment)
+        {
+            segment.dropExpired(now);
+            Entry existing = segment.finished.get(key);
+            if (existing == null)
+            {
+                existing = segment.running.get(key);
+            }
+            if (existing != null)
+            {
+                if (!existing.request.equals(request))
+                {
+                    throw new AlreadyExistsException("Idempotency key already exists for a different request.");
+                }
+                return existing.result;
+            }
+            segment.running.put(key, new Entry(request));
+            return null;
+        }
+    }
+
+    /**
+     * Records the result of a claimed key and wakes up retries waiting for it.
+     * @param key    The claimed key
+     * @param result The result returned to the client
+     */
+    public void complete(String key, double result)
+    {
+        Entry entry;
+        Segment segment = segmentFor(key);
+        synchronized (segment)
+        {
+            entry = segment.running.remove(key);
+            if (entry == null)
+            {
+                return;
+            }
+            entry.expiresAt = clock.getAsLong() + ttlNanos;
+            segment.finished.put(key, entry);
+        }
+        entry.result.complete(result);
+    }
+
+    /**
+     * Forgets a claimed key whose request failed, so a later retry runs the request again.
+     * Retries already waiting for the key fail with the same exception.
+     * @param key   The claimed key
+     * @param cause The failure of the request
+     */
+    public void release(String key, Throwable cause)
+    {
+        Entry entry;
+        Segment segment = segmentFor(key);
+        synchronized (segment)
+        {
+            entry = segment.running.remove(key);
+        }
+        if (entry != null)
+        {
+            entry.result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Returns the number of cached keys (running and finished), including expired keys not dropped yet.
+     * @return The cached key count
+     */
+    public int size()
+    {
+        int size = 0;
+        for (Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                size += segment.running.size() + segment.finished.size();
+            }
+        }
+        return size;
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    private Segment segmentFor(String key)
+    {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /*
+     * One locked part of the cache.
+     */
+    private static final class Segment
+    {
+        /* Keys whose request is still running */
+        private final Map<String, Entry> running = new HashMap<>();
+        /* Keys with a recorded result, oldest first */
+        private final LinkedHashMap<String, Entry> finished;
+
+        Segment(int capacity)
+        {
+            this.finished = new LinkedHashMap<String, Entry>(16, 0.75f, false)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+                {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        /**
+         * Drops expired entries from the head; insertion order equals expiry order.
+         */
+        void dropExpired(long now)
+        {
+            Iterator<Entry> iterator = finished.values().iterator();
+            while (iterator.hasNext())
+            {
+                if (iterator.next().expiresAt - now > 0)
+                {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    /*
+     * One cached key.
+     */
+    private static final class Entry
+    {
+        private final String request;
+        private final CompletableFuture<Double> result = new CompletableFuture<>();
+        /* Set when the result is recorded */
+        private long expiresAt;
+
+        Entry(String request)
+        {
+            this.request = request;
+        }
+    }
+}
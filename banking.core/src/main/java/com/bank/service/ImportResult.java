@@ -0,0 +1,69 @@
+/*
+ * Summary of a bulk import run produced by BulkImportService.
+ * Holds row counters and the elapsed time so callers can report throughput.
+ */
+package com.bank.service;
+
+public class ImportResult
+{
+	/* Number of data rows read from the input file (header excluded) */
+    private final long rowsRead;
+    /* Number of rows inserted into the data store */
+    private final long rowsImported;
+    /* Number of rows written to the error file */
+    private final long rowsRejected;
+    /* Wall-clock duration of the import in nanoseconds */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs an import summary.
+     * @param rowsRead     Data rows read from the input file
+     * @param rowsImported Rows inserted into the data store
+     * @param rowsRejected Rows written to the error file
+     * @param elapsedNanos Wall-clock duration of the import in nanoseconds
+     */
+    public ImportResult(long rowsRead, long rowsImported, long rowsRejected, long elapsedNanos)
+    {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /* Getters APIs */
+    public long getRowsRead()
+    {
+        return rowsRead;
+    }
+
+    public long getRowsImported()
+    {
+        return rowsImported;
+    }
+
+    public long getRowsRejected()
+    {
+        return rowsRejected;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * Calculates the overall throughput of the import.
+     * @return Rows read per second, or 0 if no time has elapsed
+     */
+    public double getRowsPerSecond()
+    {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ImportResult{read=%d, imported=%d, rejected=%d, elapsed=%d ms, %.0f rows/s}",
+            rowsRead, rowsImported, rowsRejected, getElapsedMillis(), getRowsPerSecond());
+    }
+}
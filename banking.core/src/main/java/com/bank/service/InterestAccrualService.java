@@ -0,0 +1,353 @@
+/*
+ * Batch job that posts interest to every savings account.
+ * Instead of one BankService.deposit per account, the job reads savings balances in keyset pages
+ * (ID and balance only), and a fixed number of worker partitions process the pages in parallel.
+ * Each page is one DB transaction: one batched relative balance update, one batched insert of the
+ * INTEREST transaction records and one checkpoint (AccountRepository.applyCredits,
+ * JobCheckpointRepository.saveCheckpoint).
+ *
+ * A run is identified by a run ID (e.g. the period "2026-10"). The checkpoint of a page is the
+ * ID range of the accounts it credited and commits together with them, so after a crash the same run ID
+ * resumes: pages already committed are skipped and every account is credited at most once per run.
+ * Re-running a finished run ID credits nothing. Interest is computed from the balance read at the
+ * time the page is read and rounded to cents; accounts whose interest rounds to zero are skipped.
+ *
+ * Engines: JDBC, ledger and sharded keep checkpoints in the job_checkpoints table; the in-memory
+ * engine keeps them in memory (not in its snapshots).
+ * Implements FR-05: Deposit Money in bulk for savings interest.
+ */
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionIdGenerator;
+import com.bank.model.TransactionType;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.JobCheckpointRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+public class InterestAccrualService
+{
+	/* Default number of accounts per page (and per DB transaction) */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    /* Prefix of the checkpoint job name of a run */
+    static final String JOB_PREFIX = "interest:";
+
+    /* Repository for account data access */
+    private final AccountRepository accountRepository;
+    /* Repository for the run checkpoints, written on the account repository's connections */
+    private final JobCheckpointRepository checkpointRepository;
+    /* Number of worker partitions processing pages in parallel */
+    private final int partitions;
+    /* Number of accounts per page */
+    private final int batchSize;
+
+    /**
+     * Constructs the job with one partition per available processor and the default batch size.
+     * @param accountRepository    Repository for account data operations
+     * @param checkpointRepository Repository for the run checkpoints (the same storage engine)
+     */
+    public InterestAccrualService(AccountRepository accountRepository, JobCheckpointRepository checkpointRepository)
+    {
+        this(accountRepository, checkpointRepository, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs the job.
+     * @param accountRepository    Repository for account data operations
+     * @param checkpointRepository Repository for the run checkpoints (the same storage engine, as a
+     *                             checkpoint commits in the transaction of the credits it records)
+     * @param partitions           Number of pages processed in parallel (must be positive)
+     * @param batchSize            Number of accounts per page and DB transaction (must be positive)
+     * @throws IllegalArgumentException if partitions or batchSize is not positive
+     */
+    public InterestAccrualService(AccountRepository accountRepository, JobCheckpointRepository checkpointRepository,
+                                  int partitions, int batchSize)
+    {
+        if (partitions <= 0 || batchSize <= 0)
+        {
+            throw new IllegalArgumentException("Partitions and batch size must be positive.");
+        }
+        this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.checkpointRepository = Objects.requireNonNull(checkpointRepository);
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Posts interest to every savings account, or resumes an interrupted run with the same ID.
+     * @param runId The run ID, e.g. the interest period ("2026-10")
+     * @param rate  The interest rate of the period (e.g. 0.005 for 0.5%)
+     * @return Summary of the run
+     * @throws IllegalArgumentException if the run ID is blank or the rate is not positive
+     * @throws RuntimeException if a batch fails; committed batches stay committed and the same run ID resumes
+     */
+    public AccrualResult accrue(String runId, double rate)
+    {
+        if (runId == null || runId.isBlank())
+        {
+            throw new IllegalArgumentException("Run ID must not be empty.");
+        }
+        if (!(rate > 0) || Double.isInfinite(rate))
+        {
+            throw new IllegalArgumentException("Interest rate must be positive.");
+        }
+
+        long start = System.nanoTime();
+        Run run = new Run(JOB_PREFIX + runId, runId, rate);
+        ExecutorService workers = Executors.newFixedThreadPool(partitions, task -> {
+            Thread thread = new Thread(task, "interest-" + runId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> results = new ArrayList<>(partitions);
+        try
+        {
+            for (int i = 0; i < partitions; i++)
+            {
+                results.add(workers.submit(run::work));
+            }
+            for (Future<?> result : results)
+            {
+                result.get();
+            }
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            throw new RuntimeException("Interest run " + runId + " stopped after " + run.batches.get()
+                + " batches; run it again to resume: " + cause.getMessage(), cause);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            run.failed.set(true);
+            throw new RuntimeException("Interest run " + runId + " interrupted; run it again to resume.", e);
+        }
+        finally
+        {
+            workers.shutdownNow();
+        }
+
+        AccrualResult result = new AccrualResult(run.scanned.get(), run.credited.get(), run.resumed.get(),
+            run.batches.get(), run.interest.sum(), System.nanoTime() - start);
+        System.out.println("[✓] Interest run " + runId + " finished: " + result);
+        return result;
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /*
+     * State of one run shared by its partitions: the page cursor, the committed ranges and the counters.
+     */
+    private final class Run
+    {
+        private final String job;
+        private final String runId;
+        private final double rate;
+        /* First ID -> last ID of the ranges committed by earlier attempts, merged into disjoint ranges */
+        private final TreeMap<String, String> committed = new TreeMap<>();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong credited = new AtomicLong();
+        private final AtomicLong resumed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final DoubleAdder interest = new DoubleAdder();
+        /* ID of the last account handed out, guarded by this Run */
+        private String cursor;
+        private boolean exhausted;
+
+        Run(String job, String runId, double rate)
+        {
+            this.job = job;
+            this.runId = runId;
+            this.rate = rate;
+            /* Ranges of different attempts may overlap; keep their union as disjoint ranges */
+            for (Map.Entry<String, String> range : new TreeMap<>(checkpointRepository.findCheckpoints(job)).entrySet())
+            {
+                Map.Entry<String, String> previous = committed.lastEntry();
+                if (previous != null && range.getKey().compareTo(previous.getValue()) <= 0)
+                {
+                    if (range.getValue().compareTo(previous.getValue()) > 0)
+                    {
+                        committed.put(previous.getKey(), range.getValue());
+                    }
+                }
+                else
+                {
+                    committed.put(range.getKey(), range.getValue());
+                }
+            }
+        }
+
+        /**
+         * Hands out the next page of savings balances.
+         * @return The page in ID order, or null when every account has been handed out
+         */
+        synchronized Map<String, Double> nextPage()
+        {
+            if (exhausted || failed.get())
+            {
+                return null;
+            }
+            Map<String, Double> page = accountRepository.findBalancePage("SAVINGS", cursor, batchSize);
+            if (page.isEmpty())
+            {
+                exhausted = true;
+                return null;
+            }
+            for (String id : page.keySet())
+            {
+                cursor = id;
+            }
+            return page;
+        }
+
+        /**
+         * Partition loop: takes pages until none is left and commits each one with its checkpoint.
+         */
+        void work()
+        {
+            try
+            {
+                Map<String, Double> page;
+                while ((page = nextPage()) != null)
+                {
+                    process(page);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                failed.set(true);
+                throw e;
+            }
+        }
+
+        private void process(Map<String, Double> page)
+        {
+            String first = null;
+            String last = null;
+            Map<String, Transaction> credits = new LinkedHashMap<>();
+            double total = 0;
+            for (Map.Entry<String, Double> entry : page.entrySet())
+            {
+                String accountId = entry.getKey();
+                scanned.incrementAndGet();
+                if (isCommitted(accountId))
+                {
+                    resumed.incrementAndGet();
+                    continue;
+                }
+                first = first == null ? accountId : first;
+                last = accountId;
+                long cents = Math.round(entry.getValue() * rate * 100);
+                if (cents > 0)
+                {
+                    double amount = cents / 100.0;
+                    credits.put(accountId, new Transaction(TransactionIdGenerator.nextId(), TransactionType.INTEREST,
+                        amount, "Interest " + runId + " for account " + accountId));
+                    total += amount;
+                }
+            }
+            if (first == null)
+            {
+                return;
+            }
+            commit(first, last, credits);
+            batches.incrementAndGet();
+            credited.addAndGet(credits.size());
+            interest.add(total);
+        }
+
+        /**
+         * Returns whether an account lies in a page committed by an earlier attempt of the run.
+         */
+        private boolean isCommitted(String accountId)
+        {
+            Map.Entry<String, String> range = committed.floorEntry(accountId);
+            return range != null && accountId.compareTo(range.getValue()) <= 0;
+        }
+
+        /**
+         * Applies the credits of one page and records the range of its accounts not credited
+         * by an earlier attempt, in one DB transaction
+         * (without a transaction for engines that have no JDBC backing).
+         */
+        private void commit(String first, String last, Map<String, Transaction> credits)
+        {
+            Connection conn = null;
+            try
+            {
+                conn = accountRepository.openConnection();
+                if (conn != null)
+                {
+                    conn.setAutoCommit(false);
+                }
+                if (!credits.isEmpty())
+                {
+                    accountRepository.applyCredits(conn, credits);
+                }
+                checkpointRepository.saveCheckpoint(conn, job, first, last);
+                if (conn != null)
+                {
+                    conn.commit();
+                }
+            }
+            catch (SQLException e)
+            {
+                rollback(conn);
+                throw new RuntimeException("Interest batch " + first + ".." + last + " rolled back: " + e.getMessage(), e);
+            }
+            catch (RuntimeException e)
+            {
+                rollback(conn);
+                throw e;
+            }
+            finally
+            {
+                if (conn != null)
+                {
+                    try
+                    {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    }
+                    catch (SQLException e)
+                    {
+                        System.err.println("Error closing connection: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void rollback(Connection conn)
+    {
+        if (conn == null)
+        {
+            return;
+        }
+        try
+        {
+            conn.rollback();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Error rolling back interest batch: " + e.getMessage());
+        }
+    }
+}
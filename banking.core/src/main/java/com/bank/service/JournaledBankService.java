@@ -0,0 +1,500 @@
+/*
+ * BankService whose authoritative state lives in the in-memory repositories and whose
+ * durability comes from a WriteAheadLog plus periodic compact snapshots, instead of one
+ * SQLite write per operation.
+ *
+ * Every mutation is applied and then logged together with its outcome (the transaction records
+ * it created and the idempotency key it stored), both under one sequencer lock so that log order
+ * equals apply order. A mutation that fails validation is not logged. The caller returns only
+ * after the log entry has been synced; the fsync happens outside the sequencer lock, so
+ * concurrent callers share fsyncs (group commit). If the log cannot be written, the applied
+ * mutation is not durable: the service then refuses further mutations and checkpoints, so the
+ * unlogged state never reaches a snapshot, and has to be reopened.
+ *
+ * A checkpoint writes a snapshot tagged with the last log sequence and then empties the log.
+ * Recovery loads the latest snapshot and replays the log entries after its sequence, applying
+ * the logged records with their original ids and timestamps. An entry that cannot be applied
+ * means the log and the snapshot disagree, and recovery fails instead of skipping it.
+ * Idempotency keys are journaled with their mutation and written into every snapshot, so a
+ * retry after a checkpoint and a restart still returns the original result.
+ * Implements FR-05 to FR-07, FR-12, FR-13 and FR-15 for the write-ahead-log engine.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.util.FileManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class JournaledBankService extends BankService implements Closeable
+{
+	/* File names used inside the data directory */
+    public static final String SNAPSHOT_FILE = "bank-wal.snapshot";
+    public static final String LOG_FILE = "bank.wal";
+
+    /* In-memory repositories holding the authoritative state */
+    private final InMemoryCustomerRepository customerRepository;
+    private final RecordingAccountRepository accountRepository;
+    /* Write-ahead log of all mutations since the last checkpoint */
+    private final WriteAheadLog log;
+    /* Snapshot file written by checkpoints */
+    private final Path snapshotFile;
+    /* Orders log appends with in-memory application; also excludes mutations during a checkpoint */
+    private final Object sequencer = new Object();
+    /* Number of log entries replayed at startup */
+    private final long replayedEntries;
+    /* Background checkpoint scheduler, null until startCheckpoints() is called */
+    private ScheduledExecutorService scheduler;
+    /* First failure to write or sync the log; once set, the in-memory state may be ahead of the log */
+    private volatile RuntimeException logFailure;
+
+    private JournaledBankService(InMemoryCustomerRepository customerRepository, RecordingAccountRepository accountRepository,
+                                 WriteAheadLog log, Path snapshotFile, long replayedEntries)
+    {
+        super(customerRepository, accountRepository);
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.log = log;
+        this.snapshotFile = snapshotFile;
+        this.replayedEntries = replayedEntries;
+    }
+
+    /**
+     * Opens the journaled state stored in a directory: loads the latest snapshot (if any)
+     * and replays the log entries written after it.
+     * Implements FR-13: Load Data.
+     * @param directory The directory holding the snapshot and log files
+     * @return A service holding the recovered state
+     * @throws IOException if the snapshot or the log cannot be read
+     * @throws IllegalStateException if a log entry cannot be applied to the recovered state
+     */
+    public static JournaledBankService open(Path directory) throws IOException
+    {
+        InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        RecordingAccountRepository accounts = new RecordingAccountRepository();
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+
+        long snapshotSequence = 0;
+        if (Files.exists(snapshotFile))
+        {
+            snapshotSequence = FileManager.readSnapshot(snapshotFile, customers::save, accounts::save,
+                key -> accounts.saveIdempotencyKey(null, key[0], key[1], Double.parseDouble(key[2])));
+        }
+
+        WriteAheadLog log = new WriteAheadLog(directory.resolve(LOG_FILE));
+        BankService replayTarget = new BankService(customers, accounts);
+        long[] replayed = new long[1];
+        try
+        {
+            log.replay(snapshotSequence, entry -> {
+                apply(replayTarget, accounts, entry);
+                replayed[0]++;
+            });
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.close();
+            throw e;
+        }
+        return new JournaledBankService(customers, accounts, log, snapshotFile, replayed[0]);
+    }
+
+    /**
+     * Returns the number of log entries replayed when this service was opened.
+     * @return The replayed entry count
+     */
+    public long getReplayedEntries()
+    {
+        return replayedEntries;
+    }
+
+    /* ---------------- Journaled mutations ---------------- */
+
+    @Override
+    public void createCustomer(String id, String name, String email, String phoneNumber)
+    {
+        journal(() -> super.createCustomer(id, name, email, phoneNumber),
+            WriteAheadLog.Operation.CREATE_CUSTOMER, 0, id, name, email, phoneNumber);
+    }
+
+    @Override
+    public void createAccount(String accountId, String customerId, String type, double initialBalance)
+    {
+        journal(() -> super.createAccount(accountId, customerId, type, initialBalance),
+            WriteAheadLog.Operation.CREATE_ACCOUNT, initialBalance, accountId, customerId, type);
+    }
+
+    @Override
+    public void deposit(String accountId, double amount)
+    {
+        journal(() -> super.deposit(accountId, amount), WriteAheadLog.Operation.DEPOSIT, amount, accountId);
+    }
+
+    @Override
+    public void withdraw(String accountId, double amount)
+    {
+        journal(() -> super.withdraw(accountId, amount), WriteAheadLog.Operation.WITHDRAW, amount, accountId);
+    }
+
+    @Override
+    public void transfer(String fromAccountId, String toAccountId, double amount)
+    {
+        journal(() -> super.transfer(fromAccountId, toAccountId, amount),
+            WriteAheadLog.Operation.TRANSFER, amount, fromAccountId, toAccountId);
+    }
+
+    /* The stored idempotency key is logged after the account arguments; replay records it again */
+
+    @Override
+    public double deposit(String accountId, double amount, String idempotencyKey)
+    {
+        return journal(() -> super.deposit(accountId, amount, idempotencyKey),
+            WriteAheadLog.Operation.DEPOSIT, amount, accountId);
+    }
+
+    @Override
+    public double withdraw(String accountId, double amount, String idempotencyKey)
+    {
+        return journal(() -> super.withdraw(accountId, amount, idempotencyKey),
+            WriteAheadLog.Operation.WITHDRAW, amount, accountId);
+    }
+
+    @Override
+    public double transfer(String fromAccountId, String toAccountId, double amount, String idempotencyKey)
+    {
+        return journal(() -> super.transfer(fromAccountId, toAccountId, amount, idempotencyKey),
+            WriteAheadLog.Operation.TRANSFER, amount, fromAccountId, toAccountId);
+    }
+
+    /**
+     * Logs deposits folded in by HotAccountStripes or DepositBatcher as one DEPOSIT entry whose
+     * records are the deposits, so they replay like any other deposit.
+     */
+    @Override
+    double applyDeposits(String accountId, List<Transaction> deposits)
+    {
+        double sum = 0;
+        for (Transaction deposit : deposits)
+        {
+            sum += deposit.getAmount();
+        }
+        return journal(() -> super.applyDeposits(accountId, deposits), WriteAheadLog.Operation.DEPOSIT, sum, accountId);
+    }
+
+    /* ---------------- Checkpoints ---------------- */
+
+    /**
+     * Writes a compact snapshot of the current state and empties the log.
+     * Mutations wait while the snapshot is written.
+     * @throws IOException if the snapshot cannot be written or the log cannot be reset
+     * @throws IllegalStateException if the log failed earlier (see journal())
+     */
+    public void checkpoint() throws IOException
+    {
+        synchronized (sequencer)
+        {
+            checkLog();
+            FileManager.writeSnapshot(snapshotFile, log.getLastSequence(),
+                customerRepository.findAll(), accountRepository.findAll(), accountRepository.getIdempotencyKeyRows());
+            /* A crash before the reset is harmless: replay skips entries covered by the snapshot */
+            log.reset();
+        }
+    }
+
+    /**
+     * Starts periodic checkpoints on a background daemon thread.
+     * @param intervalSeconds Seconds between checkpoints; 0 or less disables periodic checkpoints
+     */
+    public synchronized void startCheckpoints(long intervalSeconds)
+    {
+        if (intervalSeconds <= 0 || scheduler != null)
+        {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try
+            {
+                checkpoint();
+            }
+            catch (IOException e)
+            {
+                System.err.println("Error writing checkpoint: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops periodic checkpoints, writes a final checkpoint and closes the log.
+     * Implements FR-15: Graceful Shutdown.
+     * @throws IOException if the checkpoint or closing the log fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this)
+        {
+            if (scheduler != null)
+            {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        checkpoint();
+        log.close();
+    }
+
+    /*
+     * Package-private hook used only by unit tests.
+     * Closes the log without a final checkpoint, leaving the files as a crash would.
+     */
+    void closeWithoutCheckpoint() throws IOException
+    {
+        log.close();
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Applies a mutation, logs its outcome, and waits until the log entry is durable.
+     * If the mutation fails, nothing is logged and its exception is rethrown.
+     */
+    private void journal(Runnable mutation, WriteAheadLog.Operation operation, double amount, String... arguments)
+    {
+        journal(() -> {
+            mutation.run();
+            return null;
+        }, operation, amount, arguments);
+    }
+
+    /**
+     * Same as journal(Runnable, ...) for mutations that return a result.
+     * A keyed retry that only returned the stored result changed nothing and is not logged.
+     */
+    private <T> T journal(Supplier<T> mutation, WriteAheadLog.Operation operation, double amount, String... arguments)
+    {
+        long sequence;
+        T result;
+        synchronized (sequencer)
+        {
+            checkLog();
+            accountRepository.startRecording();
+            try
+            {
+                result = mutation.get();
+            }
+            finally
+            {
+                accountRepository.stopRecording();
+            }
+            List<AccountTransaction> records = accountRepository.getRecords();
+            String[] keyRow = accountRepository.getKeyRow();
+            boolean creation = operation == WriteAheadLog.Operation.CREATE_CUSTOMER
+                || operation == WriteAheadLog.Operation.CREATE_ACCOUNT;
+            if (!creation && records.isEmpty() && keyRow == null)
+            {
+                return result;
+            }
+            if (keyRow != null)
+            {
+                arguments = Arrays.copyOf(arguments, arguments.length + keyRow.length);
+                System.arraycopy(keyRow, 0, arguments, arguments.length - keyRow.length, keyRow.length);
+            }
+            try
+            {
+                sequence = log.write(operation, amount, records, arguments);
+            }
+            catch (RuntimeException e)
+            {
+                logFailure = e;
+                throw e;
+            }
+        }
+        try
+        {
+            log.sync(sequence);
+        }
+        catch (RuntimeException e)
+        {
+            logFailure = e;
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Rejects work once the log has failed: the state may hold a mutation that is not logged.
+     */
+    private void checkLog()
+    {
+        RuntimeException failure = logFailure;
+        if (failure != null)
+        {
+            throw new IllegalStateException("Write-ahead log failed, reopen the service: " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Re-applies one log entry to the recovered state: creations are executed again, money movements
+     * apply their logged records and restore their idempotency key. Entries hold only mutations that
+     * succeeded, so one that fails now means the snapshot and the log disagree.
+     * @throws IllegalStateException if the entry cannot be applied
+     */
+    private static void apply(BankService target, InMemoryAccountRepository accounts, WriteAheadLog.Entry entry)
+    {
+        try
+        {
+            int accountArguments = 0;
+            switch (entry.getOperation())
+            {
+                case CREATE_CUSTOMER:
+                    target.createCustomer(entry.getArgument(0), entry.getArgument(1), entry.getArgument(2), entry.getArgument(3));
+                    break;
+                case CREATE_ACCOUNT:
+                    /* The initial deposit is one of the logged records */
+                    target.createAccount(entry.getArgument(0), entry.getArgument(1), entry.getArgument(2));
+                    break;
+                case DEPOSIT:
+                case WITHDRAW:
+                    accountArguments = 1;
+                    break;
+                case TRANSFER:
+                    accountArguments = 2;
+                    break;
+            }
+
+            for (AccountTransaction record : entry.getRecords())
+            {
+                Account account = accounts.findById(record.getAccountId());
+                if (account == null)
+                {
+                    throw new IllegalArgumentException("Account " + record.getAccountId() + " not found.");
+                }
+                Transaction transaction = record.getTransaction();
+                if (transaction.getType() == TransactionType.WITHDRAW)
+                {
+                    account.applyWithdrawal(transaction);
+                }
+                else
+                {
+                    account.applyDeposit(transaction);
+                }
+            }
+
+            if (accountArguments > 0 && entry.getArgumentCount() > accountArguments)
+            {
+                accounts.saveIdempotencyKey(null, entry.getArgument(accountArguments), entry.getArgument(accountArguments + 1),
+                    Double.parseDouble(entry.getArgument(accountArguments + 2)));
+            }
+        }
+        catch (RuntimeException e)
+        {
+            throw new IllegalStateException("Cannot replay write-ahead log entry " + entry.getSequence() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * The in-memory account repository of the journaled service. While the sequencer thread has
+     * recording switched on, it collects the records and the idempotency key the running mutation
+     * stores, which become the outcome logged for it.
+     */
+    private static final class RecordingAccountRepository extends InMemoryAccountRepository
+    {
+        /* Thread whose mutation is being recorded, null when not recording */
+        private volatile Thread recorder;
+        /* Records stored by the recorded mutation, in the order it stored them */
+        private final List<AccountTransaction> records = new ArrayList<>();
+        /* {key, request, result} of the idempotency key stored by the recorded mutation, or null */
+        private String[] keyRow;
+
+        void startRecording()
+        {
+            records.clear();
+            keyRow = null;
+            recorder = Thread.currentThread();
+        }
+
+        void stopRecording()
+        {
+            recorder = null;
+        }
+
+        List<AccountTransaction> getRecords()
+        {
+            return records;
+        }
+
+        String[] getKeyRow()
+        {
+            return keyRow;
+        }
+
+        private boolean recording()
+        {
+            return recorder == Thread.currentThread();
+        }
+
+        /* Deposits, withdrawals and new accounts save the live account right after adding their record */
+        @Override
+        public void save(Account account)
+        {
+            super.save(account);
+            if (recording())
+            {
+                List<Transaction> history = account.getTransactions();
+                if (!history.isEmpty())
+                {
+                    records.add(new AccountTransaction(account.getId(), history.get(history.size() - 1)));
+                }
+            }
+        }
+
+        @Override
+        public void appendTransaction(Connection conn, String accountId, Transaction transaction)
+        {
+            if (recording())
+            {
+                records.add(new AccountTransaction(accountId, transaction));
+            }
+        }
+
+        @Override
+        public void appendTransactions(Connection conn, String accountId, List<Transaction> transactions)
+        {
+            for (Transaction transaction : transactions)
+            {
+                appendTransaction(conn, accountId, transaction);
+            }
+        }
+
+        @Override
+        public void saveIdempotencyKey(Connection conn, String key, String request, double result)
+        {
+            super.saveIdempotencyKey(conn, key, request, result);
+            if (recording())
+            {
+                keyRow = new String[] {key, request, Double.toString(result)};
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Dispatch layer in front of BankService that serializes mutations per account partition
+ * instead of letting callers contend on account locks.
+ *
+ * Every account ID hashes to one of N partitions, and each partition is a single-threaded
+ * executor: all deposits and withdrawals of an account run one after another on the same
+ * thread, while accounts of different partitions run in parallel. Callers get a
+ * CompletableFuture that completes with the outcome of the operation.
+ *
+ * A transfer whose accounts share a partition runs there like any other mutation. A transfer
+ * across two partitions runs on the lower one, which first parks the higher one (by running a
+ * task on it that waits until the transfer is done) so neither account is mutated concurrently.
+ * A partition only ever waits for a higher partition, so the wait chain is acyclic and
+ * transfers in opposite directions cannot deadlock.
+ * The console and the HTTP server call BankService directly; the dispatcher is an opt-in library
+ * for embedders that feed many mutations from their own threads.
+ * Implements FR-05: Deposit Money, FR-06: Withdraw Money, FR-07: Transfer Funds and FR-14: Concurrency.
+ */
+package com.bank.service;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionedDispatcher implements Closeable
+{
+	/* Service that performs the mutations; each call runs on the account's partition thread */
+    private final BankService service;
+    /* Single-threaded executor of each partition, by partition index */
+    private final ThreadPoolExecutor[] partitions;
+    /* Set by close(); new mutations are rejected while the queues drain */
+    private volatile boolean closed;
+
+    /**
+     * Starts one worker thread per partition.
+     * @param service    The service that performs the mutations
+     * @param partitions Number of partitions (typically the number of cores)
+     * @throws IllegalArgumentException if the partition count is not positive
+     */
+    public PartitionedDispatcher(BankService service, int partitions)
+    {
+        if (partitions < 1)
+        {
+            throw new IllegalArgumentException("Partition count must be positive.");
+        }
+        this.service = Objects.requireNonNull(service);
+        this.partitions = new ThreadPoolExecutor[partitions];
+        for (int i = 0; i < partitions; i++)
+        {
+            String name = "partition-" + i;
+            this.partitions[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> Thread.ofPlatform().name(name).daemon().unstarted(task));
+        }
+    }
+
+    /**
+     * Returns the partition whose thread performs the mutations of an account.
+     * @param accountId The account ID
+     * @return The partition index, in [0, partition count)
+     */
+    public int partitionOf(String accountId)
+    {
+        return Math.floorMod(accountId.hashCode(), partitions.length);
+    }
+
+    public int getPartitionCount()
+    {
+        return partitions.length;
+    }
+
+    /**
+     * Queues a deposit on the account's partition.
+     * @return A future that completes when the deposit is applied, or exceptionally with its failure
+     */
+    public CompletableFuture<Void> deposit(String accountId, double amount)
+    {
+        return submit(partitionOf(accountId), () -> service.deposit(accountId, amount));
+    }
+
+    /**
+     * Queues a withdrawal on the account's partition.
+     * @return A future that completes when the withdrawal is applied, or exceptionally with its failure
+     */
+    public CompletableFuture<Void> withdraw(String accountId, double amount)
+    {
+        return submit(partitionOf(accountId), () -> service.withdraw(accountId, amount));
+    }
+
+    /**
+     * Queues a transfer. Both partitions involved are held for the duration of
+     * BankService.transfer, which keeps its single database transaction.
+     * @return A future that completes when the transfer is committed, or exceptionally with its failure
+     */
+    public CompletableFuture<Void> transfer(String fromAccountId, String toAccountId, double amount)
+    {
+        int from = partitionOf(fromAccountId);
+        int to = partitionOf(toAccountId);
+        if (from == to)
+        {
+            return submit(from, () -> service.transfer(fromAccountId, toAccountId, amount));
+        }
+        int higher = Math.max(from, to);
+        return submit(Math.min(from, to), () -> {
+            CompletableFuture<Void> parked = new CompletableFuture<>();
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            partitions[higher].execute(() -> {
+                parked.complete(null);
+                done.join();
+            });
+            parked.join();
+            try
+            {
+                service.transfer(fromAccountId, toAccountId, amount);
+            }
+            finally
+            {
+                done.complete(null);
+            }
+        });
+    }
+
+    /* ---------------- Metrics ---------------- */
+
+    /**
+     * Returns the number of mutations waiting in each partition's queue (not counting the running one).
+     * @return Queue depth by partition index
+     */
+    public int[] getQueueDepths()
+    {
+        int[] depths = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++)
+        {
+            depths[i] = partitions[i].getQueue().size();
+        }
+        return depths;
+    }
+
+    /**
+     * Returns the number of tasks each partition has finished, including the tasks that park
+     * a partition for a cross-partition transfer.
+     * @return Completed task count by partition index
+     */
+    public long[] getCompletedCounts()
+    {
+        long[] counts = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++)
+        {
+            counts[i] = partitions[i].getCompletedTaskCount();
+        }
+        return counts;
+    }
+
+    /**
+     * Stops accepting mutations and waits for the queued ones to finish.
+     * Partitions are shut down in ascending order, so queued transfers can still park
+     * the higher partitions they need.
+     * Implements FR-15: Graceful Shutdown.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        try
+        {
+            for (ThreadPoolExecutor partition : partitions)
+            {
+                partition.shutdown();
+                partition.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while draining partitions: " + e.getMessage());
+        }
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * Runs a mutation on a partition and completes the returned future with its outcome.
+     * Any failure, an Error included, completes the future; an Error is then rethrown on the
+     * partition thread, which the executor replaces.
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    private CompletableFuture<Void> submit(int partition, Runnable mutation)
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("Dispatcher is closed.");
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try
+        {
+            partitions[partition].execute(() -> {
+                try
+                {
+                    mutation.run();
+                    result.complete(null);
+                }
+                catch (Throwable e)
+                {
+                    result.completeExceptionally(e);
+                    if (e instanceof Error)
+                    {
+                        throw (Error) e;
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            throw new IllegalStateException("Dispatcher is closed.", e);
+        }
+        return result;
+    }
+}
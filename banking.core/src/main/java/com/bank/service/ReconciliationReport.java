@@ -0,0 +1,178 @@
+/*
+ * Discrepancy report of a reconciliation run produced by ReconciliationService.
+ * Lists every account whose stored balance disagrees with the net amount of its transaction
+ * history (and records whose account row is missing), with row counters and the elapsed time
+ * so callers can report throughput. The report can be written to a CSV file for review.
+ */
+package com.bank.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class ReconciliationReport
+{
+	/* Number of account rows compared */
+    private final long accountsChecked;
+    /* Number of transaction records rolled up */
+    private final long transactionsChecked;
+    /* Confirmed discrepancies in account-ID order */
+    private final List<Discrepancy> discrepancies;
+    /* Wall-clock duration of the run in nanoseconds */
+    private final long elapsedNanos;
+
+    /**
+     * One account whose balance does not match its history.
+     */
+    public static class Discrepancy
+    {
+        private final String accountId;
+        private final double balance;
+        private final double expectedBalance;
+        private final long transactionCount;
+        private final boolean missingAccount;
+
+        /**
+         * Constructs a discrepancy.
+         * @param accountId        The account ID
+         * @param balance          The stored balance (0 if the account row is missing)
+         * @param expectedBalance  The net amount of the account's transaction history
+         * @param transactionCount Number of records in the history
+         * @param missingAccount   true if records exist for an account ID without an account row
+         */
+        public Discrepancy(String accountId, double balance, double expectedBalance, long transactionCount, boolean missingAccount)
+        {
+            this.accountId = accountId;
+            this.balance = balance;
+            this.expectedBalance = expectedBalance;
+            this.transactionCount = transactionCount;
+            this.missingAccount = missingAccount;
+        }
+
+        public String getAccountId()
+        {
+            return accountId;
+        }
+
+        public double getBalance()
+        {
+            return balance;
+        }
+
+        public double getExpectedBalance()
+        {
+            return expectedBalance;
+        }
+
+        public long getTransactionCount()
+        {
+            return transactionCount;
+        }
+
+        public boolean isMissingAccount()
+        {
+            return missingAccount;
+        }
+
+        /**
+         * Calculates how far the stored balance is off.
+         * @return Stored balance minus expected balance, rounded to cents
+         */
+        public double getDifference()
+        {
+            return Math.round((balance - expectedBalance) * 100) / 100.0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: balance=%.2f expected=%.2f difference=%.2f transactions=%d%s",
+                accountId, balance, expectedBalance, getDifference(), transactionCount, missingAccount ? " (no account row)" : "");
+        }
+    }
+
+    /**
+     * Constructs a reconciliation report.
+     * @param accountsChecked     Account rows compared
+     * @param transactionsChecked Transaction records rolled up
+     * @param discrepancies       Confirmed discrepancies in account-ID order
+     * @param elapsedNanos        Wall-clock duration of the run in nanoseconds
+     */
+    public ReconciliationReport(long accountsChecked, long transactionsChecked, List<Discrepancy> discrepancies, long elapsedNanos)
+    {
+        this.accountsChecked = accountsChecked;
+        this.transactionsChecked = transactionsChecked;
+        this.discrepancies = Collections.unmodifiableList(discrepancies);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /* Getters APIs */
+    public long getAccountsChecked()
+    {
+        return accountsChecked;
+    }
+
+    public long getTransactionsChecked()
+    {
+        return transactionsChecked;
+    }
+
+    public List<Discrepancy> getDiscrepancies()
+    {
+        return discrepancies;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * Checks whether every balance agreed with its history.
+     * @return true if no discrepancy was found
+     */
+    public boolean isBalanced()
+    {
+        return discrepancies.isEmpty();
+    }
+
+    /**
+     * Calculates the overall throughput of the run.
+     * @return Account rows and transaction records processed per minute, or 0 if no time has elapsed
+     */
+    public double getRowsPerMinute()
+    {
+        return elapsedNanos == 0 ? 0 : (accountsChecked + transactionsChecked) * 60_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Writes the discrepancies to a CSV file (one header line, one line per account).
+     * @param file The file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCsv(Path file) throws IOException
+    {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            out.write("account_id,balance,expected_balance,difference,transactions,missing_account\n");
+            for (Discrepancy discrepancy : discrepancies)
+            {
+                out.write(String.format(Locale.ROOT, "%s,%.2f,%.2f,%.2f,%d,%b\n", discrepancy.getAccountId(), discrepancy.getBalance(),
+                    discrepancy.getExpectedBalance(), discrepancy.getDifference(), discrepancy.getTransactionCount(),
+                    discrepancy.isMissingAccount()));
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ReconciliationReport{accounts=%d, transactions=%d, discrepancies=%d, elapsed=%d ms, %.0f rows/min}",
+            accountsChecked, transactionsChecked, discrepancies.size(), getElapsedMillis(), getRowsPerMinute());
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Batch job that checks every stored balance against the transaction history of its account.
+ * Balances are read in keyset pages of (ID, balance) in account-ID order, and for each page the
+ * history of the same ID range is rolled up by the engine (one grouped query on the account index
+ * for JDBC engines, see AccountRepository.findHistoryTotals). The two ordered streams are then
+ * merge-joined: an account without records is expected to hold 0, and records whose account row
+ * is missing are reported as well. Pages are checked in parallel on a fork-join pool while the
+ * next pages are read, with a bounded number of pages in flight.
+ *
+ * The job runs online: it takes no locks and opens no long transactions, so writers are never
+ * held up. A balance and its history are read by two statements, so a transfer committed in between
+ * shows up as a mismatch; every mismatch is therefore re-read account by account (findById) and
+ * reported only if it persists on every attempt. Amounts are compared in cents.
+ * Implements FR-10: Check Balance and FR-11: Transaction History in bulk.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.HistoryTotal;
+import com.bank.repository.AccountRepository;
+import com.bank.service.ReconciliationReport.Discrepancy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class ReconciliationService
+{
+	/* Default number of accounts per page */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    /* Number of times a mismatch is re-read before it is reported */
+    static final int RECHECK_ATTEMPTS = 3;
+    /* Roll-up of an account without records */
+    private static final HistoryTotal NO_HISTORY = new HistoryTotal(0, 0);
+
+    /* Repository for account data access */
+    private final AccountRepository accountRepository;
+    /* Number of pages checked in parallel */
+    private final int parallelism;
+    /* Number of accounts per page */
+    private final int pageSize;
+
+    /**
+     * Constructs the job with one worker per available processor and the default page size.
+     * @param accountRepository Repository for account data operations
+     */
+    public ReconciliationService(AccountRepository accountRepository)
+    {
+        this(accountRepository, Runtime.getRuntime().availableProcessors(), DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs the job.
+     * @param accountRepository Repository for account data operations
+     * @param parallelism       Number of pages checked in parallel (must be positive)
+     * @param pageSize          Number of accounts per page (must be positive)
+     * @throws IllegalArgumentException if parallelism or pageSize is not positive
+     */
+    public ReconciliationService(AccountRepository accountRepository, int parallelism, int pageSize)
+    {
+        if (parallelism <= 0 || pageSize <= 0)
+        {
+            throw new IllegalArgumentException("Parallelism and page size must be positive.");
+        }
+        this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Compares every balance with its transaction history.
+     * @return The discrepancy report, discrepancies in account-ID order
+     * @throws RuntimeException if a page cannot be read
+     */
+    public ReconciliationReport reconcile()
+    {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Deque<ForkJoinTask<PageResult>> inFlight = new ArrayDeque<>();
+        PageResult total = new PageResult();
+        try
+        {
+            String cursor = null;
+            while (true)
+            {
+                Map<String, Double> page = accountRepository.findBalancePage(null, cursor, pageSize);
+                String afterId = cursor;
+                for (String id : page.keySet())
+                {
+                    cursor = id;
+                }
+                /* The last page also takes the records beyond the last account */
+                boolean last = page.size() < pageSize;
+                String toId = last ? null : cursor;
+                inFlight.add(pool.submit(() -> checkRange(afterId, toId, page)));
+                if (last)
+                {
+                    break;
+                }
+                if (inFlight.size() >= 2 * parallelism)
+                {
+                    total.add(inFlight.poll().join());
+                }
+            }
+            while (!inFlight.isEmpty())
+            {
+                total.add(inFlight.poll().join());
+            }
+        }
+        catch (RuntimeException e)
+        {
+            throw new RuntimeException("Reconciliation stopped after " + total.accounts + " accounts: " + e.getMessage(), e);
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+
+        ReconciliationReport report = new ReconciliationReport(total.accounts, total.transactions,
+            total.discrepancies, System.nanoTime() - start);
+        System.out.println("[✓] Reconciliation finished: " + report);
+        return report;
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /*
+     * Counters and confirmed discrepancies of one page, or of the whole run.
+     */
+    private static final class PageResult
+    {
+        private long accounts;
+        private long transactions;
+        private final List<Discrepancy> discrepancies = new ArrayList<>();
+
+        void add(PageResult page)
+        {
+            accounts += page.accounts;
+            transactions += page.transactions;
+            discrepancies.addAll(page.discrepancies);
+        }
+    }
+
+    /**
+     * Merge-joins the balances of one page with the history roll-ups of its ID range.
+     * @param afterId  The ID after which the range starts, or null for the first page
+     * @param toId     The last ID of the range, or null for the last page
+     * @param balances Account ID -> balance of the page, in ID order
+     */
+    private PageResult checkRange(String afterId, String toId, Map<String, Double> balances)
+    {
+        Map<String, HistoryTotal> totals = accountRepository.findHistoryTotals(afterId, toId);
+        PageResult result = new PageResult();
+        Iterator<Map.Entry<String, Double>> accounts = balances.entrySet().iterator();
+        Iterator<Map.Entry<String, HistoryTotal>> histories = totals.entrySet().iterator();
+        Map.Entry<String, Double> account = accounts.hasNext() ? accounts.next() : null;
+        Map.Entry<String, HistoryTotal> history = histories.hasNext() ? histories.next() : null;
+        while (account != null || history != null)
+        {
+            int order = account == null ? 1 : history == null ? -1 : account.getKey().compareTo(history.getKey());
+            Discrepancy discrepancy = null;
+            if (order <= 0)
+            {
+                HistoryTotal rollUp = order == 0 ? history.getValue() : NO_HISTORY;
+                result.accounts++;
+                result.transactions += rollUp.getTransactionCount();
+                if (!agrees(account.getValue(), rollUp))
+                {
+                    discrepancy = recheck(account.getKey(), rollUp);
+                }
+                account = accounts.hasNext() ? accounts.next() : null;
+            }
+            else
+            {
+                /* Records without an account row, or of an account created after its page was read */
+                result.transactions += history.getValue().getTransactionCount();
+                discrepancy = recheck(history.getKey(), history.getValue());
+            }
+            if (order >= 0)
+            {
+                history = histories.hasNext() ? histories.next() : null;
+            }
+            if (discrepancy != null)
+            {
+                result.discrepancies.add(discrepancy);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Re-reads an account whose balance did not match, so mismatches caused by a write that landed
+     * between the two page reads are not reported.
+     * @param accountId The account ID
+     * @param rollUp    The history roll-up read with the page
+     * @return The confirmed discrepancy with the values of the last read, or null if the account agrees now
+     */
+    private Discrepancy recheck(String accountId, HistoryTotal rollUp)
+    {
+        double balance = 0;
+        HistoryTotal current = rollUp;
+        for (int attempt = 0; attempt < RECHECK_ATTEMPTS; attempt++)
+        {
+            Account account = accountRepository.findById(accountId);
+            if (account == null)
+            {
+                /* Deleted since its page was read, without leaving records behind */
+                if (rollUp.getTransactionCount() == 0)
+                {
+                    return null;
+                }
+                return new Discrepancy(accountId, 0, rollUp.getNetAmount(), rollUp.getTransactionCount(), true);
+            }
+            balance = account.getBalance();
+            /* A loaded account only holds its hot records; the archived ones count through their roll-up */
+            current = HistoryTotal.of(account.getTransactions()).plus(accountRepository.findArchivedTotal(accountId));
+            if (agrees(balance, current))
+            {
+                return null;
+            }
+        }
+        return new Discrepancy(accountId, balance, current.getNetAmount(), current.getTransactionCount(), false);
+    }
+
+    /**
+     * Compares a balance with the net amount of a history in cents.
+     */
+    private static boolean agrees(double balance, HistoryTotal history)
+    {
+        return Math.round(balance * 100) == Math.round(history.getNetAmount() * 100);
+    }
+}
@@ -0,0 +1,442 @@
+/*
+ * Scheduler for one-off transfers and standing orders, executed through BankService.transfer.
+ * Schedules are stored in the scheduled_transfers table; only the ones due within a short horizon
+ * are kept in memory, as timers on a hierarchical timing wheel (O(1) to add, cancel and fire).
+ * The wheel is refilled every half horizon from the due-time index of active schedules, and the
+ * first load after a start reads every schedule whose run was missed while the application was down,
+ * so catching up never scans the whole table.
+ *
+ * A single scheduler thread ticks the wheel. Due runs wait in a ready queue and are executed in
+ * batches: one batch per tick, of at most batchSize transfers and within a token bucket of
+ * maxTransfersPerSecond, so thousands of standing orders due at midnight are spread out instead of
+ * hitting the database at once. After a batch the advanced schedules (next run, or inactive for a
+ * one-off transfer) are stored with one batched write.
+ *
+ * Every run is an idempotent transfer keyed by schedule ID and due time (ScheduledTransfer.getRunKey()),
+ * so a run repeated after a crash between its transfer and the schedule write moves money only once.
+ * A run rejected by the bank (e.g. insufficient funds, a closed account) is counted and logged, and the
+ * schedule moves on to its next run. A run that fails for any other reason (e.g. the database is unreachable)
+ * is put back on the wheel with the same due time and retried; the run key keeps the retry from paying twice.
+ * Missed runs of a standing order are made one after another, one per tick.
+ * Implements FR-07: Transfer Funds for scheduled and recurring transfers.
+ */
+package com.bank.service;
+
+import com.bank.model.NotFoundException;
+import com.bank.model.ScheduledTransfer;
+import com.bank.model.TransactionIdGenerator;
+import com.bank.repository.ScheduleRepository;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+public class ScheduledTransferService implements Closeable
+{
+	/* Defaults: wheel resolution, how far ahead schedules are loaded, runs per batch and the rate limit */
+    public static final long DEFAULT_TICK_MILLIS = 100;
+    public static final long DEFAULT_HORIZON_MILLIS = 60_000;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_TRANSFERS_PER_SECOND = 500;
+
+    /* Wheel levels: 64^4 ticks of 100 ms span about 194 days before the overflow list is used */
+    private static final int WHEEL_LEVELS = 4;
+    /* Schedules read per page of the due-time index */
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final BankService bankService;
+    private final ScheduleRepository scheduleRepository;
+    private final long tickMillis;
+    private final long horizonMillis;
+    private final int batchSize;
+    private final int maxTransfersPerSecond;
+    /* Wall clock in epoch milliseconds, replaceable by tests */
+    private final LongSupplier clock;
+
+    /* Guards the wheel, the loaded, ready and running schedules, the load watermark and schedule writes after a run */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<String> wheel;
+    /* Schedules with a timer on the wheel, by ID */
+    private final Map<String, ScheduledTransfer> loaded = new HashMap<>();
+    /* Runs that are due, in due order, waiting for the rate limiter */
+    private final ArrayDeque<ScheduledTransfer> ready = new ArrayDeque<>();
+    /* IDs of the schedules whose run is executing, and the ones among them cancelled meanwhile */
+    private final Set<String> running = new HashSet<>();
+    private final Set<String> cancelledWhileRunning = new HashSet<>();
+    /* Every active schedule due at or before this time is on the wheel, ready or running */
+    private long loadedUntil = Long.MIN_VALUE;
+    private long nextLoadAt = Long.MIN_VALUE;
+
+    /* Token bucket of the rate limiter (starts full); used under the lock */
+    private double tokens;
+    private long lastRefill;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicLong executedTransfers = new AtomicLong();
+    private final AtomicLong failedTransfers = new AtomicLong();
+    private final AtomicLong retriedTransfers = new AtomicLong();
+    private final AtomicLong executedBatches = new AtomicLong();
+
+    /**
+     * Constructs a scheduler with the default tick, horizon, batch size and rate limit.
+     * @param bankService        The service executing the transfers
+     * @param scheduleRepository Repository storing the schedules
+     */
+    public ScheduledTransferService(BankService bankService, ScheduleRepository scheduleRepository)
+    {
+        this(bankService, scheduleRepository, DEFAULT_TICK_MILLIS, DEFAULT_HORIZON_MILLIS,
+            DEFAULT_BATCH_SIZE, DEFAULT_MAX_TRANSFERS_PER_SECOND);
+    }
+
+    /**
+     * Constructs a scheduler.
+     * @param bankService           The service executing the transfers
+     * @param scheduleRepository    Repository storing the schedules
+     * @param tickMillis            Resolution of the timers and period of the batches
+     * @param horizonMillis         How far ahead schedules are loaded onto the wheel (at least one tick)
+     * @param batchSize             Maximum runs executed per tick
+     * @param maxTransfersPerSecond Maximum runs executed per second
+     * @throws IllegalArgumentException if a value is not positive or the horizon is shorter than a tick
+     */
+    public ScheduledTransferService(BankService bankService, ScheduleRepository scheduleRepository, long tickMillis,
+                                    long horizonMillis, int batchSize, int maxTransfersPerSecond)
+    {
+        this(bankService, scheduleRepository, tickMillis, horizonMillis, batchSize, maxTransfersPerSecond, System::currentTimeMillis);
+    }
+
+    /*
+     * Package-private constructor used by unit tests to control time.
+     */
+    ScheduledTransferService(BankService bankService, ScheduleRepository scheduleRepository, long tickMillis,
+                             long horizonMillis, int batchSize, int maxTransfersPerSecond, LongSupplier clock)
+    {
+        if (tickMillis < 1 || horizonMillis < tickMillis || batchSize < 1 || maxTransfersPerSecond < 1)
+        {
+            throw new IllegalArgumentException("Tick, horizon, batch size and rate must be positive and the horizon at least one tick.");
+        }
+        this.bankService = Objects.requireNonNull(bankService);
+        this.scheduleRepository = Objects.requireNonNull(scheduleRepository);
+        this.tickMillis = tickMillis;
+        this.horizonMillis = horizonMillis;
+        this.batchSize = batchSize;
+        this.maxTransfersPerSecond = maxTransfersPerSecond;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_LEVELS, now);
+        this.tokens = batchSize;
+        this.lastRefill = now;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "scheduled-transfers");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts ticking: the first tick catches up on missed runs, later ticks run every tickMillis.
+     */
+    public void start()
+    {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try
+            {
+                tick();
+            }
+            catch (RuntimeException e)
+            {
+                System.err.println("Error running scheduled transfers: " + e.getMessage());
+            }
+        }, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a one-off transfer or a standing order.
+     * @param fromAccountId  The source account ID
+     * @param toAccountId    The destination account ID
+     * @param amount         The amount of every run
+     * @param firstRunAt     Due time of the first run in epoch milliseconds
+     * @param intervalMillis Milliseconds between runs, or 0 for a one-off transfer
+     * @return The stored schedule
+     * @throws IllegalArgumentException if an account is not found, the accounts are equal,
+     *                                  the amount is not positive or the interval is negative
+     */
+    public ScheduledTransfer schedule(String fromAccountId, String toAccountId, double amount, long firstRunAt, long intervalMillis)
+    {
+        ScheduledTransfer schedule = new ScheduledTransfer("SCH-" + TransactionIdGenerator.nextId(), fromAccountId, toAccountId,
+            amount, intervalMillis, firstRunAt, true);
+        if (!bankService.accountExists(fromAccountId) || !bankService.accountExists(toAccountId))
+        {
+            throw new NotFoundException("Account not found.");
+        }
+        /* Stored under the lock, so a concurrent load cannot put it on the wheel a second time */
+        lock.lock();
+        try
+        {
+            scheduleRepository.saveSchedules(List.of(schedule));
+            offer(schedule);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return schedule;
+    }
+
+    /**
+     * Cancels a schedule; a run already executing still completes.
+     * @param scheduleId The schedule ID
+     * @return true if an active schedule was cancelled
+     */
+    public boolean cancel(String scheduleId)
+    {
+        lock.lock();
+        try
+        {
+            ScheduledTransfer schedule = scheduleRepository.findSchedule(scheduleId);
+            if (schedule == null || !schedule.isActive())
+            {
+                return false;
+            }
+            scheduleRepository.saveSchedules(List.of(schedule.cancel()));
+            wheel.cancel(scheduleId);
+            loaded.remove(scheduleId);
+            ready.removeIf(run -> run.getId().equals(scheduleId));
+            if (running.contains(scheduleId))
+            {
+                cancelledWhileRunning.add(scheduleId);
+            }
+            return true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /* Getters APIs */
+    public long getExecutedTransfers()
+    {
+        return executedTransfers.get();
+    }
+
+    public long getFailedTransfers()
+    {
+        return failedTransfers.get();
+    }
+
+    public long getRetriedTransfers()
+    {
+        return retriedTransfers.get();
+    }
+
+    public long getExecutedBatches()
+    {
+        return executedBatches.get();
+    }
+
+    /**
+     * Returns the number of schedules held in memory (on the wheel or due and waiting).
+     */
+    public int getPendingCount()
+    {
+        lock.lock();
+        try
+        {
+            return wheel.size() + ready.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops ticking; a batch already running completes first.
+     */
+    @Override
+    public void close()
+    {
+        scheduler.shutdown();
+        try
+        {
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    /**
+     * One scheduler step: refills the wheel if the horizon is running out, moves due timers to the
+     * ready queue and executes one rate-limited batch.
+     * Package-private so unit tests can step the scheduler with their own clock.
+     * @return Number of runs executed in this tick
+     */
+    int tick()
+    {
+        long now = clock.getAsLong();
+        List<ScheduledTransfer> batch = new ArrayList<>();
+        lock.lock();
+        try
+        {
+            if (now >= nextLoadAt)
+            {
+                load(now);
+            }
+            for (String scheduleId : wheel.advance(now))
+            {
+                ready.add(loaded.remove(scheduleId));
+            }
+
+            tokens = Math.min(batchSize, tokens + (now - lastRefill) * maxTransfersPerSecond / 1000.0);
+            lastRefill = now;
+            while (batch.size() < (int) tokens && !ready.isEmpty())
+            {
+                ScheduledTransfer schedule = ready.poll();
+                running.add(schedule.getId());
+                batch.add(schedule);
+            }
+            tokens -= batch.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        if (!batch.isEmpty())
+        {
+            run(batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Loads the active schedules due up to one horizon ahead that are not loaded yet,
+     * page by page on the due-time index. Called with the lock held.
+     */
+    private void load(long now)
+    {
+        long until = now + horizonMillis;
+        long afterRunAt = loadedUntil;
+        String afterId = null;
+        List<ScheduledTransfer> page;
+        do
+        {
+            page = scheduleRepository.findDueSchedules(afterRunAt, afterId, until, LOAD_PAGE_SIZE);
+            for (ScheduledTransfer schedule : page)
+            {
+                wheel.schedule(schedule.getId(), schedule.getNextRunAt());
+                loaded.put(schedule.getId(), schedule);
+            }
+            if (!page.isEmpty())
+            {
+                ScheduledTransfer last = page.get(page.size() - 1);
+                afterRunAt = last.getNextRunAt();
+                afterId = last.getId();
+            }
+        }
+        while (page.size() == LOAD_PAGE_SIZE);
+        loadedUntil = until;
+        nextLoadAt = now + Math.max(tickMillis, horizonMillis / 2);
+    }
+
+    /**
+     * Puts a stored schedule on the wheel if it is due within the loaded horizon;
+     * later schedules are picked up by a later load. Called with the lock held.
+     */
+    private void offer(ScheduledTransfer schedule)
+    {
+        if (schedule.isActive() && schedule.getNextRunAt() <= loadedUntil)
+        {
+            wheel.schedule(schedule.getId(), schedule.getNextRunAt());
+            loaded.put(schedule.getId(), schedule);
+        }
+    }
+
+    /**
+     * Executes a batch of due runs and stores the advanced schedules with one batched write.
+     * Only runs that completed or were rejected by the bank (IllegalArgumentException, which includes
+     * NotFoundException) advance; runs that failed otherwise are put back on the wheel unchanged.
+     * Schedules cancelled while their run was executing are stored as cancelled. If the write fails
+     * the runs are put back on the wheel; repeating them is safe because every run is an idempotent transfer.
+     */
+    private void run(List<ScheduledTransfer> batch)
+    {
+        List<ScheduledTransfer> advanced = new ArrayList<>(batch.size());
+        List<ScheduledTransfer> retried = new ArrayList<>();
+        for (ScheduledTransfer schedule : batch)
+        {
+            try
+            {
+                bankService.transfer(schedule.getFromAccountId(), schedule.getToAccountId(), schedule.getAmount(), schedule.getRunKey());
+                executedTransfers.incrementAndGet();
+            }
+            catch (IllegalArgumentException e)
+            {
+                failedTransfers.incrementAndGet();
+                System.err.println("Scheduled transfer " + schedule.getId() + " failed: " + e.getMessage());
+            }
+            catch (RuntimeException e)
+            {
+                retriedTransfers.incrementAndGet();
+                System.err.println("Scheduled transfer " + schedule.getId() + " could not run, retrying: " + e.getMessage());
+                retried.add(schedule);
+                continue;
+            }
+            advanced.add(schedule.advance());
+        }
+
+        /* The lock keeps cancel() from storing its state between the check and the write */
+        lock.lock();
+        try
+        {
+            for (int i = 0; i < advanced.size(); i++)
+            {
+                if (cancelledWhileRunning.contains(advanced.get(i).getId()))
+                {
+                    advanced.set(i, advanced.get(i).cancel());
+                }
+            }
+            List<ScheduledTransfer> next = advanced;
+            try
+            {
+                if (!advanced.isEmpty())
+                {
+                    scheduleRepository.saveSchedules(advanced);
+                }
+                next.addAll(retried);
+            }
+            catch (RuntimeException e)
+            {
+                System.err.println("Error saving scheduled transfers, retrying their runs: " + e.getMessage());
+                next = batch;
+            }
+            for (ScheduledTransfer schedule : next)
+            {
+                running.remove(schedule.getId());
+                if (!cancelledWhileRunning.remove(schedule.getId()))
+                {
+                    offer(schedule);
+                }
+            }
+            executedBatches.incrementAndGet();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Hierarchical timing wheel: timers keyed by an ID, fired in O(1) per timer.
+ * Time is cut into ticks. Level 0 has one slot per tick for the next SLOTS ticks, level 1 one slot
+ * per SLOTS ticks for the next SLOTS^2 ticks, and so on. A timer goes into the lowest level whose
+ * current block contains its due tick; when the wheel enters a new block of a level, the slot of that
+ * block is cascaded into the levels below. Adding or cancelling a timer is O(1), and each timer is
+ * moved at most once per level before it fires, no matter how many timers are pending
+ * (a priority queue pays O(log n) per timer instead).
+ * Timers beyond the top level wait in an overflow list that is re-placed once per top-level turn.
+ * Not thread-safe: the owner serializes access (ScheduledTransferService holds its lock).
+ */
+package com.bank.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class TimingWheel<K>
+{
+	/* Slots per level, as a power of two */
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /* Milliseconds per tick */
+    private final long tickMillis;
+    /* levels[l][slot] is the head of the list of timers placed in that slot */
+    private final Timer<K>[][] levels;
+    /* Timers due beyond the top level */
+    private final Timer<K> overflow = new Timer<>(null, 0);
+    /* Timers whose due tick has been reached, in firing order */
+    private final Timer<K> expired = new Timer<>(null, 0);
+    /* Key -> its timer, so a key can be cancelled or replaced in O(1) */
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    /* Number of timers in the expired list */
+    private int expiredCount;
+    /* The last tick the wheel has advanced to */
+    private long currentTick;
+
+    /*
+     * A pending timer, linked into the list of its slot; a list head is a timer without a key.
+     */
+    private static final class Timer<K>
+    {
+        final K key;
+        final long dueTick;
+        Timer<K> prev = this;
+        Timer<K> next = this;
+
+        Timer(K key, long dueTick)
+        {
+            this.key = key;
+            this.dueTick = dueTick;
+        }
+
+        void append(Timer<K> timer)
+        {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        void unlink()
+        {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+
+        boolean isEmpty()
+        {
+            return next == this;
+        }
+    }
+
+    /**
+     * Constructs a wheel.
+     * @param tickMillis Milliseconds per tick (the firing resolution, at least 1)
+     * @param levelCount Number of levels (1 to 8); the wheel spans tickMillis * 64^levelCount without overflow
+     * @param nowMillis  The current time in epoch milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int levelCount, long nowMillis)
+    {
+        if (tickMillis < 1 || levelCount < 1 || levelCount > 8)
+        {
+            throw new IllegalArgumentException("Tick must be positive and levels between 1 and 8.");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = new Timer[levelCount][SLOTS];
+        for (Timer<K>[] slots : levels)
+        {
+            for (int i = 0; i < SLOTS; i++)
+            {
+                slots[i] = new Timer<>(null, 0);
+            }
+        }
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Adds a timer, replacing any pending timer with the same key.
+     * A timer due at or before the current tick fires on the next advance().
+     * @param key       The timer key
+     * @param dueMillis Due time in epoch milliseconds
+     */
+    void schedule(K key, long dueMillis)
+    {
+        /* Round up, so a timer never fires before its due time */
+        Timer<K> timer = new Timer<>(key, Math.floorDiv(dueMillis + tickMillis - 1, tickMillis));
+        Timer<K> previous = timers.put(key, timer);
+        if (previous != null)
+        {
+            remove(previous);
+        }
+        place(timer);
+    }
+
+    /**
+     * Cancels the pending timer of a key.
+     * @param key The timer key
+     * @return true if a timer was pending
+     */
+    boolean cancel(K key)
+    {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null)
+        {
+            return false;
+        }
+        remove(timer);
+        return true;
+    }
+
+    /**
+     * Returns whether a key has a pending timer.
+     */
+    boolean contains(K key)
+    {
+        return timers.containsKey(key);
+    }
+
+    /**
+     * Returns the number of pending timers.
+     */
+    int size()
+    {
+        return timers.size();
+    }
+
+    /**
+     * Advances the wheel to a time and removes the timers that are due.
+     * @param nowMillis The current time in epoch milliseconds
+     * @return The keys of the due timers, in due-tick order
+     */
+    List<K> advance(long nowMillis)
+    {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick)
+        {
+            if (timers.size() == expiredCount)
+            {
+                /* Nothing pending in the slots: jump instead of walking empty ticks */
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            int top = levels.length - 1;
+            if ((currentTick & ((1L << (SLOT_BITS * levels.length)) - 1)) == 0)
+            {
+                replace(overflow);
+            }
+            for (int l = top; l > 0; l--)
+            {
+                if ((currentTick & ((1L << (SLOT_BITS * l)) - 1)) == 0)
+                {
+                    replace(levels[l][(int) ((currentTick >>> (SLOT_BITS * l)) & SLOT_MASK)]);
+                }
+            }
+            replace(levels[0][(int) (currentTick & SLOT_MASK)]);
+        }
+        if (expiredCount == 0)
+        {
+            return List.of();
+        }
+        List<K> due = new ArrayList<>(expiredCount);
+        while (!expired.isEmpty())
+        {
+            Timer<K> timer = expired.next;
+            timer.unlink();
+            timers.remove(timer.key);
+            due.add(timer.key);
+        }
+        expiredCount = 0;
+        return due;
+    }
+
+    /**
+     * Puts a timer into the lowest level whose current block contains its due tick,
+     * or into the expired list if it is due.
+     */
+    private void place(Timer<K> timer)
+    {
+        if (timer.dueTick <= currentTick)
+        {
+            expired.append(timer);
+            expiredCount++;
+            return;
+        }
+        for (int l = 0; l < levels.length; l++)
+        {
+            int shift = SLOT_BITS * (l + 1);
+            if ((timer.dueTick >>> shift) == (currentTick >>> shift))
+            {
+                levels[l][(int) ((timer.dueTick >>> (SLOT_BITS * l)) & SLOT_MASK)].append(timer);
+                return;
+            }
+        }
+        overflow.append(timer);
+    }
+
+    /**
+     * Unlinks a timer from its list.
+     */
+    private void remove(Timer<K> timer)
+    {
+        if (timer.dueTick <= currentTick && timer.next != timer)
+        {
+            /* Only timers in the expired list can be due */
+            expiredCount--;
+        }
+        timer.unlink();
+    }
+
+    /**
+     * Empties a slot and places its timers again relative to the current tick.
+     */
+    private void replace(Timer<K> slot)
+    {
+        /* Detach the list first: overflow timers may be placed into the same list again */
+        Timer<K> timer = slot.next;
+        slot.prev = slot;
+        slot.next = slot;
+        while (timer != slot)
+        {
+            Timer<K> following = timer.next;
+            timer.prev = timer;
+            timer.next = timer;
+            place(timer);
+            timer = following;
+        }
+    }
+}
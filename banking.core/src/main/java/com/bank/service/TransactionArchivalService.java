@@ -0,0 +1,71 @@
+/*
+ * Batch job that keeps the transactions table small by archiving old records.
+ * Every run moves the records older than the retention period (counted in whole days, so the cutoff
+ * is a midnight like the balance checkpoints) into the repository's cold storage, see
+ * AccountRepository.archiveTransactions. Each account keeps a roll-up of its archived records, its
+ * opening balance at the cutoff, so reconciliation and balance-as-of queries stay correct, and history
+ * pages, streams and statements merge the archived records back in.
+ * Meant to run nightly after BalanceCheckpointService; a run that stopped half-way is simply repeated.
+ * Engines without a hot table or without an archive keep every record and archive nothing.
+ * Implements FR-11: Transaction History with tiered storage.
+ */
+package com.bank.service;
+
+import com.bank.repository.AccountRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public class TransactionArchivalService
+{
+	/* Default number of days records stay in the transactions table */
+    public static final int DEFAULT_RETENTION_DAYS = 365;
+
+    /* Repository for account data access */
+    private final AccountRepository accountRepository;
+    /* Number of days records stay in the transactions table */
+    private final int retentionDays;
+
+    /**
+     * Constructs the job with the default retention period.
+     * @param accountRepository Repository for account data operations
+     */
+    public TransactionArchivalService(AccountRepository accountRepository)
+    {
+        this(accountRepository, DEFAULT_RETENTION_DAYS);
+    }
+
+    /**
+     * Constructs the job.
+     * @param accountRepository Repository for account data operations
+     * @param retentionDays     Number of days records stay in the transactions table (must be positive)
+     * @throws IllegalArgumentException if retentionDays is not positive
+     */
+    public TransactionArchivalService(AccountRepository accountRepository, int retentionDays)
+    {
+        if (retentionDays <= 0)
+        {
+            throw new IllegalArgumentException("Retention days must be positive.");
+        }
+        this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Archives every record timestamped before midnight retentionDays before the given day.
+     * @param today The current day
+     * @return Number of records archived
+     * @throws RuntimeException if archiving fails; accounts archived before the failure stay archived
+     */
+    public int archive(LocalDate today)
+    {
+        LocalDateTime cutoff = today.minusDays(retentionDays).atStartOfDay();
+        int archived = accountRepository.archiveTransactions(cutoff);
+        if (archived > 0)
+        {
+            System.out.println("[✓] Archived " + archived + " transactions older than " + cutoff.toLocalDate());
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Sequential write-ahead log of BankService mutations.
+ * Each entry is written as  [int length][int CRC32C][payload]  where the payload holds the
+ * sequence number, the operation, the amount, the string arguments of the call and the
+ * transaction records it created (with their original IDs and timestamps).
+ * The file starts with a small header holding the base sequence, so sequences keep
+ * increasing after the log has been reset by a checkpoint. A reset writes the new header to
+ * a temporary file and renames it over the log, so a crash never leaves a log without header.
+ *
+ * Durability uses group commit: write() only appends to the file, and sync() forces it
+ * to disk. Threads waiting in sync() at the same time share one fsync, because the
+ * thread that performs the force covers everything written before it.
+ */
+package com.bank.service;
+
+import com.bank.model.AccountTransaction;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+public class WriteAheadLog implements Closeable
+{
+	/* Logged BankService mutations */
+    public enum Operation
+    {
+        CREATE_CUSTOMER,
+        CREATE_ACCOUNT,
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+    }
+
+    /*
+     * One decoded log entry.
+     */
+    public static final class Entry
+    {
+        private final long sequence;
+        private final Operation operation;
+        private final double amount;
+        private final String[] arguments;
+        private final List<AccountTransaction> records;
+
+        Entry(long sequence, Operation operation, double amount, String[] arguments, List<AccountTransaction> records)
+        {
+            this.sequence = sequence;
+            this.operation = operation;
+            this.amount = amount;
+            this.arguments = arguments;
+            this.records = records;
+        }
+
+        /* Getters APIs */
+        public long getSequence()
+        {
+            return sequence;
+        }
+
+        public Operation getOperation()
+        {
+            return operation;
+        }
+
+        public double getAmount()
+        {
+            return amount;
+        }
+
+        public String getArgument(int index)
+        {
+            return arguments[index];
+        }
+
+        public int getArgumentCount()
+        {
+            return arguments.length;
+        }
+
+        /**
+         * Returns the transaction records the mutation created, in the order it created them.
+         * @return The records with the IDs of their accounts
+         */
+        public List<AccountTransaction> getRecords()
+        {
+            return records;
+        }
+    }
+
+    /* Marker at the start of the log file ("BWAL") */
+    private static final int LOG_MAGIC = 0x4257414C;
+    /* Suffix of the temporary file a reset writes before renaming it over the log */
+    private static final String RESET_SUFFIX = ".reset";
+    /* Header: magic + base sequence */
+    private static final int HEADER_SIZE = 12;
+    /* Upper bound for one entry; anything larger is treated as a torn write */
+    private static final int MAX_ENTRY_SIZE = 1 << 20;
+
+    /* Log file, and its channel (replaced by reset()) */
+    private final Path file;
+    private FileChannel channel;
+    /* Serializes fsyncs; waiting threads piggyback on the leader's force */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    /* Position where the next entry is written */
+    private long writePosition;
+    /* Sequence of the last written entry */
+    private long lastSequence;
+    /* Sequence up to which the log is known to be on disk */
+    private volatile long durableSequence;
+
+    /**
+     * Opens (or creates) a log file. The file is scanned once to find the last valid entry;
+     * a torn or corrupt tail (e.g. after a crash mid-write) is truncated.
+     * @param file The log file
+     * @throws IOException if the file cannot be opened or read
+     */
+    public WriteAheadLog(Path file) throws IOException
+    {
+        this.file = file;
+        Files.deleteIfExists(resetFile());			/* left behind by a crash during reset() */
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE)
+        {
+            writeHeader(0);
+        }
+        else
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != LOG_MAGIC)
+            {
+                throw new IOException("Not a write-ahead log file: " + file);
+            }
+            lastSequence = header.getLong();
+            writePosition = HEADER_SIZE;
+            scan(entry -> lastSequence = entry.getSequence());
+            if (channel.size() > writePosition)
+            {
+                channel.truncate(writePosition);
+            }
+        }
+        durableSequence = lastSequence;
+    }
+
+    /**
+     * Appends an entry without records and without waiting for it to reach the disk.
+     * @param operation The logged mutation
+     * @param amount    The amount of the mutation (0 if not applicable)
+     * @param arguments The string arguments of the mutation
+     * @return The sequence number assigned to the entry
+     */
+    public long write(Operation operation, double amount, String... arguments)
+    {
+        return write(operation, amount, List.of(), arguments);
+    }
+
+    /**
+     * Appends an entry without waiting for it to reach the disk.
+     * Callers that need durability follow up with sync(sequence).
+     * @param operation The logged mutation
+     * @param amount    The amount of the mutation (0 if not applicable)
+     * @param records   The transaction records the mutation created, in creation order
+     * @param arguments The string arguments of the mutation
+     * @return The sequence number assigned to the entry
+     */
+    public synchronized long write(Operation operation, double amount, List<AccountTransaction> records, String... arguments)
+    {
+        long sequence = lastSequence + 1;
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream payload = new DataOutputStream(bytes);
+            payload.writeLong(sequence);
+            payload.writeByte(operation.ordinal());
+            payload.writeDouble(amount);
+            payload.writeByte(arguments.length);
+            for (String argument : arguments)
+            {
+                payload.writeUTF(argument);
+            }
+            payload.writeShort(records.size());
+            for (AccountTransaction record : records)
+            {
+                Transaction transaction = record.getTransaction();
+                payload.writeUTF(record.getAccountId());
+                payload.writeLong(transaction.getNumericId());
+                if (transaction.getNumericId() < 0)
+                {
+                    payload.writeUTF(transaction.getId());
+                }
+                payload.writeByte(transaction.getType().ordinal());
+                payload.writeDouble(transaction.getAmount());
+                payload.writeLong(transaction.getTimestampMicros());
+                payload.writeUTF(transaction.getDescription() == null ? "" : transaction.getDescription());
+            }
+
+            byte[] data = bytes.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(data);
+
+            ByteBuffer entry = ByteBuffer.allocate(8 + data.length);
+            entry.putInt(data.length).putInt((int) crc.getValue()).put(data).flip();
+            while (entry.hasRemaining())
+            {
+                writePosition += channel.write(entry, writePosition);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Error writing to write-ahead log: " + e.getMessage(), e);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Blocks until the entry with the given sequence is on disk.
+     * Concurrent callers are batched: one fsync makes every entry written before it durable.
+     * @param sequence The sequence that must be durable
+     */
+    public void sync(long sequence)
+    {
+        if (durableSequence >= sequence)
+        {
+            return;
+        }
+        syncLock.lock();
+        try
+        {
+            if (durableSequence >= sequence)
+            {
+                return;			/* a previous leader's fsync already covered this entry */
+            }
+            long target;
+            synchronized (this)
+            {
+                target = lastSequence;
+            }
+            channel.force(false);
+            durableSequence = target;
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Error syncing write-ahead log: " + e.getMessage(), e);
+        }
+        finally
+        {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Appends an entry and waits until it is durable.
+     * @param operation The logged mutation
+     * @param amount    The amount of the mutation (0 if not applicable)
+     * @param arguments The string arguments of the mutation
+     * @return The sequence number assigned to the entry
+     */
+    public long append(Operation operation, double amount, String... arguments)
+    {
+        long sequence = write(operation, amount, arguments);
+        sync(sequence);
+        return sequence;
+    }
+
+    /**
+     * Replays every entry with a sequence greater than the given one, in log order.
+     * @param afterSequence Entries up to and including this sequence are skipped
+     * @param handler       Receives each entry to replay
+     * @throws IOException if the log cannot be read
+     */
+    public synchronized void replay(long afterSequence, Consumer<Entry> handler) throws IOException
+    {
+        long end = writePosition;
+        writePosition = HEADER_SIZE;
+        try
+        {
+            scan(entry -> {
+                if (entry.getSequence() > afterSequence)
+                {
+                    handler.accept(entry);
+                }
+            });
+        }
+        finally
+        {
+            writePosition = end;
+        }
+    }
+
+    /**
+     * Empties the log after a checkpoint; sequence numbers continue where they left off.
+     * The empty log is written and synced under a temporary name and then renamed over the
+     * current one, so after a crash the file holds either the old entries or the new header.
+     * The caller must make sure no mutation is in flight.
+     * @throws IOException if the new log cannot be written or renamed
+     */
+    public void reset() throws IOException
+    {
+        /* Same lock order as sync(): a follower waiting for an fsync must not see the channel swapped */
+        syncLock.lock();
+        try
+        {
+            synchronized (this)
+            {
+                Path resetFile = resetFile();
+                try (FileChannel fresh = FileChannel.open(resetFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+                {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(LOG_MAGIC).putLong(lastSequence).flip();
+                    while (header.hasRemaining())
+                    {
+                        fresh.write(header);
+                    }
+                    fresh.force(true);
+                }
+                Files.move(resetFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory();
+
+                channel.close();
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                writePosition = HEADER_SIZE;
+                durableSequence = lastSequence;
+            }
+        }
+        finally
+        {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence of the last written entry.
+     * @return The last sequence
+     */
+    public synchronized long getLastSequence()
+    {
+        return lastSequence;
+    }
+
+    /**
+     * Forces pending entries to disk and closes the log.
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        sync(getLastSequence());
+        channel.close();
+    }
+
+    /* ---------------- Internal helpers ---------------- */
+
+    private Path resetFile()
+    {
+        return file.resolveSibling(file.getFileName() + RESET_SUFFIX);
+    }
+
+    /**
+     * Makes the rename of a reset durable. Directories cannot be opened for syncing on every
+     * platform (e.g. Windows); there the rename is left to the file system's own ordering.
+     */
+    private void syncDirectory()
+    {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            dir.force(true);
+        }
+        catch (IOException e)
+        {
+            /* Not supported on this platform */
+        }
+    }
+
+    private void writeHeader(long baseSequence) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(LOG_MAGIC).putLong(baseSequence).flip();
+        while (header.hasRemaining())
+        {
+            channel.write(header, HEADER_SIZE - header.remaining());
+        }
+        writePosition = HEADER_SIZE;
+        lastSequence = baseSequence;
+    }
+
+    /**
+     * Reads entries from writePosition up to the end of the file (or the first invalid entry)
+     * and leaves writePosition just after the last valid one.
+     * The scan goes through one read-only mapping, which limits a log to 2 GB between checkpoints.
+     */
+    private void scan(Consumer<Entry> handler) throws IOException
+    {
+        long size = channel.size();
+        if (size <= writePosition)
+        {
+            return;
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, writePosition, size - writePosition);
+        CRC32C crc = new CRC32C();
+        while (mapped.remaining() >= 8)
+        {
+            int start = mapped.position();
+            int length = mapped.getInt();
+            int checksum = mapped.getInt();
+            if (length <= 0 || length > MAX_ENTRY_SIZE || mapped.remaining() < length)
+            {
+                return;
+            }
+
+            byte[] data = new byte[length];
+            mapped.get(data);
+            crc.reset();
+            crc.update(data);
+            if ((int) crc.getValue() != checksum)
+            {
+                return;
+            }
+
+            handler.accept(decode(data));
+            writePosition += mapped.position() - start;
+        }
+    }
+
+    private static Entry decode(byte[] data) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        long sequence = in.readLong();
+        Operation operation = Operation.values()[in.readByte()];
+        double amount = in.readDouble();
+        String[] arguments = new String[in.readByte()];
+        for (int i = 0; i < arguments.length; i++)
+        {
+            arguments[i] = in.readUTF();
+        }
+        int recordCount = in.readUnsignedShort();
+        List<AccountTransaction> records = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++)
+        {
+            String accountId = in.readUTF();
+            long id = in.readLong();
+            String textId = id < 0 ? in.readUTF() : null;
+            TransactionType type = TransactionType.values()[in.readByte()];
+            double recordAmount = in.readDouble();
+            long micros = in.readLong();
+            String description = in.readUTF();
+            records.add(new AccountTransaction(accountId, textId == null
+                ? new Transaction(id, type, recordAmount, micros, description)
+                : new Transaction(textId, type, recordAmount, Transaction.fromEpochMicros(micros), description)));
+        }
+        return new Entry(sequence, operation, amount, arguments, records);
+    }
+}
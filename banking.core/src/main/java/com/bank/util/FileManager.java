@@ -1,8 +1,200 @@
-/* Utility class for file reading/writing (can be used later). */
+/*
+ * Utility class for file reading/writing.
+ * Writes and reads compact binary snapshots of customers and accounts (including their
+ * transaction history) and of stored idempotency keys, used by the in-memory storage
+ * engines for durability.
+ */
 
 package com.bank.util;
 
+import com.bank.model.Account;
+import com.bank.model.CurrentAccount;
+import com.bank.model.Customer;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
 public class FileManager 
 {
+	/* Marker written at the start of every snapshot file ("BANK") */
+    private static final int SNAPSHOT_MAGIC = 0x42414E4B;
+    /* Snapshot format version, bumped on layout changes (version 2 added the log sequence, 3 the idempotency keys) */
+    private static final int SNAPSHOT_VERSION = 3;
+
+    /**
+     * Writes a snapshot of the given customers and accounts.
+     * The data is written to a temporary file first and then atomically moved over the target,
+     * so a crash while writing never leaves a half-written snapshot behind.
+     * @param file      The snapshot file to (re)write
+     * @param customers The customers to store
+     * @param accounts  The accounts to store, including their transactions
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void writeSnapshot(Path file, Collection<Customer> customers, Collection<Account> accounts) throws IOException 
+    {
+        writeSnapshot(file, 0, customers, accounts);
+    }
+
+    /**
+     * Writes a snapshot tagged with the write-ahead log sequence it reflects.
+     * Recovery replays only log entries with a higher sequence on top of it.
+     * @param file      The snapshot file to (re)write
+     * @param sequence  The last log sequence contained in the snapshot
+     * @param customers The customers to store
+     * @param accounts  The accounts to store, including their transactions
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void writeSnapshot(Path file, long sequence, Collection<Customer> customers, Collection<Account> accounts) throws IOException 
+    {
+        writeSnapshot(file, sequence, customers, accounts, List.of());
+    }
+
+    /**
+     * Writes a snapshot tagged with the write-ahead log sequence it reflects, including idempotency keys.
+     * @param file      The snapshot file to (re)write
+     * @param sequence  The last log sequence contained in the snapshot
+     * @param customers The customers to store
+     * @param accounts  The accounts to store, including their transactions
+     * @param keys      The stored idempotency keys as {key, request, result} rows
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void writeSnapshot(Path file, long sequence, Collection<Customer> customers, Collection<Account> accounts,
+                                     Collection<String[]> keys) throws IOException 
+    {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) 
+        {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(sequence);
+
+            out.writeInt(customers.size());
+            for (Customer customer : customers) 
+            {
+                out.writeUTF(customer.getId());
+                out.writeUTF(customer.getName());
+                out.writeUTF(customer.getEmail());
+                out.writeUTF(customer.getphone());
+            }
+
+            out.writeInt(accounts.size());
+            for (Account account : accounts) 
+            {
+                List<Transaction> transactions = account.getTransactions();
+                out.writeUTF(account.getId());
+                out.writeUTF(account.getCustomerId());
+                out.writeUTF(account.getClass().getSimpleName());
+                out.writeDouble(account.getBalance());
+                out.writeInt(transactions.size());
+                for (Transaction transaction : transactions) 
+                {
+                    out.writeUTF(transaction.getId());
+                    out.writeUTF(transaction.getType().name());
+                    out.writeDouble(transaction.getAmount());
+                    out.writeUTF(transaction.getTimestamp().toString());
+                    out.writeBoolean(transaction.getDescription() != null);
+                    if (transaction.getDescription() != null) 
+                    {
+                        out.writeUTF(transaction.getDescription());
+                    }
+                }
+            }
+
+            out.writeInt(keys.size());
+            for (String[] key : keys) 
+            {
+                out.writeUTF(key[0]);
+                out.writeUTF(key[1]);
+                out.writeUTF(key[2]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot written by writeSnapshot and hands every entity to the given consumers.
+     * @param file            The snapshot file to read
+     * @param customerHandler Receives every stored customer
+     * @param accountHandler  Receives every stored account with its transactions
+     * @return The write-ahead log sequence the snapshot reflects (0 if untagged)
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static long readSnapshot(Path file, Consumer<Customer> customerHandler, Consumer<Account> accountHandler) throws IOException 
+    {
+        return readSnapshot(file, customerHandler, accountHandler, key -> { });
+    }
+
+    /**
+     * Reads a snapshot written by writeSnapshot, including its idempotency keys.
+     * @param file            The snapshot file to read
+     * @param customerHandler Receives every stored customer
+     * @param accountHandler  Receives every stored account with its transactions
+     * @param keyHandler      Receives every stored idempotency key as a {key, request, result} row
+     * @return The write-ahead log sequence the snapshot reflects (0 if untagged)
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static long readSnapshot(Path file, Consumer<Customer> customerHandler, Consumer<Account> accountHandler,
+                                    Consumer<String[]> keyHandler) throws IOException 
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) 
+        {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != SNAPSHOT_MAGIC || version < 1 || version > SNAPSHOT_VERSION) 
+            {
+                throw new IOException("Not a supported snapshot file: " + file);
+            }
+            long sequence = version >= 2 ? in.readLong() : 0;
+
+            int customerCount = in.readInt();
+            for (int i = 0; i < customerCount; i++) 
+            {
+                customerHandler.accept(new Customer(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+
+            int accountCount = in.readInt();
+            for (int i = 0; i < accountCount; i++) 
+            {
+                String id = in.readUTF();
+                String customerId = in.readUTF();
+                String type = in.readUTF();
+                double balance = in.readDouble();
+                Account account = "CurrentAccount".equals(type)
+                    ? new CurrentAccount(id, customerId, balance)
+                    : new SavingsAccount(id, customerId, balance);
+
+                int transactionCount = in.readInt();
+                for (int t = 0; t < transactionCount; t++) 
+                {
+                    String transactionId = in.readUTF();
+                    TransactionType transactionType = TransactionType.valueOf(in.readUTF());
+                    double amount = in.readDouble();
+                    LocalDateTime timestamp = LocalDateTime.parse(in.readUTF());
+                    String description = in.readBoolean() ? in.readUTF() : null;
+                    account.addTransaction(new Transaction(transactionId, transactionType, amount, timestamp, description));
+                }
+                accountHandler.accept(account);
+            }
 
+            int keyCount = version >= 3 ? in.readInt() : 0;
+            for (int i = 0; i < keyCount; i++) 
+            {
+                keyHandler.accept(new String[] {in.readUTF(), in.readUTF(), in.readUTF()});
+            }
+            return sequence;
+        }
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Benchmark for TransactionArchivalService on the JDBC engine.
+ * Seeds a temporary SQLite file (WAL mode) with accounts that each have a number of records per day
+ * over a number of days, then times account loads (findById reads the hot history) and full history
+ * walks (pages merge archived and hot records) before and after archiving all but the last days.
+ * Reports the transactions table size, the archive size and microseconds per operation.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.ArchivalBenchmark 200 5 730 30
+ */
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.TestDatabase;
+import com.bank.repository.TransactionArchive;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+public class ArchivalBenchmark
+{
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    public static void main(String[] args) throws Exception
+    {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int recordsPerDay = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 730;
+        int retentionDays = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        Path directory = Files.createTempDirectory("archival-benchmark");
+        try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("bank.db"), 4))
+        {
+            seed(pool, accounts, recordsPerDay, days);
+            TransactionArchive archive = new TransactionArchive(directory.resolve("archive"));
+            JdbcAccountRepository repository = new JdbcAccountRepository(pool, archive);
+            BankService bankService = new BankService(new InMemoryCustomerRepository(), repository);
+            report("Before archival:", pool, archive, repository, bankService, accounts);
+
+            long start = System.nanoTime();
+            int archived = new TransactionArchivalService(repository, retentionDays).archive(START.plusDays(days));
+            System.out.printf("Archival:         %,d records in %.1f s%n", archived, (System.nanoTime() - start) / 1e9);
+            try (Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement())
+            {
+                stmt.execute("VACUUM");
+            }
+            report("After archival: ", pool, archive, repository, bankService, accounts);
+        }
+        finally
+        {
+            try (var files = Files.walk(directory))
+            {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void report(String label, ConnectionPool pool, TransactionArchive archive, JdbcAccountRepository repository,
+                               BankService bankService, int accounts) throws Exception
+    {
+        long rows;
+        long databaseBytes;
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet count = stmt.executeQuery("SELECT COUNT(*) FROM transactions"))
+        {
+            rows = count.getLong(1);
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet size = stmt.executeQuery("SELECT page_count * page_size FROM pragma_page_count(), pragma_page_size()"))
+        {
+            databaseBytes = size.getLong(1);
+        }
+        long archiveBytes = 0;
+        if (Files.exists(archive.getDirectory()))
+        {
+            try (var files = Files.list(archive.getDirectory()))
+            {
+                archiveBytes = files.mapToLong(path -> path.toFile().length()).sum();
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < accounts; i++)
+        {
+            repository.findById(accountId(i));
+        }
+        double loadMicros = (System.nanoTime() - start) / 1e3 / accounts;
+
+        start = System.nanoTime();
+        long walked = 0;
+        for (int i = 0; i < accounts; i++)
+        {
+            String after = null;
+            List<Transaction> page;
+            do
+            {
+                page = bankService.getTransactionsPage(accountId(i), after, 500);
+                walked += page.size();
+                after = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+            } while (page.size() == 500);
+        }
+        double walkMicros = (System.nanoTime() - start) / 1e3 / accounts;
+
+        System.out.printf("%s %,10d hot rows, DB %,7.1f MB, archive %,6.1f MB | findById %,9.1f us | history walk %,9.1f us (%,d records)%n",
+            label, rows, databaseBytes / 1e6, archiveBytes / 1e6, loadMicros, walkMicros, walked);
+    }
+
+    private static void seed(ConnectionPool pool, int accounts, int recordsPerDay, int days) throws SQLException
+    {
+        try (Connection conn = pool.getConnection())
+        {
+            conn.setAutoCommit(false);
+            try (PreparedStatement account = conn.prepareStatement("INSERT INTO accounts (id, customer_id, type, balance) VALUES (?, 'C00001', 'CurrentAccount', ?)");
+                 PreparedStatement record = conn.prepareStatement("INSERT INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)"))
+            {
+                long id = 0;
+                for (int i = 0; i < accounts; i++)
+                {
+                    double balance = 0;
+                    for (int d = 0; d < days; d++)
+                    {
+                        String date = START.plusDays(d).toString();
+                        for (int r = 0; r < recordsPerDay; r++)
+                        {
+                            boolean withdrawal = r % 3 == 2;
+                            double amount = withdrawal ? 7.5 : 12.25;
+                            balance += withdrawal ? -amount : amount;
+                            record.setString(1, "T" + id++);
+                            record.setString(2, accountId(i));
+                            record.setString(3, withdrawal ? "Withdraw" : "Deposit");
+                            record.setDouble(4, amount);
+                            record.setString(5, String.format("%s %02d:%02d:00", date, r * 24 / recordsPerDay, r % 60));
+                            record.setString(6, "Benchmark record");
+                            record.addBatch();
+                        }
+                    }
+                    record.executeBatch();
+                    account.setString(1, accountId(i));
+                    account.setDouble(2, balance);
+                    account.addBatch();
+                }
+                account.executeBatch();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%06d", index + 1);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Benchmark for BankService.getBalanceAsOf on the JDBC engine.
+ * Seeds a temporary SQLite file (WAL mode) with one account per history length, each with a number
+ * of records per day, then times balance-as-of queries at the end of every history, first without
+ * balance checkpoints (a sum over the whole history) and then after BalanceCheckpointService ran
+ * (the latest checkpoint plus one day of records). Reports microseconds per query.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.BalanceAsOfBenchmark 20 365,1825,3650 500
+ */
+package com.bank.service;
+
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.TestDatabase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class BalanceAsOfBenchmark
+{
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    public static void main(String[] args) throws Exception
+    {
+        int recordsPerDay = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String[] lengths = (args.length > 1 ? args[1] : "365,1825,3650").split(",");
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int[] days = new int[lengths.length];
+        for (int i = 0; i < lengths.length; i++)
+        {
+            days[i] = Integer.parseInt(lengths[i].trim());
+        }
+
+        Path directory = Files.createTempDirectory("balance-as-of-benchmark");
+        try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("bank.db"), 4))
+        {
+            seed(pool, days, recordsPerDay);
+            JdbcAccountRepository repository = new JdbcAccountRepository(pool);
+            BankService bankService = new BankService(new InMemoryCustomerRepository(), repository);
+            report("No checkpoints:  ", bankService, days, recordsPerDay, queries);
+
+            int maxDays = 0;
+            for (int d : days)
+            {
+                maxDays = Math.max(maxDays, d);
+            }
+            long start = System.nanoTime();
+            int written = new BalanceCheckpointService(repository, repository, maxDays).checkpointThrough(START.plusDays(maxDays - 2));
+            System.out.printf("Checkpointing:   %,d checkpoints in %.1f s%n", written, (System.nanoTime() - start) / 1e9);
+            report("With checkpoints:", bankService, days, recordsPerDay, queries);
+        }
+        finally
+        {
+            try (var files = Files.walk(directory))
+            {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void report(String label, BankService bankService, int[] days, int recordsPerDay, int queries)
+    {
+        for (int i = 0; i < days.length; i++)
+        {
+            /* Noon of the last day, so the tail after the latest checkpoint is half a day of records */
+            LocalDateTime at = START.plusDays(days[i] - 1).atTime(12, 0);
+            double balance = 0;
+            long start = System.nanoTime();
+            for (int q = 0; q < queries; q++)
+            {
+                balance = bankService.getBalanceAsOf(accountId(i), at);
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / queries;
+            System.out.printf("%s %,7d records %,10.1f us/query (balance %.2f)%n", label, days[i] * recordsPerDay, micros, balance);
+        }
+    }
+
+    private static void seed(ConnectionPool pool, int[] days, int recordsPerDay) throws SQLException
+    {
+        try (Connection conn = pool.getConnection())
+        {
+            conn.setAutoCommit(false);
+            try (PreparedStatement account = conn.prepareStatement("INSERT INTO accounts (id, customer_id, type, balance) VALUES (?, 'C00001', 'CurrentAccount', 0)");
+                 PreparedStatement record = conn.prepareStatement("INSERT INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)"))
+            {
+                long id = 0;
+                for (int i = 0; i < days.length; i++)
+                {
+                    account.setString(1, accountId(i));
+                    account.executeUpdate();
+                    for (int d = 0; d < days[i]; d++)
+                    {
+                        String date = START.plusDays(d).toString();
+                        for (int r = 0; r < recordsPerDay; r++)
+                        {
+                            boolean withdrawal = r % 3 == 2;
+                            record.setString(1, "T" + id++);
+                            record.setString(2, accountId(i));
+                            record.setString(3, withdrawal ? "Withdraw" : "Deposit");
+                            record.setDouble(4, withdrawal ? 7.5 : 12.25);
+                            record.setString(5, String.format("%s %02d:%02d:00", date, r * 24 / recordsPerDay, r % 60));
+                            record.setString(6, "Benchmark record");
+                            record.addBatch();
+                        }
+                    }
+                    record.executeBatch();
+                }
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%06d", index + 1);
+    }
+}
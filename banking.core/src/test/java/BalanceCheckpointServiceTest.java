@@ -0,0 +1,181 @@
+/*
+ * Unit tests for the BalanceCheckpointService class and BankService.getBalanceAsOf.
+ * Covers the first run with its backfill, incremental runs that checkpoint only active accounts,
+ * balance-as-of answers that no longer need the records behind a checkpoint, the bank-wide variant
+ * and the in-memory engine, which replays history instead of keeping checkpoints.
+ * The JDBC engine runs on a named shared in-memory SQLite database.
+ * Implements test coverage for FR-10 at a past date.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.CurrentAccount;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.TestDatabase;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceCheckpointServiceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointServiceTest.class);
+
+    /* Named shared in-memory DB used by the JDBC engine */
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:checkpointdb?mode=memory&cache=shared";
+
+    /* First day with records */
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private Connection sharedConn;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException
+    {
+        TestDatabase.dropTables(sharedConn);
+        sharedConn.close();
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static JdbcAccountRepository jdbcAccounts()
+    {
+        return new JdbcAccountRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+        };
+    }
+
+    /**
+     * Saves three accounts with records over ten days: the first gets a 100.00 deposit every day
+     * at 10:00 and a 25.00 withdrawal every other day at 15:00, the second a deposit on day 3 only,
+     * the third none.
+     */
+    private static void seed(AccountRepository repository)
+    {
+        Account busy = new SavingsAccount("ACC-C00001-1", "C00001");
+        Account quiet = new CurrentAccount("ACC-C00001-2", "C00001");
+        for (int d = 0; d < 10; d++)
+        {
+            LocalDateTime day = START.plusDays(d).atStartOfDay();
+            busy.addTransaction(new Transaction("T-D-" + d, TransactionType.DEPOSIT, 100.0, day.plusHours(10), "Deposit"));
+            if (d % 2 == 1)
+            {
+                busy.addTransaction(new Transaction("T-W-" + d, TransactionType.WITHDRAW, 25.0, day.plusHours(15), "Withdraw"));
+            }
+        }
+        quiet.addTransaction(new Transaction("T-Q-1", TransactionType.DEPOSIT, 40.0, START.plusDays(2).atTime(9, 0), "Deposit"));
+        repository.save(busy);
+        repository.save(quiet);
+        repository.save(new SavingsAccount("ACC-C00001-3", "C00001"));
+    }
+
+    private int count(String sql) throws SQLException
+    {
+        try (Statement stmt = sharedConn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql))
+        {
+            return rs.getInt(1);
+        }
+    }
+
+    /* ---------------- Checkpoints ---------------- */
+
+    @Test
+    @DisplayName("JDBC engine: the first run backfills and checkpoints only days with records, later runs resume")
+    void testIncrementalRuns() throws SQLException
+    {
+        logger.info("Testing a 5-day backfill and an incremental run");
+        JdbcAccountRepository accountRepository = jdbcAccounts();
+        seed(accountRepository);
+        BalanceCheckpointService job = new BalanceCheckpointService(accountRepository, accountRepository, 5);
+
+        /* Days 3..7: the first step also rolls up days 1 and 2, including the quiet account's deposit */
+        assertEquals(5 + 1, job.checkpointThrough(START.plusDays(6)));
+        assertEquals(0, job.checkpointThrough(START.plusDays(6)), "Days already done are not repeated");
+        assertEquals(0, count("SELECT COUNT(*) FROM balance_checkpoints WHERE account_id = 'ACC-C00001-3'"));
+
+        assertEquals(3, job.checkpointThrough(START.plusDays(9)), "Days 8..10 checkpoint the busy account only");
+        assertEquals(9, count("SELECT COUNT(*) FROM balance_checkpoints"));
+        assertEquals(START.plusDays(9).toString(), accountRepository.findCheckpoints(BalanceCheckpointService.JOB)
+            .get(BalanceCheckpointService.THROUGH_KEY));
+        assertThrows(IllegalArgumentException.class, () -> new BalanceCheckpointService(accountRepository, accountRepository, 0));
+        logger.info("Checkpoints written incrementally");
+    }
+
+    @Test
+    @DisplayName("JDBC engine: balances as of a time come from the latest checkpoint plus the records after it")
+    void testBalanceAsOfUsesCheckpoints() throws SQLException
+    {
+        logger.info("Testing getBalanceAsOf against a replay, then without the records behind the checkpoints");
+        JdbcAccountRepository accountRepository = jdbcAccounts();
+        seed(accountRepository);
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), accountRepository);
+        new BalanceCheckpointService(accountRepository, accountRepository, 30).checkpointThrough(START.plusDays(7));
+
+        LocalDateTime day9noon = START.plusDays(8).atTime(12, 0);
+        assertEquals(8 * 100.0 - 4 * 25.0 + 100.0, bankService.getBalanceAsOf("ACC-C00001-1", day9noon), 0.001);
+        assertEquals(100.0, bankService.getBalanceAsOf("ACC-C00001-1", START.atTime(10, 0, 1)), 0.001);
+        assertEquals(0.0, bankService.getBalanceAsOf("ACC-C00001-1", START.atTime(10, 0)), 0.001);
+        assertEquals(40.0, bankService.getBalanceAsOf("ACC-C00001-2", START.plusDays(9).atStartOfDay()), 0.001);
+        assertEquals(0.0, bankService.getBalanceAsOf("ACC-C00001-3", day9noon), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> bankService.getBalanceAsOf("ACC-C00001-9", day9noon));
+
+        /* Drop every record before the last checkpoint: answers after it must not need them */
+        try (Statement stmt = sharedConn.createStatement())
+        {
+            stmt.execute("DELETE FROM transactions WHERE timestamp < '" + START.plusDays(8) + " 00:00:00'");
+        }
+        assertEquals(800.0, bankService.getBalanceAsOf("ACC-C00001-1", day9noon), 0.001);
+        assertEquals(875.0, bankService.getBalanceAsOf("ACC-C00001-1", START.plusDays(12).atStartOfDay()), 0.001);
+
+        Map<String, Double> balances = bankService.getBalancesAsOf(day9noon);
+        assertEquals(Map.of("ACC-C00001-1", 800.0, "ACC-C00001-2", 40.0, "ACC-C00001-3", 0.0), balances);
+        logger.info("Balances as of {}: {}", day9noon, balances);
+    }
+
+    @Test
+    @DisplayName("In-memory engine: balances as of a time are replayed and the job only records its progress")
+    void testInMemoryReplays()
+    {
+        logger.info("Testing getBalanceAsOf on the in-memory engine");
+        InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+        seed(accountRepository);
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), accountRepository);
+
+        assertEquals(0, new BalanceCheckpointService(accountRepository, accountRepository, 10).checkpointThrough(START.plusDays(9)));
+        assertEquals(START.plusDays(9).toString(), accountRepository.findCheckpoints(BalanceCheckpointService.JOB)
+            .get(BalanceCheckpointService.THROUGH_KEY));
+        assertEquals(800.0, bankService.getBalanceAsOf("ACC-C00001-1", START.plusDays(8).atTime(12, 0)), 0.001);
+        assertEquals(Map.of("ACC-C00001-1", 100.0, "ACC-C00001-2", 0.0, "ACC-C00001-3", 0.0),
+            bankService.getBalancesAsOf(START.plusDays(1).atStartOfDay()));
+        logger.info("In-memory replay matches");
+    }
+}
@@ -252,11 +252,13 @@ public class BankServiceTest
     {
         logger.info("Depositing 500.0 into savings account: {}", savingsAccount.getId());
 
-        when(accountRepository.findById("ACC-C00001-1")).thenReturn(savingsAccount);
+        when(accountRepository.findById(isNull(), eq("ACC-C00001-1"))).thenReturn(savingsAccount);
 
         bankService.deposit("ACC-C00001-1", 500.0);
 
         assertEquals(1500.0, savingsAccount.getBalance(), "Balance must increase by the deposited amount");
+        verify(accountRepository).appendTransaction(isNull(), eq("ACC-C00001-1"), any(Transaction.class));
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
@@ -265,7 +267,7 @@ public class BankServiceTest
     {
         logger.info("Testing deposit rejection for zero and negative amounts");
 
-        when(accountRepository.findById("ACC-C00001-1")).thenReturn(savingsAccount);
+        when(accountRepository.findById(isNull(), eq("ACC-C00001-1"))).thenReturn(savingsAccount);
 
         assertAll(
             () -> assertThrows(IllegalArgumentException.class, () -> bankService.deposit("ACC-C00001-1", 0),    "Zero deposit must be rejected"),
@@ -279,7 +281,7 @@ public class BankServiceTest
     {
         logger.info("Testing deposit rejection for non-existent account");
 
-        when(accountRepository.findById("ACC-INVALID")).thenReturn(null);
+        when(accountRepository.findById(isNull(), eq("ACC-INVALID"))).thenReturn(null);
 
         assertThrows(
             IllegalArgumentException.class,
@@ -296,11 +298,13 @@ public class BankServiceTest
     {
         logger.info("Withdrawing 200.0 from current account: {}", currentAccount.getId());
 
-        when(accountRepository.findById("ACC-C00001-2")).thenReturn(currentAccount);
+        when(accountRepository.findById(isNull(), eq("ACC-C00001-2"))).thenReturn(currentAccount);
 
         bankService.withdraw("ACC-C00001-2", 200.0);
 
         assertEquals(300.0, currentAccount.getBalance(), "Balance must decrease by the withdrawn amount");
+        verify(accountRepository).appendTransaction(isNull(), eq("ACC-C00001-2"), any(Transaction.class));
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
@@ -309,7 +313,7 @@ public class BankServiceTest
     {
         logger.info("Testing withdrawal rejection for zero and negative amounts");
 
-        when(accountRepository.findById("ACC-C00001-2")).thenReturn(currentAccount);
+        when(accountRepository.findById(isNull(), eq("ACC-C00001-2"))).thenReturn(currentAccount);
 
         assertAll(
             () -> assertThrows(IllegalArgumentException.class, () -> bankService.withdraw("ACC-C00001-2", 0),    "Zero withdrawal must be rejected"),
@@ -323,7 +327,7 @@ public class BankServiceTest
     {
         logger.info("Testing withdrawal rejection when balance is insufficient on: {}", savingsAccount.getId());
 
-        when(accountRepository.findById("ACC-C00001-1")).thenReturn(savingsAccount);
+        when(accountRepository.findById(isNull(), eq("ACC-C00001-1"))).thenReturn(savingsAccount);
 
         assertThrows(
             IllegalArgumentException.class,
@@ -332,6 +336,29 @@ public class BankServiceTest
         );
     }
 
+    /* ---------------- FR-07: Transfer Funds ---------------- */
+
+    @Test
+    @DisplayName("Should undo the withdrawal when a transfer without a DB transaction fails half-way")
+    void testTransferWithoutTransactionIsCompensated()
+    {
+        logger.info("Testing the compensation of a failed transfer on an engine without a connection");
+
+        /* The mocked repository has no connection, like the in-memory engine */
+        when(accountRepository.findByIds(isNull(), anyList())).thenReturn(List.of(savingsAccount, currentAccount));
+        doThrow(new RuntimeException("Update affected 0 rows for account id=ACC-C00001-2"))
+            .when(accountRepository).update(isNull(), same(currentAccount));
+
+        assertThrows(RuntimeException.class, () -> bankService.transfer("ACC-C00001-1", "ACC-C00001-2", 200.0));
+
+        assertEquals(1000.0, savingsAccount.getBalance(), 0.0001, "Source balance must be restored");
+        assertEquals(500.0, currentAccount.getBalance(), 0.0001, "Destination balance must be restored");
+        List<Transaction> history = savingsAccount.getTransactions();
+        assertEquals(2, history.size(), "The withdrawal stays on record next to its reversal");
+        assertEquals(TransactionType.DEPOSIT, history.get(1).getType());
+        assertTrue(history.get(1).getDescription().startsWith("Reversal"));
+    }
+
     /* ---------------- FR-08 & FR-09: View and List Accounts ---------------- */
 
     @Test
@@ -410,11 +437,12 @@ public class BankServiceTest
     {
         logger.info("Testing getTotalBalance — expected 1500.0");
 
-        when(accountRepository.findAll()).thenReturn(List.of(savingsAccount, currentAccount));
+        when(accountRepository.sumBalances()).thenReturn(1500.0);
 
         double total = bankService.getTotalBalance();
 
         assertEquals(1500.0, total, "Total balance must be the sum of all account balances");
+        verify(accountRepository, never()).findAll();
     }
 
     @Test
@@ -488,6 +516,59 @@ public class BankServiceTest
         statementFile.delete();
     }
 
+    @Test
+    @DisplayName("Should build a customer statement from the customer's own accounts only")
+    void testCustomerStatementUsesCustomerIndex()
+    {
+        logger.info("Testing customer statement for: C00001");
+
+        when(customerRepository.findById("C00001")).thenReturn(customer);
+        when(accountRepository.findByCustomerId("C00001")).thenReturn(List.of(savingsAccount, currentAccount));
+
+        String statement = bankService.generateCustomerStatementString("C00001");
+
+        assertTrue(statement.contains("Account Statement for ACC-C00001-1"));
+        assertTrue(statement.contains("Account Statement for ACC-C00001-2"));
+        assertTrue(statement.contains("Accounts: 2, Total Balance: 1500.00"), statement);
+        verify(accountRepository, never()).findAll();
+        verify(accountRepository, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("Should answer per-customer aggregates through the repository and reject unknown customers")
+    void testCustomerAggregates()
+    {
+        logger.info("Testing per-customer aggregates for: C00001");
+
+        when(customerRepository.findById("C00001")).thenReturn(customer);
+        when(accountRepository.countByCustomerId("C00001")).thenReturn(2);
+        when(accountRepository.sumBalanceByCustomerId("C00001")).thenReturn(1500.0);
+
+        assertEquals(2, bankService.getCustomerAccountCount("C00001"));
+        assertEquals(1500.0, bankService.getCustomerTotalBalance("C00001"), 0.0001);
+        assertThrows(IllegalArgumentException.class, () -> bankService.getCustomerAccounts("C99999"));
+        verify(accountRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should page through the repository and reject invalid page sizes and unknown accounts")
+    void testKeysetPages()
+    {
+        logger.info("Testing keyset pagination through the service");
+
+        when(accountRepository.findPageRows("ACC-C00001-1", 1)).thenReturn(List.of(currentAccount));
+        when(customerRepository.findPage(null, 10)).thenReturn(List.of(customer));
+
+        assertEquals(List.of(currentAccount), bankService.getAccountsPage("ACC-C00001-1", 1));
+        assertEquals(List.of(customer), bankService.getCustomersPage(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> bankService.getAccountsPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> bankService.getTransactionsPage("ACC-MISSING", null, 10));
+        verify(accountRepository, never()).findAll();
+        verify(accountRepository, never()).findPage(any(), anyInt());
+        verify(accountRepository, never()).findById(any());
+        verify(customerRepository, never()).findAll();
+    }
+
     /* ---------------- FR-18: Bank Summary Reporting ---------------- */
 
     @Test
@@ -0,0 +1,210 @@
+/*
+ * Integration tests for BulkImportService.
+ * Uses an in-memory SQLite database so the batched JDBC insert path is exercised end-to-end.
+ * Implements test coverage for FR-01, FR-03 and FR-04 bulk onboarding.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.TestDatabase;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImportServiceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportServiceTest.class);
+
+    /* Named shared in-memory DB so every repository connection sees the same data */
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:bulkimportdb?mode=memory&cache=shared";
+
+    @TempDir
+    Path tempDir;
+
+    private Connection sharedConn;
+    private JdbcCustomerRepository customerRepository;
+    private JdbcAccountRepository accountRepository;
+    private BulkImportService importService;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
+
+        customerRepository = new JdbcCustomerRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+        };
+        accountRepository = new JdbcAccountRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+        };
+        /* Small batch size so the tests cross several batch boundaries */
+        importService = new BulkImportService(customerRepository, accountRepository, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException
+    {
+        TestDatabase.dropTables(sharedConn);
+        sharedConn.close();
+    }
+
+    @Test
+    @DisplayName("Should import valid customers and reject invalid and duplicate rows")
+    void testImportCustomers() throws IOException
+    {
+        logger.info("Testing bulk customer import with mixed valid and invalid rows");
+
+        Path csv = Files.writeString(tempDir.resolve("customers.csv"), String.join("\n",
+            "id,name,email,phone",
+            "C00001,Hassan El-Hamrawy,hassan@bank.com,01012345678",
+            "C00002,\"Doe, Jane\",jane@bank.com,01012345679",
+            "C00003,Bad Email,not-an-email,01012345670",
+            "C00004,Bad Phone,bad@bank.com,12",
+            "C00001,Duplicate,dup@bank.com,01012345678",
+            "C00005,Mona Ali,mona@bank.com,+201012345678"));
+        Path errors = tempDir.resolve("customers_errors.csv");
+
+        ImportResult result = importService.importCustomers(csv, errors);
+
+        assertEquals(6, result.getRowsRead(), "Header must not be counted as a data row");
+        assertEquals(3, result.getRowsImported());
+        assertEquals(3, result.getRowsRejected());
+        assertEquals(3, customerRepository.findAll().size());
+        assertEquals("Doe, Jane", customerRepository.findById("C00002").getName(), "Quoted commas must be preserved");
+
+        List<String> errorLines = Files.readAllLines(errors);
+        assertEquals(4, errorLines.size(), "Error file must contain a header and one line per rejected row");
+        assertTrue(errorLines.get(1).contains("Invalid email format."));
+    }
+
+    @Test
+    @DisplayName("Should detect the header after leading blank and comment lines")
+    void testHeaderAfterLeadingBlankAndCommentLines() throws IOException
+    {
+        logger.info("Testing header detection on the first line with content");
+
+        Path csv = Files.writeString(tempDir.resolve("customers.csv"), String.join("\n",
+            "",
+            "# exported 2026-01-01",
+            "  ",
+            "id,name,email,phone",
+            "C00001,Hassan El-Hamrawy,hassan@bank.com,01012345678",
+            "# trailing comment"));
+
+        ImportResult result = importService.importCustomers(csv, tempDir.resolve("customers_errors.csv"));
+
+        assertEquals(1, result.getRowsRead(), "Header and comment lines must not be counted as data rows");
+        assertEquals(1, result.getRowsImported());
+        assertEquals(0, result.getRowsRejected());
+    }
+
+    @Test
+    @DisplayName("Should reject rows whose ID already exists in the store without replacing them")
+    void testImportCustomersSkipsExistingIds() throws IOException
+    {
+        logger.info("Testing that existing customers are reported instead of overwritten");
+
+        Path first = Files.writeString(tempDir.resolve("first.csv"), "C00001,Original,orig@bank.com,01012345678\n");
+        importService.importCustomers(first, tempDir.resolve("first_errors.csv"));
+
+        Path second = Files.writeString(tempDir.resolve("second.csv"), String.join("\n",
+            "C00001,Replacement,repl@bank.com,01012345678",
+            "C00002,New Customer,new@bank.com,01012345679"));
+        ImportResult result = importService.importCustomers(second, tempDir.resolve("second_errors.csv"));
+
+        assertEquals(1, result.getRowsImported());
+        assertEquals(1, result.getRowsRejected());
+        assertEquals("Original", customerRepository.findById("C00001").getName(), "Existing customer must not be replaced");
+    }
+
+    @Test
+    @DisplayName("Should import accounts for existing customers and record initial balances as deposits")
+    void testImportAccounts() throws IOException
+    {
+        logger.info("Testing bulk account import");
+
+        Files.writeString(tempDir.resolve("customers.csv"), "C00001,Hassan El-Hamrawy,hassan@bank.com,01012345678\n");
+        importService.importCustomers(tempDir.resolve("customers.csv"), tempDir.resolve("customers_errors.csv"));
+
+        Path csv = Files.writeString(tempDir.resolve("accounts.csv"), String.join("\n",
+            "id,customerId,type,initialBalance",
+            "ACC-C00001-1,C00001,SAVINGS,1000",
+            "ACC-C00001-2,C00001,current",
+            "ACC-C00099-1,C00099,SAVINGS,10",
+            "ACC-C00001-3,C00001,GOLD,10",
+            "ACC-C00001-4,C00001,SAVINGS,-5"));
+
+        ImportResult result = importService.importAccounts(csv, tempDir.resolve("accounts_errors.csv"));
+
+        assertEquals(2, result.getRowsImported());
+        assertEquals(3, result.getRowsRejected());
+
+        Account savings = accountRepository.findById("ACC-C00001-1");
+        assertEquals(1000.0, savings.getBalance(), 0.0001);
+        assertEquals(1, savings.getTransactions().size(), "Initial balance must be persisted as a deposit transaction");
+        assertEquals(0.0, accountRepository.findById("ACC-C00001-2").getBalance(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should check account owners per batch without loading every customer")
+    void testImportAccountsChecksOwnersPerBatch() throws IOException
+    {
+        logger.info("Testing the owner check of the account import");
+
+        Files.writeString(tempDir.resolve("customers.csv"), String.join("\n",
+            "C00001,Hassan El-Hamrawy,hassan@bank.com,01012345678",
+            "C00002,Mona Ali,mona@bank.com,01012345679"));
+        importService.importCustomers(tempDir.resolve("customers.csv"), tempDir.resolve("customers_errors.csv"));
+        JdbcCustomerRepository noFullScan = new JdbcCustomerRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+
+            @Override
+            public List<Customer> findAll()
+            {
+                throw new AssertionError("The account import must not load every customer");
+            }
+        };
+        BulkImportService batched = new BulkImportService(noFullScan, accountRepository, 2);
+
+        Path csv = Files.writeString(tempDir.resolve("accounts.csv"), String.join("\n",
+            "ACC-C00001-1,C00001,SAVINGS,10",
+            "ACC-C00099-1,C00099,SAVINGS,10",
+            "ACC-C00002-1,C00002,CURRENT",
+            "ACC-C00098-1,C00098,CURRENT"));
+        ImportResult result = batched.importAccounts(csv, tempDir.resolve("accounts_errors.csv"));
+
+        assertEquals(2, result.getRowsImported());
+        assertEquals(2, result.getRowsRejected());
+        assertNull(accountRepository.findById("ACC-C00099-1"));
+        List<String> errorLines = Files.readAllLines(tempDir.resolve("accounts_errors.csv"));
+        assertEquals(3, errorLines.size());
+        assertTrue(errorLines.get(1).startsWith("2,") && errorLines.get(1).contains("Customer does not exist."), errorLines.get(1));
+    }
+}
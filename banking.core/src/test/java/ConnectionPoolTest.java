@@ -0,0 +1,115 @@
+/*
+ * Unit tests for ConnectionPool.
+ * Uses a named shared in-memory SQLite DB so pooled connections see the same tables.
+ * Implements test coverage for FR-12 and FR-14 connection handling.
+ */
+package com.bank.repository;
+
+import com.bank.model.Customer;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolTest.class);
+
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:pooldb?mode=memory&cache=shared";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        pool = new ConnectionPool(IN_MEMORY_URL, 2);
+        try (Connection conn = pool.getConnection())
+        {
+            DatabaseSchema.create(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException
+    {
+        try (Connection conn = pool.getConnection())
+        {
+            TestDatabase.dropTables(conn);
+        }
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Should hand connections back to the pool when they are closed")
+    void testCloseReturnsConnection() throws SQLException
+    {
+        logger.info("Testing that closing a borrowed connection returns it to the pool");
+
+        Connection conn = pool.getConnection();
+        assertEquals(1, pool.getIdleCount());
+        conn.close();
+        conn.close();
+
+        assertEquals(2, pool.getIdleCount(), "Closing twice must return the connection only once");
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement, "A returned connection must not be usable");
+    }
+
+    @Test
+    @DisplayName("Should roll back an unfinished transaction when a connection is returned")
+    void testReturnRollsBackOpenTransaction() throws SQLException
+    {
+        logger.info("Testing rollback of an open transaction on return");
+
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement())
+        {
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO customers VALUES ('C00001', 'Hassan', 'hassan@bank.com', '01012345678')");
+        }
+
+        JdbcCustomerRepository repository = new JdbcCustomerRepository(pool);
+        assertNull(repository.findById("C00001"), "Uncommitted insert must be rolled back");
+
+        repository.save(new Customer("C00002", "Mona Ali", "mona@bank.com", "01012345679"));
+        assertNotNull(repository.findById("C00002"));
+        assertEquals(2, pool.getIdleCount(), "Repository calls must return their connections");
+    }
+
+    @Test
+    @DisplayName("Should wait for a returned connection and time out instead of opening extra ones")
+    void testExhaustedPoolWaitsThenTimesOut() throws Exception
+    {
+        logger.info("Testing that an exhausted pool blocks up to its timeout");
+
+        try (ConnectionPool small = new ConnectionPool(IN_MEMORY_URL, 1, 200))
+        {
+            Connection held = small.getConnection();
+            long start = System.nanoTime();
+            SQLException e = assertThrows(SQLException.class, small::getConnection);
+            assertTrue(System.nanoTime() - start >= 150_000_000L, "The caller must wait for the timeout");
+            assertTrue(e.getMessage().contains("No pooled connection"));
+
+            Thread returner = new Thread(() -> {
+                try
+                {
+                    Thread.sleep(50);
+                    held.close();
+                }
+                catch (Exception ignored)
+                {
+                }
+            });
+            returner.start();
+            try (Connection conn = small.getConnection())
+            {
+                assertFalse(conn.isClosed(), "A waiting caller must get the returned connection");
+            }
+            returner.join();
+            assertEquals(1, small.getIdleCount());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Unit tests for CursorPublisher and the JDBC streaming queries built on it.
+ * Checks that cursors are read only as fast as subscribers request, and that the cursor and its
+ * pooled connection are released when a subscription completes or is cancelled.
+ * The JDBC cases use a named shared in-memory SQLite DB behind a one-connection pool.
+ * Implements test coverage for FR-11 and FR-13 streaming.
+ */
+package com.bank.repository;
+
+import com.bank.model.Account;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorPublisherTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(CursorPublisherTest.class);
+
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:cursordb?mode=memory&cache=shared";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        pool = new ConnectionPool(IN_MEMORY_URL, 1);
+        try (Connection conn = pool.getConnection())
+        {
+            DatabaseSchema.create(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException
+    {
+        try (Connection conn = pool.getConnection())
+        {
+            TestDatabase.dropTables(conn);
+        }
+        pool.close();
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    /*
+     * Subscriber that only requests what the test asks for and records every signal.
+     */
+    private static final class ManualSubscriber<T> implements Flow.Subscriber<T>
+    {
+        private final List<T> items = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item)
+        {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            terminated.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            terminated.complete(null);
+        }
+    }
+
+    /*
+     * Cursor over 1..size that counts reads and records whether it was closed.
+     */
+    private static final class CountingCursor implements CursorPublisher.Cursor<Integer>
+    {
+        private final int size;
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        CountingCursor(int size)
+        {
+            this.size = size;
+        }
+
+        @Override
+        public Integer next()
+        {
+            int read = reads.incrementAndGet();
+            return read <= size ? read : null;
+        }
+
+        @Override
+        public void close()
+        {
+            closed.set(true);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean())
+        {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(5);
+        }
+    }
+
+    private AccountRepository pooledAccounts()
+    {
+        return new JdbcAccountRepository(pool);
+    }
+
+    /* ---------------- Tests ---------------- */
+
+    @Test
+    @DisplayName("Should read from the cursor only as fast as the subscriber requests")
+    void testBackpressure() throws Exception
+    {
+        logger.info("Testing that demand bounds cursor reads");
+        CountingCursor cursor = new CountingCursor(10);
+        ManualSubscriber<Integer> subscriber = new ManualSubscriber<>();
+        new CursorPublisher<>(() -> cursor).subscribe(subscriber);
+
+        Thread.sleep(50);
+        assertEquals(0, cursor.reads.get(), "Nothing may be read before the first request");
+
+        subscriber.subscription.request(3);
+        await(() -> subscriber.items.size() == 3, "Three requested items must arrive");
+        Thread.sleep(50);
+        assertEquals(3, cursor.reads.get(), "No read may run ahead of demand");
+        assertFalse(cursor.closed.get());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.terminated.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), subscriber.items);
+        assertTrue(cursor.closed.get(), "An exhausted cursor must be closed");
+    }
+
+    @Test
+    @DisplayName("Should close the cursor on cancel and reject non-positive requests")
+    void testCancelAndBadRequest() throws Exception
+    {
+        logger.info("Testing cancel and request(0)");
+        CountingCursor cursor = new CountingCursor(10);
+        ManualSubscriber<Integer> cancelling = new ManualSubscriber<>();
+        new CursorPublisher<>(() -> cursor).subscribe(cancelling);
+        cancelling.subscription.request(1);
+        await(() -> cancelling.items.size() == 1, "The requested item must arrive");
+        cancelling.subscription.cancel();
+        await(cursor.closed::get, "Cancel must close the cursor");
+        cancelling.subscription.request(5);
+        Thread.sleep(50);
+        assertEquals(1, cancelling.items.size(), "Nothing may be emitted after cancel");
+        assertFalse(cancelling.terminated.isDone());
+
+        ManualSubscriber<Integer> invalid = new ManualSubscriber<>();
+        new CursorPublisher<>(() -> new CountingCursor(1)).subscribe(invalid);
+        invalid.subscription.request(0);
+        Exception error = assertThrows(Exception.class, () -> invalid.terminated.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+
+    @Test
+    @DisplayName("Should hold a pooled connection while streaming and return it on cancel")
+    void testJdbcCancelReleasesConnection() throws Exception
+    {
+        logger.info("Testing connection release of a cancelled JDBC stream");
+        AccountRepository accounts = pooledAccounts();
+        for (int i = 0; i < 20; i++)
+        {
+            accounts.save(new SavingsAccount(String.format("ACC-C00001-%02d", i), "C00001", i));
+        }
+        assertEquals(1, pool.getIdleCount());
+
+        ManualSubscriber<Account> subscriber = new ManualSubscriber<>();
+        accounts.streamAll().subscribe(subscriber);
+        subscriber.subscription.request(2);
+        await(() -> subscriber.items.size() == 2, "Two accounts must arrive");
+        assertEquals("ACC-C00001-00", subscriber.items.get(0).getId());
+        assertEquals(0, pool.getIdleCount(), "The open cursor must hold the pooled connection");
+
+        subscriber.subscription.cancel();
+        await(() -> pool.getIdleCount() == 1, "Cancel must return the connection to the pool");
+    }
+
+    @Test
+    @DisplayName("Should stream every transaction of an account and release the connection at the end")
+    void testJdbcTransactionStreamCompletes() throws Exception
+    {
+        logger.info("Testing a complete JDBC transaction stream");
+        AccountRepository accounts = pooledAccounts();
+        SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+        for (int i = 1; i <= 7; i++)
+        {
+            account.deposit(i);
+        }
+        accounts.save(account);
+
+        ManualSubscriber<Transaction> subscriber = new ManualSubscriber<>();
+        accounts.streamTransactions("ACC-C00001-1").subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.terminated.get(5, TimeUnit.SECONDS);
+
+        assertEquals(7, subscriber.items.size());
+        await(() -> pool.getIdleCount() == 1, "Completion must return the connection to the pool");
+    }
+}
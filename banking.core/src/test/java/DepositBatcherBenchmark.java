@@ -0,0 +1,131 @@
+/*
+ * Benchmark for DepositBatcher on the JDBC engine.
+ * Producer threads deposit into a few accounts of a temporary SQLite file for a fixed time, first
+ * through BankService.deposit (a findById, save and saveTransactions per deposit) and then through
+ * the batcher (one balance update and one batched insert per batch). Each producer keeps a window
+ * of deposits in flight on the batched path. Reports deposits per second and the mean batch size.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.DepositBatcherBenchmark 8 4 5 2000 64
+ */
+package com.bank.service;
+
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.TestDatabase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DepositBatcherBenchmark
+{
+    /* Deposits a producer keeps in flight on the batched path */
+    private static final int WINDOW = 32;
+
+    public static void main(String[] args) throws Exception
+    {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long windowMicros = args.length > 3 ? Long.parseLong(args[3]) : DepositBatcher.DEFAULT_WINDOW_MICROS;
+        int maxBatchSize = args.length > 4 ? Integer.parseInt(args[4]) : DepositBatcher.DEFAULT_MAX_BATCH_SIZE;
+
+        Path directory = Files.createTempDirectory("batcher-benchmark");
+        try
+        {
+            try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("direct.db"), 4))
+            {
+                BankService service = newService(pool, accounts);
+                long deposits = run(producers, seconds, random -> {
+                    service.deposit(accountId(random.nextInt(accounts)), 1.0);
+                    return null;
+                });
+                System.out.printf("Direct:  %d producers, %d accounts               %,10.0f deposits/s%n",
+                    producers, accounts, deposits / (double) seconds);
+            }
+
+            try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("batched.db"), 4))
+            {
+                BankService service = newService(pool, accounts);
+                DepositBatcher batcher = new DepositBatcher(service, windowMicros, maxBatchSize);
+                long deposits = run(producers, seconds, random -> batcher.deposit(accountId(random.nextInt(accounts)), 1.0));
+                batcher.close();
+                System.out.printf("Batched: %d producers, %d accounts, window %d us %,10.0f deposits/s, mean batch %.1f%n",
+                    producers, accounts, windowMicros, deposits / (double) seconds,
+                    batcher.getFlushedDeposits() / (double) Math.max(1, batcher.getFlushedBatches()));
+            }
+        }
+        finally
+        {
+            try (var files = Files.walk(directory))
+            {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private interface Operation
+    {
+        CompletableFuture<Double> run(ThreadLocalRandom random);
+    }
+
+    /**
+     * Runs deposits from several producer threads until the time is up.
+     * @return Number of deposits completed
+     */
+    private static long run(int producers, int seconds, Operation operation) throws InterruptedException
+    {
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < producers; t++)
+        {
+            threads.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<CompletableFuture<Double>> window = new ArrayList<>(WINDOW);
+                long done = 0;
+                while (System.nanoTime() < deadline)
+                {
+                    CompletableFuture<Double> result = operation.run(random);
+                    if (result != null)
+                    {
+                        window.add(result);
+                    }
+                    if (result == null || window.size() == WINDOW)
+                    {
+                        window.forEach(CompletableFuture::join);
+                        done += result == null ? 1 : window.size();
+                        window.clear();
+                    }
+                }
+                window.forEach(CompletableFuture::join);
+                completed.addAndGet(done + window.size());
+            }));
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        return completed.get();
+    }
+
+    private static BankService newService(ConnectionPool pool, int accounts)
+    {
+        BankService service = new BankService(new JdbcCustomerRepository(pool), new JdbcAccountRepository(pool));
+        service.createCustomer("C00001", "Benchmark Customer", "bench@bank.com", "01012345678");
+        for (int i = 0; i < accounts; i++)
+        {
+            service.createAccount(accountId(i), "C00001", "CURRENT", 1_000.0);
+        }
+        return service;
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%d", index + 1);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Unit tests for the DepositBatcher class.
+ * Covers flushing on window expiry and on batch size, per-request balances and ordering,
+ * failure reporting, concurrent producers and graceful shutdown.
+ * Runs against the in-memory repositories.
+ * Implements test coverage for FR-05, FR-14 and FR-15.
+ */
+
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DepositBatcherTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(DepositBatcherTest.class);
+
+    /* Window long enough that only the batch size or close() can flush */
+    private static final long NO_WINDOW_FLUSH = 3_600_000_000L;
+
+    private BankService bankService;
+
+    @BeforeEach
+    void setUp()
+    {
+        bankService = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        bankService.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 100.0);
+        bankService.createAccount("ACC-C00001-2", "C00001", "CURRENT", 100.0);
+    }
+
+    /* ---------------- Flushing ---------------- */
+
+    @Test
+    @DisplayName("A lone deposit is applied when the window expires")
+    void testWindowFlush() throws Exception
+    {
+        logger.info("Testing a flush on window expiry");
+
+        try (DepositBatcher batcher = new DepositBatcher(bankService, 1_000, 64))
+        {
+            double balance = batcher.deposit("ACC-C00001-1", 25.0).get(5, TimeUnit.SECONDS);
+
+            assertEquals(125.0, balance, 0.001);
+            assertEquals(125.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+            assertEquals(1, batcher.getFlushedBatches());
+        }
+        logger.info("Deposit applied after the window");
+    }
+
+    @Test
+    @DisplayName("A full batch is applied at once with one result per deposit, in order")
+    void testSizeFlushKeepsOrderAndResults() throws Exception
+    {
+        logger.info("Testing a flush on batch size");
+
+        try (DepositBatcher batcher = new DepositBatcher(bankService, NO_WINDOW_FLUSH, 5))
+        {
+            List<CompletableFuture<Double>> results = new ArrayList<>();
+            for (int i = 1; i <= 5; i++)
+            {
+                results.add(batcher.deposit("ACC-C00001-1", i));
+            }
+
+            double[] expected = {101.0, 103.0, 106.0, 110.0, 115.0};
+            for (int i = 0; i < expected.length; i++)
+            {
+                assertEquals(expected[i], results.get(i).get(5, TimeUnit.SECONDS), 0.001, "Balance right after deposit " + (i + 1));
+            }
+            assertEquals(1, batcher.getFlushedBatches());
+            assertEquals(5, batcher.getFlushedDeposits());
+
+            List<Transaction> history = bankService.getAccount("ACC-C00001-1").getTransactions();
+            for (int i = 1; i <= 5; i++)
+            {
+                assertEquals(i, history.get(i).getAmount(), 0.001, "Records keep the call order");
+            }
+        }
+        logger.info("Five deposits applied as one batch");
+    }
+
+    /* ---------------- Failures ---------------- */
+
+    @Test
+    @DisplayName("Invalid amounts fail at once and an unknown account fails its whole batch")
+    void testFailures() throws Exception
+    {
+        logger.info("Testing failure reporting");
+
+        try (DepositBatcher batcher = new DepositBatcher(bankService, NO_WINDOW_FLUSH, 2))
+        {
+            ExecutionException invalid = assertThrows(ExecutionException.class,
+                () -> batcher.deposit("ACC-C00001-1", -5.0).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, invalid.getCause());
+
+            CompletableFuture<Double> first = batcher.deposit("ACC-C99999-1", 1.0);
+            CompletableFuture<Double> second = batcher.deposit("ACC-C99999-1", 2.0);
+            for (CompletableFuture<Double> result : List.of(first, second))
+            {
+                ExecutionException missing = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalArgumentException.class, missing.getCause());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new DepositBatcher(bankService, -1, 1));
+        logger.info("Failures reported per future");
+    }
+
+    @Test
+    @DisplayName("An Error thrown while applying a batch fails every future of the batch and later batches still run")
+    void testErrorIsReported() throws Exception
+    {
+        logger.info("Testing a batch whose application throws an Error");
+
+        BankService failing = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository())
+        {
+            private boolean failed;
+
+            @Override
+            double applyDeposits(String accountId, List<Transaction> deposits)
+            {
+                if (!failed)
+                {
+                    failed = true;
+                    throw new AssertionError("simulated error");
+                }
+                return super.applyDeposits(accountId, deposits);
+            }
+        };
+        failing.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        failing.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 100.0);
+        try (DepositBatcher batcher = new DepositBatcher(failing, NO_WINDOW_FLUSH, 2))
+        {
+            CompletableFuture<Double> first = batcher.deposit("ACC-C00001-1", 1.0);
+            CompletableFuture<Double> second = batcher.deposit("ACC-C00001-1", 2.0);
+            for (CompletableFuture<Double> result : List.of(first, second))
+            {
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(AssertionError.class, exception.getCause());
+            }
+
+            batcher.deposit("ACC-C00001-1", 3.0);
+            assertEquals(107.0, batcher.deposit("ACC-C00001-1", 4.0).get(5, TimeUnit.SECONDS), 0.001,
+                "The flusher must still apply batches");
+        }
+        logger.info("Error reported through every future of the batch");
+    }
+
+    /* ---------------- Concurrency and shutdown ---------------- */
+
+    @Test
+    @DisplayName("Concurrent producers: every deposit is applied exactly once and batches are coalesced")
+    void testConcurrentProducers() throws Exception
+    {
+        logger.info("Testing 8 producers x 1,000 deposits on two accounts");
+
+        List<CompletableFuture<Double>> results = new ArrayList<>();
+        DepositBatcher batcher = new DepositBatcher(bankService, 500, 32);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 8; t++)
+        {
+            String accountId = "ACC-C00001-" + (1 + t % 2);
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int n = 0; n < 1000; n++)
+                {
+                    CompletableFuture<Double> result = batcher.deposit(accountId, 0.5);
+                    synchronized (results)
+                    {
+                        results.add(result);
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producers)
+        {
+            producer.join();
+        }
+        batcher.close();
+
+        for (CompletableFuture<Double> result : results)
+        {
+            assertTrue(result.isDone() && !result.isCompletedExceptionally());
+        }
+        assertEquals(2100.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(2100.0, bankService.getAccountBalance("ACC-C00001-2"), 0.001);
+        assertEquals(8000, batcher.getFlushedDeposits());
+        assertTrue(batcher.getFlushedBatches() < 8000, "Deposits should be coalesced into batches");
+        logger.info("8,000 deposits applied in {} batches", batcher.getFlushedBatches());
+    }
+
+    @Test
+    @DisplayName("close() applies the open batches and rejects new deposits")
+    void testCloseFlushes() throws Exception
+    {
+        logger.info("Testing close()");
+
+        DepositBatcher batcher = new DepositBatcher(bankService, NO_WINDOW_FLUSH, 64);
+        CompletableFuture<Double> open = batcher.deposit("ACC-C00001-2", 7.0);
+        assertFalse(open.isDone(), "The batch waits for its window");
+
+        batcher.close();
+
+        assertEquals(107.0, open.get(5, TimeUnit.SECONDS), 0.001);
+        assertThrows(IllegalStateException.class, () -> batcher.deposit("ACC-C00001-2", 1.0));
+        logger.info("Open batch applied on close");
+    }
+}
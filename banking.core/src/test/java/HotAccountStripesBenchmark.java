@@ -0,0 +1,104 @@
+/*
+ * Benchmark for HotAccountStripes on a single hot account of the in-memory engine.
+ * Depositor threads hammer one account for a fixed time, first through BankService directly
+ * (every deposit takes the account lock) and then through the striped layer (deposits land on a
+ * stripe and the fold job moves them into the account). A few reader threads check the balance
+ * throughout. Reports deposits per second, and checks that the final balance is exact.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.HotAccountStripesBenchmark 8 8 5
+ */
+package com.bank.service;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class HotAccountStripesBenchmark
+{
+    private static final String HOT_ACCOUNT = "ACC-C00001-1";
+    private static final int READERS = 2;
+
+    public static void main(String[] args) throws Exception
+    {
+        int depositors = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int stripeCount = args.length > 1 ? Integer.parseInt(args[1]) : HotAccountStripes.DEFAULT_STRIPES;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        BankService locked = newService();
+        long lockedOps = run(depositors, seconds, () -> locked.deposit(HOT_ACCOUNT, 0.01),
+            () -> locked.getAccountBalance(HOT_ACCOUNT));
+        System.out.printf("Account lock: %d depositors            %,12.0f deposits/s%n", depositors, lockedOps / (double) seconds);
+        check(locked.getAccountBalance(HOT_ACCOUNT), lockedOps);
+
+        BankService service = newService();
+        long stripedOps;
+        try (HotAccountStripes stripes = new HotAccountStripes(service, stripeCount,
+            HotAccountStripes.DEFAULT_CONTENTION_THRESHOLD, HotAccountStripes.DEFAULT_FOLD_INTERVAL_MILLIS))
+        {
+            stripes.markHot(HOT_ACCOUNT);
+            stripedOps = run(depositors, seconds, () -> stripes.deposit(HOT_ACCOUNT, 0.01),
+                () -> stripes.getBalance(HOT_ACCOUNT));
+        }
+        System.out.printf("Striped:      %d depositors, %d stripes %,12.0f deposits/s%n", depositors, stripeCount, stripedOps / (double) seconds);
+        check(service.getAccountBalance(HOT_ACCOUNT), stripedOps);
+    }
+
+    /**
+     * Runs depositor and reader threads until the time is up.
+     * @return Number of deposits completed
+     */
+    private static long run(int depositors, int seconds, Runnable deposit, Supplier<Double> read) throws InterruptedException
+    {
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        Consumer<Runnable> start = body -> threads.add(Thread.ofPlatform().start(body));
+        for (int t = 0; t < depositors; t++)
+        {
+            start.accept(() -> {
+                long done = 0;
+                while (System.nanoTime() < deadline)
+                {
+                    deposit.run();
+                    done++;
+                }
+                completed.addAndGet(done);
+            });
+        }
+        for (int t = 0; t < READERS; t++)
+        {
+            start.accept(() -> {
+                while (System.nanoTime() < deadline)
+                {
+                    read.get();
+                    Thread.yield();
+                }
+            });
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        return completed.get();
+    }
+
+    private static void check(double balance, long deposits)
+    {
+        if (Math.round(balance * 100) != deposits)
+        {
+            throw new IllegalStateException("Balance " + balance + " does not match " + deposits + " deposits of 0.01");
+        }
+    }
+
+    private static BankService newService()
+    {
+        BankService service = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+        service.createCustomer("C00001", "Benchmark Customer", "bench@bank.com", "01012345678");
+        service.createAccount(HOT_ACCOUNT, "C00001", "CURRENT");
+        return service;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Unit tests for the HotAccountStripes class.
+ * Covers striped deposits and folding into the account, withdrawals and balance reads that see
+ * pending stripes, automatic flagging from the contention metric, cooling of quiet hot accounts,
+ * concurrent exactness and close().
+ * Runs against the in-memory repositories; the fold job is given a long interval so the tests fold explicitly.
+ * Implements test coverage for FR-05, FR-06, FR-10 and FR-14.
+ */
+
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotAccountStripesTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(HotAccountStripesTest.class);
+
+    private static final long NO_AUTOMATIC_FOLD = 3_600_000;
+
+    private BankService bankService;
+    private HotAccountStripes stripes;
+
+    @BeforeEach
+    void setUp()
+    {
+        bankService = newService(new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository()));
+        stripes = new HotAccountStripes(bankService, 4, 2, NO_AUTOMATIC_FOLD);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        stripes.close();
+    }
+
+    /* ---------------- Striped deposits ---------------- */
+
+    @Test
+    @DisplayName("Cold accounts are deposited into directly")
+    void testColdDeposit()
+    {
+        logger.info("Testing a deposit to a cold account");
+
+        stripes.deposit("ACC-C00001-1", 25.0);
+
+        assertFalse(stripes.isHot("ACC-C00001-1"));
+        assertEquals(125.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(0, stripes.getPendingDeposits("ACC-C00001-1"));
+        logger.info("Balance: {}", bankService.getAccountBalance("ACC-C00001-1"));
+    }
+
+    @Test
+    @DisplayName("Hot deposits wait on stripes and are folded into the account with their records")
+    void testHotDepositsFold()
+    {
+        logger.info("Testing striped deposits and folding");
+
+        stripes.markHot("ACC-C00001-1");
+        stripes.deposit("ACC-C00001-1", 10.10);
+        stripes.deposit("ACC-C00001-1", 0.20);
+
+        assertEquals(2, stripes.getPendingDeposits("ACC-C00001-1"));
+        assertEquals(100.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001, "Stripes are not in the account yet");
+        assertEquals(110.30, stripes.getBalance("ACC-C00001-1"), 0.001, "Reads include the stripes");
+
+        stripes.fold();
+
+        assertEquals(0, stripes.getPendingDeposits("ACC-C00001-1"));
+        assertEquals(110.30, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        List<Transaction> history = bankService.getAccount("ACC-C00001-1").getTransactions();
+        assertEquals(3, history.size(), "Opening deposit plus the two folded deposits");
+        assertEquals(10.10, history.get(1).getAmount(), 0.001, "Records keep their deposit order");
+        logger.info("Folded balance: {}", bankService.getAccountBalance("ACC-C00001-1"));
+    }
+
+    @Test
+    @DisplayName("Withdrawals from a hot account see the deposits on its stripes")
+    void testHotWithdrawFoldsFirst()
+    {
+        logger.info("Testing a withdrawal covered only by pending stripes");
+
+        stripes.markHot("ACC-C00001-1");
+        stripes.deposit("ACC-C00001-1", 50.0);
+
+        stripes.withdraw("ACC-C00001-1", 140.0);
+
+        assertEquals(10.0, stripes.getBalance("ACC-C00001-1"), 0.001);
+        assertEquals(0, stripes.getPendingDeposits("ACC-C00001-1"));
+        assertThrows(IllegalArgumentException.class, () -> stripes.withdraw("ACC-C00001-1", 10.01));
+        assertEquals(10.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        logger.info("Balance after withdrawal: {}", stripes.getBalance("ACC-C00001-1"));
+    }
+
+    @Test
+    @DisplayName("Invalid amounts and unknown accounts are rejected")
+    void testValidation()
+    {
+        logger.info("Testing validation");
+
+        stripes.markHot("ACC-C00001-1");
+        assertThrows(IllegalArgumentException.class, () -> stripes.deposit("ACC-C00001-1", 0.0));
+        assertThrows(IllegalArgumentException.class, () -> stripes.deposit("ACC-C00001-1", 0.001));
+        assertThrows(IllegalArgumentException.class, () -> stripes.markHot("ACC-C99999-1"));
+        assertThrows(IllegalArgumentException.class, () -> new HotAccountStripes(bankService, 0, 1, 1));
+        assertEquals(0, stripes.getPendingDeposits("ACC-C00001-1"));
+        logger.info("Invalid input rejected");
+    }
+
+    /* ---------------- Contention metric ---------------- */
+
+    @Test
+    @DisplayName("An account with contended deposits is flagged hot at the end of the interval")
+    void testContentionFlagsAccountHot() throws Exception
+    {
+        logger.info("Testing automatic flagging from overlapping deposits");
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BankService blocking = newService(new BlockingBankService(entered, release));
+        try (HotAccountStripes flagged = new HotAccountStripes(blocking, 4, 2, NO_AUTOMATIC_FOLD))
+        {
+            Thread first = Thread.ofPlatform().start(() -> flagged.deposit("ACC-C00001-1", 1.0));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            List<Thread> overlapping = new ArrayList<>();
+            for (int n = 0; n < 2; n++)
+            {
+                overlapping.add(Thread.ofPlatform().start(() -> flagged.deposit("ACC-C00001-1", 1.0)));
+            }
+            while (flagged.getContention("ACC-C00001-1") < 2)
+            {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            first.join();
+            for (Thread thread : overlapping)
+            {
+                thread.join();
+            }
+
+            flagged.deposit("ACC-C00001-2", 1.0);
+            flagged.fold();
+
+            assertTrue(flagged.isHot("ACC-C00001-1"), "Two contended deposits reach the threshold");
+            assertFalse(flagged.isHot("ACC-C00001-2"));
+            assertEquals(0, flagged.getContention("ACC-C00001-2"), "The metric starts over each interval");
+            assertEquals(103.0, blocking.getAccountBalance("ACC-C00001-1"), 0.001);
+            logger.info("Hot accounts: {}", flagged.getHotAccounts());
+        }
+    }
+
+    /* ---------------- Concurrency and shutdown ---------------- */
+
+    @Test
+    @DisplayName("Concurrent deposits, withdrawals and folds keep the balance exact")
+    void testConcurrentOperationsAreExact() throws Exception
+    {
+        logger.info("Testing 8 threads x 2,000 operations on one hot account with a fast fold job");
+
+        try (HotAccountStripes fast = new HotAccountStripes(bankService, 4, 2, 1))
+        {
+            fast.markHot("ACC-C00001-2");
+            long[] withdrawn = new long[8];
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                int thread = t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int n = 0; n < 2000; n++)
+                    {
+                        if (n % 10 == 0)
+                        {
+                            try
+                            {
+                                fast.withdraw("ACC-C00001-2", 1.0);
+                                withdrawn[thread]++;
+                            }
+                            catch (IllegalArgumentException e)
+                            {
+                                /* Insufficient funds */
+                            }
+                        }
+                        else
+                        {
+                            fast.deposit("ACC-C00001-2", 0.01);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+            fast.fold();
+
+            long totalWithdrawn = 0;
+            for (long count : withdrawn)
+            {
+                totalWithdrawn += count;
+            }
+            double expected = 100.0 + 8 * 1800 * 0.01 - totalWithdrawn;
+            assertEquals(expected, bankService.getAccountBalance("ACC-C00001-2"), 0.001, "No deposit may be lost");
+            assertEquals(1 + 8 * 1800 + totalWithdrawn, bankService.getAccount("ACC-C00001-2").getTransactions().size());
+            logger.info("Balance {} after {} withdrawals", bankService.getAccountBalance("ACC-C00001-2"), totalWithdrawn);
+        }
+    }
+
+    @Test
+    @DisplayName("Balance reads of a hot account never fall below the stored balance while deposits are folded")
+    void testBalanceNeverUndercounts() throws Exception
+    {
+        logger.info("Testing hot balance reads against concurrent deposits and folds");
+
+        stripes.markHot("ACC-C00001-1");
+        List<Thread> depositors = new ArrayList<>();
+        for (int t = 0; t < 4; t++)
+        {
+            depositors.add(Thread.ofPlatform().start(() -> {
+                for (int n = 0; n < 5000; n++)
+                {
+                    stripes.deposit("ACC-C00001-1", 0.01);
+                }
+            }));
+        }
+        boolean running = true;
+        while (running)
+        {
+            running = depositors.stream().anyMatch(Thread::isAlive);
+            stripes.fold();
+            /* Only deposits run, so the stored balance only grows: a read may never be below one taken before it */
+            double stored = bankService.getAccountBalance("ACC-C00001-1");
+            double balance = stripes.getBalance("ACC-C00001-1");
+            assertTrue(balance >= stored - 0.001, "Read " + balance + " below the stored balance " + stored);
+        }
+        for (Thread depositor : depositors)
+        {
+            depositor.join();
+        }
+        assertEquals(300.0, stripes.getBalance("ACC-C00001-1"), 0.001);
+        logger.info("Final balance: {}", stripes.getBalance("ACC-C00001-1"));
+    }
+
+    @Test
+    @DisplayName("A hot account that stays quiet cools down and keeps its deposits")
+    void testQuietHotAccountCools()
+    {
+        logger.info("Testing the decay of hot accounts");
+
+        stripes.markHot("ACC-C00001-1");
+        stripes.deposit("ACC-C00001-1", 5.0);
+        for (int i = 1; i < HotAccountStripes.COOL_AFTER_QUIET_INTERVALS; i++)
+        {
+            stripes.fold();
+        }
+        assertTrue(stripes.isHot("ACC-C00001-1"), "One interval short of the decay");
+
+        stripes.fold();
+
+        assertFalse(stripes.isHot("ACC-C00001-1"));
+        assertEquals(105.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        stripes.deposit("ACC-C00001-1", 1.0);
+        assertEquals(106.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001, "Cold again: deposits go to the account");
+        logger.info("Balance after cooling: {}", bankService.getAccountBalance("ACC-C00001-1"));
+    }
+
+    @Test
+    @DisplayName("close() folds the deposits still on the stripes")
+    void testCloseFolds()
+    {
+        logger.info("Testing close()");
+
+        stripes.markHot("ACC-C00001-1");
+        stripes.deposit("ACC-C00001-1", 5.0);
+        stripes.close();
+
+        assertEquals(105.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(0, stripes.getPendingDeposits("ACC-C00001-1"));
+        logger.info("Balance after close: {}", bankService.getAccountBalance("ACC-C00001-1"));
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static BankService newService(BankService service)
+    {
+        service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 100.0);
+        service.createAccount("ACC-C00001-2", "C00001", "CURRENT", 100.0);
+        return service;
+    }
+
+    /**
+     * Holds the first deposit until released, so later deposits overlap with it.
+     */
+    private static class BlockingBankService extends BankService
+    {
+        private final CountDownLatch entered;
+        private final CountDownLatch release;
+
+        BlockingBankService(CountDownLatch entered, CountDownLatch release)
+        {
+            super(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+            this.entered = entered;
+            this.release = release;
+        }
+
+        @Override
+        public void deposit(String accountId, double amount)
+        {
+            if (entered.getCount() > 0)
+            {
+                entered.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.deposit(accountId, amount);
+        }
+    }
+}
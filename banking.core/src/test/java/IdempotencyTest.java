@@ -0,0 +1,247 @@
+/*
+ * Unit tests for idempotent money movements: the IdempotencyCache on its own and the keyed
+ * deposit/withdraw/transfer overloads of BankService on the in-memory and JDBC engines.
+ * The JDBC engine runs on a named shared in-memory SQLite database.
+ * Implements test coverage for FR-05 to FR-07 and FR-14 with client retries.
+ */
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.TestDatabase;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyTest.class);
+
+    /* Named shared in-memory DB used by the JDBC engine */
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:idempotencydb?mode=memory&cache=shared";
+
+    private Connection sharedConn;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException
+    {
+        TestDatabase.dropTables(sharedConn);
+        sharedConn.close();
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static AccountRepository jdbcAccounts()
+    {
+        return new JdbcAccountRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+        };
+    }
+
+    private static JdbcCustomerRepository jdbcCustomers()
+    {
+        return new JdbcCustomerRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+        };
+    }
+
+    private static BankService withTwoAccounts(BankService bankService)
+    {
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        bankService.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+        bankService.createAccount("ACC-C00001-2", "C00001", "CURRENT", 500.0);
+        return bankService;
+    }
+
+    /* ---------------- IdempotencyCache ---------------- */
+
+    @Test
+    @DisplayName("Should hand out a key once and return the recorded result to retries")
+    void testCacheClaimAndComplete()
+    {
+        logger.info("Testing idempotency cache claim/complete/release");
+        IdempotencyCache cache = new IdempotencyCache(16, 60);
+
+        assertNull(cache.claim("key-1", "DEPOSIT A 10.0"), "First claim must own the key");
+        CompletableFuture<Double> running = cache.claim("key-1", "DEPOSIT A 10.0");
+        assertFalse(running.isDone(), "A retry during the original request must wait for it");
+
+        cache.complete("key-1", 110.0);
+        assertEquals(110.0, running.join(), 0.0001);
+        assertEquals(110.0, cache.claim("key-1", "DEPOSIT A 10.0").join(), 0.0001);
+        assertThrows(IllegalArgumentException.class, () -> cache.claim("key-1", "DEPOSIT A 99.0"));
+
+        assertNull(cache.claim("key-2", "WITHDRAW A 5.0"));
+        cache.release("key-2", new IllegalArgumentException("Insufficient balance."));
+        assertNull(cache.claim("key-2", "WITHDRAW A 5.0"), "A failed request must not keep its key");
+    }
+
+    @Test
+    @DisplayName("Should expire keys after their time-to-live and stay within its capacity")
+    void testCacheExpiryAndCapacity()
+    {
+        logger.info("Testing idempotency cache expiry and bound");
+        AtomicLong now = new AtomicLong();
+        IdempotencyCache cache = new IdempotencyCache(160, 1_000, now::get);
+
+        assertNull(cache.claim("key-1", "DEPOSIT A 10.0"));
+        cache.complete("key-1", 110.0);
+        now.addAndGet(999);
+        assertNotNull(cache.claim("key-1", "DEPOSIT A 10.0"), "Key must still be cached before it expires");
+        now.addAndGet(1);
+        assertNull(cache.claim("key-1", "DEPOSIT A 10.0"), "Expired key must be claimable again");
+        cache.release("key-1", new RuntimeException("test"));
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            String key = "key-" + i;
+            assertNull(cache.claim(key, "DEPOSIT A 1.0"));
+            cache.complete(key, i);
+        }
+        assertTrue(cache.size() <= 160, "Cache must stay bounded, size was " + cache.size());
+    }
+
+    @Test
+    @DisplayName("Should never hold more keys than a capacity below the segment count")
+    void testSmallCapacityIsExact()
+    {
+        logger.info("Testing idempotency cache bound for small capacities");
+        for (int capacity = 1; capacity <= 40; capacity++)
+        {
+            IdempotencyCache cache = new IdempotencyCache(capacity, 60);
+            for (int i = 0; i < 1_000; i++)
+            {
+                String key = "key-" + i;
+                assertNull(cache.claim(key, "DEPOSIT A 1.0"));
+                cache.complete(key, i);
+            }
+            assertTrue(cache.size() <= capacity, "Capacity " + capacity + " held " + cache.size() + " keys");
+            assertTrue(cache.size() > 0, "Capacity " + capacity + " must still cache keys");
+        }
+    }
+
+    /* ---------------- Keyed BankService operations ---------------- */
+
+    @Test
+    @DisplayName("Should apply a retried deposit, withdrawal and transfer only once")
+    void testRetriesReturnOriginalResult()
+    {
+        logger.info("Testing keyed money movements on the in-memory engine");
+        BankService bankService = withTwoAccounts(new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository()));
+
+        assertEquals(1100.0, bankService.deposit("ACC-C00001-1", 100.0, "dep-1"), 0.0001);
+        assertEquals(1100.0, bankService.deposit("ACC-C00001-1", 100.0, "dep-1"), 0.0001);
+        assertEquals(1050.0, bankService.withdraw("ACC-C00001-1", 50.0, "wd-1"), 0.0001);
+        assertEquals(1050.0, bankService.withdraw("ACC-C00001-1", 50.0, "wd-1"), 0.0001);
+        assertEquals(1000.0, bankService.transfer("ACC-C00001-1", "ACC-C00001-2", 50.0, "tr-1"), 0.0001);
+        assertEquals(1000.0, bankService.transfer("ACC-C00001-1", "ACC-C00001-2", 50.0, "tr-1"), 0.0001);
+
+        assertEquals(1000.0, bankService.getAccountBalance("ACC-C00001-1"), 0.0001);
+        assertEquals(550.0, bankService.getAccountBalance("ACC-C00001-2"), 0.0001);
+        assertEquals(4, bankService.getAccount("ACC-C00001-1").getTransactions().size(),
+            "Initial deposit plus one deposit, one withdrawal and one transfer leg");
+
+        assertThrows(IllegalArgumentException.class, () -> bankService.deposit("ACC-C00001-2", 100.0, "dep-1"),
+            "A key must not be reused for a different request");
+        assertThrows(IllegalArgumentException.class, () -> bankService.withdraw("ACC-C00001-2", 1.0, " "));
+    }
+
+    @Test
+    @DisplayName("Should execute concurrent retries of one request once")
+    void testConcurrentRetries() throws Exception
+    {
+        logger.info("Testing concurrent retries with the same key");
+        BankService bankService = withTwoAccounts(new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++)
+            {
+                results.add(pool.submit(() -> bankService.deposit("ACC-C00001-2", 10.0, "dep-concurrent")));
+            }
+            for (Future<Double> result : results)
+            {
+                assertEquals(510.0, result.get(), 0.0001);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        assertEquals(510.0, bankService.getAccountBalance("ACC-C00001-2"), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should find keys in the key table after the cache is gone and persist the history")
+    void testKeysSurviveInKeyTable()
+    {
+        logger.info("Testing keyed money movements on the JDBC engine");
+        AccountRepository accounts = jdbcAccounts();
+        BankService first = withTwoAccounts(new BankService(jdbcCustomers(), accounts));
+
+        assertEquals(1250.0, first.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+        assertEquals(1200.0, first.transfer("ACC-C00001-1", "ACC-C00001-2", 50.0, "tr-1"), 0.0001);
+
+        /* A new service has an empty cache, as after a restart */
+        BankService restarted = new BankService(jdbcCustomers(), accounts);
+        assertEquals(1250.0, restarted.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+        assertEquals(1200.0, restarted.transfer("ACC-C00001-1", "ACC-C00001-2", 50.0, "tr-1"), 0.0001);
+        assertEquals(1200.0, restarted.getAccountBalance("ACC-C00001-1"), 0.0001);
+        assertEquals(550.0, restarted.getAccountBalance("ACC-C00001-2"), 0.0001);
+
+        List<Transaction> history = restarted.getAccount("ACC-C00001-1").getTransactions();
+        assertEquals(3, history.size(), "Initial deposit, keyed deposit and transfer leg must be stored");
+        assertTrue(history.stream().anyMatch(t -> t.getType() == TransactionType.DEPOSIT && t.getAmount() == 250.0));
+    }
+
+    @Test
+    @DisplayName("Should persist plain deposits and withdrawals on engines that return copies")
+    void testPlainDepositIsPersistedOnJdbc()
+    {
+        logger.info("Testing plain deposit/withdraw on the JDBC engine");
+        BankService bankService = withTwoAccounts(new BankService(jdbcCustomers(), jdbcAccounts()));
+
+        bankService.deposit("ACC-C00001-1", 100.0);
+        bankService.withdraw("ACC-C00001-2", 200.0);
+
+        assertEquals(1100.0, bankService.getAccountBalance("ACC-C00001-1"), 0.0001);
+        assertEquals(300.0, bankService.getAccountBalance("ACC-C00001-2"), 0.0001);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Unit tests for InMemorySnapshotter and the FileManager snapshot format.
+ * Verifies that the in-memory engine survives a restart through its snapshot file.
+ * Implements test coverage for FR-12, FR-13 and FR-15 on the in-memory engine.
+ */
+package com.bank.repository;
+
+import com.bank.model.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemorySnapshotterTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySnapshotterTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should restore customers, accounts and transactions from the last snapshot")
+    void testSnapshotAndRestore() throws IOException
+    {
+        logger.info("Testing snapshot round trip of the in-memory engine");
+
+        Path snapshotFile = tempDir.resolve("bank.snapshot");
+        InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        InMemoryAccountRepository accounts = new InMemoryAccountRepository();
+        customers.save(new Customer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678"));
+        CurrentAccount account = new CurrentAccount("ACC-C00001-2", "C00001");
+        account.deposit(500.0);
+        account.withdraw(120.5);
+        accounts.save(account);
+
+        new InMemorySnapshotter(customers, accounts, snapshotFile).close();
+        assertTrue(Files.exists(snapshotFile), "Closing the snapshotter must write a final snapshot");
+
+        InMemoryCustomerRepository restoredCustomers = new InMemoryCustomerRepository();
+        InMemoryAccountRepository restoredAccounts = new InMemoryAccountRepository();
+        assertTrue(new InMemorySnapshotter(restoredCustomers, restoredAccounts, snapshotFile).restore());
+
+        Account restored = restoredAccounts.findById("ACC-C00001-2");
+        assertEquals("Hassan El-Hamrawy", restoredCustomers.findById("C00001").getName());
+        assertInstanceOf(CurrentAccount.class, restored);
+        assertEquals(379.5, restored.getBalance(), 0.0001);
+        assertEquals(2, restored.getTransactions().size());
+        assertEquals(account.getTransactions().get(1).getTimestamp(), restored.getTransactions().get(1).getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Should report that there is nothing to restore when no snapshot exists")
+    void testRestoreWithoutSnapshot() throws IOException
+    {
+        logger.info("Testing restore without a snapshot file");
+
+        InMemorySnapshotter snapshotter = new InMemorySnapshotter(new InMemoryCustomerRepository(),
+            new InMemoryAccountRepository(), tempDir.resolve("missing.snapshot"));
+
+        assertFalse(snapshotter.restore());
+    }
+}
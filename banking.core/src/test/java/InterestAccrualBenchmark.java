@@ -0,0 +1,96 @@
+/*
+ * Benchmark for InterestAccrualService on the JDBC engine.
+ * Seeds a temporary SQLite file with savings accounts and posts one period of interest, first with
+ * one BankService.deposit per account (a findById, save and saveTransactions each) and then as a
+ * bulk run (keyset pages, one batched update, insert and checkpoint per page). Reports accounts per second.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.InterestAccrualBenchmark 20000 4 1000
+ */
+package com.bank.service;
+
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.TestDatabase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class InterestAccrualBenchmark
+{
+    private static final double RATE = 0.005;
+
+    public static void main(String[] args) throws Exception
+    {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int partitions = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : InterestAccrualService.DEFAULT_BATCH_SIZE;
+
+        Path directory = Files.createTempDirectory("interest-benchmark");
+        try
+        {
+            try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("direct.db"), 4))
+            {
+                seed(pool, accounts);
+                BankService service = new BankService(new JdbcCustomerRepository(pool), new JdbcAccountRepository(pool));
+                long start = System.nanoTime();
+                for (int i = 0; i < accounts; i++)
+                {
+                    String accountId = accountId(i);
+                    double interest = Math.round(service.getAccountBalance(accountId) * RATE * 100) / 100.0;
+                    service.deposit(accountId, interest);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Per-account deposits: %,d accounts %,10.0f accounts/s%n", accounts, accounts / seconds);
+            }
+
+            try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("bulk.db"), 4))
+            {
+                seed(pool, accounts);
+                JdbcAccountRepository repository = new JdbcAccountRepository(pool);
+                InterestAccrualService job = new InterestAccrualService(repository, repository, partitions, batchSize);
+                AccrualResult result = job.accrue("benchmark", RATE);
+                System.out.printf("Bulk accrual:         %,d accounts %,10.0f accounts/s (%d partitions, batch %d)%n",
+                    result.getAccountsScanned(), result.getAccountsPerSecond(), partitions, batchSize);
+            }
+        }
+        finally
+        {
+            try (var files = Files.walk(directory))
+            {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void seed(ConnectionPool pool, int accounts) throws SQLException
+    {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement())
+        {
+            stmt.execute("INSERT INTO customers VALUES ('C00001', 'Benchmark Customer', 'bench@bank.com', '01012345678')");
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO accounts (id, customer_id, type, balance) VALUES (?, 'C00001', 'SavingsAccount', ?)"))
+            {
+                for (int i = 0; i < accounts; i++)
+                {
+                    insert.setString(1, accountId(i));
+                    insert.setDouble(2, 1_000.0 + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%06d", index + 1);
+    }
+}
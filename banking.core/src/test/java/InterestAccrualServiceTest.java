@@ -0,0 +1,263 @@
+/*
+ * Unit tests for the InterestAccrualService class.
+ * Covers interest posting to savings accounts only, cent rounding, idempotent re-runs of a run ID,
+ * resuming after a failed batch and parallel partitions, on the in-memory and JDBC engines.
+ * The JDBC engine runs on a named shared in-memory SQLite database.
+ * Implements test coverage for FR-05 in bulk for savings interest.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.CurrentAccount;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.DatabaseSchema;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JobCheckpointRepository;
+import com.bank.repository.TestDatabase;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InterestAccrualServiceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualServiceTest.class);
+
+    /* Named shared in-memory DB used by the JDBC engine */
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:interestdb?mode=memory&cache=shared";
+
+    private Connection sharedConn;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException
+    {
+        TestDatabase.dropTables(sharedConn);
+        sharedConn.close();
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    /**
+     * JDBC engine on the shared DB whose applyCredits fails once, on the given call (0 = never).
+     */
+    private static JdbcAccountRepository jdbcAccounts(int failingBatch)
+    {
+        AtomicInteger calls = new AtomicInteger();
+        return new JdbcAccountRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(IN_MEMORY_URL);
+            }
+
+            @Override
+            public void applyCredits(Connection conn, Map<String, Transaction> credits)
+            {
+                super.applyCredits(conn, credits);
+                if (calls.incrementAndGet() == failingBatch)
+                {
+                    throw new RuntimeException("Simulated crash");
+                }
+            }
+        };
+    }
+
+    /**
+     * In-memory engine whose applyCredits fails once, on the given call (0 = never).
+     * The failure happens before anything is applied, as the engine has no transaction to roll back.
+     */
+    private static InMemoryAccountRepository memoryAccounts(int failingBatch)
+    {
+        AtomicInteger calls = new AtomicInteger();
+        return new InMemoryAccountRepository()
+        {
+            @Override
+            public void applyCredits(Connection conn, Map<String, Transaction> credits)
+            {
+                if (calls.incrementAndGet() == failingBatch)
+                {
+                    throw new RuntimeException("Simulated crash");
+                }
+                super.applyCredits(conn, credits);
+            }
+        };
+    }
+
+    /**
+     * Saves savings accounts with balances 100.00, 200.00, ... and one current account per ten.
+     */
+    private static void seed(AccountRepository repository, int savingsAccounts)
+    {
+        for (int i = 1; i <= savingsAccounts; i++)
+        {
+            repository.save(new SavingsAccount(String.format("ACC-C00001-%05d", i), "C00001", 100.0 * i));
+            if (i % 10 == 0)
+            {
+                repository.save(new CurrentAccount(String.format("ACC-C00002-%05d", i), "C00002", 1000.0));
+            }
+        }
+    }
+
+    private static long interestRecords(Account account)
+    {
+        return account.getTransactions().stream().filter(tx -> tx.getType() == TransactionType.INTEREST).count();
+    }
+
+    /* ---------------- Posting ---------------- */
+
+    @Test
+    @DisplayName("Interest is posted to savings accounts only, rounded to cents, with one INTEREST record each")
+    void testPostsInterestToSavings()
+    {
+        logger.info("Testing an interest run on the in-memory engine");
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        seed(repository, 20);
+        repository.save(new SavingsAccount("ACC-C00003-00001", "C00003", 0.3));
+
+        AccrualResult result = new InterestAccrualService(repository, repository, 2, 7).accrue("2026-10", 0.0125);
+
+        assertEquals(21, result.getAccountsScanned());
+        assertEquals(20, result.getAccountsCredited(), "Interest of 0.3 * 1.25% rounds to zero and is skipped");
+        assertEquals(1.25 * 210, result.getInterestPosted(), 0.001);
+        Account first = repository.findById("ACC-C00001-00001");
+        assertEquals(101.25, first.getBalance(), 0.0001);
+        assertEquals(1, interestRecords(first));
+        assertEquals("Interest 2026-10 for account ACC-C00001-00001", first.getTransactions().get(0).getDescription());
+        assertEquals(1000.0, repository.findById("ACC-C00002-00010").getBalance(), "Current accounts earn no interest");
+        assertEquals(0.3, repository.findById("ACC-C00003-00001").getBalance());
+        logger.info("Result: {}", result);
+    }
+
+    @Test
+    @DisplayName("Running a finished run ID again credits nothing; a new run ID credits again")
+    void testRerunIsIdempotent()
+    {
+        logger.info("Testing re-runs");
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        seed(repository, 10);
+        InterestAccrualService service = new InterestAccrualService(repository, repository, 2, 3);
+
+        service.accrue("2026-10", 0.01);
+        AccrualResult again = service.accrue("2026-10", 0.01);
+        assertEquals(0, again.getAccountsCredited());
+        assertEquals(10, again.getAccountsResumed());
+        assertEquals(101.0, repository.findById("ACC-C00001-00001").getBalance(), 0.0001);
+
+        service.accrue("2026-11", 0.01);
+        assertEquals(102.01, repository.findById("ACC-C00001-00001").getBalance(), 0.0001);
+        assertThrows(IllegalArgumentException.class, () -> service.accrue(" ", 0.01));
+        assertThrows(IllegalArgumentException.class, () -> service.accrue("2026-12", 0.0));
+        assertThrows(IllegalArgumentException.class, () -> new InterestAccrualService(repository, repository, 0, 10));
+        logger.info("Re-run credited nothing");
+    }
+
+    /* ---------------- Resume after a crash ---------------- */
+
+    @Test
+    @DisplayName("In-memory engine: a failed run resumes and credits every account exactly once")
+    void testResumeInMemory()
+    {
+        logger.info("Testing resume on the in-memory engine");
+        InMemoryAccountRepository repository = memoryAccounts(3);
+        assertResumesExactlyOnce(repository);
+    }
+
+    @Test
+    @DisplayName("JDBC engine: a batch rolled back by a crash is redone on resume, committed ones are not")
+    void testResumeJdbc()
+    {
+        logger.info("Testing resume on the JDBC engine");
+        JdbcAccountRepository repository = jdbcAccounts(3);
+        assertResumesExactlyOnce(repository);
+    }
+
+    /**
+     * Runs with one partition and batches of 10 until the third batch fails, then resumes.
+     */
+    private static <R extends AccountRepository & JobCheckpointRepository> void assertResumesExactlyOnce(R repository)
+    {
+        seed(repository, 50);
+        InterestAccrualService service = new InterestAccrualService(repository, repository, 1, 10);
+
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> service.accrue("2026-10", 0.01));
+        assertTrue(failure.getMessage().contains("resume"), failure.getMessage());
+        assertEquals(101.0, repository.findById("ACC-C00001-00001").getBalance(), 0.0001, "First batches stay committed");
+        assertEquals(2100.0, repository.findById("ACC-C00001-00021").getBalance(), 0.0001, "Failed batch is rolled back");
+
+        AccrualResult resumed = service.accrue("2026-10", 0.01);
+        assertEquals(20, resumed.getAccountsResumed());
+        assertEquals(30, resumed.getAccountsCredited());
+
+        for (int i = 1; i <= 50; i++)
+        {
+            Account account = repository.findById(String.format("ACC-C00001-%05d", i));
+            assertEquals(101.0 * i, account.getBalance(), 0.0001);
+            assertEquals(1, interestRecords(account), "Exactly one interest record for " + account.getId());
+        }
+        logger.info("Resumed run: {}", resumed);
+    }
+
+    /* ---------------- Parallel partitions ---------------- */
+
+    @Test
+    @DisplayName("Parallel partitions on the JDBC engine credit every savings account exactly once")
+    void testParallelPartitionsJdbc(@TempDir Path directory) throws SQLException
+    {
+        logger.info("Testing 4 partitions over 2,000 savings accounts");
+        /* Shared-cache connections fail on table locks instead of waiting, so the writers share a file */
+        String url = "jdbc:sqlite:" + directory.resolve("interest.db");
+        try (Connection conn = DriverManager.getConnection(url))
+        {
+            DatabaseSchema.create(conn);
+        }
+        JdbcAccountRepository repository = new JdbcAccountRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(url);
+            }
+        };
+        seed(repository, 2000);
+
+        AccrualResult result = new InterestAccrualService(repository, repository, 4, 100).accrue("2026-10", 0.001);
+
+        assertEquals(2000, result.getAccountsCredited());
+        assertEquals(20, result.getBatches());
+        List<String> wrong = new ArrayList<>();
+        for (int i = 1; i <= 2000; i += 37)
+        {
+            String id = String.format("ACC-C00001-%05d", i);
+            if (Math.abs(repository.findById(id).getBalance() - 100.1 * i) > 0.0001)
+            {
+                wrong.add(id);
+            }
+        }
+        assertTrue(wrong.isEmpty(), "Wrong balances: " + wrong);
+        assertEquals(20, repository.findCheckpoints(InterestAccrualService.JOB_PREFIX + "2026-10").size());
+        logger.info("Result: {}", result);
+    }
+}
@@ -56,8 +56,7 @@ public class JdbcAccountRepositoryTest
          * Keep one connection open to prevent SQLite from dropping the in-memory DB
          * between repository calls (each call opens its own connection internally).
          */
-        sharedConn = DriverManager.getConnection(IN_MEMORY_URL);
-        createSchema(sharedConn);
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
         repository = new JdbcAccountRepositoryTestable(IN_MEMORY_URL);
     }
 
@@ -65,44 +64,10 @@ public class JdbcAccountRepositoryTest
     void tearDown() throws SQLException
     {
         /* Drop tables to reset state between tests */
-        try (Statement stmt = sharedConn.createStatement())
-        {
-            stmt.execute("DROP TABLE IF EXISTS transactions");
-            stmt.execute("DROP TABLE IF EXISTS accounts");
-        }
+        TestDatabase.dropTables(sharedConn);
         sharedConn.close();
     }
 
-    /*
-     * Creates the accounts and transactions tables in the given connection.
-     */
-    private void createSchema(Connection conn) throws SQLException
-    {
-        try (Statement stmt = conn.createStatement())
-        {
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS accounts (
-                    id          TEXT PRIMARY KEY,
-                    customer_id TEXT NOT NULL,
-                    type        TEXT NOT NULL,
-                    balance     REAL NOT NULL
-                )
-            """);
-
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS transactions (
-                    id          TEXT PRIMARY KEY,
-                    account_id  TEXT NOT NULL,
-                    type        TEXT NOT NULL,
-                    amount      REAL NOT NULL,
-                    timestamp   TEXT NOT NULL,
-                    description TEXT,
-                    FOREIGN KEY (account_id) REFERENCES accounts(id)
-                )
-            """);
-        }
-    }
-
     /* ---------------- FR-12: Save Account Data ---------------- */
 
     @Test
@@ -306,4 +271,21 @@ public class JdbcAccountRepositoryTest
             () -> repository.update(sharedConn, ghost),
             "Updating a non-existent account must throw RuntimeException");
     }
-}
\ No newline at end of file
+
+    /* ---------------- findMaxTransactionId ---------------- */
+
+    @Test
+    @DisplayName("Should propagate a failed read of the highest transaction ID instead of returning -1")
+    void testFindMaxTransactionIdPropagatesErrors() throws SQLException
+    {
+        logger.info("Testing findMaxTransactionId propagates SQL errors");
+
+        try (Statement stmt = sharedConn.createStatement())
+        {
+            stmt.execute("DROP TABLE transactions");
+        }
+
+        assertThrows(RuntimeException.class, () -> repository.findMaxTransactionId(),
+            "A failed read must not seed new IDs from -1");
+    }
+}
@@ -53,39 +53,17 @@ public class JdbcCustomerRepositoryTest
     @BeforeEach
     void setUp() throws SQLException
     {
-        sharedConn = DriverManager.getConnection(IN_MEMORY_URL);
-        createSchema(sharedConn);
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
         repository = new JdbcCustomerRepositoryTestable(IN_MEMORY_URL);
     }
 
     @AfterEach
     void tearDown() throws SQLException
     {
-        try (Statement stmt = sharedConn.createStatement())
-        {
-            stmt.execute("DROP TABLE IF EXISTS customers");
-        }
+        TestDatabase.dropTables(sharedConn);
         sharedConn.close();
     }
 
-    /*
-     * Creates the customers table in the given connection.
-     */
-    private void createSchema(Connection conn) throws SQLException
-    {
-        try (Statement stmt = conn.createStatement())
-        {
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS customers (
-                    id    TEXT PRIMARY KEY,
-                    name  TEXT NOT NULL,
-                    email TEXT NOT NULL,
-                    phone TEXT NOT NULL
-                )
-            """);
-        }
-    }
-
     /* ---------------- FR-12: Save Customer Data ---------------- */
 
     @Test
@@ -0,0 +1,90 @@
+/*
+ * Benchmark for lock-free account balances under contention.
+ * Threads run deposits and withdrawals against a few hot accounts for a fixed time, through
+ * BankService on the in-memory engine: once with the default accounts (account lock plus
+ * synchronized balance) and once with lock-free accounts (CAS on a cent balance, lock-free log).
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.model.LockFreeBalanceBenchmark 8 4 5
+ */
+package com.bank.model;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.service.BankService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LockFreeBalanceBenchmark
+{
+    public static void main(String[] args) throws InterruptedException
+    {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int hotAccounts = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        double locked = run(false, threads, hotAccounts, seconds);
+        double lockFree = run(true, threads, hotAccounts, seconds);
+        System.out.printf("%d threads on %d hot accounts: locked %,.0f ops/s, lock-free %,.0f ops/s (%.2fx)%n",
+            threads, hotAccounts, locked, lockFree, lockFree / locked);
+    }
+
+    /**
+     * Runs the deposit/withdraw mix for the given time.
+     * @return Operations per second
+     */
+    private static double run(boolean lockFreeBalances, int threads, int hotAccounts, int seconds) throws InterruptedException
+    {
+        BankService service = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository(lockFreeBalances));
+        service.createCustomer("C00001", "Benchmark Customer", "bench@bank.com", "01012345678");
+        for (int i = 0; i < hotAccounts; i++)
+        {
+            service.createAccount(accountId(i), "C00001", "CURRENT", 1_000.0);
+        }
+
+        AtomicLong operations = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++)
+        {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while (System.nanoTime() < deadline)
+                {
+                    String account = accountId(random.nextInt(hotAccounts));
+                    try
+                    {
+                        if (random.nextBoolean())
+                        {
+                            service.deposit(account, 1.0);
+                        }
+                        else
+                        {
+                            service.withdraw(account, 1.0);
+                        }
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        /* Insufficient balance counts as an operation on both paths */
+                    }
+                    done++;
+                }
+                operations.addAndGet(done);
+            }));
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+        double perSecond = operations.get() / (double) seconds;
+        System.out.printf("%-9s %,12.0f ops/s%n", lockFreeBalances ? "lock-free" : "locked", perSecond);
+        return perSecond;
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%d", index + 1);
+    }
+}
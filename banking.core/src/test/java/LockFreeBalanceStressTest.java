@@ -0,0 +1,350 @@
+/*
+ * Multi-threaded stress tests for account balance updates.
+ * Many threads hammer the same account at once (released together by a start gate) and the tests
+ * check the invariants: no lost updates, no negative balance ever observed, and exactly one
+ * history record per applied change. Covers both the lock-free mode (AtomicBalance) and the
+ * default synchronized mode, plus BankService transfers on lock-free in-memory accounts.
+ * Implements test coverage for FR-05, FR-06, FR-07 and FR-14.
+ */
+
+package com.bank.model;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.service.BankService;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LockFreeBalanceStressTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(LockFreeBalanceStressTest.class);
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    /* ---------------- No lost updates ---------------- */
+
+    @Test
+    @DisplayName("Lock-free mode: concurrent deposits and withdrawals lose no update")
+    void testLockFreeMixedOperations() throws Exception
+    {
+        logger.info("Testing {} threads x {} mixed operations on one lock-free account", THREADS, OPERATIONS_PER_THREAD);
+
+        Account account = new CurrentAccount("ACC-C00001-1", "C00001", 100.0);
+        account.useLockFreeBalance();
+        assertMixedOperationsBalance(account);
+
+        logger.info("Final balance {} matches the applied operations", account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Synchronized mode: concurrent deposits and withdrawals lose no update")
+    void testSynchronizedMixedOperations() throws Exception
+    {
+        logger.info("Testing {} threads x {} mixed operations on one synchronized account", THREADS, OPERATIONS_PER_THREAD);
+
+        Account account = new SavingsAccount("ACC-C00001-1", "C00001", 100.0);
+        assertMixedOperationsBalance(account);
+
+        logger.info("Final balance {} matches the applied operations", account.getBalance());
+    }
+
+    /* ---------------- No negative balance ---------------- */
+
+    @Test
+    @DisplayName("Lock-free mode: racing withdrawals never overdraw")
+    void testLockFreeWithdrawalsNeverOverdraw() throws Exception
+    {
+        logger.info("Testing 16 threads racing to withdraw 2,000 x 1.00 from a balance of 1,000.00");
+
+        Account account = new SavingsAccount("ACC-C00001-1", "C00001", 1000.0);
+        account.useLockFreeBalance();
+
+        assertEquals(1000, raceWithdrawals(account, 16, 125), "Exactly the covered withdrawals should succeed");
+        assertEquals(0.0, account.getBalance());
+        assertEquals(1000, account.getTransactions().size());
+        logger.info("1,000 withdrawals succeeded, balance is exactly zero");
+    }
+
+    @Test
+    @DisplayName("Synchronized mode: racing withdrawals never overdraw")
+    void testSynchronizedWithdrawalsNeverOverdraw() throws Exception
+    {
+        logger.info("Testing 16 threads racing to withdraw from a synchronized account");
+
+        Account account = new CurrentAccount("ACC-C00001-1", "C00001", 1000.0);
+
+        assertEquals(1000, raceWithdrawals(account, 16, 125));
+        assertEquals(0.0, account.getBalance(), 0.001);
+        logger.info("1,000 withdrawals succeeded, balance is zero");
+    }
+
+    /* ---------------- Mode switch ---------------- */
+
+    @Test
+    @DisplayName("Switching to lock-free mode keeps balance and history")
+    void testUseLockFreeBalanceKeepsState()
+    {
+        logger.info("Testing the switch to lock-free mode");
+
+        Account account = new SavingsAccount("ACC-C00001-1", "C00001");
+        account.deposit(10.25);
+        account.withdraw(0.25);
+        assertFalse(account.isLockFree());
+
+        account.useLockFreeBalance();
+        account.useLockFreeBalance();
+        account.deposit(0.1);
+        account.deposit(0.2);
+
+        assertTrue(account.isLockFree());
+        assertEquals(10.30, account.getBalance(), "Cent amounts should add up exactly");
+        assertEquals(4, account.getTransactions().size());
+        assertEquals(TransactionType.WITHDRAW, account.getTransactions().get(1).getType());
+        assertThrows(IllegalArgumentException.class, () -> account.deposit(0.001), "Amounts below one cent are rejected");
+        assertThrows(IllegalArgumentException.class, () -> account.withdraw(11.0));
+        assertEquals(10.30, account.getBalance());
+        logger.info("Balance and history carried over: {}", account);
+    }
+
+    /* ---------------- BankService on lock-free accounts ---------------- */
+
+    @Test
+    @DisplayName("Lock-free in-memory engine: concurrent transfers keep the total and never overdraw")
+    void testBankServiceTransfersOnLockFreeAccounts() throws Exception
+    {
+        logger.info("Testing concurrent BankService transfers on lock-free in-memory accounts");
+
+        InMemoryAccountRepository accounts = new InMemoryAccountRepository(true);
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), accounts);
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        for (int i = 1; i <= 4; i++)
+        {
+            bankService.createAccount("ACC-C00001-" + i, "C00001", "SAVINGS", 50.0);
+        }
+        assertTrue(accounts.findById("ACC-C00001-1").isLockFree());
+
+        AtomicBoolean negative = new AtomicBoolean();
+        runConcurrently(THREADS, thread -> {
+            Random random = new Random(thread);
+            for (int n = 0; n < 5_000; n++)
+            {
+                int from = 1 + random.nextInt(4);
+                int to = 1 + (from + random.nextInt(3)) % 4;
+                try
+                {
+                    bankService.transfer("ACC-C00001-" + from, "ACC-C00001-" + to, 1.0 + random.nextInt(20));
+                }
+                catch (RuntimeException e)
+                {
+                    /* Insufficient funds is expected under contention */
+                }
+                if (accounts.findById("ACC-C00001-" + from).getBalance() < 0)
+                {
+                    negative.set(true);
+                }
+            }
+        });
+
+        assertFalse(negative.get(), "No balance may ever be negative");
+        assertEquals(200.0, bankService.getTotalBalance(), 0.001, "Transfers should neither create nor lose money");
+        logger.info("Total balance unchanged: {}", bankService.getTotalBalance());
+    }
+
+    @Test
+    @DisplayName("Lock-free in-memory engine: the total never dips while transfers are in flight")
+    void testTotalBalanceIsConsistentDuringTransfers() throws Exception
+    {
+        logger.info("Testing getTotalBalance against concurrent transfers on lock-free in-memory accounts");
+
+        InMemoryAccountRepository accounts = new InMemoryAccountRepository(true);
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), accounts);
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        for (int i = 1; i <= 4; i++)
+        {
+            bankService.createAccount("ACC-C00001-" + i, "C00001", "SAVINGS", 50.0);
+        }
+
+        AtomicBoolean transfersDone = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong wrongTotals = new AtomicLong();
+        runConcurrently(THREADS, thread -> {
+            if (thread < 2)
+            {
+                /* Readers: every total and customer total must be the 200.00 put in at the start */
+                while (!transfersDone.get())
+                {
+                    double total = bankService.getTotalBalance();
+                    double customerTotal = bankService.getCustomerTotalBalance("C00001");
+                    if (Math.abs(total - 200.0) > 0.001 || Math.abs(customerTotal - 200.0) > 0.001)
+                    {
+                        wrongTotals.incrementAndGet();
+                    }
+                    reads.incrementAndGet();
+                }
+                return;
+            }
+            Random random = new Random(thread);
+            try
+            {
+                for (int n = 0; n < 5_000; n++)
+                {
+                    int from = 1 + random.nextInt(4);
+                    int to = 1 + (from + random.nextInt(3)) % 4;
+                    try
+                    {
+                        bankService.transfer("ACC-C00001-" + from, "ACC-C00001-" + to, 1.0 + random.nextInt(20));
+                    }
+                    catch (RuntimeException e)
+                    {
+                        /* Insufficient funds is expected under contention */
+                    }
+                }
+            }
+            finally
+            {
+                if (thread == THREADS - 1)
+                {
+                    transfersDone.set(true);
+                }
+            }
+        });
+
+        assertTrue(reads.get() > 0, "The readers should have run during the transfers");
+        assertEquals(0, wrongTotals.get(), "No total may be read between a withdrawal and its deposit");
+        logger.info("{} totals read during the transfers, all 200.00", reads.get());
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private interface Worker
+    {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Starts the workers together behind a start gate and waits for all of them, rethrowing the first failure.
+     */
+    private static void runConcurrently(int threads, Worker worker) throws Exception
+    {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> running = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++)
+        {
+            int thread = t;
+            running.add(Thread.ofPlatform().start(() -> {
+                try
+                {
+                    start.await();
+                    worker.run(thread);
+                }
+                catch (Throwable e)
+                {
+                    synchronized (failures)
+                    {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : running)
+        {
+            thread.join();
+        }
+        if (!failures.isEmpty())
+        {
+            throw new AssertionError("Worker failed", failures.get(0));
+        }
+    }
+
+    /**
+     * Runs random deposits and withdrawals of whole cents and checks the final balance against
+     * the operations that succeeded, while an observer checks that the balance is never negative.
+     */
+    private static void assertMixedOperationsBalance(Account account) throws Exception
+    {
+        AtomicLong appliedCents = new AtomicLong(AtomicBalance.toMinorUnits(account.getBalance()));
+        AtomicLong applied = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean negative = new AtomicBoolean();
+        Thread observer = Thread.ofPlatform().start(() -> {
+            while (!done.get())
+            {
+                if (account.getBalance() < 0)
+                {
+                    negative.set(true);
+                }
+                Thread.yield();
+            }
+        });
+
+        runConcurrently(THREADS, thread -> {
+            Random random = new Random(thread);
+            for (int n = 0; n < OPERATIONS_PER_THREAD; n++)
+            {
+                int cents = 1 + random.nextInt(500);
+                if (random.nextBoolean())
+                {
+                    account.deposit(cents / 100.0);
+                    appliedCents.addAndGet(cents);
+                    applied.incrementAndGet();
+                }
+                else
+                {
+                    try
+                    {
+                        account.withdraw(cents / 100.0);
+                        appliedCents.addAndGet(-cents);
+                        applied.incrementAndGet();
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        /* Insufficient balance: nothing was applied */
+                    }
+                }
+            }
+        });
+        done.set(true);
+        observer.join();
+
+        assertFalse(negative.get(), "The balance must never be observed below zero");
+        assertEquals(appliedCents.get(), AtomicBalance.toMinorUnits(account.getBalance()), "No update may be lost");
+        assertEquals(applied.get(), account.getTransactions().size(), "Every applied change needs exactly one record");
+    }
+
+    /**
+     * Lets several threads withdraw 1.00 repeatedly from one account.
+     * @return Number of withdrawals that succeeded
+     */
+    private static long raceWithdrawals(Account account, int threads, int attemptsPerThread) throws Exception
+    {
+        AtomicLong succeeded = new AtomicLong();
+        runConcurrently(threads, thread -> {
+            for (int n = 0; n < attemptsPerThread; n++)
+            {
+                try
+                {
+                    account.withdraw(1.0);
+                    succeeded.incrementAndGet();
+                }
+                catch (IllegalArgumentException e)
+                {
+                    /* Insufficient balance */
+                }
+            }
+        });
+        return succeeded.get();
+    }
+}
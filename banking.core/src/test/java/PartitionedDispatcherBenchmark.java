@@ -0,0 +1,165 @@
+/*
+ * Benchmark for PartitionedDispatcher against the lock-based BankService path.
+ * Producer threads run a mix of deposits, withdrawals and transfers on a small set of hot accounts
+ * of the in-memory engine for a fixed time, first calling BankService directly (account locks)
+ * and then through the dispatcher (one single-threaded executor per partition). Reports operations
+ * per second and the highest per-partition queue depth seen by a sampler.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.PartitionedDispatcherBenchmark 8 4 5
+ */
+package com.bank.service;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PartitionedDispatcherBenchmark
+{
+    private static final int ACCOUNTS = 64;
+    /* Futures a producer keeps in flight before waiting for them */
+    private static final int WINDOW = 256;
+
+    public static void main(String[] args) throws Exception
+    {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int partitions = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        BankService locked = newService();
+        long lockedOps = run(producers, seconds, random -> {
+            mutate(locked, random);
+            return null;
+        });
+        System.out.printf("Lock-based:  %d threads              %,12.0f ops/s%n", producers, lockedOps / (double) seconds);
+
+        BankService service = newService();
+        int[] maxDepths = new int[partitions];
+        try (PartitionedDispatcher dispatcher = new PartitionedDispatcher(service, partitions))
+        {
+            Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+                try
+                {
+                    while (true)
+                    {
+                        int[] depths = dispatcher.getQueueDepths();
+                        for (int i = 0; i < depths.length; i++)
+                        {
+                            maxDepths[i] = Math.max(maxDepths[i], depths[i]);
+                        }
+                        Thread.sleep(1);
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    /* Sampling ends with the run */
+                }
+            });
+            long dispatchedOps = run(producers, seconds, random -> dispatch(dispatcher, random));
+            sampler.interrupt();
+            System.out.printf("Partitioned: %d producers, %d partitions %,12.0f ops/s, max queue depths %s%n",
+                producers, partitions, dispatchedOps / (double) seconds, Arrays.toString(maxDepths));
+        }
+    }
+
+    private interface Operation
+    {
+        CompletableFuture<Void> run(ThreadLocalRandom random);
+    }
+
+    /**
+     * Runs operations from several producer threads until the time is up.
+     * @return Number of operations completed
+     */
+    private static long run(int producers, int seconds, Operation operation) throws InterruptedException
+    {
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < producers; t++)
+        {
+            threads.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<CompletableFuture<Void>> window = new ArrayList<>(WINDOW);
+                long done = 0;
+                while (System.nanoTime() < deadline)
+                {
+                    CompletableFuture<Void> result = operation.run(random);
+                    if (result != null)
+                    {
+                        window.add(result);
+                    }
+                    if (result == null || window.size() == WINDOW)
+                    {
+                        window.forEach(future -> future.exceptionally(e -> null).join());
+                        done += result == null ? 1 : window.size();
+                        window.clear();
+                    }
+                }
+                window.forEach(future -> future.exceptionally(e -> null).join());
+                completed.addAndGet(done + window.size());
+            }));
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        return completed.get();
+    }
+
+    private static void mutate(BankService service, ThreadLocalRandom random)
+    {
+        int kind = random.nextInt(8);
+        String account = accountId(random.nextInt(ACCOUNTS));
+        try
+        {
+            if (kind == 0)
+            {
+                service.transfer(account, accountId(random.nextInt(ACCOUNTS)), 1.0);
+            }
+            else if (kind < 4)
+            {
+                service.withdraw(account, 1.0);
+            }
+            else
+            {
+                service.deposit(account, 1.0);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            /* Same-account transfers and overdrafts are rejected on both paths alike */
+        }
+    }
+
+    private static CompletableFuture<Void> dispatch(PartitionedDispatcher dispatcher, ThreadLocalRandom random)
+    {
+        int kind = random.nextInt(8);
+        String account = accountId(random.nextInt(ACCOUNTS));
+        if (kind == 0)
+        {
+            return dispatcher.transfer(account, accountId(random.nextInt(ACCOUNTS)), 1.0);
+        }
+        return kind < 4 ? dispatcher.withdraw(account, 1.0) : dispatcher.deposit(account, 1.0);
+    }
+
+    private static BankService newService()
+    {
+        BankService service = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+        service.createCustomer("C00001", "Benchmark Customer", "bench@bank.com", "01012345678");
+        for (int i = 0; i < ACCOUNTS; i++)
+        {
+            service.createAccount(accountId(i), "C00001", "CURRENT", 1_000_000.0);
+        }
+        return service;
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%d", index + 1);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Unit tests for the PartitionedDispatcher class.
+ * Covers per-partition serialization of deposits and withdrawals, cross-partition transfers,
+ * failure reporting, queue-depth metrics and graceful shutdown.
+ * Runs against the in-memory repositories.
+ * Implements test coverage for FR-05, FR-06, FR-07, FR-14 and FR-15.
+ */
+
+package com.bank.service;
+
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedDispatcherTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedDispatcherTest.class);
+
+    private static final int PARTITIONS = 4;
+    private static final int ACCOUNTS = 8;
+
+    private BankService bankService;
+    private PartitionedDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp()
+    {
+        bankService = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        for (int i = 1; i <= ACCOUNTS; i++)
+        {
+            bankService.createAccount("ACC-C00001-" + i, "C00001", "SAVINGS", 1000.0);
+        }
+        dispatcher = new PartitionedDispatcher(bankService, PARTITIONS);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        dispatcher.close();
+    }
+
+    /* ---------------- Deposits and withdrawals ---------------- */
+
+    @Test
+    @DisplayName("Concurrent deposits to one account are all applied")
+    void testDepositsToOneAccountSerialize() throws Exception
+    {
+        logger.info("Testing 10,000 deposits to one account from 8 producer threads");
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 8; t++)
+        {
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int n = 0; n < 1250; n++)
+                {
+                    CompletableFuture<Void> result = dispatcher.deposit("ACC-C00001-1", 1.0);
+                    synchronized (results)
+                    {
+                        results.add(result);
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producers)
+        {
+            producer.join();
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(11000.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(10001, bankService.getAccount("ACC-C00001-1").getTransactions().size());
+        logger.info("All deposits applied in partition order");
+    }
+
+    @Test
+    @DisplayName("A failed withdrawal completes its future exceptionally")
+    void testFailedWithdrawalIsReported()
+    {
+        logger.info("Testing a withdrawal above the balance");
+
+        CompletableFuture<Void> result = dispatcher.withdraw("ACC-C00001-2", 5000.0);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        assertEquals(1000.0, bankService.getAccountBalance("ACC-C00001-2"), 0.001);
+        logger.info("Failure reported: {}", exception.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("An Error thrown by a mutation completes its future and keeps the partition running")
+    void testErrorIsReported() throws Exception
+    {
+        logger.info("Testing a mutation that throws an Error");
+
+        BankService failing = new BankService(new InMemoryCustomerRepository(), new InMemoryAccountRepository())
+        {
+            @Override
+            public void deposit(String accountId, double amount)
+            {
+                throw new AssertionError("simulated error");
+            }
+        };
+        try (PartitionedDispatcher errors = new PartitionedDispatcher(failing, 1))
+        {
+            CompletableFuture<Void> result = errors.deposit("ACC-C00001-1", 1.0);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, exception.getCause());
+            CompletableFuture<Void> next = errors.withdraw("ACC-C00001-1", 1.0);
+            assertThrows(ExecutionException.class, () -> next.get(5, TimeUnit.SECONDS), "The partition must still run mutations");
+        }
+        logger.info("Error reported through the future");
+    }
+
+    /* ---------------- Transfers ---------------- */
+
+    @Test
+    @DisplayName("Transfers in both directions across partitions complete and keep the total")
+    void testCrossPartitionTransfersDoNotDeadlock() throws Exception
+    {
+        logger.info("Testing 4,000 transfers between all account pairs in both directions");
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int n = 0; n < 4000; n++)
+        {
+            int from = 1 + n % ACCOUNTS;
+            int to = 1 + (n * 7 + 3) % ACCOUNTS;
+            if (from != to)
+            {
+                results.add(dispatcher.transfer("ACC-C00001-" + from, "ACC-C00001-" + to, 1.0));
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(ACCOUNTS * 1000.0, bankService.getTotalBalance(), 0.001);
+        logger.info("{} transfers completed, total balance unchanged", results.size());
+    }
+
+    @Test
+    @DisplayName("A cross-partition transfer holds both partitions")
+    void testTransferHoldsBothPartitions() throws Exception
+    {
+        logger.info("Testing that a transfer excludes mutations on both partitions");
+
+        String from = "ACC-C00001-1";
+        String to = "ACC-C00001-2";
+        int i = 3;
+        while (dispatcher.partitionOf(to) == dispatcher.partitionOf(from))
+        {
+            to = "ACC-C00001-" + i++;
+        }
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingBankService blocking = new BlockingBankService(entered, release);
+        blocking.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        blocking.createAccount(from, "C00001", "SAVINGS", 100.0);
+        blocking.createAccount(to, "C00001", "SAVINGS", 100.0);
+        try (PartitionedDispatcher held = new PartitionedDispatcher(blocking, PARTITIONS))
+        {
+            CompletableFuture<Void> transfer = held.transfer(from, to, 10.0);
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Void> deposit = held.deposit(to, 1.0);
+
+            Thread.sleep(50);
+            assertFalse(deposit.isDone(), "The target partition must wait for the transfer");
+            release.countDown();
+            transfer.get(5, TimeUnit.SECONDS);
+            deposit.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(111.0, blocking.getAccountBalance(to), 0.001);
+        logger.info("Deposit ran only after the transfer");
+    }
+
+    /* ---------------- Metrics and shutdown ---------------- */
+
+    @Test
+    @DisplayName("Queue depth counts the mutations waiting on a busy partition")
+    void testQueueDepths() throws Exception
+    {
+        logger.info("Testing per-partition queue depth");
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingBankService blocking = new BlockingBankService(entered, release);
+        blocking.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        blocking.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 100.0);
+        PartitionedDispatcher held = new PartitionedDispatcher(blocking, PARTITIONS);
+        int partition = held.partitionOf("ACC-C00001-1");
+
+        held.transfer("ACC-C00001-1", "ACC-C00001-1", 1.0);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        for (int n = 0; n < 5; n++)
+        {
+            held.deposit("ACC-C00001-1", 1.0);
+        }
+
+        int[] depths = held.getQueueDepths();
+        assertEquals(5, depths[partition]);
+        assertEquals(5, Arrays.stream(depths).sum(), "Other partitions should be idle");
+
+        release.countDown();
+        held.close();
+        assertEquals(0, held.getQueueDepths()[partition]);
+        assertEquals(6, held.getCompletedCounts()[partition]);
+        logger.info("Queue depths: {}", Arrays.toString(depths));
+    }
+
+    @Test
+    @DisplayName("close() drains queued mutations and rejects new ones")
+    void testCloseDrainsAndRejects()
+    {
+        logger.info("Testing graceful shutdown");
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int n = 0; n < 100; n++)
+        {
+            results.add(dispatcher.transfer("ACC-C00001-" + (1 + n % ACCOUNTS), "ACC-C00001-" + (1 + (n + 1) % ACCOUNTS), 1.0));
+        }
+        dispatcher.close();
+
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone), "Queued mutations should finish before close() returns");
+        assertThrows(IllegalStateException.class, () -> dispatcher.deposit("ACC-C00001-1", 1.0));
+        logger.info("Queues drained, new mutations rejected");
+    }
+
+    /*
+     * BankService whose transfers block until released, to hold partitions busy.
+     */
+    private static class BlockingBankService extends BankService
+    {
+        private final CountDownLatch entered;
+        private final CountDownLatch release;
+
+        BlockingBankService(CountDownLatch entered, CountDownLatch release)
+        {
+            super(new InMemoryCustomerRepository(), new InMemoryAccountRepository());
+            this.entered = entered;
+            this.release = release;
+        }
+
+        @Override
+        public void transfer(String fromAccountId, String toAccountId, double amount)
+        {
+            entered.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            if (!fromAccountId.equals(toAccountId))
+            {
+                super.transfer(fromAccountId, toAccountId, amount);
+            }
+        }
+    }
+}
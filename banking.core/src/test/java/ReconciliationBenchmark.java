@@ -0,0 +1,111 @@
+/*
+ * Benchmark for ReconciliationService on the JDBC engine.
+ * Seeds a temporary SQLite file (WAL mode) with accounts and a history of deposits and withdrawals
+ * that matches every balance, then checks all of them, first account by account (a findById and a
+ * sum over the loaded history each) and then with the paged merge-join. Reports rows (accounts plus
+ * transaction records) per minute.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.ReconciliationBenchmark 20000 50 4 1000
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.HistoryTotal;
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.TestDatabase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class ReconciliationBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int recordsPerAccount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int pageSize = args.length > 3 ? Integer.parseInt(args[3]) : ReconciliationService.DEFAULT_PAGE_SIZE;
+        long rows = accounts + (long) accounts * recordsPerAccount;
+
+        Path directory = Files.createTempDirectory("reconciliation-benchmark");
+        try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("bank.db"), 8))
+        {
+            seed(pool, accounts, recordsPerAccount);
+            JdbcAccountRepository repository = new JdbcAccountRepository(pool);
+
+            long start = System.nanoTime();
+            long mismatches = 0;
+            for (int i = 0; i < accounts; i++)
+            {
+                Account account = repository.findById(accountId(i));
+                HistoryTotal history = HistoryTotal.of(account.getTransactions());
+                if (Math.round(account.getBalance() * 100) != Math.round(history.getNetAmount() * 100))
+                {
+                    mismatches++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Per-account check: %,d rows %,14.0f rows/min (%d mismatches)%n", rows, rows * 60 / seconds, mismatches);
+
+            for (int workers : new int[] {1, parallelism})
+            {
+                ReconciliationReport report = new ReconciliationService(repository, workers, pageSize).reconcile();
+                System.out.printf("Merge-join:        %,d rows %,14.0f rows/min (%d discrepancies, %d workers, page %d)%n",
+                    report.getAccountsChecked() + report.getTransactionsChecked(), report.getRowsPerMinute(),
+                    report.getDiscrepancies().size(), workers, pageSize);
+            }
+        }
+        finally
+        {
+            try (var files = Files.walk(directory))
+            {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void seed(ConnectionPool pool, int accounts, int recordsPerAccount) throws SQLException
+    {
+        try (Connection conn = pool.getConnection())
+        {
+            conn.setAutoCommit(false);
+            try (PreparedStatement account = conn.prepareStatement("INSERT INTO accounts (id, customer_id, type, balance) VALUES (?, 'C00001', 'CurrentAccount', ?)");
+                 PreparedStatement record = conn.prepareStatement("INSERT INTO transactions (id, account_id, type, amount, timestamp, description) VALUES (?, ?, ?, ?, ?, ?)"))
+            {
+                long id = 0;
+                for (int i = 0; i < accounts; i++)
+                {
+                    double balance = 0;
+                    for (int r = 0; r < recordsPerAccount; r++)
+                    {
+                        boolean withdrawal = r % 3 == 2;
+                        double amount = withdrawal ? 7.5 : 12.25;
+                        balance += withdrawal ? -amount : amount;
+                        record.setString(1, "T" + id++);
+                        record.setString(2, accountId(i));
+                        record.setString(3, withdrawal ? "Withdraw" : "Deposit");
+                        record.setDouble(4, amount);
+                        record.setString(5, String.format("2026-01-01 00:%02d:%02d", r / 60 % 60, r % 60));
+                        record.setString(6, "Benchmark record");
+                        record.addBatch();
+                    }
+                    record.executeBatch();
+                    account.setString(1, accountId(i));
+                    account.setDouble(2, balance);
+                    account.addBatch();
+                }
+                account.executeBatch();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%06d", index + 1);
+    }
+}
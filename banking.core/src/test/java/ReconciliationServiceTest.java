@@ -0,0 +1,209 @@
+/*
+ * Unit tests for the ReconciliationService class.
+ * Covers a bank whose balances all agree with their history, drift in stored balances, records
+ * without an account row, the CSV report, and a run on a file database in WAL mode while transfers
+ * keep committing, on the in-memory and JDBC engines.
+ * Implements test coverage for FR-10 and FR-11 in bulk.
+ */
+package com.bank.service;
+
+import com.bank.model.CurrentAccount;
+import com.bank.model.SavingsAccount;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.DatabaseSchema;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.service.ReconciliationReport.Discrepancy;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReconciliationServiceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationServiceTest.class);
+
+    /* ---------------- Helpers ---------------- */
+
+    private static AccountRepository jdbcAccounts(String url)
+    {
+        return new JdbcAccountRepository()
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(url);
+            }
+        };
+    }
+
+    /**
+     * Opens accounts with an initial deposit and moves money between them with deposits,
+     * withdrawals and transfers, so every balance agrees with its history.
+     */
+    private static BankService seed(AccountRepository accountRepository, int accounts)
+    {
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), accountRepository);
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        for (int i = 1; i <= accounts; i++)
+        {
+            bankService.createAccount(accountId(i), "C00001", i % 2 == 0 ? "CURRENT" : "SAVINGS", 1000.0);
+        }
+        for (int i = 1; i <= accounts; i++)
+        {
+            bankService.deposit(accountId(i), 10.25);
+            bankService.withdraw(accountId(i), 3.5);
+            bankService.transfer(accountId(i), accountId(i % accounts + 1), 1.75);
+        }
+        return bankService;
+    }
+
+    private static String accountId(int i)
+    {
+        return String.format("ACC-C00001-%04d", i);
+    }
+
+    /* ---------------- Reconciliation ---------------- */
+
+    @Test
+    @DisplayName("A bank whose balances agree with their history reconciles without discrepancies")
+    void testBalancedBank()
+    {
+        logger.info("Testing 25 accounts in pages of 4 on 3 workers");
+        AccountRepository accountRepository = new InMemoryAccountRepository();
+        seed(accountRepository, 25);
+
+        ReconciliationReport report = new ReconciliationService(accountRepository, 3, 4).reconcile();
+
+        assertTrue(report.isBalanced(), "Unexpected discrepancies: " + report.getDiscrepancies());
+        assertEquals(25, report.getAccountsChecked());
+        assertEquals(25 * 5, report.getTransactionsChecked(), "Opening deposit, deposit, withdrawal and both sides of a transfer");
+        assertThrows(IllegalArgumentException.class, () -> new ReconciliationService(accountRepository, 0, 10));
+        logger.info("Reconciled: {}", report);
+    }
+
+    @Test
+    @DisplayName("In-memory engine: balances stored without their records are reported in ID order")
+    void testDriftInMemory()
+    {
+        logger.info("Testing drift on the in-memory engine");
+        AccountRepository accountRepository = new InMemoryAccountRepository();
+        seed(accountRepository, 10);
+        /* Balances set directly, with no record behind them */
+        accountRepository.save(new SavingsAccount("ACC-C00001-0003", "C00001", 500.0));
+        accountRepository.save(new CurrentAccount("ACC-C00001-0011", "C00001", 42.0));
+
+        ReconciliationReport report = new ReconciliationService(accountRepository, 2, 3).reconcile();
+
+        List<Discrepancy> discrepancies = report.getDiscrepancies();
+        assertEquals(List.of("ACC-C00001-0003", "ACC-C00001-0011"), discrepancies.stream().map(Discrepancy::getAccountId).toList());
+        assertEquals(500.0, discrepancies.get(0).getDifference(), 0.001);
+        assertEquals(0, discrepancies.get(0).getTransactionCount());
+        assertEquals(42.0, discrepancies.get(1).getBalance(), 0.001);
+        assertFalse(discrepancies.get(1).isMissingAccount());
+        assertEquals(11, report.getAccountsChecked());
+        logger.info("Drift found: {}", discrepancies);
+    }
+
+    @Test
+    @DisplayName("JDBC engine: drifted balances and records without an account row end up in the CSV report")
+    void testDriftJdbc(@TempDir Path directory) throws SQLException, IOException
+    {
+        logger.info("Testing drift and orphaned records on the JDBC engine");
+        String url = "jdbc:sqlite:" + directory.resolve("reconcile.db");
+        try (Connection conn = DriverManager.getConnection(url))
+        {
+            DatabaseSchema.create(conn);
+            AccountRepository accountRepository = jdbcAccounts(url);
+            seed(accountRepository, 12);
+            try (Statement stmt = conn.createStatement())
+            {
+                stmt.execute("UPDATE accounts SET balance = balance + 0.01 WHERE id = 'ACC-C00001-0005'");
+                stmt.execute("INSERT INTO transactions VALUES ('T-ORPHAN-1', 'ACC-C00001-0007X', 'Deposit', 20.0, '2026-01-01 00:00:00', 'Orphan')");
+                stmt.execute("INSERT INTO transactions VALUES ('T-ORPHAN-2', 'ACC-C00001-0007X', 'Withdraw', 5.0, '2026-01-01 00:00:01', 'Orphan')");
+                stmt.execute("INSERT INTO transactions VALUES ('T-ORPHAN-3', 'ZZZ-LAST', 'Deposit', 1.0, '2026-01-01 00:00:02', 'Orphan')");
+            }
+
+            ReconciliationReport report = new ReconciliationService(accountRepository, 2, 5).reconcile();
+
+            List<Discrepancy> discrepancies = report.getDiscrepancies();
+            assertEquals(List.of("ACC-C00001-0005", "ACC-C00001-0007X", "ZZZ-LAST"),
+                discrepancies.stream().map(Discrepancy::getAccountId).toList());
+            assertEquals(0.01, discrepancies.get(0).getDifference(), 0.0001);
+            assertTrue(discrepancies.get(1).isMissingAccount());
+            assertEquals(15.0, discrepancies.get(1).getExpectedBalance(), 0.001);
+            assertEquals(2, discrepancies.get(1).getTransactionCount());
+            assertEquals(12 * 5 + 3, report.getTransactionsChecked());
+
+            Path csv = directory.resolve("discrepancies.csv");
+            report.writeCsv(csv);
+            List<String> lines = Files.readAllLines(csv);
+            assertEquals(4, lines.size());
+            assertEquals("ACC-C00001-0007X,0.00,15.00,-15.00,2,true", lines.get(2));
+            logger.info("Report: {}", report);
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC engine in WAL mode: a run while transfers keep committing reports no false discrepancies")
+    void testOnlineWithWriters(@TempDir Path directory) throws Exception
+    {
+        logger.info("Testing reconciliation while a writer transfers between accounts");
+        String url = "jdbc:sqlite:" + directory.resolve("online.db");
+        try (Connection conn = DriverManager.getConnection(url))
+        {
+            try (Statement stmt = conn.createStatement())
+            {
+                stmt.execute("PRAGMA journal_mode=WAL");
+            }
+            DatabaseSchema.create(conn);
+            AccountRepository accountRepository = jdbcAccounts(url);
+            BankService bankService = seed(accountRepository, 40);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicInteger transfers = new AtomicInteger();
+            Thread writer = new Thread(() -> {
+                int i = 0;
+                while (running.get())
+                {
+                    bankService.transfer(accountId(i % 40 + 1), accountId((i + 7) % 40 + 1), 0.5);
+                    transfers.incrementAndGet();
+                    i++;
+                }
+            });
+            writer.start();
+            try
+            {
+                ReconciliationService service = new ReconciliationService(accountRepository, 4, 3);
+                for (int run = 0; run < 3; run++)
+                {
+                    ReconciliationReport report = service.reconcile();
+                    assertTrue(report.isBalanced(), "False discrepancies: " + report.getDiscrepancies());
+                    assertEquals(40, report.getAccountsChecked());
+                }
+            }
+            finally
+            {
+                running.set(false);
+                writer.join();
+            }
+            assertTrue(transfers.get() > 0, "The writer was held up for the whole run");
+            logger.info("Three runs stayed balanced while {} transfers committed", transfers.get());
+        }
+    }
+}
@@ -0,0 +1,839 @@
+/*
+ * Conformance suite that every storage engine behind AccountRepository and CustomerRepository must pass.
+ * Each test runs once per engine (JDBC, binary ledger, in-memory, sharded), so a new engine only has to be
+ * added to the engine lists and the factory methods below.
+ * Implements test coverage for FR-12: Save Data and FR-13: Load Data across engines.
+ */
+package com.bank.repository;
+
+import com.bank.model.*;
+import com.bank.service.BankService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositoryConformanceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryConformanceTest.class);
+
+    /* Named shared in-memory DB used by the JDBC-backed engines */
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:conformancedb?mode=memory&cache=shared";
+
+    /* Runs the annotated test once per AccountRepository engine */
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @ParameterizedTest(name = "[{0}]")
+    @ValueSource(strings = {"jdbc", "ledger", "memory", "sharded"})
+    @interface ForEachAccountEngine {}
+
+    /* Runs the annotated test once per CustomerRepository engine */
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @ParameterizedTest(name = "[{0}]")
+    @ValueSource(strings = {"jdbc", "memory"})
+    @interface ForEachCustomerEngine {}
+
+    @TempDir
+    Path tempDir;
+
+    /* Number of in-memory shard DBs behind the sharded engine (the shared DB is its directory) */
+    private static final int SHARDS = 3;
+
+    private Connection sharedConn;
+    private TransactionLedger ledger;
+    private ShardedAccountRepository sharded;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        sharedConn = TestDatabase.open(IN_MEMORY_URL);
+        try (Statement stmt = sharedConn.createStatement())
+        {
+            DatabaseSchema.createShardDirectoryTables(stmt);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException, IOException
+    {
+        if (ledger != null)
+        {
+            ledger.close();
+        }
+        if (sharded != null)
+        {
+            sharded.close();
+        }
+        TestDatabase.dropTables(sharedConn);
+        sharedConn.close();
+    }
+
+    /* ---------------- Engine factories ---------------- */
+
+    private AccountRepository accountRepository(String engine) throws IOException
+    {
+        switch (engine)
+        {
+            case "jdbc":
+                return new JdbcAccountRepository(null, new TransactionArchive(tempDir.resolve("archive")))
+                {
+                    @Override
+                    protected Connection getConnection() throws SQLException
+                    {
+                        return DriverManager.getConnection(IN_MEMORY_URL);
+                    }
+                };
+            case "ledger":
+                ledger = new TransactionLedger(tempDir.resolve("transactions.ledger"));
+                return new LedgerAccountRepository(ledger)
+                {
+                    @Override
+                    protected Connection getConnection() throws SQLException
+                    {
+                        return DriverManager.getConnection(IN_MEMORY_URL);
+                    }
+                };
+            case "memory":
+                return new InMemoryAccountRepository();
+            case "sharded":
+                sharded = shardedRepository();
+                return sharded;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    private CustomerRepository customerRepository(String engine)
+    {
+        switch (engine)
+        {
+            case "jdbc":
+                return new JdbcCustomerRepository()
+                {
+                    @Override
+                    protected Connection getConnection() throws SQLException
+                    {
+                        return DriverManager.getConnection(IN_MEMORY_URL);
+                    }
+                };
+            case "memory":
+                return new InMemoryCustomerRepository();
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    /*
+     * Builds the sharded engine over SHARDS fresh in-memory DBs, each kept alive by its pool.
+     */
+    private ShardedAccountRepository shardedRepository() throws IOException
+    {
+        try
+        {
+            List<ConnectionPool> shardPools = new ArrayList<>();
+            for (int i = 0; i < SHARDS; i++)
+            {
+                ConnectionPool pool = new ConnectionPool("jdbc:sqlite:file:conformance-shard-" + i + "?mode=memory&cache=shared", 2);
+                try (Connection conn = pool.getConnection();
+                     Statement stmt = conn.createStatement())
+                {
+                    DatabaseSchema.createShardTables(stmt);
+                }
+                shardPools.add(pool);
+            }
+            return new ShardedAccountRepository(new ConnectionPool(IN_MEMORY_URL, 2), shardPools, tempDir.resolve("sharded-archive"));
+        }
+        catch (SQLException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    /*
+     * Subscribes, requests one element at a time and returns everything the publisher emitted.
+     */
+    private static <T> List<T> collect(Flow.Publisher<T> publisher) throws Exception
+    {
+        List<T> items = new ArrayList<>();
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<T>()
+        {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription)
+            {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T item)
+            {
+                items.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                result.complete(items);
+            }
+        });
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<String> describe(List<AccountTransaction> transactions)
+    {
+        return transactions.stream().map(pair -> pair.getAccountId() + ":" + pair.getTransaction().getAmount()).sorted().toList();
+    }
+
+    /* ---------------- AccountRepository contract ---------------- */
+
+    @ForEachAccountEngine
+    @DisplayName("Should keep type, owner and balance of saved accounts")
+    void testSaveAndFindByIdKeepsFields(String engine) throws IOException
+    {
+        logger.info("[{}] Testing save and findById", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        repository.save(new SavingsAccount("ACC-C00001-1", "C00001", 1000.0));
+        repository.save(new CurrentAccount("ACC-C00001-2", "C00001", 500.0));
+
+        Account savings = repository.findById("ACC-C00001-1");
+        Account current = repository.findById("ACC-C00001-2");
+        assertInstanceOf(SavingsAccount.class, savings);
+        assertInstanceOf(CurrentAccount.class, current);
+        assertEquals("C00001", savings.getCustomerId());
+        assertEquals(500.0, current.getBalance(), 0.0001);
+        assertNull(repository.findById("ACC-INVALID"), "Missing accounts must be returned as null");
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should replace an account saved again with the same ID")
+    void testSaveReplacesAccount(String engine) throws IOException
+    {
+        logger.info("[{}] Testing save replaces existing account", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        repository.save(new SavingsAccount("ACC-C00001-1", "C00001", 1000.0));
+        repository.save(new SavingsAccount("ACC-C00001-1", "C00001", 2000.0));
+
+        assertEquals(2000.0, repository.findById("ACC-C00001-1").getBalance(), 0.0001);
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should persist transactions once even when an account is saved repeatedly")
+    void testTransactionsAreSavedOnce(String engine) throws IOException
+    {
+        logger.info("[{}] Testing transaction persistence", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+        account.deposit(100.0);
+        repository.save(account);
+        account.deposit(50.0);
+        repository.save(account);
+
+        List<Transaction> history = repository.findById("ACC-C00001-1").getTransactions();
+        assertEquals(2, history.size());
+        assertEquals(TransactionType.DEPOSIT, history.get(1).getType());
+        assertEquals(50.0, history.get(1).getAmount(), 0.0001);
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should list and delete accounts")
+    void testFindAllAndDelete(String engine) throws IOException
+    {
+        logger.info("[{}] Testing findAll and delete", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        repository.save(new SavingsAccount("ACC-C00001-1", "C00001", 1000.0));
+        repository.save(new CurrentAccount("ACC-C00001-2", "C00001", 500.0));
+        assertEquals(2, repository.findAll().size());
+
+        repository.delete("ACC-C00001-1");
+        assertNull(repository.findById("ACC-C00001-1"));
+        assertEquals(1, repository.findAll().size());
+        assertDoesNotThrow(() -> repository.delete("ACC-INVALID"));
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should find and update accounts through a caller-managed connection")
+    void testConnectionScopedFindAndUpdate(String engine) throws Exception
+    {
+        logger.info("[{}] Testing findById(conn) and update(conn)", engine);
+        AccountRepository repository = accountRepository(engine);
+        repository.save(new CurrentAccount("ACC-C00001-2", "C00001", 500.0));
+
+        Connection conn = repository.openConnection();
+        try
+        {
+            Account account = repository.findById(conn, "ACC-C00001-2");
+            assertInstanceOf(CurrentAccount.class, account, "Account type must survive the transactional lookup");
+            account.withdraw(200.0);
+            repository.update(conn, account);
+
+            Connection scoped = conn;
+            assertThrows(RuntimeException.class,
+                () -> repository.update(scoped, new SavingsAccount("ACC-GHOST", "C00099", 1.0)),
+                "Updating a missing account must fail");
+        }
+        finally
+        {
+            if (conn != null)
+            {
+                conn.close();
+            }
+        }
+
+        assertEquals(300.0, repository.findById("ACC-C00001-2").getBalance(), 0.0001);
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should store idempotency keys and single transactions through a caller-managed connection")
+    void testConnectionScopedIdempotencyKeys(String engine) throws Exception
+    {
+        logger.info("[{}] Testing appendTransaction(conn) and idempotency keys", engine);
+        AccountRepository repository = accountRepository(engine);
+        repository.save(new SavingsAccount("ACC-C00001-1", "C00001", 100.0));
+
+        Connection conn = repository.openConnection();
+        try
+        {
+            assertNull(repository.findIdempotentResult(conn, "key-1", "DEPOSIT ACC-C00001-1 25.0"));
+
+            Account account = repository.findById(conn, "ACC-C00001-1");
+            account.deposit(25.0);
+            repository.update(conn, account);
+            List<Transaction> history = account.getTransactions();
+            repository.appendTransaction(conn, account.getId(), history.get(history.size() - 1));
+            repository.saveIdempotencyKey(conn, "key-1", "DEPOSIT ACC-C00001-1 25.0", account.getBalance());
+
+            assertEquals(125.0, repository.findIdempotentResult(conn, "key-1", "DEPOSIT ACC-C00001-1 25.0"), 0.0001);
+            Connection scoped = conn;
+            assertThrows(IllegalArgumentException.class,
+                () -> repository.findIdempotentResult(scoped, "key-1", "DEPOSIT ACC-C00001-1 99.0"),
+                "A key reused for a different request must be rejected");
+        }
+        finally
+        {
+            if (conn != null)
+            {
+                conn.close();
+            }
+        }
+
+        List<Transaction> history = repository.findById("ACC-C00001-1").getTransactions();
+        assertEquals(1, history.size());
+        assertEquals(25.0, history.get(0).getAmount(), 0.0001);
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should append several transactions as one batch through a caller-managed connection")
+    void testConnectionScopedTransactionBatch(String engine) throws Exception
+    {
+        logger.info("[{}] Testing appendTransactions(conn)", engine);
+        AccountRepository repository = accountRepository(engine);
+        repository.save(new CurrentAccount("ACC-C00001-1", "C00001", 100.0));
+
+        List<Transaction> deposits = new ArrayList<>();
+        for (int i = 1; i <= 3; i++)
+        {
+            deposits.add(new Transaction(TransactionIdGenerator.nextId(), TransactionType.DEPOSIT, i * 10.0, "Deposit " + i));
+        }
+        Connection conn = repository.openConnection();
+        try
+        {
+            Account account = repository.findById(conn, "ACC-C00001-1");
+            for (Transaction deposit : deposits)
+            {
+                account.applyDeposit(deposit);
+            }
+            repository.update(conn, account);
+            repository.appendTransactions(conn, account.getId(), deposits);
+        }
+        finally
+        {
+            if (conn != null)
+            {
+                conn.close();
+            }
+        }
+
+        Account reloaded = repository.findById("ACC-C00001-1");
+        assertEquals(160.0, reloaded.getBalance(), 0.0001);
+        List<Transaction> history = reloaded.getTransactions();
+        assertEquals(3, history.size());
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(deposits.get(i).getAmount(), history.get(i).getAmount(), 0.0001, "Records keep their order");
+        }
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should page balances by type, apply credits in bulk and store job checkpoints")
+    void testBatchJobSupport(String engine) throws Exception
+    {
+        logger.info("[{}] Testing findBalancePage, applyCredits and checkpoints", engine);
+        AccountRepository repository = accountRepository(engine);
+        for (int i = 1; i <= 5; i++)
+        {
+            repository.save(i % 2 == 1
+                ? new SavingsAccount("ACC-C00001-" + i, "C00001", 100.0 * i)
+                : new CurrentAccount("ACC-C00001-" + i, "C00001", 100.0 * i));
+        }
+
+        Map<String, Double> first = repository.findBalancePage("SAVINGS", null, 2);
+        assertEquals(List.of("ACC-C00001-1", "ACC-C00001-3"), new ArrayList<>(first.keySet()));
+        assertEquals(300.0, first.get("ACC-C00001-3"), 0.0001);
+        assertEquals(List.of("ACC-C00001-5"), new ArrayList<>(repository.findBalancePage("SAVINGS", "ACC-C00001-3", 2).keySet()));
+
+        Map<String, Transaction> credits = new LinkedHashMap<>();
+        credits.put("ACC-C00001-1", new Transaction(TransactionIdGenerator.nextId(), TransactionType.INTEREST, 1.0, "Interest"));
+        credits.put("ACC-C00001-5", new Transaction(TransactionIdGenerator.nextId(), TransactionType.INTEREST, 5.0, "Interest"));
+        JobCheckpointRepository checkpoints = (JobCheckpointRepository) repository;
+        assertTrue(checkpoints.findCheckpoints("job").isEmpty());
+        Connection conn = repository.openConnection();
+        try
+        {
+            if (conn != null)
+            {
+                conn.setAutoCommit(false);
+            }
+            repository.applyCredits(conn, credits);
+            checkpoints.saveCheckpoint(conn, "job", "ACC-C00001-1", "ACC-C00001-5");
+            if (conn != null)
+            {
+                conn.commit();
+            }
+        }
+        finally
+        {
+            if (conn != null)
+            {
+                conn.close();
+            }
+        }
+
+        assertEquals(101.0, repository.findById("ACC-C00001-1").getBalance(), 0.0001);
+        assertEquals(505.0, repository.findById("ACC-C00001-5").getBalance(), 0.0001);
+        assertEquals(300.0, repository.findById("ACC-C00001-3").getBalance(), 0.0001);
+        List<Transaction> history = repository.findById("ACC-C00001-5").getTransactions();
+        assertEquals(TransactionType.INTEREST, history.get(history.size() - 1).getType());
+        assertEquals(Map.of("ACC-C00001-1", "ACC-C00001-5"), checkpoints.findCheckpoints("job"));
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should page balances of every type and roll up histories by account-ID range")
+    void testHistoryTotals(String engine) throws IOException
+    {
+        logger.info("[{}] Testing findBalancePage without a type and findHistoryTotals", engine);
+        AccountRepository repository = accountRepository(engine);
+        for (int i = 1; i <= 4; i++)
+        {
+            Account account = i % 2 == 1 ? new SavingsAccount("ACC-C00001-" + i, "C00001") : new CurrentAccount("ACC-C00001-" + i, "C00001");
+            if (i != 3)
+            {
+                account.deposit(100.0 * i);
+                account.withdraw(10.0);
+            }
+            repository.save(account);
+        }
+
+        assertEquals(List.of("ACC-C00001-2", "ACC-C00001-3"), new ArrayList<>(repository.findBalancePage(null, "ACC-C00001-1", 2).keySet()));
+
+        Map<String, HistoryTotal> all = repository.findHistoryTotals(null, null);
+        assertEquals(List.of("ACC-C00001-1", "ACC-C00001-2", "ACC-C00001-4"), new ArrayList<>(all.keySet()), "Accounts without records are left out");
+        assertEquals(2, all.get("ACC-C00001-2").getTransactionCount());
+        assertEquals(190.0, all.get("ACC-C00001-2").getNetAmount(), 0.0001);
+        assertEquals(List.of("ACC-C00001-2"), new ArrayList<>(repository.findHistoryTotals("ACC-C00001-1", "ACC-C00001-3").keySet()));
+        assertEquals(List.of("ACC-C00001-4"), new ArrayList<>(repository.findHistoryTotals("ACC-C00001-2", null).keySet()));
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should answer balances as of a time the same way before and after checkpointing")
+    void testBalanceAsOf(String engine) throws IOException
+    {
+        logger.info("[{}] Testing findBalanceAsOf, findBalancesAsOf and checkpointBalances", engine);
+        AccountRepository repository = accountRepository(engine);
+        LocalDateTime day = LocalDateTime.of(2026, 3, 1, 0, 0);
+        Account first = new SavingsAccount("ACC-C00001-1", "C00001");
+        first.addTransaction(new Transaction("T-1", TransactionType.DEPOSIT, 100.0, day.plusHours(9), "Deposit"));
+        first.addTransaction(new Transaction("T-2", TransactionType.WITHDRAW, 30.0, day.plusDays(1).plusHours(9), "Withdraw"));
+        first.addTransaction(new Transaction("T-3", TransactionType.INTEREST, 2.5, day.plusDays(2).plusHours(9), "Interest"));
+        Account second = new CurrentAccount("ACC-C00001-2", "C00001");
+        second.addTransaction(new Transaction("T-4", TransactionType.DEPOSIT, 50.0, day.plusDays(1).plusHours(12), "Deposit"));
+        repository.save(first);
+        repository.save(second);
+
+        for (int pass = 0; pass < 2; pass++)
+        {
+            assertEquals(0.0, repository.findBalanceAsOf("ACC-C00001-1", day.plusHours(9)), 0.0001, "Records at the time itself are excluded");
+            assertEquals(100.0, repository.findBalanceAsOf("ACC-C00001-1", day.plusHours(9).plusSeconds(1)), 0.0001);
+            assertEquals(70.0, repository.findBalanceAsOf("ACC-C00001-1", day.plusDays(2)), 0.0001);
+            assertEquals(72.5, repository.findBalanceAsOf("ACC-C00001-1", day.plusDays(5)), 0.0001);
+            assertNull(repository.findBalanceAsOf("ACC-C00001-9", day));
+            Map<String, Double> balances = repository.findBalancesAsOf(day.plusDays(1).plusHours(10));
+            assertEquals(List.of("ACC-C00001-1", "ACC-C00001-2"), new ArrayList<>(balances.keySet()));
+            assertEquals(70.0, balances.get("ACC-C00001-1"), 0.0001);
+            assertEquals(0.0, balances.get("ACC-C00001-2"), 0.0001);
+
+            /* Checkpoint the first two days (engines without checkpoints write none) */
+            repository.checkpointBalances(null, day.plusDays(1));
+            repository.checkpointBalances(day.plusDays(1), day.plusDays(2));
+        }
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should keep history reads, roll-ups and balances as of a time unchanged by archiving")
+    void testArchiveTransactions(String engine) throws Exception
+    {
+        logger.info("[{}] Testing archiveTransactions against the reads that merge archived records", engine);
+        AccountRepository repository = accountRepository(engine);
+        LocalDateTime day = LocalDateTime.of(2026, 3, 1, 0, 0);
+        Account first = new SavingsAccount("ACC-C00001-1", "C00001", 72.5);
+        first.addTransaction(new Transaction("T-1", TransactionType.DEPOSIT, 100.0, day.plusHours(9), "Deposit"));
+        first.addTransaction(new Transaction("T-2", TransactionType.WITHDRAW, 30.0, day.plusDays(1).plusHours(9), "Withdraw"));
+        first.addTransaction(new Transaction("T-3", TransactionType.INTEREST, 2.5, day.plusDays(2).plusHours(9), "Interest"));
+        Account second = new CurrentAccount("ACC-C00001-2", "C00001", 50.0);
+        second.addTransaction(new Transaction("T-4", TransactionType.DEPOSIT, 50.0, day.plusDays(1).plusHours(12), "Deposit"));
+        repository.save(first);
+        repository.save(second);
+        TransactionQuery window = TransactionQuery.builder().between(day.plusHours(12), day.plusDays(3)).build();
+
+        for (int pass = 0; pass < 3; pass++)
+        {
+            /* Pass 1 archives the first day of the first account, pass 2 everything before the third day */
+            List<Transaction> page = repository.findTransactionPage("ACC-C00001-1", null, 2);
+            assertEquals(List.of(100.0, 30.0), page.stream().map(Transaction::getAmount).toList());
+            List<Transaction> next = repository.findTransactionPage("ACC-C00001-1", page.get(1).getId(), 2);
+            assertEquals(List.of(2.5), next.stream().map(Transaction::getAmount).toList());
+            assertEquals(List.of(30.0, 2.5), repository.findTransactionPage("ACC-C00001-1", page.get(0).getId(), 5).stream()
+                .map(Transaction::getAmount).toList());
+            assertTrue(repository.findTransactionPage("ACC-C00001-1", next.get(0).getId(), 5).isEmpty());
+            assertEquals(List.of(100.0, 30.0, 2.5), collect(repository.streamTransactions("ACC-C00001-1")).stream().map(Transaction::getAmount).toList());
+            assertEquals(List.of("ACC-C00001-1:2.5", "ACC-C00001-1:30.0", "ACC-C00001-2:50.0"), describe(collect(repository.streamTransactions(window))));
+            assertEquals(4, collect(repository.streamTransactions(TransactionQuery.builder().build())).size());
+
+            Map<String, HistoryTotal> totals = repository.findHistoryTotals(null, null);
+            assertEquals(3, totals.get("ACC-C00001-1").getTransactionCount());
+            assertEquals(72.5, totals.get("ACC-C00001-1").getNetAmount(), 0.0001);
+            assertEquals(1, totals.get("ACC-C00001-2").getTransactionCount());
+            HistoryTotal loaded = HistoryTotal.of(repository.findById("ACC-C00001-1").getTransactions())
+                .plus(repository.findArchivedTotal("ACC-C00001-1"));
+            assertEquals(3, loaded.getTransactionCount());
+            assertEquals(72.5, loaded.getNetAmount(), 0.0001);
+
+            assertEquals(100.0, repository.findBalanceAsOf("ACC-C00001-1", day.plusHours(10)), 0.0001);
+            assertEquals(70.0, repository.findBalanceAsOf("ACC-C00001-1", day.plusDays(2)), 0.0001);
+            assertEquals(72.5, repository.findBalanceAsOf("ACC-C00001-1", day.plusDays(5)), 0.0001);
+            assertEquals(Map.of("ACC-C00001-1", 70.0, "ACC-C00001-2", 50.0), repository.findBalancesAsOf(day.plusDays(2)));
+
+            int archived = pass == 0 ? repository.archiveTransactions(day.plusDays(1)) : pass == 1 ? repository.archiveTransactions(day.plusDays(2)) : 0;
+            int expected = pass == 0 ? 1 : pass == 1 ? 2 : 0;
+            assertEquals("memory".equals(engine) || "ledger".equals(engine) ? 0 : expected, archived);
+        }
+        assertEquals(0, repository.archiveTransactions(day.plusDays(2)), "Nothing is left to archive");
+        if ("jdbc".equals(engine) || "sharded".equals(engine))
+        {
+            assertEquals(List.of(2.5), repository.findById("ACC-C00001-1").getTransactions().stream().map(Transaction::getAmount).toList(),
+                "Loading an account reads its hot records only");
+            assertEquals(2, repository.findArchivedTotal("ACC-C00001-1").getTransactionCount());
+        }
+
+        /* Deposits and withdrawals append their own record only, so archived records never return to the table */
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), repository);
+        bankService.deposit("ACC-C00001-1", 10.0);
+        bankService.withdraw("ACC-C00001-1", 5.0);
+        assertEquals(0, repository.archiveTransactions(day.plusDays(2)), "No archived record may be written back");
+        assertEquals(5, repository.findHistoryTotals(null, null).get("ACC-C00001-1").getTransactionCount());
+        List<String> ids = new ArrayList<>();
+        List<Transaction> page = repository.findTransactionPage("ACC-C00001-1", null, 2);
+        while (!page.isEmpty())
+        {
+            page.forEach(transaction -> ids.add(transaction.getId()));
+            page = repository.findTransactionPage("ACC-C00001-1", page.get(page.size() - 1).getId(), 2);
+        }
+        assertEquals(5, ids.stream().distinct().count(), "Every record is paged exactly once: " + ids);
+        assertEquals(List.of("T-1", "T-2", "T-3"), ids.subList(0, 3));
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should store scheduled transfers and page the active ones by due time")
+    void testScheduledTransfers(String engine) throws IOException
+    {
+        logger.info("[{}] Testing saveSchedules, findSchedule and findDueSchedules", engine);
+        ScheduleRepository repository = (ScheduleRepository) accountRepository(engine);
+        repository.saveSchedules(List.of(
+            new ScheduledTransfer("SCH-1", "ACC-C00001-1", "ACC-C00001-2", 10.0, 1000, 5000, true),
+            new ScheduledTransfer("SCH-2", "ACC-C00001-1", "ACC-C00001-2", 20.0, 0, 3000, true),
+            new ScheduledTransfer("SCH-3", "ACC-C00001-2", "ACC-C00001-1", 30.0, 0, 3000, true),
+            new ScheduledTransfer("SCH-4", "ACC-C00001-2", "ACC-C00001-1", 40.0, 0, 9000, true)));
+
+        List<ScheduledTransfer> first = repository.findDueSchedules(Long.MIN_VALUE, null, 6000, 2);
+        assertEquals(List.of("SCH-2", "SCH-3"), first.stream().map(ScheduledTransfer::getId).toList());
+        List<ScheduledTransfer> second = repository.findDueSchedules(3000, "SCH-3", 6000, 2);
+        assertEquals(List.of("SCH-1"), second.stream().map(ScheduledTransfer::getId).toList());
+        assertEquals(List.of("SCH-1"), repository.findDueSchedules(3000, null, 6000, 10).stream().map(ScheduledTransfer::getId).toList());
+
+        /* Advance one schedule and cancel another: the due-time order follows the stored state */
+        repository.saveSchedules(List.of(first.get(0).cancel(), second.get(0).advance()));
+        assertEquals(List.of("SCH-3", "SCH-1"),
+            repository.findDueSchedules(Long.MIN_VALUE, null, 6000, 10).stream().map(ScheduledTransfer::getId).toList());
+        ScheduledTransfer stored = repository.findSchedule("SCH-1");
+        assertEquals(6000, stored.getNextRunAt());
+        assertEquals(1000, stored.getIntervalMillis());
+        assertEquals(10.0, stored.getAmount(), 0.0001);
+        assertFalse(repository.findSchedule("SCH-2").isActive());
+        assertNull(repository.findSchedule("SCH-9"));
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should find accounts by customer and by type and aggregate per customer")
+    void testFindByCustomerAndType(String engine) throws IOException
+    {
+        logger.info("[{}] Testing findByCustomerId, findByType and the balance aggregates", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        SavingsAccount withHistory = new SavingsAccount("ACC-C00001-2", "C00001");
+        withHistory.deposit(250.0);
+        repository.save(new CurrentAccount("ACC-C00001-1", "C00001", 100.0));
+        repository.save(withHistory);
+        repository.save(new SavingsAccount("ACC-C00002-1", "C00002", 999.0));
+
+        List<Account> owned = repository.findByCustomerId("C00001");
+        assertEquals(List.of("ACC-C00001-1", "ACC-C00001-2"), owned.stream().map(Account::getId).toList());
+        assertEquals(1, owned.get(1).getTransactions().size(), "History must be loaded with the account");
+        assertEquals(2, repository.countByCustomerId("C00001"));
+        assertEquals(350.0, repository.sumBalanceByCustomerId("C00001"), 0.0001);
+        assertEquals(0, repository.countByCustomerId("C00099"));
+        assertEquals(0.0, repository.sumBalanceByCustomerId("C00099"), 0.0001);
+        assertEquals(1349.0, repository.sumBalances(), 0.0001);
+        assertTrue(repository.existsById("ACC-C00001-2"));
+        assertFalse(repository.existsById("ACC-C00099-1"));
+
+        assertEquals(List.of("ACC-C00001-2", "ACC-C00002-1"),
+            repository.findByType("savings").stream().map(Account::getId).sorted().toList());
+        assertThrows(IllegalArgumentException.class, () -> repository.findByType("GOLD"));
+
+        repository.delete("ACC-C00001-1");
+        assertEquals(List.of("ACC-C00001-2"), repository.findByCustomerId("C00001").stream().map(Account::getId).toList());
+        assertFalse(repository.existsById("ACC-C00001-1"));
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should page through accounts and transactions with an after-ID cursor")
+    void testKeysetPages(String engine) throws IOException
+    {
+        logger.info("[{}] Testing findPage and findTransactionPage", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        SavingsAccount busy = new SavingsAccount("ACC-C00001-3", "C00001");
+        for (int i = 1; i <= 5; i++)
+        {
+            busy.deposit(i * 10.0);
+        }
+        repository.save(new SavingsAccount("ACC-C00002-1", "C00002", 10.0));
+        repository.save(new CurrentAccount("ACC-C00001-1", "C00001", 20.0));
+        repository.save(busy);
+
+        assertEquals(List.of("ACC-C00001-1", "ACC-C00001-3"),
+            repository.findPage(null, 2).stream().map(Account::getId).toList());
+        assertEquals(List.of("ACC-C00002-1"),
+            repository.findPage("ACC-C00001-3", 2).stream().map(Account::getId).toList());
+        assertEquals(List.of("ACC-C00001-3", "ACC-C00002-1"),
+            repository.findPage("ACC-C00001-2", 5).stream().map(Account::getId).toList(), "The cursor need not exist");
+        assertTrue(repository.findPage("ACC-C00002-1", 2).isEmpty());
+        assertEquals(5, repository.findPage(null, 2).get(1).getTransactions().size(), "History must be loaded with the account");
+        List<Account> rows = repository.findPageRows("ACC-C00001-1", 1);
+        assertEquals(List.of("ACC-C00001-3"), rows.stream().map(Account::getId).toList());
+        assertEquals(150.0, rows.get(0).getBalance(), 0.0001, "Row pages must carry the stored balance");
+
+        /* Walk the history two at a time: every transaction exactly once */
+        List<String> walked = new ArrayList<>();
+        String after = null;
+        List<Transaction> page;
+        do
+        {
+            page = repository.findTransactionPage("ACC-C00001-3", after, 2);
+            assertTrue(page.size() <= 2);
+            page.forEach(transaction -> walked.add(transaction.getId()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 2);
+
+        List<String> stored = repository.findById("ACC-C00001-3").getTransactions().stream().map(Transaction::getId).sorted().toList();
+        assertEquals(stored, walked.stream().sorted().toList());
+        assertTrue(repository.findTransactionPage("ACC-MISSING", null, 2).isEmpty());
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should stream accounts, one history and a time window with one-by-one demand")
+    void testStreams(String engine) throws Exception
+    {
+        logger.info("[{}] Testing streamAll and streamTransactions", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        SavingsAccount march = new SavingsAccount("ACC-C00001-1", "C00001");
+        march.addTransaction(new Transaction("1", TransactionType.DEPOSIT, 10.0, LocalDateTime.of(2026, 3, 1, 10, 0), "Early March"));
+        march.addTransaction(new Transaction("2", TransactionType.WITHDRAW, 5.0, LocalDateTime.of(2026, 4, 2, 9, 30), "April"));
+        CurrentAccount other = new CurrentAccount("ACC-C00002-1", "C00002");
+        other.addTransaction(new Transaction("3", TransactionType.DEPOSIT, 20.0, LocalDateTime.of(2026, 3, 31, 23, 59, 59), "Late March"));
+        repository.save(other);
+        repository.save(march);
+
+        assertEquals(List.of("ACC-C00001-1", "ACC-C00002-1"), collect(repository.streamAll()).stream().map(Account::getId).toList());
+        assertEquals(List.of(10.0, 5.0), collect(repository.streamTransactions("ACC-C00001-1")).stream().map(Transaction::getAmount).toList());
+        assertTrue(collect(repository.streamTransactions("ACC-MISSING")).isEmpty());
+
+        List<AccountTransaction> inMarch = collect(repository.streamTransactions(LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 4, 1, 0, 0)));
+        assertEquals(List.of("ACC-C00001-1:10.0", "ACC-C00002-1:20.0"), inMarch.stream()
+            .map(pair -> pair.getAccountId() + ":" + pair.getTransaction().getAmount()).sorted().toList());
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should filter transactions by account, time window, type and minimum amount")
+    void testTransactionQueries(String engine) throws Exception
+    {
+        logger.info("[{}] Testing streamTransactions(TransactionQuery)", engine);
+        AccountRepository repository = accountRepository(engine);
+
+        SavingsAccount first = new SavingsAccount("ACC-C00001-1", "C00001");
+        first.addTransaction(new Transaction("1", TransactionType.TRANSFER, 15000.0, LocalDateTime.of(2026, 3, 3, 12, 0), "Big March transfer"));
+        first.addTransaction(new Transaction("2", TransactionType.TRANSFER, 500.0, LocalDateTime.of(2026, 3, 4, 12, 0), "Small March transfer"));
+        first.addTransaction(new Transaction("3", TransactionType.DEPOSIT, 20000.0, LocalDateTime.of(2026, 3, 5, 12, 0), "Big March deposit"));
+        CurrentAccount second = new CurrentAccount("ACC-C00002-1", "C00002");
+        second.addTransaction(new Transaction("4", TransactionType.TRANSFER, 12000.0, LocalDateTime.of(2026, 3, 20, 8, 0), "Big March transfer"));
+        second.addTransaction(new Transaction("5", TransactionType.TRANSFER, 30000.0, LocalDateTime.of(2026, 4, 1, 0, 0), "Big April transfer"));
+        repository.save(first);
+        repository.save(second);
+
+        TransactionQuery bigMarchTransfers = TransactionQuery.builder()
+            .between(LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 4, 1, 0, 0))
+            .type(TransactionType.TRANSFER)
+            .minAmount(10000.0)
+            .build();
+        assertEquals(List.of("ACC-C00001-1:15000.0", "ACC-C00002-1:12000.0"), describe(collect(repository.streamTransactions(bigMarchTransfers))));
+
+        TransactionQuery firstAccountDeposits = TransactionQuery.builder().accountId("ACC-C00001-1").type(TransactionType.DEPOSIT).build();
+        assertEquals(List.of("ACC-C00001-1:20000.0"), describe(collect(repository.streamTransactions(firstAccountDeposits))));
+
+        assertEquals(5, collect(repository.streamTransactions(TransactionQuery.builder().build())).size());
+        assertTrue(collect(repository.streamTransactions(TransactionQuery.builder().accountId("ACC-MISSING").build())).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> TransactionQuery.builder().minAmount(-1).build());
+
+        /* Window edges inside the second of a record: stored to the second, compared to the second */
+        LocalDateTime stamped = LocalDateTime.of(2026, 3, 4, 12, 0, 0, 500_000_000);
+        SavingsAccount edge = new SavingsAccount("ACC-C00003-1", "C00003");
+        edge.addTransaction(new Transaction("6", TransactionType.DEPOSIT, 70.0, stamped, "Mid-second deposit"));
+        repository.save(edge);
+        TransactionQuery laterInSecond = TransactionQuery.builder().accountId("ACC-C00003-1")
+            .between(stamped.plusNanos(400_000_000), null).build();
+        assertEquals(1, collect(repository.streamTransactions(laterInSecond)).size(), "A lower bound is inclusive for its whole second");
+        TransactionQuery endsInSecond = TransactionQuery.builder().accountId("ACC-C00003-1")
+            .between(null, stamped.plusNanos(400_000_000)).build();
+        assertTrue(collect(repository.streamTransactions(endsInSecond)).isEmpty(), "An upper bound is exclusive for its whole second");
+        assertEquals(6, repository.findMaxTransactionId(), "New IDs are seeded above the highest stored ID");
+    }
+
+    @ForEachAccountEngine
+    @DisplayName("Should insert new accounts in bulk and skip existing IDs")
+    void testInsertAllSkipsExisting(String engine) throws IOException
+    {
+        logger.info("[{}] Testing insertAll", engine);
+        AccountRepository repository = accountRepository(engine);
+        repository.save(new SavingsAccount("ACC-C00001-1", "C00001", 1000.0));
+
+        SavingsAccount fresh = new SavingsAccount("ACC-C00001-2", "C00001");
+        fresh.deposit(75.0);
+        List<String> skipped = repository.insertAll(List.of(new SavingsAccount("ACC-C00001-1", "C00001", 1.0), fresh));
+
+        assertEquals(List.of("ACC-C00001-1"), skipped);
+        assertEquals(1000.0, repository.findById("ACC-C00001-1").getBalance(), 0.0001, "Existing account must be untouched");
+        assertEquals(1, repository.findById("ACC-C00001-2").getTransactions().size());
+    }
+
+    /* ---------------- CustomerRepository contract ---------------- */
+
+    @ForEachCustomerEngine
+    @DisplayName("Should save, replace, list and delete customers")
+    void testCustomerCrud(String engine)
+    {
+        logger.info("[{}] Testing customer CRUD", engine);
+        CustomerRepository repository = customerRepository(engine);
+
+        repository.save(new Customer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678"));
+        repository.save(new Customer("C00001", "Hassan Updated", "hassan@bank.com", "01012345678"));
+        repository.save(new Customer("C00002", "Mona Ali", "mona@bank.com", "01012345679"));
+
+        Customer customer = repository.findById("C00001");
+        assertEquals("Hassan Updated", customer.getName());
+        assertEquals("01012345678", customer.getphone());
+        assertEquals(2, repository.findAll().size());
+        assertNull(repository.findById("C99999"));
+
+        repository.delete("C00002");
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @ForEachCustomerEngine
+    @DisplayName("Should page through customers in ID order")
+    void testCustomerPages(String engine)
+    {
+        logger.info("[{}] Testing customer findPage", engine);
+        CustomerRepository repository = customerRepository(engine);
+        for (String id : List.of("C00003", "C00001", "C00002"))
+        {
+            repository.save(new Customer(id, "Customer " + id, id.toLowerCase() + "@bank.com", "01012345678"));
+        }
+
+        assertEquals(List.of("C00001", "C00002"), repository.findPage(null, 2).stream().map(Customer::getId).toList());
+        assertEquals(List.of("C00003"), repository.findPage("C00002", 2).stream().map(Customer::getId).toList());
+        assertTrue(repository.findPage("C00003", 2).isEmpty());
+    }
+
+    @ForEachCustomerEngine
+    @DisplayName("Should insert new customers in bulk and skip existing IDs")
+    void testCustomerInsertAllSkipsExisting(String engine)
+    {
+        logger.info("[{}] Testing customer insertAll", engine);
+        CustomerRepository repository = customerRepository(engine);
+        repository.save(new Customer("C00001", "Original", "orig@bank.com", "01012345678"));
+
+        List<String> skipped = repository.insertAll(List.of(
+            new Customer("C00001", "Replacement", "repl@bank.com", "01012345678"),
+            new Customer("C00002", "Mona Ali", "mona@bank.com", "01012345679")));
+
+        assertEquals(List.of("C00001"), skipped);
+        assertEquals("Original", repository.findById("C00001").getName());
+        assertNotNull(repository.findById("C00002"));
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Unit tests for the ScheduledTransferService class.
+ * Covers one-off transfers and standing orders, cancelling, failed and retried runs, batching under the
+ * rate limit, catching up on missed runs after a restart (in memory and on a named shared
+ * in-memory SQLite database) and the scheduler thread.
+ * Time is stepped by hand through the package-private clock constructor and tick().
+ * Implements test coverage for FR-07 with scheduled transfers.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.ScheduledTransfer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.JdbcCustomerRepository;
+import com.bank.repository.ScheduleRepository;
+import com.bank.repository.TestDatabase;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduledTransferServiceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTransferServiceTest.class);
+
+    /* Named shared in-memory DB used by the JDBC engine */
+    private static final String IN_MEMORY_URL = "jdbc:sqlite:file:scheduledb?mode=memory&cache=shared";
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long TICK = 100;
+    private static final long HOUR = 3_600_000;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private AccountRepository accountRepository;
+    private ScheduleRepository scheduleRepository;
+    private BankService bankService;
+
+    @BeforeEach
+    void setUp()
+    {
+        useEngine(new InMemoryAccountRepository());
+        bankService = withTwoAccounts(new BankService(new InMemoryCustomerRepository(), accountRepository));
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    /* Every account engine also stores the schedules */
+    private <R extends AccountRepository & ScheduleRepository> void useEngine(R repository)
+    {
+        accountRepository = repository;
+        scheduleRepository = repository;
+    }
+
+    private static BankService withTwoAccounts(BankService bankService)
+    {
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        bankService.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+        bankService.createAccount("ACC-C00001-2", "C00001", "CURRENT", 500.0);
+        return bankService;
+    }
+
+    private ScheduledTransferService newScheduler(int batchSize, int maxTransfersPerSecond)
+    {
+        return new ScheduledTransferService(bankService, scheduleRepository, TICK, 10 * TICK, batchSize, maxTransfersPerSecond, clock::get);
+    }
+
+    /**
+     * Moves the clock forward tick by tick, ticking the scheduler each time.
+     * @return Number of runs executed
+     */
+    private int runFor(ScheduledTransferService scheduler, long millis)
+    {
+        int executed = scheduler.tick();
+        for (long t = 0; t < millis; t += TICK)
+        {
+            clock.addAndGet(TICK);
+            executed += scheduler.tick();
+        }
+        return executed;
+    }
+
+    /* ---------------- Scheduling ---------------- */
+
+    @Test
+    @DisplayName("A one-off transfer runs once at its due time and not before")
+    void testOneOffTransfer()
+    {
+        logger.info("Testing a one-off transfer due in 500 ms");
+        ScheduledTransferService scheduler = newScheduler(100, 1000);
+        ScheduledTransfer schedule = scheduler.schedule("ACC-C00001-1", "ACC-C00001-2", 100.0, START + 500, 0);
+
+        assertEquals(0, runFor(scheduler, 400));
+        assertEquals(1000.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(1, runFor(scheduler, 1_000));
+        assertEquals(900.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(600.0, bankService.getAccountBalance("ACC-C00001-2"), 0.001);
+        assertFalse(scheduleRepository.findSchedule(schedule.getId()).isActive());
+        assertEquals(0, scheduler.getPendingCount());
+        logger.info("One-off transfer ran once");
+    }
+
+    @Test
+    @DisplayName("A standing order runs every interval, including runs beyond the load horizon, until cancelled")
+    void testStandingOrderAndCancel()
+    {
+        logger.info("Testing a standing order every 3 s with a 1 s load horizon");
+        ScheduledTransferService scheduler = newScheduler(100, 1000);
+        ScheduledTransfer schedule = scheduler.schedule("ACC-C00001-1", "ACC-C00001-2", 10.0, START + 1_000, 3_000);
+
+        assertEquals(3, runFor(scheduler, 7_500), "Runs at +1 s, +4 s and +7 s");
+        assertEquals(START + 10_000, scheduleRepository.findSchedule(schedule.getId()).getNextRunAt());
+
+        assertTrue(scheduler.cancel(schedule.getId()));
+        assertFalse(scheduler.cancel(schedule.getId()));
+        assertEquals(0, runFor(scheduler, 10_000));
+        assertEquals(970.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        logger.info("Standing order ran three times and stopped after cancel");
+    }
+
+    @Test
+    @DisplayName("A failed run is counted and the standing order moves on to its next run")
+    void testFailedRunMovesOn()
+    {
+        logger.info("Testing a standing order larger than the balance");
+        ScheduledTransferService scheduler = newScheduler(100, 1000);
+        scheduler.schedule("ACC-C00001-2", "ACC-C00001-1", 400.0, START + 200, 1_000);
+
+        runFor(scheduler, 2_500);
+
+        assertEquals(1, scheduler.getExecutedTransfers());
+        assertEquals(2, scheduler.getFailedTransfers(), "Second and third runs find 100.0 left");
+        assertEquals(100.0, bankService.getAccountBalance("ACC-C00001-2"), 0.001);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule("ACC-C00001-1", "ACC-C99999-1", 1.0, START, 0));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule("ACC-C00001-1", "ACC-C00001-1", 1.0, START, 0));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule("ACC-C00001-1", "ACC-C00001-2", 0.0, START, 0));
+        logger.info("Failures counted: {}", scheduler.getFailedTransfers());
+    }
+
+    @Test
+    @DisplayName("A run that fails on the storage engine is retried at the same due time, not skipped")
+    void testInfrastructureFailureIsRetried()
+    {
+        logger.info("Testing a one-off transfer whose first attempt hits a failing repository");
+        AtomicLong failuresLeft = new AtomicLong(1);
+        useEngine(new InMemoryAccountRepository()
+        {
+            @Override
+            public List<Account> findByIds(Connection conn, List<String> ids)
+            {
+                if (failuresLeft.getAndDecrement() > 0)
+                {
+                    throw new IllegalStateException("Storage unavailable");
+                }
+                return super.findByIds(conn, ids);
+            }
+        });
+        bankService = withTwoAccounts(new BankService(new InMemoryCustomerRepository(), accountRepository));
+        ScheduledTransferService scheduler = newScheduler(100, 1000);
+        ScheduledTransfer schedule = scheduler.schedule("ACC-C00001-1", "ACC-C00001-2", 100.0, START + 200, 0);
+
+        assertEquals(2, runFor(scheduler, 1_000), "The failed attempt and its retry");
+
+        assertEquals(1, scheduler.getRetriedTransfers());
+        assertEquals(0, scheduler.getFailedTransfers());
+        assertEquals(1, scheduler.getExecutedTransfers());
+        assertEquals(900.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertFalse(scheduleRepository.findSchedule(schedule.getId()).isActive());
+        assertEquals(0, scheduler.getPendingCount());
+        logger.info("The run was retried once and paid once");
+    }
+
+    /* ---------------- Batching and rate limit ---------------- */
+
+    @Test
+    @DisplayName("Runs due at the same time are spread over ticks by the batch size and the rate limit")
+    void testBatchesAndRateLimit()
+    {
+        logger.info("Testing 200 runs due at once with batches of 20 and 100 transfers/s");
+        ScheduledTransferService scheduler = newScheduler(20, 100);
+        for (int i = 0; i < 200; i++)
+        {
+            scheduler.schedule("ACC-C00001-1", "ACC-C00001-2", 1.0, START + 100, 0);
+        }
+
+        int firstTicks = runFor(scheduler, 100);
+        assertEquals(20, firstTicks, "The first due tick runs one full batch (the bucket starts full)");
+        int perSecond = runFor(scheduler, 1_000);
+        assertTrue(perSecond <= 100 + 10, "Rate limit of 100/s exceeded: " + perSecond);
+
+        runFor(scheduler, 2_000);
+        assertEquals(200, scheduler.getExecutedTransfers());
+        assertEquals(800.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertTrue(scheduler.getExecutedBatches() >= 10, "Runs are executed in batches of at most 20");
+        logger.info("200 runs executed in {} batches", scheduler.getExecutedBatches());
+    }
+
+    /* ---------------- Restart catch-up ---------------- */
+
+    @Test
+    @DisplayName("In-memory engine: a new scheduler catches up on runs missed while none was running")
+    void testCatchUpInMemory()
+    {
+        logger.info("Testing restart catch-up on the in-memory engine");
+        assertCatchesUp();
+    }
+
+    @Test
+    @DisplayName("JDBC engine: a new scheduler catches up on missed runs from the due-time index")
+    void testCatchUpJdbc() throws SQLException
+    {
+        logger.info("Testing restart catch-up on the JDBC engine");
+        try (Connection sharedConn = TestDatabase.open(IN_MEMORY_URL))
+        {
+            useEngine(new JdbcAccountRepository()
+            {
+                @Override
+                protected Connection getConnection() throws SQLException
+                {
+                    return DriverManager.getConnection(IN_MEMORY_URL);
+                }
+            });
+            bankService = withTwoAccounts(new BankService(new JdbcCustomerRepository()
+            {
+                @Override
+                protected Connection getConnection() throws SQLException
+                {
+                    return DriverManager.getConnection(IN_MEMORY_URL);
+                }
+            }, accountRepository));
+
+            assertCatchesUp();
+        }
+    }
+
+    /**
+     * Schedules an hourly standing order and a one-off transfer, lets three hours pass with no scheduler
+     * ticking, and checks that a new scheduler makes every missed run exactly once.
+     */
+    private void assertCatchesUp()
+    {
+        ScheduledTransferService before = newScheduler(100, 1000);
+        ScheduledTransfer hourly = before.schedule("ACC-C00001-1", "ACC-C00001-2", 10.0, START + HOUR, HOUR);
+        before.schedule("ACC-C00001-2", "ACC-C00001-1", 5.0, START + 2 * HOUR, 0);
+        before.schedule("ACC-C00001-2", "ACC-C00001-1", 1.0, START + 10 * HOUR, 0);
+
+        clock.addAndGet(3 * HOUR + 60_000);
+        ScheduledTransferService after = newScheduler(100, 1000);
+        runFor(after, 1_000);
+
+        assertEquals(4, after.getExecutedTransfers(), "Three hourly runs and the one-off transfer");
+        assertEquals(1000.0 - 30.0 + 5.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        assertEquals(START + 4 * HOUR, scheduleRepository.findSchedule(hourly.getId()).getNextRunAt());
+        assertEquals(0, after.getPendingCount(), "The next hourly run and the far one-off transfer lie beyond the horizon");
+    }
+
+    /* ---------------- Scheduler thread ---------------- */
+
+    @Test
+    @DisplayName("The scheduler thread runs due transfers on the real clock and stops on close()")
+    void testSchedulerThread() throws Exception
+    {
+        logger.info("Testing start() and close()");
+        ScheduledTransferService scheduler = new ScheduledTransferService(bankService, scheduleRepository, 10, 1_000, 100, 1_000);
+        scheduler.schedule("ACC-C00001-1", "ACC-C00001-2", 25.0, System.currentTimeMillis() + 50, 0);
+        scheduler.start();
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (scheduler.getExecutedTransfers() == 0 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        scheduler.close();
+
+        assertEquals(1, scheduler.getExecutedTransfers());
+        assertEquals(975.0, bankService.getAccountBalance("ACC-C00001-1"), 0.001);
+        logger.info("Transfer ran on the scheduler thread");
+    }
+}
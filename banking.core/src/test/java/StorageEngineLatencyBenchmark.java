@@ -0,0 +1,84 @@
+/*
+ * Latency benchmark for the JDBC and in-memory storage engines behind BankService.
+ * Creates the same accounts in a temporary SQLite file (pooled connections, WAL mode) and in the
+ * in-memory engine, then times single account lookups, deposits and transfers one call at a time
+ * and reports the median, 99th percentile and mean in microseconds per engine.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.StorageEngineLatencyBenchmark 100 5000
+ */
+package com.bank.service;
+
+import com.bank.model.SavingsAccount;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.ConnectionPool;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.TestDatabase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class StorageEngineLatencyBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        Path directory = Files.createTempDirectory("engine-latency-benchmark");
+        try (ConnectionPool pool = TestDatabase.newFile(directory.resolve("bank.db"), 4))
+        {
+            run("jdbc  ", new JdbcAccountRepository(pool), accounts, operations);
+            run("memory", new InMemoryAccountRepository(), accounts, operations);
+        }
+        finally
+        {
+            try (var files = Files.walk(directory))
+            {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(String engine, AccountRepository repository, int accounts, int operations)
+    {
+        for (int i = 0; i < accounts; i++)
+        {
+            repository.save(new SavingsAccount(accountId(i), "C00001", 1_000_000.0));
+        }
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), repository);
+
+        for (int round = 0; round < 2; round++)
+        {
+            boolean report = round == 1;        /* the first round only warms up the JIT and the page cache */
+            time(report, engine, "getAccount", operations, i -> bankService.getAccount(accountId(i % accounts)));
+            time(report, engine, "deposit   ", operations, i -> bankService.deposit(accountId(i % accounts), 1.0));
+            time(report, engine, "transfer  ", operations,
+                i -> bankService.transfer(accountId(i % accounts), accountId((i + 1) % accounts), 1.0));
+        }
+    }
+
+    private static void time(boolean report, String engine, String label, int operations, IntConsumer operation)
+    {
+        long[] nanos = new long[operations];
+        for (int i = 0; i < operations; i++)
+        {
+            long start = System.nanoTime();
+            operation.accept(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (report)
+        {
+            Arrays.sort(nanos);
+            System.out.printf("%s %s: p50 %,9.1f us | p99 %,9.1f us | mean %,9.1f us%n", engine, label,
+                nanos[operations / 2] / 1e3, nanos[operations * 99 / 100] / 1e3, Arrays.stream(nanos).average().orElse(0) / 1e3);
+        }
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%06d", index + 1);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Test fixture for the SQLite databases behind the JDBC repositories.
+ * Tests and benchmarks create their tables through DatabaseSchema, the schema the application creates,
+ * instead of writing their own DDL, so a new column or index reaches every test database at once.
+ */
+package com.bank.repository;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TestDatabase
+{
+    private TestDatabase()
+    {
+    }
+
+    /**
+     * Opens a connection and creates the schema of a single-file database.
+     * Kept open, the connection also keeps a named in-memory database alive between repository calls.
+     * @param url The SQLite URL
+     * @return The open connection; the caller closes it
+     * @throws SQLException if the database cannot be opened or the schema created
+     */
+    public static Connection open(String url) throws SQLException
+    {
+        Connection conn = DriverManager.getConnection(url);
+        try
+        {
+            DatabaseSchema.create(conn);
+        }
+        catch (SQLException e)
+        {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    /**
+     * Creates a database file with the schema in write-ahead logging mode and opens a pool on it.
+     * @param file     The database file
+     * @param poolSize Number of pooled connections
+     * @return The pool; close() releases it
+     * @throws SQLException if the database cannot be created
+     */
+    public static ConnectionPool newFile(Path file, int poolSize) throws SQLException
+    {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + file, poolSize);
+        try (Connection conn = pool.getConnection())
+        {
+            /* The pragma returns a row, so its statement is closed before the schema is committed */
+            try (Statement stmt = conn.createStatement())
+            {
+                stmt.execute("PRAGMA journal_mode=WAL");
+            }
+            DatabaseSchema.create(conn);
+        }
+        catch (SQLException e)
+        {
+            pool.close();
+            throw e;
+        }
+        return pool;
+    }
+
+    /**
+     * Drops every table (and with them their indexes), so a shared in-memory database starts empty for the next test.
+     * @param conn Connection to the database
+     * @throws SQLException if a table cannot be dropped
+     */
+    public static void dropTables(Connection conn) throws SQLException
+    {
+        try (Statement stmt = conn.createStatement())
+        {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%'"))
+            {
+                while (rs.next())
+                {
+                    tables.add(rs.getString(1));
+                }
+            }
+            for (String table : tables)
+            {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+    }
+}
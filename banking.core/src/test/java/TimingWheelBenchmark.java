@@ -0,0 +1,99 @@
+/*
+ * Benchmark for TimingWheel against a PriorityQueue of due times (the structure behind
+ * DelayQueue and ScheduledThreadPoolExecutor).
+ * Schedules N timers spread over a day of 100 ms ticks, cancels every tenth one, then advances
+ * tick by tick until every timer has fired. Reports timers per second for both structures.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.TimingWheelBenchmark 1000000 5
+ */
+package com.bank.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class TimingWheelBenchmark
+{
+    private static final long TICK_MILLIS = 100;
+    private static final long DAY_MILLIS = 86_400_000;
+    private static final long START = 1_700_000_000_000L;
+
+    public static void main(String[] args)
+    {
+        int timers = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        long[] due = new long[timers];
+        Random random = new Random(42);
+        for (int i = 0; i < timers; i++)
+        {
+            due[i] = START + (long) (random.nextDouble() * DAY_MILLIS);
+        }
+
+        for (int round = 1; round <= rounds; round++)
+        {
+            long start = System.nanoTime();
+            long fired = runWheel(due);
+            double wheelSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long firedQueue = runQueue(due);
+            double queueSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("Round %d: wheel %,12.0f timers/s   priority queue %,12.0f timers/s   (%,d fired each)%n",
+                round, timers / wheelSeconds, timers / queueSeconds, fired == firedQueue ? fired : -1);
+        }
+    }
+
+    private static long runWheel(long[] due)
+    {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK_MILLIS, 4, START);
+        for (int i = 0; i < due.length; i++)
+        {
+            wheel.schedule(i, due[i]);
+        }
+        for (int i = 0; i < due.length; i += 10)
+        {
+            wheel.cancel(i);
+        }
+        long fired = 0;
+        for (long now = START; now <= START + DAY_MILLIS + TICK_MILLIS; now += TICK_MILLIS)
+        {
+            fired += wheel.advance(now).size();
+        }
+        return fired;
+    }
+
+    /**
+     * The same workload on a priority queue, with cancellation by lazy deletion.
+     */
+    private static long runQueue(long[] due)
+    {
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        Map<Integer, long[]> entries = new HashMap<>();
+        for (int i = 0; i < due.length; i++)
+        {
+            long[] entry = {due[i], i, 0};
+            queue.add(entry);
+            entries.put(i, entry);
+        }
+        for (int i = 0; i < due.length; i += 10)
+        {
+            entries.remove(i)[2] = 1;
+        }
+        long fired = 0;
+        for (long now = START; now <= START + DAY_MILLIS + TICK_MILLIS; now += TICK_MILLIS)
+        {
+            while (!queue.isEmpty() && queue.peek()[0] <= now)
+            {
+                long[] entry = queue.poll();
+                if (entry[2] == 0)
+                {
+                    entries.remove((int) entry[1]);
+                    fired++;
+                }
+            }
+        }
+        return fired;
+    }
+}
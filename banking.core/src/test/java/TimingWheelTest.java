@@ -0,0 +1,119 @@
+/*
+ * Unit tests for the TimingWheel class.
+ * Covers firing at (never before) the due tick, cancelling and replacing timers, cascading
+ * from the upper levels, the overflow list and a randomized comparison against due times.
+ * Implements test coverage for FR-07 with scheduled transfers.
+ */
+package com.bank.service;
+
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelTest.class);
+
+    /* Arbitrary start time that is not aligned to any level */
+    private static final long START = 1_700_000_012_345L;
+
+    @Test
+    @DisplayName("Timers fire once their due time is reached, in due order, and not before")
+    void testFiresInOrder()
+    {
+        logger.info("Testing firing order");
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, START);
+        wheel.schedule("late", START + 250);
+        wheel.schedule("early", START + 35);
+        wheel.schedule("overdue", START - 1_000);
+
+        assertEquals(List.of("overdue"), wheel.advance(START));
+        assertEquals(List.of(), wheel.advance(START + 30));
+        assertEquals(List.of("early"), wheel.advance(START + 49));
+        assertEquals(List.of(), wheel.advance(START + 249));
+        assertEquals(List.of("late"), wheel.advance(START + 260));
+        assertEquals(0, wheel.size());
+        logger.info("Timers fired in due order");
+    }
+
+    @Test
+    @DisplayName("Cancelled timers never fire and scheduling a key again replaces its timer")
+    void testCancelAndReplace()
+    {
+        logger.info("Testing cancel and replace");
+        TimingWheel<String> wheel = new TimingWheel<>(10, 2, START);
+        wheel.schedule("a", START + 100);
+        wheel.schedule("b", START + 100);
+        wheel.schedule("a", START + 5_000);
+
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+        assertTrue(wheel.contains("a"));
+        assertEquals(List.of(), wheel.advance(START + 4_990));
+        assertEquals(List.of("a"), wheel.advance(START + 5_010), "Due times are rounded up to the next tick");
+        assertFalse(wheel.contains("a"));
+        logger.info("Cancel and replace behave");
+    }
+
+    @Test
+    @DisplayName("Timers beyond level 0 and beyond the top level cascade down and fire on time")
+    void testCascadeAndOverflow()
+    {
+        logger.info("Testing cascading and overflow with a 2-level wheel of 1 ms ticks (4,096 ticks)");
+        TimingWheel<String> wheel = new TimingWheel<>(1, 2, START);
+        wheel.schedule("level1", START + 1_000);
+        wheel.schedule("overflow", START + 10_000);
+
+        assertEquals(List.of(), wheel.advance(START + 999));
+        assertEquals(List.of("level1"), wheel.advance(START + 1_000));
+        assertEquals(List.of(), wheel.advance(START + 9_999));
+        assertEquals(List.of("overflow"), wheel.advance(START + 10_000));
+        logger.info("Cascaded timers fired on their tick");
+    }
+
+    @Test
+    @DisplayName("Randomized: every timer fires in the first advance past its due tick")
+    void testRandomizedAgainstDueTimes()
+    {
+        logger.info("Testing 20,000 random timers over three levels");
+        Random random = new Random(47);
+        long tick = 10;
+        TimingWheel<Integer> wheel = new TimingWheel<>(tick, 3, START);
+        Map<Integer, Long> due = new HashMap<>();
+        for (int i = 0; i < 20_000; i++)
+        {
+            long at = START + (long) (random.nextDouble() * random.nextDouble() * 3_000_000);
+            wheel.schedule(i, at);
+            due.put(i, at);
+        }
+
+        long now = START;
+        long previous = START;
+        while (!due.isEmpty())
+        {
+            now += 1 + random.nextInt(5_000);
+            for (Integer key : wheel.advance(now))
+            {
+                long at = due.remove(key);
+                assertTrue(at <= now, "Timer " + key + " fired before its due time");
+                /* Due times are rounded up to a whole tick */
+                assertTrue(Math.floorDiv(at + tick - 1, tick) > Math.floorDiv(previous, tick), "Timer " + key + " fired late");
+            }
+            for (Map.Entry<Integer, Long> pending : due.entrySet())
+            {
+                assertTrue(Math.floorDiv(pending.getValue() + tick - 1, tick) > Math.floorDiv(now, tick),
+                    "Timer " + pending.getKey() + " is due but did not fire");
+            }
+            previous = now;
+        }
+        assertEquals(0, wheel.size());
+        logger.info("All timers fired on time");
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Unit tests for the TransactionArchivalService class and the JDBC engine's transaction archive.
+ * Covers a run that moves old records to the archive while statements, history pages, bank-wide
+ * queries, reconciliation and balances as of a time still see them; bytes left behind by a run that
+ * failed before its commit; and engines that keep every record.
+ * The JDBC engine runs on a SQLite file with its archive in a temporary directory.
+ * Implements test coverage for FR-11 with tiered storage.
+ */
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.AccountTransaction;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.DatabaseSchema;
+import com.bank.repository.InMemoryAccountRepository;
+import com.bank.repository.InMemoryCustomerRepository;
+import com.bank.repository.JdbcAccountRepository;
+import com.bank.repository.TransactionArchive;
+import com.bank.repository.TransactionQuery;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionArchivalServiceTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchivalServiceTest.class);
+
+    /* First day with records */
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private String url;
+
+    @BeforeEach
+    void setUp() throws SQLException
+    {
+        url = "jdbc:sqlite:" + tempDir.resolve("bank.db");
+        try (Connection conn = DriverManager.getConnection(url))
+        {
+            DatabaseSchema.create(conn);
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private JdbcAccountRepository jdbcAccounts()
+    {
+        String databaseUrl = url;
+        return new JdbcAccountRepository(null, new TransactionArchive(tempDir.resolve("archive")))
+        {
+            @Override
+            protected Connection getConnection() throws SQLException
+            {
+                return DriverManager.getConnection(databaseUrl);
+            }
+        };
+    }
+
+    /**
+     * Saves three accounts with ten days of records each: a 100.00 deposit every day at 10:00 and a
+     * 25.00 withdrawal every other day at 15:00, with balances that agree with the records (875.00).
+     * A bank service on top adds one current deposit to the first account.
+     */
+    private static BankService seed(AccountRepository repository)
+    {
+        for (int a = 1; a <= 3; a++)
+        {
+            Account account = new SavingsAccount(accountId(a), "C00001", 875.0);
+            for (int d = 0; d < 10; d++)
+            {
+                LocalDateTime day = START.plusDays(d).atStartOfDay();
+                account.addTransaction(new Transaction("T-" + a + "-D" + d, TransactionType.DEPOSIT, 100.0, day.plusHours(10), "Deposit"));
+                if (d % 2 == 1)
+                {
+                    account.addTransaction(new Transaction("T-" + a + "-W" + d, TransactionType.WITHDRAW, 25.0, day.plusHours(15), "Withdraw"));
+                }
+            }
+            repository.save(account);
+        }
+        BankService bankService = new BankService(new InMemoryCustomerRepository(), repository);
+        bankService.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        bankService.deposit(accountId(1), 50.0);
+        return bankService;
+    }
+
+    private static String accountId(int a)
+    {
+        return "ACC-C00001-" + a;
+    }
+
+    private int hotRows() throws SQLException
+    {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM transactions"))
+        {
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Walks an account's history with pages of three records.
+     */
+    private static List<Transaction> history(BankService bankService, String accountId)
+    {
+        List<Transaction> all = new ArrayList<>();
+        List<Transaction> page;
+        String after = null;
+        do
+        {
+            page = bankService.getTransactionsPage(accountId, after, 3);
+            all.addAll(page);
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 3);
+        return all;
+    }
+
+    private static <T> List<T> collect(Flow.Publisher<T> publisher) throws Exception
+    {
+        List<T> items = new ArrayList<>();
+        CompletableFuture<List<T>> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<T>()
+        {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription)
+            {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T item)
+            {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                done.complete(items);
+            }
+        });
+        return done.get(10, TimeUnit.SECONDS);
+    }
+
+    /* ---------------- Archival ---------------- */
+
+    @Test
+    @DisplayName("JDBC engine: old records move to the archive and every history read still sees them")
+    void testArchiveAndMergedReads() throws Exception
+    {
+        logger.info("Testing an archival run and the reads that merge archived records");
+        JdbcAccountRepository accountRepository = jdbcAccounts();
+        BankService bankService = seed(accountRepository);
+        String statementBefore = bankService.generateCustomerStatementString("C00001");
+
+        /* Cutoff START + 5: days 0..4 hold 5 deposits and 2 withdrawals per account */
+        assertEquals(3 * 7, new TransactionArchivalService(accountRepository, 35).archive(START.plusDays(40)));
+        assertEquals(3 * 8 + 1, hotRows());
+        assertTrue(Files.exists(tempDir.resolve("archive").resolve(accountId(1) + ".gz")));
+        assertEquals(8 + 1, accountRepository.findById(accountId(1)).getTransactions().size(), "Only hot records are loaded");
+
+        assertEquals(statementBefore, bankService.generateCustomerStatementString("C00001"));
+        List<Transaction> history = history(bankService, accountId(1));
+        assertEquals(15 + 1, history.size());
+        for (int i = 1; i < history.size(); i++)
+        {
+            assertTrue(history.get(i - 1).getTimestamp().isBefore(history.get(i).getTimestamp()), "History order at " + i);
+        }
+
+        /* Days 3 and 4 come from the archive, days 5 and 6 from the table, merged in time order */
+        List<AccountTransaction> window = collect(bankService.queryTransactions(TransactionQuery.builder()
+            .between(START.plusDays(3).atStartOfDay(), START.plusDays(7).atStartOfDay()).build()));
+        assertEquals(3 * 6, window.size());
+        for (int i = 1; i < window.size(); i++)
+        {
+            assertFalse(window.get(i).getTransaction().getTimestamp().isBefore(window.get(i - 1).getTransaction().getTimestamp()));
+        }
+
+        ReconciliationReport report = new ReconciliationService(accountRepository, 2, 2).reconcile();
+        assertTrue(report.isBalanced(), "Unexpected discrepancies: " + report.getDiscrepancies());
+        assertEquals(3 * 15 + 1, report.getTransactionsChecked());
+
+        assertEquals(275.0, bankService.getBalanceAsOf(accountId(1), START.plusDays(2).atTime(12, 0)), 0.001);
+        assertEquals(500.0 - 50.0, bankService.getBalanceAsOf(accountId(2), START.plusDays(5).atStartOfDay()), 0.001);
+        assertEquals(625.0, bankService.getBalanceAsOf(accountId(1), START.plusDays(7).atStartOfDay()), 0.001);
+        new BalanceCheckpointService(accountRepository, accountRepository, 20).checkpointThrough(START.plusDays(9));
+        assertEquals(800.0, bankService.getBalanceAsOf(accountId(3), START.plusDays(8).atTime(12, 0)), 0.001);
+        assertEquals(925.0, bankService.getBalanceAsOf(accountId(1), LocalDateTime.now().plusMinutes(1)), 0.001);
+        logger.info("Archived reads match: {}", report);
+    }
+
+    @Test
+    @DisplayName("JDBC engine: bytes of a run that failed before its commit are ignored, then overwritten")
+    void testUncommittedBytesAreDropped() throws Exception
+    {
+        logger.info("Testing archive partitions with an uncommitted tail");
+        AccountRepository accountRepository = jdbcAccounts();
+        BankService bankService = seed(accountRepository);
+        TransactionArchivalService job = new TransactionArchivalService(accountRepository, 1);
+
+        assertEquals(3 * 4, job.archive(START.plusDays(4)), "Days 0..2: 3 deposits and 1 withdrawal per account");
+        assertEquals(0, job.archive(START.plusDays(4)), "A repeated run finds nothing left");
+        Path partition = tempDir.resolve("archive").resolve(accountId(1) + ".gz");
+        Files.write(partition, new byte[] {31, -117, 8, 0, 42, 42, 42}, StandardOpenOption.APPEND);
+
+        assertEquals(16, history(bankService, accountId(1)).size());
+        assertEquals(3 * 5, job.archive(START.plusDays(7)), "Days 3..5: 3 deposits and 2 withdrawals per account");
+        List<Transaction> history = history(bankService, accountId(1));
+        assertEquals(16, history.size());
+        assertEquals(List.of("T-1-D0", "T-1-D1", "T-1-W1"), history.subList(0, 3).stream().map(Transaction::getId).toList());
+        assertEquals(9, accountRepository.findArchivedTotal(accountId(1)).getTransactionCount());
+        assertEquals(600.0 - 75.0, accountRepository.findArchivedTotal(accountId(1)).getNetAmount(), 0.001);
+        assertTrue(new ReconciliationService(accountRepository).reconcile().isBalanced());
+        logger.info("Uncommitted tail dropped");
+    }
+
+    @Test
+    @DisplayName("In-memory engine: every record stays, and the retention must be positive")
+    void testEnginesWithoutArchive()
+    {
+        logger.info("Testing the job on the in-memory engine");
+        AccountRepository accountRepository = new InMemoryAccountRepository();
+        BankService bankService = seed(accountRepository);
+
+        assertEquals(0, new TransactionArchivalService(accountRepository, 1).archive(START.plusDays(30)));
+        assertEquals(16, history(bankService, accountId(1)).size());
+        assertThrows(IllegalArgumentException.class, () -> new TransactionArchivalService(accountRepository, 0));
+        logger.info("Nothing archived");
+    }
+}
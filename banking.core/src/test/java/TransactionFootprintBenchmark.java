@@ -0,0 +1,109 @@
+/*
+ * Benchmark for the memory footprint of Transaction.
+ * Creates N deposit transactions the way Account.addTransaction() does, once with the old layout
+ * (random UUID String ID, LocalDateTime, a new description String per transaction) and once with
+ * the compact Transaction (generated long ID, epoch microseconds, interned description), and
+ * reports the retained heap per transaction and the bytes allocated while creating them.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.model.TransactionFootprintBenchmark 1000000
+ */
+package com.bank.model;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+public class TransactionFootprintBenchmark
+{
+    private static final int ACCOUNTS = 1_000;
+
+    /*
+     * Field layout of Transaction before it was made compact.
+     */
+    private static final class LegacyTransaction
+    {
+        private final String id;
+        private final TransactionType type;
+        private final double amount;
+        private final LocalDateTime timestamp;
+        private final String description;
+
+        LegacyTransaction(String id, TransactionType type, double amount, LocalDateTime timestamp, String description)
+        {
+            this.id = id;
+            this.type = type;
+            this.amount = amount;
+            this.timestamp = timestamp;
+            this.description = description;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        /* Warm up both paths so the measured runs use compiled code */
+        measure("warm-up", Math.min(count, 100_000), TransactionFootprintBenchmark::legacy, false);
+        measure("warm-up", Math.min(count, 100_000), TransactionFootprintBenchmark::compact, false);
+
+        measure("Before (UUID, LocalDateTime, new description)", count, TransactionFootprintBenchmark::legacy, true);
+        measure("After  (long ID, epoch micros, interned)     ", count, TransactionFootprintBenchmark::compact, true);
+    }
+
+    private static Object legacy(int i)
+    {
+        return new LegacyTransaction(UUID.randomUUID().toString(), TransactionType.DEPOSIT, i,
+            LocalDateTime.now(), "Deposit to account " + accountId(i));
+    }
+
+    private static Object compact(int i)
+    {
+        return new Transaction(TransactionIdGenerator.nextId(), TransactionType.DEPOSIT, i,
+            "Deposit to account " + accountId(i));
+    }
+
+    private static void measure(String label, int count, IntFunction<Object> factory, boolean report)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        Object[] retained = new Object[count];
+
+        long heapBefore = usedHeap();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+        {
+            retained[i] = factory.apply(i);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long heapAfter = usedHeap();
+
+        if (report)
+        {
+            System.out.printf("%s: %,d transactions, %.1f retained bytes/tx, %.1f allocated bytes/tx, %.0f MB/s allocation, %.0f ns/tx%n",
+                label, count, (heapAfter - heapBefore) / (double) count, allocated / (double) count,
+                allocated / 1e6 / (nanos / 1e9), nanos / (double) count);
+        }
+        /* Keep the objects reachable until the heap has been measured */
+        if (retained[count - 1] == null)
+        {
+            throw new IllegalStateException("Nothing was created");
+        }
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String accountId(int index)
+    {
+        return "ACC-C00001-" + (index % ACCOUNTS + 1);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Unit tests for TransactionLedger and the ledger-backed account repository.
+ * Ledger files are created in a temporary directory; account rows use an in-memory SQLite DB.
+ * Amounts finer than a cent are rejected rather than rounded.
+ * Implements test coverage for FR-11: Transaction History, FR-12 and FR-13 on the ledger engine.
+ */
+package com.bank.repository;
+
+import com.bank.model.*;
+import com.bank.service.BankService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionLedgerTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(TransactionLedgerTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    private Path ledgerFile;
+    private TransactionLedger ledger;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        ledgerFile = tempDir.resolve("transactions.ledger");
+        ledger = new TransactionLedger(ledgerFile);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        ledger.close();
+    }
+
+    @Test
+    @DisplayName("Should round-trip type, amount, timestamp and description through the binary layout")
+    void testAppendAndReadRoundTrip()
+    {
+        logger.info("Testing ledger append/read round trip");
+
+        LocalDateTime when = LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123_456_000);
+        List<Transaction> history = List.of(
+            new Transaction("TXN-001", TransactionType.DEPOSIT, 1500.25, when, "Salary deposit"),
+            new Transaction("TXN-002", TransactionType.WITHDRAW, 200.0, when.plusHours(1), "ATM cash withdrawal"));
+
+        assertEquals(2, ledger.appendHistory("ACC-C00001-1", history));
+
+        List<Transaction> result = ledger.read("ACC-C00001-1");
+        assertEquals(2, result.size());
+        assertEquals(TransactionType.DEPOSIT, result.get(0).getType());
+        assertEquals(1500.25, result.get(0).getAmount(), 0.0001);
+        assertEquals(when, result.get(0).getTimestamp(), "Timestamp must keep microsecond precision");
+        assertEquals("ATM cash withdrawal", result.get(1).getDescription());
+        assertEquals("TXN-001", result.get(0).getId(), "Text ids must be kept");
+    }
+
+    @Test
+    @DisplayName("Should only append the part of the history that is not stored yet")
+    void testAppendHistoryIsIncremental()
+    {
+        logger.info("Testing that re-saving an account does not duplicate ledger records");
+
+        SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+        account.deposit(100.0);
+        ledger.appendHistory(account.getId(), account.getTransactions());
+        account.deposit(50.0);
+
+        assertEquals(1, ledger.appendHistory(account.getId(), account.getTransactions()));
+        assertEquals(0, ledger.appendHistory(account.getId(), account.getTransactions()));
+        assertEquals(2, ledger.size());
+    }
+
+    @Test
+    @DisplayName("Should append by id when two copies of one account are saved")
+    void testAppendHistoryOfConcurrentCopies()
+    {
+        logger.info("Testing that stale copies of an account neither drop nor duplicate records");
+
+        SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+        account.deposit(100.0);
+        ledger.appendHistory(account.getId(), account.getTransactions());
+
+        /* Two copies loaded from the same stored history, changed and saved one after the other */
+        SavingsAccount first = new SavingsAccount(account.getId(), "C00001");
+        SavingsAccount second = new SavingsAccount(account.getId(), "C00001");
+        ledger.read(account.getId()).forEach(first::addTransaction);
+        ledger.read(account.getId()).forEach(second::addTransaction);
+        first.deposit(10.0);
+        second.deposit(20.0);
+        second.deposit(30.0);
+
+        assertEquals(1, ledger.appendHistory(account.getId(), first.getTransactions()));
+        assertEquals(2, ledger.appendHistory(account.getId(), second.getTransactions()));
+        assertEquals(0, ledger.appendHistory(account.getId(), first.getTransactions()));
+
+        List<Transaction> stored = ledger.read(account.getId());
+        assertEquals(List.of(100.0, 10.0, 20.0, 30.0), stored.stream().map(Transaction::getAmount).toList());
+        assertEquals(second.getTransactions().get(2).getId(), stored.get(3).getId(), "Ids must be kept");
+        assertEquals(List.of(30.0), ledger.read(account.getId(), stored.get(2).getId(), 5).stream().map(Transaction::getAmount).toList());
+    }
+
+    @Test
+    @DisplayName("Should page through text ids and mixed ids by scanning for the cursor")
+    void testPagesWithTextIds()
+    {
+        logger.info("Testing ledger pages of an account with text ids");
+
+        LocalDateTime when = LocalDateTime.of(2024, 3, 15, 10, 0);
+        ledger.appendHistory("ACC-C00001-1", List.of(
+            new Transaction("TXN-B", TransactionType.DEPOSIT, 1.0, when, "Deposit"),
+            new Transaction("TXN-A", TransactionType.DEPOSIT, 2.0, when, "Deposit"),
+            new Transaction("7", TransactionType.DEPOSIT, 3.0, when, "Deposit")));
+
+        assertEquals(List.of("TXN-A", "7"), ledger.read("ACC-C00001-1", "TXN-B", 5).stream().map(Transaction::getId).toList());
+        assertEquals(List.of("7"), ledger.read("ACC-C00001-1", "TXN-A", 5).stream().map(Transaction::getId).toList());
+        assertTrue(ledger.read("ACC-C00001-1", "unknown", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep per-account histories separate when records are interleaved")
+    void testReadUsesPerAccountIndex()
+    {
+        logger.info("Testing per-account offset index with interleaved appends");
+
+        SavingsAccount first = new SavingsAccount("ACC-C00001-1", "C00001");
+        CurrentAccount second = new CurrentAccount("ACC-C00002-1", "C00002");
+        for (int i = 1; i <= 3; i++)
+        {
+            first.deposit(i);
+            ledger.appendHistory(first.getId(), first.getTransactions());
+            second.deposit(i * 10);
+            ledger.appendHistory(second.getId(), second.getTransactions());
+        }
+
+        List<Transaction> result = ledger.read("ACC-C00002-1");
+        assertEquals(3, result.size());
+        assertEquals(30.0, result.get(2).getAmount(), 0.0001);
+        assertTrue(ledger.read("ACC-UNKNOWN").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index on reopen and drop a torn trailing record")
+    void testReopenRebuildsIndexAndTruncatesTornRecord() throws IOException
+    {
+        logger.info("Testing ledger recovery after reopen");
+
+        SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+        account.deposit(100.0);
+        account.deposit(200.0);
+        ledger.appendHistory(account.getId(), account.getTransactions());
+        ledger.close();
+
+        /* Simulate a crash in the middle of writing a record */
+        try (FileChannel channel = FileChannel.open(ledgerFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+        {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[TransactionLedger.RECORD_SIZE / 2]));
+        }
+
+        ledger = new TransactionLedger(ledgerFile);
+        assertEquals(2, ledger.size(), "Torn record must be discarded");
+        assertEquals(200.0, ledger.read("ACC-C00001-1").get(1).getAmount(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should store transactions in the ledger when used behind AccountRepository")
+    void testLedgerAccountRepositorySavesHistoryToLedger() throws SQLException
+    {
+        logger.info("Testing LedgerAccountRepository with an in-memory SQLite DB");
+
+        String url = "jdbc:sqlite:file:ledgerdb?mode=memory&cache=shared";
+        try (Connection sharedConn = TestDatabase.open(url))
+        {
+            LedgerAccountRepository repository = new LedgerAccountRepository(ledger)
+            {
+                @Override
+                protected Connection getConnection() throws SQLException
+                {
+                    return DriverManager.getConnection(url);
+                }
+            };
+
+            SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+            account.deposit(300.0);
+            repository.save(account);
+            repository.save(account);
+
+            Account result = repository.findById("ACC-C00001-1");
+            assertEquals(300.0, result.getBalance(), 0.0001);
+            assertEquals(1, result.getTransactions().size(), "Saving twice must not duplicate history");
+            assertEquals(1, ledger.size());
+
+            /* Records of a caller-managed transaction reach the ledger only when it commits */
+            Transaction interest = new Transaction(TransactionIdGenerator.nextId(), TransactionType.DEPOSIT, 5.0, "Interest");
+            try (Connection conn = repository.openConnection())
+            {
+                conn.setAutoCommit(false);
+                repository.appendTransaction(conn, account.getId(), interest);
+                assertEquals(1, ledger.size(), "Nothing is written before the commit");
+                conn.rollback();
+                repository.appendTransaction(conn, account.getId(), interest);
+                conn.commit();
+                repository.appendTransaction(conn, account.getId(), new Transaction(TransactionIdGenerator.nextId(), TransactionType.DEPOSIT, 1.0, "Dropped"));
+            }
+            assertEquals(List.of(300.0, 5.0), ledger.read(account.getId()).stream().map(Transaction::getAmount).toList(),
+                "Rolled-back and uncommitted records must not reach the ledger");
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject amounts finer than a cent instead of rounding them")
+    void testSubCentAmountsAreRejected() throws SQLException
+    {
+        logger.info("Testing that the ledger only stores whole cents");
+
+        LocalDateTime when = LocalDateTime.of(2024, 3, 15, 10, 30);
+        assertThrows(IllegalArgumentException.class, () -> ledger.append("ACC-C00001-1",
+            new Transaction("TXN-001", TransactionType.DEPOSIT, 0.004, when, "Sub-cent deposit")));
+        assertThrows(IllegalArgumentException.class, () -> ledger.append("ACC-C00001-1", List.of(
+            new Transaction("TXN-002", TransactionType.DEPOSIT, 10.0, when, "Whole cents"),
+            new Transaction("TXN-003", TransactionType.DEPOSIT, 1.005, when, "Half a cent"))));
+        assertEquals(0, ledger.size(), "A rejected batch writes nothing");
+
+        /* Floating-point sums a few ulps off the cent are still whole cents */
+        ledger.append("ACC-C00001-1", new Transaction("TXN-004", TransactionType.DEPOSIT, 0.1 + 0.2, when, "Sum"));
+        assertEquals(0.30, ledger.read("ACC-C00001-1").get(0).getAmount(), 0.0);
+
+        String url = "jdbc:sqlite:file:ledgercentsdb?mode=memory&cache=shared";
+        try (Connection sharedConn = TestDatabase.open(url))
+        {
+            LedgerAccountRepository repository = new LedgerAccountRepository(ledger)
+            {
+                @Override
+                protected Connection getConnection() throws SQLException
+                {
+                    return DriverManager.getConnection(url);
+                }
+            };
+            repository.save(new SavingsAccount("ACC-C00001-2", "C00001", 0.0));
+            BankService bankService = new BankService(new InMemoryCustomerRepository(), repository);
+
+            assertThrows(IllegalArgumentException.class, () -> bankService.deposit("ACC-C00001-2", 0.004));
+            assertEquals(0.0, repository.findById("ACC-C00001-2").getBalance(), 0.0, "The balance must roll back with the record");
+            bankService.deposit("ACC-C00001-2", 1.01);
+            assertEquals(1.01, repository.findById("ACC-C00001-2").getBalance(), 0.0);
+            assertEquals(List.of(1.01), ledger.read("ACC-C00001-2").stream().map(Transaction::getAmount).toList());
+        }
+    }
+}
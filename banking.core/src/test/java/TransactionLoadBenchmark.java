@@ -0,0 +1,102 @@
+/*
+ * Benchmark for the per-row parsing done while loading transactions from the database.
+ * Parses N timestamps (half in DB format, half in ISO format) and N type names, once the old way
+ * (DB formatter, then ISO formatter after a DateTimeParseException; a linear equalsIgnoreCase scan
+ * over values()) and once with TimestampParser and the TransactionType lookup map, then builds
+ * N complete Transactions through the String-timestamp constructor used by JdbcAccountRepository.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.model.TransactionLoadBenchmark 1000000
+ */
+package com.bank.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.ToLongFunction;
+
+public class TransactionLoadBenchmark
+{
+    private static final DateTimeFormatter DB_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /* Stored spellings: display names as written by JdbcAccountRepository, enum names from older rows */
+    private static final String[] TYPE_NAMES = { "Deposit", "Withdraw", "Transfer", "DEPOSIT", "WITHDRAW", "TRANSFER" };
+
+    public static void main(String[] args)
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] timestamps = new String[rows];
+        String[] types = new String[rows];
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++)
+        {
+            String text = DB_FORMATTER.format(start.plusSeconds(i * 37L));
+            timestamps[i] = i % 2 == 0 ? text : text.replace(' ', 'T');
+            types[i] = TYPE_NAMES[i % TYPE_NAMES.length];
+        }
+
+        for (int round = 0; round < 2; round++)
+        {
+            boolean report = round == 1;        /* the first round only warms up the JIT */
+            run(report, "Timestamps, formatters + exception fallback", timestamps, TransactionLoadBenchmark::parseWithFormatters);
+            run(report, "Timestamps, TimestampParser               ", timestamps, TimestampParser::parseMicros);
+            run(report, "Types, linear equalsIgnoreCase scan       ", types, value -> scanTypes(value).ordinal());
+            run(report, "Types, lookup map                         ", types, value -> TransactionType.fromString(value).ordinal());
+            long begin = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < rows; i++)
+            {
+                checksum += new Transaction(Integer.toString(i), TransactionType.fromString(types[i]), i,
+                    timestamps[i], "Deposit to account ACC-C00001-1").getTimestampMicros();
+            }
+            report(report, "Full Transaction rows                     ", rows, System.nanoTime() - begin, checksum);
+        }
+    }
+
+    private static void run(boolean report, String label, String[] values, ToLongFunction<String> parser)
+    {
+        long begin = System.nanoTime();
+        long checksum = 0;
+        for (String value : values)
+        {
+            checksum += parser.applyAsLong(value);
+        }
+        report(report, label, values.length, System.nanoTime() - begin, checksum);
+    }
+
+    private static void report(boolean report, String label, int rows, long nanos, long checksum)
+    {
+        if (report)
+        {
+            System.out.printf("%s: %,d rows in %,d ms (%.0f ns/row, checksum %d)%n",
+                label, rows, nanos / 1_000_000, nanos / (double) rows, checksum % 1_000);
+        }
+    }
+
+    /* The parsing done by the Transaction constructor before TimestampParser */
+    private static long parseWithFormatters(String timestamp)
+    {
+        LocalDateTime parsed;
+        try
+        {
+            parsed = LocalDateTime.parse(timestamp, DB_FORMATTER);
+        }
+        catch (DateTimeParseException e1)
+        {
+            parsed = LocalDateTime.parse(timestamp, ISO_FORMATTER);
+        }
+        return Transaction.toEpochMicros(parsed);
+    }
+
+    /* TransactionType.fromString() before the lookup map */
+    private static TransactionType scanTypes(String value)
+    {
+        for (TransactionType type : TransactionType.values())
+        {
+            if (type.name().equalsIgnoreCase(value) || type.getDisplayName().equalsIgnoreCase(value))
+            {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant for value: " + value);
+    }
+}
@@ -204,4 +204,119 @@ public class TransactionTest
 
         assertEquals(-50.0, negativeTxn.getAmount(), "Negative amount is currently accepted at the Transaction level");
     }
-}
\ No newline at end of file
+
+    /* ---------------- Compact Layout ---------------- */
+
+    @Test
+    @DisplayName("Should keep numeric IDs as longs and give back textual IDs unchanged")
+    void testNumericAndTextualIds()
+    {
+        logger.info("Testing numeric and textual transaction IDs");
+        LocalDateTime time = LocalDateTime.of(2026, 3, 1, 10, 15, 30);
+
+        Transaction numeric = new Transaction("42", TransactionType.DEPOSIT, 10.0, time, "Numeric");
+        Transaction padded  = new Transaction("042", TransactionType.DEPOSIT, 10.0, time, "Padded");
+        Transaction uuid    = new Transaction("3f2c1a9e-0000-4000-8000-000000000001", TransactionType.DEPOSIT, 10.0, time, "UUID");
+
+        assertAll("IDs must round-trip exactly",
+            () -> assertEquals("42", numeric.getId()),
+            () -> assertEquals(42L, numeric.getNumericId()),
+            () -> assertEquals("042", padded.getId(), "A zero-padded ID must not be normalised"),
+            () -> assertEquals(-1L, padded.getNumericId()),
+            () -> assertEquals("3f2c1a9e-0000-4000-8000-000000000001", uuid.getId()),
+            () -> assertEquals(-1L, uuid.getNumericId())
+        );
+        assertThrows(IllegalArgumentException.class,
+            () -> new Transaction(-1L, TransactionType.DEPOSIT, 10.0, "Negative ID"));
+    }
+
+    @Test
+    @DisplayName("Should keep timestamps to the microsecond and share only type-label descriptions")
+    void testEpochTimestampsAndSharedLabels()
+    {
+        logger.info("Testing epoch-microsecond timestamps and type-label descriptions");
+        LocalDateTime time = LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_456_789);
+
+        Transaction txn = new Transaction(7L, TransactionType.WITHDRAW, 5.0,
+            Transaction.toEpochMicros(time), new String("Withdraw from account ACC-1"));
+
+        assertEquals(time.withNano(123_456_000), txn.getTimestamp(), "Timestamps must keep microsecond precision");
+        assertEquals("2026-03-01 10:15:30", txn.getTimestampAsString());
+        assertEquals("Withdraw from account ACC-1", txn.getDescription());
+
+        Transaction labelled = new Transaction(8L, TransactionType.DEPOSIT, 5.0, Transaction.toEpochMicros(time), new String("Deposit"));
+        assertSame(TransactionType.DEPOSIT.getDisplayName(), labelled.getDescription(), "Type labels must share one String");
+    }
+
+    @Test
+    @DisplayName("Should hand out IDs above an ID already in use")
+    void testGeneratorAdvancesPastUsedId()
+    {
+        logger.info("Testing TransactionIdGenerator.advancePast");
+        long used = TransactionIdGenerator.nextId() + 1_000_000;
+
+        TransactionIdGenerator.advancePast(used);
+        assertTrue(TransactionIdGenerator.nextId() > used, "Next ID must be above the used one");
+        long next = TransactionIdGenerator.nextId();
+        TransactionIdGenerator.advancePast(used);
+        assertTrue(TransactionIdGenerator.nextId() > next, "A lower used ID must never move the counter back");
+    }
+
+    @Test
+    @DisplayName("Should give account transactions increasing numeric IDs")
+    void testGeneratedIdsAreMonotonic()
+    {
+        logger.info("Testing generated transaction IDs");
+        SavingsAccount account = new SavingsAccount("ACC-C00001-1", "C00001");
+        account.deposit(100.0);
+        account.deposit(50.0);
+
+        long first = account.getTransactions().get(0).getNumericId();
+        long second = account.getTransactions().get(1).getNumericId();
+        assertTrue(first > 0, "Generated IDs must be numeric");
+        assertTrue(second > first, "Generated IDs must increase");
+        assertEquals(Long.toString(second), account.getTransactions().get(1).getId());
+    }
+
+    /* ---------------- Fast Parsing ---------------- */
+
+    @Test
+    @DisplayName("Should parse DB and ISO timestamps at fixed positions and resolve like the formatters did")
+    void testTimestampParser()
+    {
+        logger.info("Testing the fixed-position timestamp parser");
+        long expected = Transaction.toEpochMicros(LocalDateTime.of(2024, 2, 29, 23, 59, 59));
+
+        assertAll("Both separators and the formatters' resolution rules must be supported",
+            () -> assertEquals(expected, TimestampParser.parseMicros("2024-02-29 23:59:59")),
+            () -> assertEquals(expected, TimestampParser.parseMicros("2024-02-29T23:59:59")),
+            () -> assertEquals(Transaction.toEpochMicros(LocalDateTime.of(1969, 12, 31, 0, 0)),
+                               TimestampParser.parseMicros("1969-12-31 00:00:00"), "Dates before the epoch must be negative"),
+            () -> assertEquals(Transaction.toEpochMicros(LocalDateTime.of(2026, 2, 28, 10, 0)),
+                               TimestampParser.parseMicros("2026-02-30 10:00:00"), "Days past the month end move to its last day"),
+            () -> assertEquals(Transaction.toEpochMicros(LocalDateTime.of(2026, 1, 2, 0, 0)),
+                               TimestampParser.parseMicros("2026-01-01 24:00:00"), "24:00:00 is midnight of the next day")
+        );
+        for (String invalid : new String[] { null, "", "15/01/2024 10:30", "2024-01-15 10:30", "2024-01-15_10:30:00",
+                                             "2024-13-01 10:00:00", "2024-01-32 10:00:00", "2024-01-01 24:00:01", "2024-0a-01 10:00:00" })
+        {
+            assertEquals(TimestampParser.INVALID, TimestampParser.parseMicros(invalid), "Must reject: " + invalid);
+        }
+    }
+
+    @Test
+    @DisplayName("Should look up transaction types by name or display name in any case")
+    void testTransactionTypeLookup()
+    {
+        logger.info("Testing TransactionType.fromString lookups");
+
+        assertAll("Every spelling must resolve to the same constant",
+            () -> assertEquals(TransactionType.DEPOSIT,  TransactionType.fromString("Deposit")),
+            () -> assertEquals(TransactionType.DEPOSIT,  TransactionType.fromString("DEPOSIT")),
+            () -> assertEquals(TransactionType.WITHDRAW, TransactionType.fromString("withdraw")),
+            () -> assertEquals(TransactionType.TRANSFER, TransactionType.fromString("tRaNsFeR")),
+            () -> assertNull(TransactionType.fromString(null))
+        );
+        assertThrows(IllegalArgumentException.class, () -> TransactionType.fromString("Refund"));
+    }
+}
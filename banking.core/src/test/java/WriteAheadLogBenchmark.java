@@ -0,0 +1,72 @@
+/*
+ * Benchmark for JournaledBankService recovery time.
+ * Writes a log of N deposit/transfer entries on top of a small checkpoint, then measures how
+ * long JournaledBankService.open() takes to load the snapshot and replay the log.
+ * Run with: banking-app/scripts/run-benchmark.sh banking.core com.bank.service.WriteAheadLogBenchmark 1000000
+ */
+package com.bank.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class WriteAheadLogBenchmark
+{
+    private static final int ACCOUNTS = 1_000;
+
+    public static void main(String[] args) throws IOException
+    {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("wal-benchmark");
+        try
+        {
+            JournaledBankService service = JournaledBankService.open(directory);
+            service.createCustomer("C00001", "Benchmark Customer", "bench@bank.com", "01012345678");
+            for (int i = 0; i < ACCOUNTS; i++)
+            {
+                service.createAccount(accountId(i), "C00001", i % 2 == 0 ? "SAVINGS" : "CURRENT", 1_000.0);
+            }
+            service.checkpoint();
+
+            long writeStart = System.nanoTime();
+            for (int i = 0; i < entries; i++)
+            {
+                if (i % 4 == 3)
+                {
+                    service.transfer(accountId(i % ACCOUNTS), accountId((i + 1) % ACCOUNTS), 1.0);
+                }
+                else
+                {
+                    service.deposit(accountId(i % ACCOUNTS), 1.0);
+                }
+            }
+            long writeNanos = System.nanoTime() - writeStart;
+            service.closeWithoutCheckpoint();
+
+            long logBytes = Files.size(directory.resolve(JournaledBankService.LOG_FILE));
+            System.out.printf("Wrote %,d entries (%,d bytes) in %.1f s (%,.0f ops/s, one fsync per op when single-threaded)%n",
+                entries, logBytes, writeNanos / 1e9, entries / (writeNanos / 1e9));
+
+            long recoverStart = System.nanoTime();
+            JournaledBankService recovered = JournaledBankService.open(directory);
+            long recoverNanos = System.nanoTime() - recoverStart;
+            System.out.printf("Recovered %,d entries in %.2f s (%.2f s per million entries)%n",
+                recovered.getReplayedEntries(), recoverNanos / 1e9, recoverNanos / 1e9 / (entries / 1e6));
+            recovered.closeWithoutCheckpoint();
+        }
+        finally
+        {
+            try (Stream<Path> files = Files.walk(directory))
+            {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static String accountId(int index)
+    {
+        return String.format("ACC-C00001-%d", index + 1);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Unit tests for WriteAheadLog and JournaledBankService.
+ * Log and snapshot files are created in a temporary directory; the bank state is in memory.
+ * Implements test coverage for FR-05 to FR-07, FR-13 and FR-15 on the write-ahead-log engine.
+ */
+package com.bank.service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.model.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest
+{
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLogTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should replay entries in order and continue sequences after reopen")
+    void testAppendAndReplay() throws IOException
+    {
+        logger.info("Testing write-ahead log round trip");
+
+        Path file = tempDir.resolve("bank.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file))
+        {
+            log.append(WriteAheadLog.Operation.DEPOSIT, 150.5, "ACC-C00001-1");
+            log.append(WriteAheadLog.Operation.TRANSFER, 20.0, "ACC-C00001-1", "ACC-C00002-1");
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file))
+        {
+            List<WriteAheadLog.Entry> entries = new ArrayList<>();
+            log.replay(0, entries::add);
+
+            assertEquals(2, entries.size());
+            assertEquals(WriteAheadLog.Operation.DEPOSIT, entries.get(0).getOperation());
+            assertEquals(150.5, entries.get(0).getAmount(), 0.0001);
+            assertEquals("ACC-C00002-1", entries.get(1).getArgument(1));
+            assertEquals(3, log.append(WriteAheadLog.Operation.WITHDRAW, 1.0, "ACC-C00001-1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a torn entry at the end of the log")
+    void testTornTailIsTruncated() throws IOException
+    {
+        logger.info("Testing write-ahead log recovery after a torn write");
+
+        Path file = tempDir.resolve("bank.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file))
+        {
+            log.append(WriteAheadLog.Operation.DEPOSIT, 100.0, "ACC-C00001-1");
+        }
+
+        /* Simulate a crash in the middle of writing the next entry */
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+        {
+            channel.write(ByteBuffer.allocate(12).putInt(40).putInt(0x1234).putInt(7).flip());
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file))
+        {
+            assertEquals(1, log.getLastSequence(), "Torn entry must be discarded");
+            assertEquals(2, log.append(WriteAheadLog.Operation.DEPOSIT, 5.0, "ACC-C00001-1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover the bank state from the last checkpoint plus the log")
+    void testRecoveryFromCheckpointAndLog() throws IOException
+    {
+        logger.info("Testing JournaledBankService recovery");
+
+        JournaledBankService service = JournaledBankService.open(tempDir);
+        service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+        service.createAccount("ACC-C00001-2", "C00001", "CURRENT");
+        service.checkpoint();
+
+        service.deposit("ACC-C00001-1", 250.0);
+        service.transfer("ACC-C00001-1", "ACC-C00001-2", 400.0);
+        assertThrows(IllegalArgumentException.class, () -> service.withdraw("ACC-C00001-2", 5000.0));
+        service.closeWithoutCheckpoint();
+
+        try (JournaledBankService recovered = JournaledBankService.open(tempDir))
+        {
+            assertEquals(2, recovered.getReplayedEntries(), "Only successful entries after the checkpoint are replayed");
+            assertEquals(850.0, recovered.getAccountBalance("ACC-C00001-1"), 0.0001);
+            assertEquals(400.0, recovered.getAccountBalance("ACC-C00001-2"), 0.0001);
+            assertEquals(1, recovered.getAllCustomers().size());
+        }
+
+        try (JournaledBankService reopened = JournaledBankService.open(tempDir))
+        {
+            assertEquals(0, reopened.getReplayedEntries(), "close() must leave a checkpoint and an empty log");
+            assertEquals(850.0, reopened.getAccountBalance("ACC-C00001-1"), 0.0001);
+        }
+    }
+
+    @Test
+    @DisplayName("Should journal deposits folded by the hot-account stripes and the deposit batcher")
+    void testFoldedDepositsAreJournaled() throws IOException
+    {
+        logger.info("Testing recovery of deposits applied through applyDeposits");
+
+        JournaledBankService service = JournaledBankService.open(tempDir);
+        service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 100.0);
+        service.createAccount("ACC-C00001-2", "C00001", "CURRENT", 100.0);
+
+        try (HotAccountStripes stripes = new HotAccountStripes(service, 4, 2, 3_600_000))
+        {
+            stripes.markHot("ACC-C00001-1");
+            stripes.deposit("ACC-C00001-1", 10.0);
+            stripes.deposit("ACC-C00001-1", 5.5);
+        }
+        try (DepositBatcher batcher = new DepositBatcher(service))
+        {
+            batcher.deposit("ACC-C00001-2", 20.0);
+            batcher.deposit("ACC-C00001-2", 30.0).join();
+        }
+        service.closeWithoutCheckpoint();
+
+        try (JournaledBankService recovered = JournaledBankService.open(tempDir))
+        {
+            assertEquals(115.5, recovered.getAccountBalance("ACC-C00001-1"), 0.0001, "Folded stripes must be replayed");
+            assertEquals(150.0, recovered.getAccountBalance("ACC-C00001-2"), 0.0001, "Batched deposits must be replayed");
+            assertEquals(3, recovered.getAccount("ACC-C00001-1").getTransactions().size());
+            assertEquals(3, recovered.getAccount("ACC-C00001-2").getTransactions().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore idempotency keys logged since the last checkpoint")
+    void testIdempotencyKeysAreReplayed() throws IOException
+    {
+        logger.info("Testing keyed mutations across recovery");
+
+        JournaledBankService service = JournaledBankService.open(tempDir);
+        service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+        service.createAccount("ACC-C00001-2", "C00001", "CURRENT");
+        assertEquals(1250.0, service.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+        assertEquals(1250.0, service.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+        assertEquals(850.0, service.transfer("ACC-C00001-1", "ACC-C00001-2", 400.0, "tr-1"), 0.0001);
+        service.closeWithoutCheckpoint();
+
+        try (JournaledBankService recovered = JournaledBankService.open(tempDir))
+        {
+            assertEquals(850.0, recovered.getAccountBalance("ACC-C00001-1"), 0.0001, "The logged retry must not deposit twice");
+            assertEquals(1250.0, recovered.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+            assertEquals(850.0, recovered.transfer("ACC-C00001-1", "ACC-C00001-2", 400.0, "tr-1"), 0.0001);
+            assertEquals(400.0, recovered.getAccountBalance("ACC-C00001-2"), 0.0001);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep idempotency keys written before a checkpoint across a restart")
+    void testIdempotencyKeysSurviveCheckpoint() throws IOException
+    {
+        logger.info("Testing keyed mutations across a checkpoint and recovery");
+
+        try (JournaledBankService service = JournaledBankService.open(tempDir))
+        {
+            service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+            service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+            assertEquals(1250.0, service.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+            service.checkpoint();
+        }
+
+        try (JournaledBankService recovered = JournaledBankService.open(tempDir))
+        {
+            assertEquals(0, recovered.getReplayedEntries(), "The key must come from the snapshot, not the log");
+            assertEquals(1250.0, recovered.deposit("ACC-C00001-1", 250.0, "dep-1"), 0.0001);
+            assertEquals(1250.0, recovered.getAccountBalance("ACC-C00001-1"), 0.0001, "The retry must not deposit twice");
+            assertThrows(IllegalArgumentException.class, () -> recovered.deposit("ACC-C00001-1", 99.0, "dep-1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the sequence base when a crash interrupts a reset")
+    void testResetIsAtomic() throws IOException
+    {
+        logger.info("Testing write-ahead log reset");
+
+        Path file = tempDir.resolve("bank.wal");
+        try (WriteAheadLog log = new WriteAheadLog(file))
+        {
+            log.append(WriteAheadLog.Operation.DEPOSIT, 100.0, "ACC-C00001-1");
+            log.append(WriteAheadLog.Operation.DEPOSIT, 50.0, "ACC-C00001-1");
+            log.reset();
+            assertEquals(3, log.append(WriteAheadLog.Operation.DEPOSIT, 5.0, "ACC-C00001-1"));
+            log.reset();
+        }
+        assertFalse(Files.exists(tempDir.resolve("bank.wal.reset")), "The temporary log must be renamed over the log");
+
+        /* A crash before the rename leaves a partial temporary file next to the intact log */
+        Files.write(tempDir.resolve("bank.wal.reset"), new byte[] {0x42, 0x57});
+        try (WriteAheadLog log = new WriteAheadLog(file))
+        {
+            assertEquals(3, log.getLastSequence(), "Sequences must not restart below the last checkpoint");
+            assertEquals(4, log.append(WriteAheadLog.Operation.DEPOSIT, 1.0, "ACC-C00001-1"));
+        }
+        assertFalse(Files.exists(tempDir.resolve("bank.wal.reset")));
+    }
+
+    @Test
+    @DisplayName("Should replay transactions with their original IDs and timestamps")
+    void testReplayKeepsTransactionIds() throws IOException
+    {
+        logger.info("Testing that recovery restores the original transaction records");
+
+        JournaledBankService service = JournaledBankService.open(tempDir);
+        service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+        service.createAccount("ACC-C00001-2", "C00001", "CURRENT");
+        service.withdraw("ACC-C00001-1", 100.0);
+        service.transfer("ACC-C00001-1", "ACC-C00001-2", 400.0);
+        List<Transaction> source = service.getAccount("ACC-C00001-1").getTransactions();
+        List<Transaction> target = service.getAccount("ACC-C00001-2").getTransactions();
+        service.closeWithoutCheckpoint();
+
+        try (JournaledBankService recovered = JournaledBankService.open(tempDir))
+        {
+            List<Transaction> replayedSource = recovered.getAccount("ACC-C00001-1").getTransactions();
+            assertEquals(3, replayedSource.size());
+            for (int i = 0; i < source.size(); i++)
+            {
+                assertEquals(source.get(i).getId(), replayedSource.get(i).getId());
+                assertEquals(source.get(i).getTimestampMicros(), replayedSource.get(i).getTimestampMicros());
+                assertEquals(source.get(i).getDescription(), replayedSource.get(i).getDescription());
+            }
+            assertEquals(target.get(0).getId(), recovered.getAccount("ACC-C00001-2").getTransactions().get(0).getId());
+            assertEquals(500.0, recovered.getAccountBalance("ACC-C00001-1"), 0.0001);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail recovery on a log entry that cannot be applied")
+    void testUnappliableEntryFailsRecovery() throws IOException
+    {
+        logger.info("Testing that recovery does not skip inconsistent entries");
+
+        JournaledBankService service = JournaledBankService.open(tempDir);
+        service.createCustomer("C00001", "Hassan El-Hamrawy", "hassan@bank.com", "01012345678");
+        service.createAccount("ACC-C00001-1", "C00001", "SAVINGS", 1000.0);
+        service.closeWithoutCheckpoint();
+
+        /* An entry whose customer already exists cannot come from a consistent log */
+        try (WriteAheadLog log = new WriteAheadLog(tempDir.resolve(JournaledBankService.LOG_FILE)))
+        {
+            log.append(WriteAheadLog.Operation.CREATE_CUSTOMER, 0, "C00001", "Other", "other@bank.com", "01012345679");
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> JournaledBankService.open(tempDir));
+        assertTrue(e.getMessage().contains("entry 3"));
+    }
+}